@@ -34,6 +34,10 @@ import com.example.aieyes.R;
 import com.example.aieyes.utils.STTManager;
 import com.example.aieyes.utils.TTSManager;
 import com.example.aieyes.utils.VibrationHelper;
+import com.example.capstone_map.common.upload.AdaptiveJpegPolicy;
+import com.example.capstone_map.common.upload.FrameQualityScorer;
+import com.example.capstone_map.common.upload.LinkQualityEstimator;
+import com.example.capstone_map.common.upload.UploadMetricsListener;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import org.json.JSONException;
@@ -64,6 +68,21 @@ public class ReceiptActivity extends AppCompatActivity {
     private static final String SERVER_URL = "https://62b2d7a86c54.ngrok-free.app/api/receipt/process-receipt";
     private static final int CAMERA_PERMISSION_REQUEST_CODE = 101;
     private static final int AUDIO_PERMISSION_REQUEST_CODE = 102;
+    // 영수증 사진은 원본 해상도 q90에서 시작해, 업로드가 3초를 넘길 것 같으면 글자를 읽을 수 있는 선(1280px)까지 줄임
+    // 망 측정값은 화면을 다시 열어도 이어서 쓰도록 static으로 둠
+    private static final long UPLOAD_BUDGET_MS = 3000;
+    private static final LinkQualityEstimator uploadLink = new LinkQualityEstimator(0.3f);
+    private static final AdaptiveJpegPolicy uploadPolicy = new AdaptiveJpegPolicy(uploadLink, UPLOAD_BUDGET_MS,
+            new int[]{0, 90}, new int[]{2048, 85}, new int[]{1600, 80}, new int[]{1280, 75});
+    // 흔들렸거나 어두운 사진은 올리지 않고 0.5초 간격으로 두 번 더 찍어 가장 선명한 것을 씀
+    // 셋 다 기준 미달이면 서버에 보내지 않고 다시 촬영을 안내 (OCR 실패 왕복을 줄임)
+    private static final int MAX_EXTRA_CAPTURES = 2;
+    private static final long RETAKE_DELAY_MS = 500;
+    private static final int QUALITY_SAMPLE_SIDE = 320;
+    private final FrameQualityScorer captureQuality = new FrameQualityScorer(QUALITY_SAMPLE_SIDE, QUALITY_SAMPLE_SIDE, 40f, 120f);
+    private final int[] qualityPixels = new int[QUALITY_SAMPLE_SIDE * QUALITY_SAMPLE_SIDE];
+    private Bitmap bestCapture;          // cameraExecutor 전용
+    private float bestCaptureQuality;
 
     private PreviewView previewView;
     private ImageCapture imageCapture;
@@ -163,7 +182,12 @@ public class ReceiptActivity extends AppCompatActivity {
     }
 
     private void captureImage() {
+        captureImage(0);
+    }
+
+    private void captureImage(int attempt) {
         if (imageCapture == null) {
+            discardBestCapture();
             speakError("카메라 준비 중 오류가 발생했습니다.", sttRestartCallback); // 오류 발생 시에도 STT 재시작
             return;
         }
@@ -171,27 +195,78 @@ public class ReceiptActivity extends AppCompatActivity {
             @ExperimentalGetImage
             @Override
             public void onCaptureSuccess(@NonNull ImageProxy imageProxy) {
-                runOnUiThread(() -> {
-                    ttsManager.speak("촬영이 완료 되었습니다.", null); // ★수정: 여기서는 STT를 켜지 않음
-                    resultTextView.setText("분석을 기다리는 중...");
-                    instructionTextSmall.setText("");
-                });
                 Bitmap bitmap = imageProxyToBitmap(imageProxy);
                 imageProxy.close();
                 if (bitmap != null) {
-                    sendImageToServer(bitmap);
+                    onImageCaptured(bitmap, attempt);
                 } else {
+                    discardBestCapture();
                     speakError("이미지 변환에 실패했습니다. 다시 시도해주세요.", sttRestartCallback);
                 }
             }
             @Override
             public void onError(@NonNull ImageCaptureException exception) {
                 Log.e(TAG, "이미지 캡처 실패", exception);
+                discardBestCapture();
                 speakError("촬영에 실패했습니다. 다시 시도해주세요.", sttRestartCallback);
             }
         });
     }
 
+    /**
+     * 찍은 사진의 흐림/노출을 보고 보낼지, 다시 찍을지, 촬영을 다시 안내할지 정합니다. (cameraExecutor)
+     */
+    private void onImageCaptured(Bitmap bitmap, int attempt) {
+        float quality = scoreCapture(bitmap);
+        Log.d(TAG, "촬영 " + (attempt + 1) + "번째 품질: " + captureQuality);
+        if (bestCapture == null || quality > bestCaptureQuality) {
+            if (bestCapture != null) bestCapture.recycle();
+            bestCapture = bitmap;
+            bestCaptureQuality = quality;
+        } else {
+            bitmap.recycle();
+        }
+
+        if (!captureQuality.isGood(bestCaptureQuality) && attempt < MAX_EXTRA_CAPTURES) {
+            if (attempt == 0) {
+                runOnUiThread(() -> ttsManager.speak("사진이 흐립니다. 그대로 들고 계세요.", null));
+            }
+            delayHandler.postDelayed(() -> captureImage(attempt + 1), RETAKE_DELAY_MS);
+            return;
+        }
+
+        Bitmap chosen = bestCapture;
+        bestCapture = null;
+        if (!captureQuality.isUsable(bestCaptureQuality)) {
+            chosen.recycle();
+            speakError("사진이 흔들렸거나 너무 어둡습니다. 밝은 곳에서 영수증을 고정하고 다시 촬영해주세요.", sttRestartCallback);
+            return;
+        }
+        runOnUiThread(() -> {
+            ttsManager.speak("촬영이 완료 되었습니다.", null); // ★수정: 여기서는 STT를 켜지 않음
+            resultTextView.setText("분석을 기다리는 중...");
+            instructionTextSmall.setText("");
+        });
+        sendImageToServer(chosen);
+    }
+
+    /**
+     * 긴 변을 QUALITY_SAMPLE_SIDE로 줄여 점수를 냅니다.
+     */
+    private float scoreCapture(Bitmap bitmap) {
+        int width = AdaptiveJpegPolicy.scaledWidth(bitmap.getWidth(), bitmap.getHeight(), QUALITY_SAMPLE_SIDE);
+        int height = AdaptiveJpegPolicy.scaledHeight(bitmap.getWidth(), bitmap.getHeight(), QUALITY_SAMPLE_SIDE);
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, width, height, true);
+        small.getPixels(qualityPixels, 0, width, 0, 0, width, height);
+        if (small != bitmap) small.recycle();
+        return captureQuality.scoreArgb(qualityPixels, width, height);
+    }
+
+    private void discardBestCapture() {
+        if (bestCapture != null) bestCapture.recycle();
+        bestCapture = null;
+    }
+
     private void handleServerResponse(String responseBody) {
         try {
             JSONObject responseJson = new JSONObject(responseBody);
@@ -315,6 +390,7 @@ public class ReceiptActivity extends AppCompatActivity {
                 .connectTimeout(180, TimeUnit.SECONDS)
                 .readTimeout(180, TimeUnit.SECONDS)
                 .writeTimeout(180, TimeUnit.SECONDS)
+                .eventListenerFactory(UploadMetricsListener.factory(uploadLink))
                 .build();
     }
     
@@ -328,9 +404,15 @@ public class ReceiptActivity extends AppCompatActivity {
     }
 
     private void sendImageToServerWithRetry(Bitmap bitmap, int retryCount) {
+        AdaptiveJpegPolicy.Choice choice = uploadPolicy.choose(bitmap.getWidth(), bitmap.getHeight());
+        Bitmap scaled = choice.width == bitmap.getWidth() && choice.height == bitmap.getHeight()
+                ? bitmap : Bitmap.createScaledBitmap(bitmap, choice.width, choice.height, true);
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, stream);
+        scaled.compress(Bitmap.CompressFormat.JPEG, choice.quality, stream);
+        if (scaled != bitmap) scaled.recycle();  // 재시도할 때는 원본에서 다시 고름
         byte[] byteArray = stream.toByteArray();
+        uploadPolicy.recordEncoded(choice, choice.getPixels(), byteArray.length);
+        Log.d(TAG, "업로드 설정: " + choice + ", 실제 " + byteArray.length / 1024 + "KB / " + uploadLink);
         RequestBody requestBody = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
                 .addFormDataPart("image", "receipt.jpg", RequestBody.create(byteArray, MediaType.parse("image/jpeg")))
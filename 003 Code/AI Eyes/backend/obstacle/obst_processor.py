@@ -52,13 +52,36 @@ PROMPTS = {
     """
 }
 
-def analyze_obstacle_image(image_bytes: bytes, level: int = 2) -> dict:
-    """장애물 이미지를 받아 Gemini로 분석하고 결과를 반환합니다."""
+# 크롭을 함께 받았을 때 프롬프트 뒤에 붙이는 설명
+ROI_NOTE = """
+        # 입력 이미지 안내
+        - 첫 번째 이미지는 장면 전체를 작게 줄인 것입니다.
+        - 두 번째 이미지는 첫 번째 이미지의 {box} 영역(가로/세로 0~1 비율, 왼쪽·위·오른쪽·아래)을 원본 해상도로 잘라낸 것입니다.
+        - 휴대폰이 이 영역에서 '{label}'을(를) 감지했습니다. 이 물체의 위치와 위험도를 가장 먼저 설명하고, 나머지 장면은 첫 번째 이미지로 판단하세요.
+"""
+
+
+def _build_contents(image_bytes: bytes, level: int, crop_bytes: bytes = None,
+                    box: list = None, label: str = None) -> list:
+    """Gemini에 보낼 [프롬프트, 이미지(, 크롭)] 목록을 만듭니다."""
+    image = Image.open(io.BytesIO(image_bytes)).convert("RGB")
+    prompt = PROMPTS.get(level, PROMPTS[2])
+    if crop_bytes:
+        crop = Image.open(io.BytesIO(crop_bytes)).convert("RGB")
+        box_text = ", ".join(f"{v:.2f}" for v in box) if box else "표시되지 않은"
+        return [prompt + ROI_NOTE.format(box=box_text, label=label or "장애물"), image, crop]
+    return [prompt, image]
+
+
+def analyze_obstacle_image(image_bytes: bytes, level: int = 2, crop_bytes: bytes = None,
+                           box: list = None, label: str = None) -> dict:
+    """장애물 이미지를 받아 Gemini로 분석하고 결과를 반환합니다.
+    crop_bytes가 있으면 image_bytes는 장면 썸네일, crop_bytes는 box 영역의 고해상도 크롭으로 보고 함께 보냅니다.
+    """
     try:
-        image = Image.open(io.BytesIO(image_bytes)).convert("RGB")
-        prompt = PROMPTS.get(level, PROMPTS[2])
-        
-        response = model.generate_content([prompt, image], stream=False)
+        contents = _build_contents(image_bytes, level, crop_bytes, box, label)
+
+        response = model.generate_content(contents, stream=False)
         result_text = response.text
         
         print(f"Gemini Obstacle Analysis (Level {level}): {result_text}")
@@ -66,4 +89,20 @@ def analyze_obstacle_image(image_bytes: bytes, level: int = 2) -> dict:
 
     except Exception as e:
         print(f"Error during obstacle analysis: {e}")
-        return {"success": False, "error": str(e)}
\ No newline at end of file
+        return {"success": False, "error": str(e)}
+
+
+def stream_obstacle_analysis(image_bytes: bytes, level: int = 2, crop_bytes: bytes = None,
+                             box: list = None, label: str = None):
+    """analyze_obstacle_image와 같은 분석을 생성되는 대로 텍스트 조각 단위로 돌려주는 제너레이터입니다.
+    첫 문장이 만들어지자마자 휴대폰이 읽기 시작할 수 있도록 씁니다. 실패하면 예외를 그대로 올립니다.
+    """
+    contents = _build_contents(image_bytes, level, crop_bytes, box, label)
+    response = model.generate_content(contents, stream=True)
+    parts = []
+    for chunk in response:
+        text = chunk.text
+        if text:
+            parts.append(text)
+            yield text
+    print(f"Gemini Obstacle Analysis (Level {level}, stream): {''.join(parts)}")
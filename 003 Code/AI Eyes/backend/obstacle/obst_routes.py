@@ -1,8 +1,23 @@
-from flask import Blueprint, request, jsonify
+import base64
+import json
+
+from flask import Blueprint, Response, request, jsonify, stream_with_context
 from . import obst_processor as processor
 
 obstacle_bp = Blueprint('obstacle_bp', __name__)
 
+
+def _parse_box(value):
+    """"left,top,right,bottom" (0~1 정규화) 문자열 또는 리스트를 float 4개로 바꿉니다."""
+    if value is None or value == "":
+        return None
+    parts = value.split(",") if isinstance(value, str) else list(value)
+    box = [float(v) for v in parts]
+    if len(box) != 4 or not all(0.0 <= v <= 1.0 for v in box) or box[0] >= box[2] or box[1] >= box[3]:
+        raise ValueError(f"Invalid box: {value}")
+    return box
+
+
 @obstacle_bp.route('/analyze-obstacle', methods=['POST'])
 def analyze_obstacle_route():
     data = request.get_json()
@@ -14,7 +29,10 @@ def analyze_obstacle_route():
     
     try:
         image_data = base64.b64decode(base64_image)
-        result = processor.analyze_obstacle_image(image_data, level)
+        # 선택: 위험 객체 주변 크롭(base64) + 장면 기준 좌표 + 라벨
+        crop_data = base64.b64decode(data["crop"]) if data.get("crop") else None
+        box = _parse_box(data.get("box")) if crop_data else None
+        result = processor.analyze_obstacle_image(image_data, level, crop_data, box, data.get("label"))
         
         if result.get("success"):
             return jsonify(result)
@@ -22,4 +40,91 @@ def analyze_obstacle_route():
             return jsonify({"error": result.get("error")}), 500
             
     except Exception as e:
-        return jsonify({"error": f"Invalid image or processing error: {str(e)}"}), 400
\ No newline at end of file
+        return jsonify({"error": f"Invalid image or processing error: {str(e)}"}), 400
+
+
+def _read_binary_request():
+    """analyze-obstacle-binary / analyze-obstacle-stream 공통 요청 해석.
+    :return: ((image, level, crop, box, label), None) 또는 (None, 오류 응답)
+    """
+    crop_data = None
+    box = None
+    label = None
+    if 'image' in request.files:
+        image_data = request.files['image'].read()
+        level = request.form.get("level", request.args.get("level", 2))
+        if 'crop' in request.files:
+            crop_data = request.files['crop'].read() or None
+            label = request.form.get("label")
+            try:
+                box = _parse_box(request.form.get("box"))
+            except ValueError as e:
+                return None, (jsonify({"error": str(e)}), 400)
+    else:
+        image_data = request.get_data(cache=False)
+        level = request.args.get("level", 2)
+
+    if not image_data:
+        return None, (jsonify({"error": "No image data provided"}), 400)
+
+    try:
+        level = int(level)
+    except (TypeError, ValueError):
+        return None, (jsonify({"error": f"Invalid level: {level}"}), 400)
+
+    return (image_data, level, crop_data, box, label), None
+
+
+@obstacle_bp.route('/analyze-obstacle-binary', methods=['POST'])
+def analyze_obstacle_binary_route():
+    """JPEG 바이트를 base64/JSON 없이 그대로 받는 엔드포인트입니다.
+    - application/octet-stream: 요청 본문 전체가 JPEG, level은 쿼리 파라미터(?level=2)
+    - multipart/form-data: 'image' 파일 파트, level은 폼 필드 또는 쿼리 파라미터
+      선택: 'crop' 파일 파트(위험 객체 주변, 원본 해상도) + 'box'("l,t,r,b", image 기준 0~1) + 'label'
+    """
+    args, error = _read_binary_request()
+    if error:
+        return error
+
+    try:
+        result = processor.analyze_obstacle_image(*args)
+
+        if result.get("success"):
+            return jsonify(result)
+        else:
+            return jsonify({"error": result.get("error")}), 500
+
+    except Exception as e:
+        return jsonify({"error": f"Invalid image or processing error: {str(e)}"}), 400
+
+
+def _sse(payload: dict, event: str = None) -> str:
+    lines = f"event: {event}\n" if event else ""
+    return lines + f"data: {json.dumps(payload, ensure_ascii=False)}\n\n"
+
+
+@obstacle_bp.route('/analyze-obstacle-stream', methods=['POST'])
+def analyze_obstacle_stream_route():
+    """analyze-obstacle-binary와 같은 요청을 받아 결과를 Server-Sent Events로 생성되는 대로 보냅니다.
+    - data: {"delta": "..."}              텍스트 조각 (여러 번)
+    - event: done / data: {"result": ...}  전체 결과 (마지막 한 번)
+    - event: error / data: {"error": ...}  분석 도중 실패
+    """
+    args, error = _read_binary_request()
+    if error:
+        return error
+
+    def generate():
+        parts = []
+        try:
+            for text in processor.stream_obstacle_analysis(*args):
+                parts.append(text)
+                yield _sse({"delta": text})
+            yield _sse({"success": True, "result": "".join(parts)}, event="done")
+        except Exception as e:
+            print(f"Error during obstacle stream: {e}")
+            yield _sse({"error": str(e)}, event="error")
+
+    # 프록시가 모아서 보내지 않도록 버퍼링을 끔
+    return Response(stream_with_context(generate()), mimetype="text/event-stream",
+                    headers={"Cache-Control": "no-cache", "X-Accel-Buffering": "no"})
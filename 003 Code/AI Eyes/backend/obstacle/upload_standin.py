@@ -0,0 +1,158 @@
+# -*- coding: utf-8 -*-
+"""장애물 분석 업로드 방식 비교용 로컬 대역 서버
+
+Gemini를 부르지 않고, 받은 이미지 바이트의 SHA-256과 크기만 돌려줍니다.
+- POST /api/obstacle/analyze-obstacle        : 기존 방식 (JSON + base64)
+- POST /api/obstacle/analyze-obstacle-binary : 새 방식 (application/octet-stream 또는 multipart)
+
+같은 이미지를 두 방식으로 보내서
+1) 서버가 받은 바이트가 원본과 바이트 단위로 같은지
+2) 요청 크기와 왕복 시간이 얼마나 줄었는지
+를 확인합니다.
+
+사용법:
+    python upload_standin.py                       # 서버 + 비교 클라이언트를 한 번에 실행
+    python upload_standin.py --image ../test_data/unnamed.jpg --runs 50
+    python upload_standin.py --serve --port 5001   # 서버만 실행 (휴대폰에서 직접 붙여볼 때)
+"""
+
+import argparse
+import base64
+import hashlib
+import json
+import os
+import statistics
+import threading
+import time
+import urllib.request
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+JSON_PATH = "/api/obstacle/analyze-obstacle"
+BINARY_PATH = "/api/obstacle/analyze-obstacle-binary"
+DEFAULT_IMAGE = os.path.join(os.path.dirname(__file__), "..", "test_data", "unnamed.jpg")
+
+
+def _echo(image_bytes, level):
+    return {
+        "success": True,
+        "result": "stand-in",
+        "level": level,
+        "size": len(image_bytes),
+        "sha256": hashlib.sha256(image_bytes).hexdigest(),
+    }
+
+
+class StandInHandler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_POST(self):
+        url = urlparse(self.path)
+        length = int(self.headers.get("Content-Length", 0))
+        body = self.rfile.read(length)
+
+        try:
+            if url.path == JSON_PATH:
+                data = json.loads(body)
+                image_bytes = base64.b64decode(data["image"])
+                level = int(data.get("level", 2))
+            elif url.path == BINARY_PATH:
+                level = int(parse_qs(url.query).get("level", ["2"])[0])
+                image_bytes = body
+            else:
+                self._reply(404, {"error": "Not found"})
+                return
+        except Exception as e:
+            self._reply(400, {"error": f"Invalid request: {e}"})
+            return
+
+        self._reply(200, _echo(image_bytes, level))
+
+    def _reply(self, status, payload):
+        out = json.dumps(payload).encode("utf-8")
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(out)))
+        self.end_headers()
+        self.wfile.write(out)
+
+    def log_message(self, format, *args):
+        pass
+
+
+def _post(url, body, content_type):
+    request = urllib.request.Request(url, data=body, headers={"Content-Type": content_type}, method="POST")
+    start = time.perf_counter()
+    with urllib.request.urlopen(request) as response:
+        payload = json.loads(response.read())
+    return payload, (time.perf_counter() - start) * 1000.0
+
+
+def _send_json(base_url, jpeg, level):
+    # 앱의 bitmapToBase64 + JsonObject 경로와 같은 형태
+    body = json.dumps({"image": base64.b64encode(jpeg).decode("ascii"), "level": level}).encode("utf-8")
+    payload, ms = _post(base_url + JSON_PATH, body, "application/json")
+    return payload, ms, len(body)
+
+
+def _send_binary(base_url, jpeg, level):
+    payload, ms = _post(f"{base_url}{BINARY_PATH}?level={level}", jpeg, "application/octet-stream")
+    return payload, ms, len(jpeg)
+
+
+def compare(base_url, image_path, runs, level):
+    with open(image_path, "rb") as f:
+        jpeg = f.read()
+    expected = hashlib.sha256(jpeg).hexdigest()
+
+    print(f"이미지: {image_path} ({len(jpeg)} bytes)")
+    print(f"서버: {base_url}, 반복: {runs}회\n")
+
+    results = {}
+    for name, send in (("json+base64", _send_json), ("binary", _send_binary)):
+        latencies = []
+        request_bytes = 0
+        for _ in range(runs):
+            payload, ms, request_bytes = send(base_url, jpeg, level)
+            if payload.get("sha256") != expected or payload.get("size") != len(jpeg):
+                raise SystemExit(f"❌ {name}: 서버가 받은 바이트가 원본과 다릅니다. {payload}")
+            latencies.append(ms)
+        latencies.sort()
+        results[name] = (request_bytes, statistics.median(latencies), latencies[int(len(latencies) * 0.95) - 1])
+        print(f"✅ {name:12s} 바이트 일치 | 요청 {request_bytes:8d} bytes | "
+              f"p50 {results[name][1]:7.2f} ms | p95 {results[name][2]:7.2f} ms")
+
+    json_bytes, json_p50, _ = results["json+base64"]
+    bin_bytes, bin_p50, _ = results["binary"]
+    print(f"\n요청 크기 {100.0 * (1 - bin_bytes / json_bytes):.1f}% 감소, "
+          f"p50 지연 {json_p50 - bin_p50:+.2f} ms 차이 (json - binary)")
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--serve", action="store_true", help="비교 없이 서버만 실행")
+    parser.add_argument("--host", default="127.0.0.1")
+    parser.add_argument("--port", type=int, default=0, help="0이면 빈 포트 자동 선택")
+    parser.add_argument("--image", default=DEFAULT_IMAGE)
+    parser.add_argument("--runs", type=int, default=20)
+    parser.add_argument("--level", type=int, default=2)
+    args = parser.parse_args()
+
+    server = ThreadingHTTPServer((args.host, args.port), StandInHandler)
+    base_url = f"http://{args.host}:{server.server_address[1]}"
+
+    if args.serve:
+        print(f"대역 서버 실행 중: {base_url}")
+        server.serve_forever()
+        return
+
+    thread = threading.Thread(target=server.serve_forever, daemon=True)
+    thread.start()
+    try:
+        compare(base_url, args.image, args.runs, args.level)
+    finally:
+        server.shutdown()
+
+
+if __name__ == "__main__":
+    main()
@@ -39,6 +39,20 @@ android {
         targetCompatibility = JavaVersion.VERSION_17
     }
     kotlinOptions { jvmTarget = "17" }
+
+    // 녹화 프레임 재생 테스트(ReplayHarnessTest): -Preplay.dataset=... -Preplay.jniDir=... 로 넘김
+    // 시간/할당량 벤치마크(benchmark_*): -Pbenchmark=true 일 때만 실행
+    testOptions {
+        // PipelineTracer 등 SystemClock/Trace를 부르는 클래스를 JVM 테스트에서 쓸 수 있도록 (기본값 반환)
+        unitTests.isReturnDefaultValues = true
+        unitTests.all { test ->
+            listOf("replay.dataset", "replay.model", "replay.threads", "benchmark").forEach { key ->
+                project.findProperty(key)?.let { test.systemProperty(key, it) }
+            }
+            // Linux용 libtensorflowlite_jni.so가 있는 폴더
+            project.findProperty("replay.jniDir")?.let { test.systemProperty("java.library.path", it) }
+        }
+    }
 }
 
 dependencies {
@@ -79,6 +93,10 @@ dependencies {
     // --- ▲ 의존성 추가 끝 ▲ ---
 
     testImplementation(libs.junit)
+    // 재생 테스트에서 TFLite Interpreter를 JVM으로 돌릴 때 사용 (Task 라이브러리에는 Interpreter 구현이 없음)
+    testImplementation("org.tensorflow:tensorflow-lite:2.13.0")
+    // 경로 파서 비교 테스트(RouteStreamParserTest)에서 RouteJsonParser를 JVM으로 돌릴 때 사용 (android.jar의 org.json은 빈 껍데기)
+    testImplementation("org.json:json:20240303")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
@@ -3,11 +3,12 @@ package com.example.capstone_map.common.route;
 
 
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.skt.Tmap.TMapMarkerItem;
 import com.skt.Tmap.TMapPoint;
-import com.skt.Tmap.TMapPolyLine;
 import com.skt.Tmap.TMapView;
 
 import org.json.JSONException;
@@ -15,7 +16,6 @@ import org.json.JSONObject;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * 지도에 경로를 표시하는 클래스
@@ -33,9 +33,16 @@ public class MapRouteDisplayer {
     private static final String END_MARKER_ID = "end_marker";
 
     private TMapView tMapView;
+    // RouteCacheManager 콜백은 백그라운드 스레드에서 오므로 지도 조작은 메인 스레드로 넘김
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // displayRoute/clearRoute마다 증가. 늦게 도착한 이전 요청의 경로는 그리지 않음 (메인 스레드에서만 씀)
+    private int displayGeneration = 0;
+    // displayRoute로 지금 지도에 그려진 경로 (요약용)
+    private volatile ParsedRoute displayedRoute;
 
     public MapRouteDisplayer(TMapView tMapView) {
         this.tMapView = tMapView;
+        RouteCacheManager.init(tMapView.getContext());
     }
 
     /**
@@ -70,17 +77,21 @@ public class MapRouteDisplayer {
 
         // 기존 경로 지우기
         clearRoute();
+        int generation = displayGeneration;
 
         // 캐시된 경로가 있으면 바로 표시, 없으면 API 호출
-        RouteCacheManager.fetchRouteIfNeeded(
+        RouteCacheManager.fetchParsedRouteIfNeeded(
                 startX, startY, startName,
                 endX, endY, endName,
-                new JsonCallback() {
+                new ParsedRouteCallback() {
                     @Override
-                    public void onSuccess(JSONObject json) {
-                        try {
+                    public void onSuccess(ParsedRoute route) {
+                        mainHandler.post(() -> {
+                            if (generation != displayGeneration) return;  // 그 사이 다른 경로를 요청했거나 지움
+                            displayedRoute = route;
+
                             // 1. 경로 라인 그리기
-                            drawRouteLine(json, routeColor, routeWidth);
+                            drawRouteLine(route, routeColor, routeWidth);
 
                             // 2. 출발/도착 마커 표시
                             addStartEndMarkers(startX, startY, startName, endX, endY, endName);
@@ -89,10 +100,7 @@ public class MapRouteDisplayer {
                             adjustMapBounds(startX, startY, endX, endY);
 
                             Log.d(TAG, "경로 표시 완료");
-
-                        } catch (JSONException e) {
-                            Log.e(TAG, "경로 JSON 파싱 오류: " + e.getMessage());
-                        }
+                        });
                     }
 
                     @Override
@@ -104,13 +112,11 @@ public class MapRouteDisplayer {
     }
 
     /**
-     * JSON에서 파싱한 경로를 지도에 라인으로 그립니다
+     * 파싱한 경로를 지도에 라인으로 그립니다
      */
-    private void drawRouteLine(JSONObject routeJson, int color, float width) throws JSONException {
-        List<TMapPoint> routePoints = RouteJsonParser.parseToTMapPoints(routeJson);
-
-        if (!routePoints.isEmpty()) {
-            RouteLineDrawer.drawRouteLine(tMapView, routePoints, ROUTE_LINE_ID, color, width);
+    private void drawRouteLine(ParsedRoute route, int color, float width) {
+        if (!route.getGeometry().isEmpty()) {
+            RouteLineDrawer.drawRouteLine(tMapView, route, ROUTE_LINE_ID, color, width);
         }
     }
 
@@ -192,9 +198,12 @@ public class MapRouteDisplayer {
     }
 
     /**
-     * 지도에서 기존 경로와 마커들을 모두 제거합니다
+     * 지도에서 기존 경로와 마커들을 모두 제거합니다. (메인 스레드)
      */
     public void clearRoute() {
+        displayGeneration++;
+        displayedRoute = null;
+
         // 경로 라인 제거
         tMapView.removeTMapPolyLine(ROUTE_LINE_ID);
 
@@ -207,9 +216,14 @@ public class MapRouteDisplayer {
 
     /**
      * 현재 표시된 경로의 요약 정보를 가져옵니다
+     * displayRoute로 그린 경로가 있으면 그 경로, 아니면(displayFromPointFeatures 등) 마지막으로 받은 경로 JSON 기준
      * @return 거리와 시간 정보, 없으면 null
      */
     public RouteJsonParser.RouteSummary getRouteSummary() {
+        ParsedRoute route = displayedRoute;
+        if (route != null) {
+            return route.getSummary();
+        }
         JSONObject cachedRoute = RouteCacheManager.getCachedRoute();
         if (cachedRoute != null) {
             try {
@@ -245,38 +259,26 @@ public class MapRouteDisplayer {
 
 
 
-        // 4.폴리라인 인스턴스 생성
-        TMapPolyLine poly = new TMapPolyLine();
-        poly.setLineColor(DEFAULT_ROUTE_COLOR);
-        poly.setLineWidth(DEFAULT_ROUTE_WIDTH);
-
-        TMapPoint startPt = null, endPt = null;
-
-
-        //5. 포인트 순회 및 선 만들기
-        //각 Feature의 좌표가 Point면 → TMapPoint(lat, lon)으로 변환해 선에 추가.
+        // 4.경로 좌표 모으기
+        //각 Feature의 좌표가 Point면 → 위도/경도 배열(RouteGeometry)에 추가.
         //pointType이 "SP"면 시작점, "EP"면 끝점으로 기억.
+        RouteGeometry.Builder builder = new RouteGeometry.Builder(pointFeatures.size());
+        Coordinates.Point startPt = null, endPt = null;
+
         for (Feature f : pointFeatures) {
             Coordinates coords = f.getGeometry().getCoordinates();
             if (coords instanceof Coordinates.Point) {
                 Coordinates.Point p = (Coordinates.Point) coords;
-                TMapPoint tp = new TMapPoint(p.getLat(), p.getLon()); // (lat, lon)
-                poly.addLinePoint(tp);
+                builder.add(p.getLat(), p.getLon());
 
                 String ptType = f.getProperties().getPointType();
-                if ("SP".equals(ptType)) startPt = tp;
-                if ("EP".equals(ptType)) endPt = tp;
+                if ("SP".equals(ptType)) startPt = p;
+                if ("EP".equals(ptType)) endPt = p;
             }
         }
 
-
-
-
-        //6.지도에 선 올리기
-
-
-
-        tMapView.addTMapPolyLine(ROUTE_LINE_ID, poly);
+        //5.지도에 선 올리기 (TMapPoint 변환은 RouteLineDrawer에서)
+        RouteLineDrawer.drawRouteLine(tMapView, builder.build(), ROUTE_LINE_ID, DEFAULT_ROUTE_COLOR, DEFAULT_ROUTE_WIDTH);
 
         //        마커 & 화면 맞춤
         //        시작·끝 둘 다 있으면:
@@ -284,21 +286,21 @@ public class MapRouteDisplayer {
         //        adjustMapBounds(...)로 지도 중앙/줌 자동 조정
 
         if (startPt != null && endPt != null) {
-            addStartEndMarkers(startPt.getLongitude(), startPt.getLatitude(), "출발",
-                    endPt.getLongitude(),   endPt.getLatitude(),   "도착");
-            adjustMapBounds(startPt.getLongitude(), startPt.getLatitude(),
-                    endPt.getLongitude(),   endPt.getLatitude());
+            addStartEndMarkers(startPt.getLon(), startPt.getLat(), "출발",
+                    endPt.getLon(),   endPt.getLat(),   "도착");
+            adjustMapBounds(startPt.getLon(), startPt.getLat(),
+                    endPt.getLon(),   endPt.getLat());
         } else {
             // 시작점만 있으면 화면만 대충 맞추기
             if (startPt != null) {
-                tMapView.setCenterPoint(startPt.getLongitude(), startPt.getLatitude());
+                tMapView.setCenterPoint(startPt.getLon(), startPt.getLat());
                 tMapView.setZoomLevel(17);
             }
         }
     }
 
     /**
-     * 경로 캐시를 초기화합니다 (새로운 경로 요청 전에 호출)
+     * 경로 캐시를 초기화합니다 (메모리/디스크 모두)
      */
     public void clearRouteCache() {
         RouteCacheManager.clearCache();
@@ -0,0 +1,166 @@
+package com.example.capstone_map.common.route;
+
+import java.util.Locale;
+
+/**
+ * GPS 위치마다 경로에서 벗어났는지 판단하고, 재탐색을 한 번만 요청하게 합니다.
+ *
+ * - 거리: 경로까지 거리가 max(enterMeters, GPS 정확도)를 넘으면 이탈 의심, exitMeters 안으로 들어와야 복귀 (이력 현상)
+ * - 시간: 의심이 dwellMs 동안 끊김 없이 이어져야 이탈 확정. 걷는 방향이 경로 방향과 divergeDegrees 이상 다르면 fastDwellMs로 줄임
+ * - 방향: 경로 방향과 alignDegrees 안으로 같은 쪽으로 걷고 있고 아직 2 × enterMeters 안이면 의심하지 않음
+ *   (건너편 인도를 걷거나 GPS가 한쪽으로 쏠린 경우)
+ * - 정확도: maxAccuracyMeters보다 나쁜 위치는 판단에 쓰지 않음. 건물 사이에서 위치가 튀어 재탐색이 쏟아지는 것을 막음
+ * - 재탐색: 확정되면 REROUTE를 한 번 돌려주고, onRerouteFinished()가 불릴 때까지 더 요청하지 않음.
+ *   실패했으면 minRerouteIntervalMs 뒤에 다시 요청할 수 있음
+ *
+ * 거리는 칼만 필터를 거친 위치로 잰 값을 넘깁니다. 시각은 elapsedRealtime 기준이고, 위치 콜백(메인 스레드)에서만 부릅니다.
+ */
+public class OffRouteDetector {
+
+    public enum Decision {
+        /** 할 일 없음 */
+        NONE,
+        /** 이탈 확정 → 현재 위치에서 재탐색 요청 */
+        REROUTE,
+        /** 이탈했다가 원래 경로로 돌아옴 */
+        BACK_ON_ROUTE
+    }
+
+    public enum State {
+        ON_ROUTE, SUSPECT, OFF_ROUTE, REROUTING
+    }
+
+    private final double enterMeters;
+    private final double exitMeters;
+    private final long dwellMs;
+    private final long fastDwellMs;
+    private final double alignDegrees;
+    private final double divergeDegrees;
+    private final float maxAccuracyMeters;
+    private final long minRerouteIntervalMs;
+
+    private State state = State.ON_ROUTE;
+    private long suspectSinceMs;
+    private boolean diverging;
+    private long lastRerouteAtMs = Long.MIN_VALUE;
+
+    private long poorFixes = 0;
+    private long reroutes = 0;
+    private long falseAlarms = 0;
+
+    public OffRouteDetector(double enterMeters, double exitMeters, long dwellMs, long fastDwellMs,
+                            double alignDegrees, double divergeDegrees,
+                            float maxAccuracyMeters, long minRerouteIntervalMs) {
+        this.enterMeters = enterMeters;
+        this.exitMeters = exitMeters;
+        this.dwellMs = dwellMs;
+        this.fastDwellMs = fastDwellMs;
+        this.alignDegrees = alignDegrees;
+        this.divergeDegrees = divergeDegrees;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+        this.minRerouteIntervalMs = minRerouteIntervalMs;
+    }
+
+    /** 보행 기본값: 20m/10m, 8초(방향이 다르면 4초), 정확도 25m, 재탐색 간격 30초 */
+    public OffRouteDetector() {
+        this(20, 10, 8000, 4000, 30, 60, 25f, 30_000);
+    }
+
+    /**
+     * @param distanceToRoute 경로까지 거리 (m)
+     * @param accuracyMeters GPS 정확도 (m)
+     * @param headingDegrees 걷는 방향 (GPS bearing). 모르면 NaN
+     * @param routeBearingDegrees 가장 가까운 구간의 방향. 모르면 NaN
+     */
+    public Decision onFix(long nowMs, double distanceToRoute, float accuracyMeters,
+                          double headingDegrees, double routeBearingDegrees) {
+        if (!(accuracyMeters <= maxAccuracyMeters) || Double.isNaN(distanceToRoute)) {
+            poorFixes++;
+            return Decision.NONE;
+        }
+
+        double headingDiff = angleDiff(headingDegrees, routeBearingDegrees);
+        boolean aligned = headingDiff <= alignDegrees;
+        boolean away = distanceToRoute > Math.max(enterMeters, accuracyMeters)
+                && !(aligned && distanceToRoute < 2 * enterMeters);
+        boolean back = distanceToRoute < exitMeters;
+
+        switch (state) {
+            case ON_ROUTE:
+                if (away) {
+                    state = State.SUSPECT;
+                    suspectSinceMs = nowMs;
+                    diverging = headingDiff >= divergeDegrees;
+                }
+                return Decision.NONE;
+
+            case SUSPECT:
+                if (!away) {
+                    // 한 번이라도 기준 안쪽이면 의심을 거둠 (다음에 벗어나면 타이머를 처음부터)
+                    state = State.ON_ROUTE;
+                    falseAlarms++;
+                    return Decision.NONE;
+                }
+                diverging |= headingDiff >= divergeDegrees;
+                if (nowMs - suspectSinceMs < (diverging ? fastDwellMs : dwellMs)) return Decision.NONE;
+                state = State.OFF_ROUTE;
+                return tryReroute(nowMs);
+
+            case OFF_ROUTE:
+                if (back) {
+                    state = State.ON_ROUTE;
+                    return Decision.BACK_ON_ROUTE;
+                }
+                // 복귀 기준과 이탈 기준 사이(또는 나란히 걷는 중)면 다시 요청하지 않고 기다림
+                return away ? tryReroute(nowMs) : Decision.NONE;
+
+            case REROUTING:
+            default:
+                // 새 경로를 기다리는 동안에는 더 요청하지 않음 (예전 경로로 계속 안내)
+                return Decision.NONE;
+        }
+    }
+
+    private Decision tryReroute(long nowMs) {
+        if (lastRerouteAtMs != Long.MIN_VALUE && nowMs - lastRerouteAtMs < minRerouteIntervalMs) {
+            return Decision.NONE;
+        }
+        state = State.REROUTING;
+        lastRerouteAtMs = nowMs;
+        reroutes++;
+        return Decision.REROUTE;
+    }
+
+    /**
+     * 재탐색 결과. 성공하면 새 경로 기준으로 처음부터, 실패하면 예전 경로를 계속 쓰며 간격을 두고 다시 시도합니다.
+     */
+    public void onRerouteFinished(boolean success) {
+        if (state != State.REROUTING) return;
+        state = success ? State.ON_ROUTE : State.OFF_ROUTE;
+    }
+
+    /** 새 경로로 처음 안내를 시작할 때 */
+    public void reset() {
+        state = State.ON_ROUTE;
+        lastRerouteAtMs = Long.MIN_VALUE;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isRerouting() {
+        return state == State.REROUTING;
+    }
+
+    /** 0~180도. 하나라도 모르면 NaN */
+    private static double angleDiff(double a, double b) {
+        return Math.abs(((a - b) % 360 + 540) % 360 - 180);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "상태 %s, 재탐색 %d회, 오경보 %d회, 정확도 불량으로 건너뜀 %d회",
+                state, reroutes, falseAlarms, poorFixes);
+    }
+}
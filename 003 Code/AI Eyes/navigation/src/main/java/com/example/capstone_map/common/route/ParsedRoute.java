@@ -0,0 +1,136 @@
+package com.example.capstone_map.common.route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TMap 보행자 경로 응답을 한 번 읽어 만든 결과입니다. (RouteStreamParser)
+ *
+ * - 경로 선: LineString 좌표를 순서대로 이어 붙인 RouteGeometry (RouteJsonParser.parseToLatLonList와 같은 순서, 연속 중복 좌표는 하나만)
+ * - 안내 지점: Point feature의 좌표, turnType, pointIndex, 안내 문구
+ * - 안내 문구: description이 있는 모든 feature의 문구 (parseToDescriptions와 같음)
+ * - 요약: 출발점(SP)의 총 거리/시간
+ *
+ * 만든 뒤에는 바뀌지 않으므로 여러 스레드에서 같이 읽어도 됩니다.
+ */
+public class ParsedRoute {
+
+    private final RouteGeometry geometry;
+
+    private final double[] maneuverLatitudes;
+    private final double[] maneuverLongitudes;
+    private final int[] maneuverTurnTypes;
+    private final int[] maneuverPointIndexes;
+    private final String[] maneuverDescriptions;
+
+    private final List<String> descriptions;
+    private final RouteJsonParser.RouteSummary summary;
+
+    private ParsedRoute(Builder b) {
+        geometry = b.geometry.build();
+        maneuverLatitudes = Arrays.copyOf(b.maneuverLatitudes, b.maneuverCount);
+        maneuverLongitudes = Arrays.copyOf(b.maneuverLongitudes, b.maneuverCount);
+        maneuverTurnTypes = Arrays.copyOf(b.maneuverTurnTypes, b.maneuverCount);
+        maneuverPointIndexes = Arrays.copyOf(b.maneuverPointIndexes, b.maneuverCount);
+        maneuverDescriptions = Arrays.copyOf(b.maneuverDescriptions, b.maneuverCount);
+        descriptions = Collections.unmodifiableList(b.descriptions);
+        summary = b.summary != null ? b.summary : new RouteJsonParser.RouteSummary(0, 0);
+    }
+
+    /** 안내 지점(Point feature) 수 */
+    public int getManeuverCount() {
+        return maneuverLatitudes.length;
+    }
+
+    public double getManeuverLatitude(int i) {
+        return maneuverLatitudes[i];
+    }
+
+    public double getManeuverLongitude(int i) {
+        return maneuverLongitudes[i];
+    }
+
+    /** 없으면 -1 */
+    public int getManeuverTurnType(int i) {
+        return maneuverTurnTypes[i];
+    }
+
+    /** 없으면 -1 */
+    public int getManeuverPointIndex(int i) {
+        return maneuverPointIndexes[i];
+    }
+
+    /** 없으면 빈 문자열 */
+    public String getManeuverDescription(int i) {
+        return maneuverDescriptions[i];
+    }
+
+    public List<String> getDescriptions() {
+        return descriptions;
+    }
+
+    public RouteJsonParser.RouteSummary getSummary() {
+        return summary;
+    }
+
+    /** 연속 중복 좌표를 뺀 경로 선 */
+    public RouteGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * 파서가 feature를 읽는 대로 채웁니다. 배열은 두 배씩 늘립니다.
+     */
+    static class Builder {
+        private final RouteGeometry.Builder geometry = new RouteGeometry.Builder(256);
+
+        private double[] maneuverLatitudes = new double[32];
+        private double[] maneuverLongitudes = new double[32];
+        private int[] maneuverTurnTypes = new int[32];
+        private int[] maneuverPointIndexes = new int[32];
+        private String[] maneuverDescriptions = new String[32];
+        private int maneuverCount = 0;
+
+        private final List<String> descriptions = new ArrayList<>();
+        private RouteJsonParser.RouteSummary summary;
+
+        void addPoint(double lat, double lon) {
+            geometry.add(lat, lon);
+        }
+
+        void addManeuver(double lat, double lon, int turnType, int pointIndex, String description) {
+            if (maneuverCount == maneuverLatitudes.length) {
+                int size = maneuverCount * 2;
+                maneuverLatitudes = Arrays.copyOf(maneuverLatitudes, size);
+                maneuverLongitudes = Arrays.copyOf(maneuverLongitudes, size);
+                maneuverTurnTypes = Arrays.copyOf(maneuverTurnTypes, size);
+                maneuverPointIndexes = Arrays.copyOf(maneuverPointIndexes, size);
+                maneuverDescriptions = Arrays.copyOf(maneuverDescriptions, size);
+            }
+            maneuverLatitudes[maneuverCount] = lat;
+            maneuverLongitudes[maneuverCount] = lon;
+            maneuverTurnTypes[maneuverCount] = turnType;
+            maneuverPointIndexes[maneuverCount] = pointIndex;
+            maneuverDescriptions[maneuverCount] = description != null ? description : "";
+            maneuverCount++;
+        }
+
+        void addDescription(String description) {
+            descriptions.add(description);
+        }
+
+        boolean hasSummary() {
+            return summary != null;
+        }
+
+        void setSummary(int totalDistance, int totalTime) {
+            summary = new RouteJsonParser.RouteSummary(totalDistance, totalTime);
+        }
+
+        ParsedRoute build() {
+            return new ParsedRoute(this);
+        }
+    }
+}
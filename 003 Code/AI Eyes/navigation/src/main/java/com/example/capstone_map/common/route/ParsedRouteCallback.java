@@ -0,0 +1,6 @@
+package com.example.capstone_map.common.route;
+
+public interface ParsedRouteCallback {
+    void onSuccess(ParsedRoute route); // 응답을 한 번만 읽어 만든 결과
+    void onFailure(String errorMessage);
+}
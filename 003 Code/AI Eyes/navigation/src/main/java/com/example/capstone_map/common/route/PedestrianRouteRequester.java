@@ -23,6 +23,51 @@ public class PedestrianRouteRequester {
             double startX, double startY, String startName,
             double endX, double endY, String endName,
             JsonCallback callback
+    ) {
+        requestPedestrianRoute(startX, startY, startName, endX, endY, endName, "0", callback);
+    }
+
+    /**
+     * @param searchOption TMap 경로 탐색 옵션 ("0": 추천, "4": 추천+대로우선, "10": 최단, "30": 최단+계단제외)
+     */
+    public static void requestPedestrianRoute(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            String searchOption,
+            JsonCallback callback
+    ) {
+        requestPedestrianRouteBody(startX, startY, startName, endX, endY, endName, searchOption, new BodyCallback() {
+            @Override
+            public void onBody(String body) {
+                try {
+                    JSONObject json = new JSONObject(body);
+                    callback.onSuccess(json);  // JSON 객체로 넘김
+
+                } catch (JSONException e) { // JSON예외가 발생할 수 있다.
+                    callback.onFailure("JSON 파싱 오류: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                callback.onFailure(errorMessage);
+            }
+        });
+    }
+
+    /**
+     * 응답 본문을 문자열 그대로 받습니다. (캐시에 그대로 저장하거나 RouteStreamParser로 읽을 때)
+     */
+    public interface BodyCallback {
+        void onBody(String body);
+        void onFailure(String errorMessage);
+    }
+
+    public static void requestPedestrianRouteBody(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            String searchOption,
+            BodyCallback callback
     ) {
         try {
             JSONObject body = new JSONObject();
@@ -33,7 +78,7 @@ public class PedestrianRouteRequester {
             body.put("reqCoordType", "WGS84GEO");
             body.put("startName", URLEncoder.encode(startName, "UTF-8"));
             body.put("endName", URLEncoder.encode(endName, "UTF-8"));
-            body.put("searchOption", "0");
+            body.put("searchOption", searchOption);
             body.put("resCoordType", "WGS84GEO");
             body.put("sort", "index");
 
@@ -63,14 +108,7 @@ public class PedestrianRouteRequester {
                         return;
                     }
 
-                    try {
-                        String jsonString = response.body().string();
-                        JSONObject json = new JSONObject(jsonString);
-                        callback.onSuccess(json);  // JSON 객체로 넘김
-
-                    } catch (JSONException e) { // JSON예외가 발생할 수 있다.
-                        callback.onFailure("JSON 파싱 오류: " + e.getMessage());
-                    }
+                    callback.onBody(response.body().string());
                 }
 
             });
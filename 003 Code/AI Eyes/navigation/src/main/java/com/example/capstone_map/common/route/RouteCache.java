@@ -0,0 +1,221 @@
+package com.example.capstone_map.common.route;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 경로 응답(JSON 문자열)을 출발/도착 좌표와 searchOption으로 찾는 2단 캐시입니다.
+ *
+ * - 키: 좌표를 quantumDeg 격자로 반올림한 값 + searchOption. GPS 흔들림 정도로 출발점이 달라져도 같은 경로를 씁니다.
+ * - 메모리: 최근에 쓴 순서(LRU)로 maxEntries개까지
+ * - 디스크: 디렉터리에 키 이름의 파일로 저장. 앱이 죽었다 살아나도 남아 있고, maxDiskEntries개를 넘으면 오래된 것부터 지웁니다.
+ * 두 단 모두 저장한 지 ttlMs가 지나면 쓰지 않고 지웁니다.
+ *
+ * 디스크를 읽고 쓰므로 메인 스레드에서 부르지 않습니다. 여러 스레드에서 불러도 되도록 동기화합니다.
+ */
+public class RouteCache {
+
+    private static final String FILE_SUFFIX = ".json";
+
+    private final File dir;
+    private final double quantumDeg;
+    private final int maxEntries;
+    private final int maxDiskEntries;
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long expired = 0;
+
+    private static class Entry {
+        final String json;
+        final long savedAt;
+
+        Entry(String json, long savedAt) {
+            this.json = json;
+            this.savedAt = savedAt;
+        }
+    }
+
+    /**
+     * @param dir 디스크 단 디렉터리. null이면 메모리만 씀
+     * @param quantumDeg 좌표 격자 크기 (도). 0.0002도 ≈ 20m
+     */
+    public RouteCache(File dir, double quantumDeg, int maxEntries, int maxDiskEntries, long ttlMs) {
+        this.dir = dir;
+        this.quantumDeg = quantumDeg;
+        this.maxEntries = maxEntries;
+        this.maxDiskEntries = maxDiskEntries;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 좌표는 TMap 순서(X=경도, Y=위도). 파일 이름으로도 쓰므로 숫자, '_', '-'만 들어갑니다.
+     */
+    public String keyOf(double startX, double startY, double endX, double endY, String searchOption) {
+        String option = searchOption == null ? "0" : searchOption.replaceAll("[^0-9A-Za-z]", "");
+        return String.format(Locale.US, "%d_%d_%d_%d_%s",
+                quantize(startX), quantize(startY), quantize(endX), quantize(endY), option);
+    }
+
+    private long quantize(double degrees) {
+        return Math.round(degrees / quantumDeg);
+    }
+
+    /**
+     * @return 저장된 JSON 문자열. 없거나 TTL이 지났으면 null
+     */
+    public synchronized String get(String key, long nowMs) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            if (nowMs - entry.savedAt < ttlMs) {
+                memoryHits++;
+                return entry.json;
+            }
+            memory.remove(key);
+            deleteFile(key);
+            expired++;
+            misses++;
+            return null;
+        }
+
+        File file = fileOf(key);
+        if (file != null && file.isFile()) {
+            long savedAt = file.lastModified();
+            if (nowMs - savedAt < ttlMs) {
+                try {
+                    String json = readFile(file);
+                    putMemory(key, new Entry(json, savedAt));
+                    diskHits++;
+                    return json;
+                } catch (IOException e) {
+                    // 깨진 파일은 지우고 새로 받음
+                    file.delete();
+                }
+            } else {
+                file.delete();
+                expired++;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * 메모리와 디스크에 함께 저장합니다. 디스크 쓰기에 실패해도 메모리 단은 유지합니다.
+     */
+    public synchronized void put(String key, String json, long nowMs) {
+        putMemory(key, new Entry(json, nowMs));
+        File file = fileOf(key);
+        if (file == null) return;
+        try {
+            writeFile(file, json, nowMs);
+            trimDisk();
+        } catch (IOException e) {
+            file.delete();
+        }
+    }
+
+    public synchronized void remove(String key) {
+        memory.remove(key);
+        deleteFile(key);
+    }
+
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = listCacheFiles();
+        for (File file : files) file.delete();
+    }
+
+    private void putMemory(String key, Entry entry) {
+        memory.put(key, entry);
+        Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+        while (memory.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private File fileOf(String key) {
+        return dir == null ? null : new File(dir, key + FILE_SUFFIX);
+    }
+
+    private void deleteFile(String key) {
+        File file = fileOf(key);
+        if (file != null) file.delete();
+    }
+
+    private File[] listCacheFiles() {
+        if (dir == null) return new File[0];
+        File[] files = dir.listFiles((d, name) -> name.endsWith(FILE_SUFFIX));
+        return files == null ? new File[0] : files;
+    }
+
+    private void trimDisk() {
+        File[] files = listCacheFiles();
+        if (files.length <= maxDiskEntries) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - maxDiskEntries; i++) files[i].delete();
+    }
+
+    /** 임시 파일에 쓴 뒤 이름을 바꿔, 쓰다가 죽어도 반쯤 쓴 파일이 남지 않게 합니다 */
+    private void writeFile(File file, String json, long savedAt) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("디렉터리 생성 실패: " + dir);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        tmp.setLastModified(savedAt);
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("파일 이름 변경 실패: " + file);
+        }
+    }
+
+    private static String readFile(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) throw new IOException("파일이 잘림: " + file);
+                read += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = memoryHits + diskHits + misses;
+        float hitRate = lookups > 0 ? (memoryHits + diskHits) * 100f / lookups : 0f;
+        return String.format(Locale.US, "메모리 적중 %d, 디스크 적중 %d, 실패 %d (만료 %d), 적중률 %.0f%%, 메모리 %d개",
+                memoryHits, diskHits, misses, expired, hitRate, memory.size());
+    }
+}
@@ -1,65 +1,236 @@
 package com.example.capstone_map.common.route;
 
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class RouteCacheManager {
 
-    // 👉 경로 JSON 캐시 (앱이 켜져 있는 동안 유지됨)
-    private static JSONObject cachedRouteJson = null; //얘가 static이당
+    private static final String TAG = "RouteCacheManager";
+
+    public static final String DEFAULT_SEARCH_OPTION = "0";
+
+    // 좌표 격자 0.0002도(약 20m): 매일 같은 출발/도착이면 GPS가 조금 흔들려도 같은 경로로 봄
+    private static final double KEY_QUANTUM_DEG = 0.0002;
+    private static final int MAX_MEMORY_ENTRIES = 16;
+    private static final int MAX_DISK_ENTRIES = 64;
+    private static final long TTL_MS = 3L * 24 * 60 * 60 * 1000;  // 3일. 공사 등으로 길이 바뀌는 것 반영
+
+    // 👉 init() 전에는 메모리만 씀. init() 뒤에는 앱이 다시 켜져도 디스크에 남아 있음
+    private static RouteCache cache = newCache(null);
+    private static boolean diskEnabled = false;
+
+    // 캐시 조회(디스크 읽기)는 메인 스레드 밖에서
+    private static final ExecutorService lookupExecutor = Executors.newSingleThreadExecutor();
+
+    // 마지막으로 넘겨준 경로 (화면에 표시 중인 경로 요약용)
+    private static volatile JSONObject lastRouteJson = null;
+
+    private static RouteCache newCache(File dir) {
+        return new RouteCache(dir, KEY_QUANTUM_DEG, MAX_MEMORY_ENTRIES, MAX_DISK_ENTRIES, TTL_MS);
+    }
 
     /**
-     * 보행자 경로를 요청하거나, 캐시된 JSON을 재사용합니다.
+     * 디스크 캐시를 켭니다. 여러 번 불러도 처음 한 번만 적용됩니다.
+     */
+    public static synchronized void init(Context context) {
+        if (diskEnabled) return;
+        cache = newCache(new File(context.getApplicationContext().getCacheDir(), "routes"));
+        diskEnabled = true;
+    }
+
+    /**
+     * 보행자 경로를 요청하거나, 캐시된 JSON을 재사용합니다. (추천 경로)
      * @param startX 출발 경도
      * @param startY 출발 위도
      * @param startName 출발지 이름
      * @param endX 도착 경도
      * @param endY 도착 위도
      * @param endName 도착지 이름
-     * @param callback JSON 응답 콜백 (onSuccess, onFailure)
+     * @param callback JSON 응답 콜백 (onSuccess, onFailure). 캐시든 네트워크든 백그라운드 스레드에서 불림
      */
     public static void fetchRouteIfNeeded(
             double startX, double startY, String startName,
             double endX, double endY, String endName,
             JsonCallback callback
     ) {
-        if (cachedRouteJson != null) {
-            callback.onSuccess(cachedRouteJson); // ✅ 캐시 재활용
-            return;
-        }
-
-        // 실제 API 호출
-        PedestrianRouteRequester.requestPedestrianRoute(
-                startX, startY, startName,
-                endX, endY, endName,
-                new JsonCallback() {
-                    @Override
-                    public void onSuccess(JSONObject json) {
-                        cachedRouteJson = json;        // ✅ 캐시에 저장
-                        callback.onSuccess(json);
-                    }
+        fetchRouteIfNeeded(startX, startY, startName, endX, endY, endName, DEFAULT_SEARCH_OPTION, callback);
+    }
 
-                    @Override
-                    public void onFailure(String errorMessage) {
-                        callback.onFailure(errorMessage);
+    /**
+     * 출발/도착 좌표와 searchOption이 같은 경로가 캐시에 있으면 재사용하고, 없으면 요청해서 저장합니다.
+     * @param searchOption TMap 경로 탐색 옵션 (PedestrianRouteRequester 참고)
+     */
+    public static void fetchRouteIfNeeded(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            String searchOption,
+            JsonCallback callback
+    ) {
+        fetchBody(startX, startY, startName, endX, endY, endName, searchOption, new BodyHandler<JSONObject>() {
+            @Override
+            public JSONObject parse(String body) throws JSONException {
+                return new JSONObject(body);
+            }
 
+            @Override
+            public boolean isCacheable(JSONObject json) {
+                return json.has("features"); // 에러 응답(features 없음)은 저장하지 않음
+            }
 
-                    }
+            @Override
+            public void onSuccess(JSONObject json) {
+                lastRouteJson = json;
+                callback.onSuccess(json); // ✅ 캐시 재활용
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                callback.onFailure(errorMessage);
+            }
+        });
+    }
+
+    /**
+     * fetchRouteIfNeeded와 같지만 JSONObject 대신 RouteStreamParser로 한 번에 읽은 ParsedRoute를 넘깁니다. (추천 경로)
+     */
+    public static void fetchParsedRouteIfNeeded(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            ParsedRouteCallback callback
+    ) {
+        fetchParsedRouteIfNeeded(startX, startY, startName, endX, endY, endName, DEFAULT_SEARCH_OPTION, callback);
+    }
+
+    public static void fetchParsedRouteIfNeeded(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            String searchOption,
+            ParsedRouteCallback callback
+    ) {
+        fetchBody(startX, startY, startName, endX, endY, endName, searchOption, new BodyHandler<ParsedRoute>() {
+            @Override
+            public ParsedRoute parse(String body) throws IOException {
+                return RouteStreamParser.parse(body); // features가 없으면 예외 → 저장 안 함
+            }
+
+            @Override
+            public boolean isCacheable(ParsedRoute route) {
+                return true;
+            }
+
+            @Override
+            public void onSuccess(ParsedRoute route) {
+                callback.onSuccess(route);
+            }
+
+            @Override
+            public void onFailure(String errorMessage) {
+                callback.onFailure(errorMessage);
+            }
+        });
+    }
+
+    /**
+     * 응답 본문을 읽는 쪽. parse()가 예외 없이 끝나고 isCacheable()이 true인 본문만 캐시에 저장합니다.
+     */
+    private interface BodyHandler<T> {
+        T parse(String body) throws Exception;
+        boolean isCacheable(T parsed);
+        void onSuccess(T parsed);
+        void onFailure(String errorMessage);
+    }
+
+    private static <T> void fetchBody(
+            double startX, double startY, String startName,
+            double endX, double endY, String endName,
+            String searchOption,
+            BodyHandler<T> handler
+    ) {
+        RouteCache routeCache = currentCache();
+        String key = routeCache.keyOf(startX, startY, endX, endY, searchOption);
+
+        lookupExecutor.execute(() -> {
+            String cached = routeCache.get(key, System.currentTimeMillis());
+            if (cached != null) {
+                T parsed = null;
+                try {
+                    parsed = handler.parse(cached);
+                } catch (Exception e) {
+                    // 깨진 항목은 지우고 새로 받음
+                    Log.w(TAG, "캐시 항목 읽기 실패 " + key + ": " + e.getMessage());
+                    routeCache.remove(key);
                 }
-        );
+                if (parsed != null) {
+                    Log.d(TAG, "캐시 적중 " + key + " / " + routeCache);
+                    handler.onSuccess(parsed);
+                    return;
+                }
+            }
+            Log.d(TAG, "캐시 없음 " + key + " → API 요청 / " + routeCache);
+
+            // 실제 API 호출. 본문 문자열을 그대로 저장 (JSONObject를 다시 문자열로 만들지 않음)
+            PedestrianRouteRequester.requestPedestrianRouteBody(
+                    startX, startY, startName,
+                    endX, endY, endName,
+                    searchOption,
+                    new PedestrianRouteRequester.BodyCallback() {
+                        @Override
+                        public void onBody(String body) {
+                            T parsed;
+                            try {
+                                parsed = handler.parse(body);
+                            } catch (Exception e) {
+                                handler.onFailure("JSON 파싱 오류: " + e.getMessage());
+                                return;
+                            }
+                            if (handler.isCacheable(parsed)) {
+                                routeCache.put(key, body, System.currentTimeMillis()); // ✅ 캐시에 저장
+                            }
+                            handler.onSuccess(parsed);
+                        }
+
+                        @Override
+                        public void onFailure(String errorMessage) {
+                            handler.onFailure(errorMessage);
+                        }
+                    }
+            );
+        });
+    }
+
+    private static synchronized RouteCache currentCache() {
+        return cache;
     }
 
     /**
-     * 이미 요청된 경로가 있다면 가져옵니다.
+     * 마지막으로 넘겨준 경로를 가져옵니다.
      * @return 캐시된 JSON 객체 (없으면 null)
      */
     public static JSONObject getCachedRoute() {
-        return cachedRouteJson;
+        return lastRouteJson;
+    }
+
+    /**
+     * 캐시 적중/실패 횟수 (로그용)
+     */
+    public static String getStats() {
+        return currentCache().toString();
     }
 
     /**
-     * 캐시를 초기화합니다 (예: 다른 경로 요청할 때)
+     * 캐시를 초기화합니다. 메모리와 디스크 모두 지웁니다.
      */
     public static void clearCache() {
-        cachedRouteJson = null;
+        lastRouteJson = null;
+        RouteCache routeCache = currentCache();
+        lookupExecutor.execute(routeCache::clear);
     }
 }
@@ -0,0 +1,167 @@
+package com.example.capstone_map.common.route;
+
+import java.util.Arrays;
+
+/**
+ * 경로 선(폴리라인)을 꼭짓점 객체 없이 위도/경도 double 배열로 들고 있는 불변 모델입니다.
+ *
+ * 만들 때 한 번
+ * - 출발점부터 각 꼭짓점까지 누적 거리(m)
+ * - 구간(i → i+1)마다 방위각(도, 북=0 시계방향)
+ * 을 계산해 두므로 진행률, 경로 이탈, 남은 거리/시간 계산에서 O(1)로 꺼내 씁니다.
+ * 연속으로 같은 좌표(LineString끼리 이어지는 점)는 하나만 남깁니다.
+ *
+ * TMapPoint로 바꾸는 일은 지도에 그릴 때(RouteLineDrawer)만 합니다.
+ */
+public class RouteGeometry {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] cumulativeMeters;
+    private final double[] segmentBearings;
+
+    private RouteGeometry(double[] latitudes, double[] longitudes) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        int n = latitudes.length;
+        cumulativeMeters = new double[n];
+        segmentBearings = new double[Math.max(0, n - 1)];
+        for (int i = 1; i < n; i++) {
+            cumulativeMeters[i] = cumulativeMeters[i - 1]
+                    + distanceMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+            segmentBearings[i - 1] = bearingDegrees(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+    }
+
+    /** 꼭짓점 수 */
+    public int size() {
+        return latitudes.length;
+    }
+
+    /** 구간 수 (꼭짓점 수 - 1, 꼭짓점이 없으면 0) */
+    public int segmentCount() {
+        return segmentBearings.length;
+    }
+
+    public boolean isEmpty() {
+        return latitudes.length == 0;
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    /** 출발점부터 꼭짓점 i까지 경로를 따라간 거리 (m) */
+    public double distanceFromStart(int i) {
+        return cumulativeMeters[i];
+    }
+
+    /** 구간 i(꼭짓점 i → i+1)의 길이 (m) */
+    public double segmentLength(int i) {
+        return cumulativeMeters[i + 1] - cumulativeMeters[i];
+    }
+
+    /** 구간 i의 방위각 (0~360도, 북=0 시계방향) */
+    public double segmentBearing(int i) {
+        return segmentBearings[i];
+    }
+
+    /** 전체 길이 (m) */
+    public double totalLength() {
+        return latitudes.length == 0 ? 0 : cumulativeMeters[latitudes.length - 1];
+    }
+
+    /** 경로 위 distanceFromStart 지점부터 도착까지 남은 거리 (m) */
+    public double remainingDistance(double distanceFromStart) {
+        return Math.max(0, totalLength() - distanceFromStart);
+    }
+
+    /**
+     * 출발점부터 거리 d(m)인 지점이 들어 있는 구간 번호. 이분 탐색 O(log n). 범위를 벗어나면 첫/마지막 구간
+     * @return 구간이 없으면 -1
+     */
+    public int segmentAtDistance(double d) {
+        int segments = segmentCount();
+        if (segments == 0) return -1;
+        int i = Arrays.binarySearch(cumulativeMeters, d);
+        if (i < 0) i = -i - 2;  // d보다 작은 마지막 꼭짓점
+        return Math.max(0, Math.min(segments - 1, i));
+    }
+
+    /**
+     * 출발점부터 거리 d(m)인 경로 위 지점을 out[0]=위도, out[1]=경도에 씁니다. (객체를 만들지 않음)
+     */
+    public void pointAtDistance(double d, double[] out) {
+        int s = segmentAtDistance(d);
+        if (s < 0) {
+            out[0] = latitudes.length > 0 ? latitudes[0] : Double.NaN;
+            out[1] = longitudes.length > 0 ? longitudes[0] : Double.NaN;
+            return;
+        }
+        double length = segmentLength(s);
+        double t = length > 0 ? (d - cumulativeMeters[s]) / length : 0;
+        t = Math.max(0, Math.min(1, t));
+        out[0] = latitudes[s] + (latitudes[s + 1] - latitudes[s]) * t;
+        out[1] = longitudes[s] + (longitudes[s + 1] - longitudes[s]) * t;
+    }
+
+    /** 두 지점 사이 거리 (m, haversine) */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /** 1 → 2 방향의 처음 방위각 (0~360도) */
+    public static double bearingDegrees(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double y = Math.sin(dLon) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLon);
+        return (Math.toDegrees(Math.atan2(y, x)) + 360) % 360;
+    }
+
+    /**
+     * 꼭짓점을 순서대로 넣어 만듭니다. 바로 앞과 같은 좌표는 건너뜁니다.
+     */
+    public static class Builder {
+        private double[] latitudes;
+        private double[] longitudes;
+        private int count = 0;
+
+        public Builder() {
+            this(64);
+        }
+
+        public Builder(int expectedSize) {
+            latitudes = new double[Math.max(2, expectedSize)];
+            longitudes = new double[Math.max(2, expectedSize)];
+        }
+
+        public Builder add(double lat, double lon) {
+            if (count > 0 && latitudes[count - 1] == lat && longitudes[count - 1] == lon) return this;
+            if (count == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, count * 2);
+                longitudes = Arrays.copyOf(longitudes, count * 2);
+            }
+            latitudes[count] = lat;
+            longitudes[count] = lon;
+            count++;
+            return this;
+        }
+
+        public RouteGeometry build() {
+            return new RouteGeometry(Arrays.copyOf(latitudes, count), Arrays.copyOf(longitudes, count));
+        }
+    }
+}
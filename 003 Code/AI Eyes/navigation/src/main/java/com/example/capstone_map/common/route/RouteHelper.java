@@ -1,46 +1,39 @@
 package com.example.capstone_map.common.route;
 
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
-import com.example.capstone_map.common.route.JsonCallback;
+import com.example.capstone_map.common.route.ParsedRoute;
+import com.example.capstone_map.common.route.ParsedRouteCallback;
 import com.example.capstone_map.common.route.RouteCacheManager;
-import com.example.capstone_map.common.route.RouteJsonParser;
 import com.example.capstone_map.common.route.RouteLineDrawer;
-import com.skt.Tmap.TMapPoint;
 import com.skt.Tmap.TMapView;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.util.List;
-
 public class RouteHelper {
 
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
     public static void drawWalkingRoute(TMapView tMapView,
                                         double startX, double startY, String startName,
                                         double endX, double endY, String endName) {
 
         // ❗ 변경: 요청 대신 캐시를 먼저 확인하는 구조
-        RouteCacheManager.fetchRouteIfNeeded(
+        RouteCacheManager.fetchParsedRouteIfNeeded(
                 startX, startY, startName,
                 endX, endY, endName,
-                new JsonCallback() {
+                new ParsedRouteCallback() {
                     @Override
-                    public void onSuccess(JSONObject json) {
-                        try {
-                            List<TMapPoint> routePoints = RouteJsonParser.parseToTMapPoints(json);
-
-                            RouteLineDrawer.drawRouteLine(
-                                    tMapView,
-                                    routePoints,
-                                    "walkRoute",
-                                    Color.BLUE,
-                                    5
-                            );
-                        } catch (JSONException e) {
-                            Log.e("RouteHelper", "파싱 오류: " + e.getMessage());
-                        }
+                    public void onSuccess(ParsedRoute route) {
+                        // 캐시 조회/응답 스레드에서 불리므로 TMapView는 메인 스레드에서 만짐
+                        MAIN_HANDLER.post(() -> RouteLineDrawer.drawRouteLine(
+                                tMapView,
+                                route,
+                                "walkRoute",
+                                Color.BLUE,
+                                5
+                        ));
                     }
 
                     @Override
@@ -33,6 +33,8 @@ public class RouteJsonParser {
     }
 
     // TMapPoint로 파싱
+    /** @deprecated 꼭짓점마다 객체를 만듦. ParsedRoute.getGeometry()를 쓰고 TMapPoint 변환은 RouteLineDrawer에 맡김 */
+    @Deprecated
     public static List<TMapPoint> parseToTMapPoints(JSONObject json) throws JSONException {
         List<TMapPoint> points = new ArrayList<>();
         JSONArray features = json.getJSONArray("features");
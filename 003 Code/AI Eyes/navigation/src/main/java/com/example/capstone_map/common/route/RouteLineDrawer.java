@@ -1,19 +1,20 @@
 package com.example.capstone_map.common.route;
 
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.skt.Tmap.TMapPolyLine;
 import com.skt.Tmap.TMapView;
 import com.skt.Tmap.TMapPoint;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.util.List;
 
 public class RouteLineDrawer {
 
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
     /**
      * 지도에 경로 선을 그려줍니다.
      *
@@ -22,7 +23,9 @@ public class RouteLineDrawer {
      * @param lineId         선의 ID (지도에서 식별용)
      * @param color          선 색깔 (예: Color.BLUE)
      * @param width          선 두께 (픽셀 단위)
+     * @deprecated TMapPoint 리스트를 미리 만들어야 함. RouteGeometry를 받는 drawRouteLine을 씀 (TMapPoint는 그릴 때만 만듦)
      */
+    @Deprecated
     public static void drawRouteLine(TMapView tMapView,
                                      List<TMapPoint> routePoints,
                                      String lineId,
@@ -40,6 +43,34 @@ public class RouteLineDrawer {
         tMapView.addTMapPolyLine(lineId, polyLine);
     }
 
+    /**
+     * 경로 좌표 배열로 경로 선을 그립니다. TMapPoint는 여기(지도에 넘길 때)서만 만듭니다.
+     */
+    public static void drawRouteLine(TMapView tMapView,
+                                     RouteGeometry geometry,
+                                     String lineId,
+                                     int color,
+                                     float width) {
+
+        TMapPolyLine polyLine = new TMapPolyLine();
+        polyLine.setLineColor(color);
+        polyLine.setLineWidth(width);
+
+        for (int i = 0; i < geometry.size(); i++) {
+            polyLine.addLinePoint(new TMapPoint(geometry.latitude(i), geometry.longitude(i)));
+        }
+
+        tMapView.addTMapPolyLine(lineId, polyLine);
+    }
+
+    public static void drawRouteLine(TMapView tMapView,
+                                     ParsedRoute route,
+                                     String lineId,
+                                     int color,
+                                     float width) {
+        drawRouteLine(tMapView, route.getGeometry(), lineId, color, width);
+    }
+
     /**
      * 보행자 경로를 요청하고 지도에 그려줍니다. (RouteHelper 기능 통합)
      *
@@ -78,18 +109,14 @@ public class RouteLineDrawer {
                                         double endX, double endY, String endName,
                                         String lineId, int color, float width) {
 
-        RouteCacheManager.fetchRouteIfNeeded(
+        RouteCacheManager.fetchParsedRouteIfNeeded(
                 startX, startY, startName,
                 endX, endY, endName,
-                new JsonCallback() {
+                new ParsedRouteCallback() {
                     @Override
-                    public void onSuccess(JSONObject json) {
-                        try {
-                            List<TMapPoint> routePoints = RouteJsonParser.parseToTMapPoints(json);
-                            drawRouteLine(tMapView, routePoints, lineId, color, width);
-                        } catch (JSONException e) {
-                            Log.e("RouteLineDrawer", "파싱 오류: " + e.getMessage());
-                        }
+                    public void onSuccess(ParsedRoute route) {
+                        // 캐시 조회/응답 스레드에서 불리므로 TMapView는 메인 스레드에서 만짐
+                        MAIN_HANDLER.post(() -> drawRouteLine(tMapView, route, lineId, color, width));
                     }
 
                     @Override
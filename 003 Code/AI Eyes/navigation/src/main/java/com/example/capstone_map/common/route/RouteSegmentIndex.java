@@ -0,0 +1,263 @@
+package com.example.capstone_map.common.route;
+
+import java.util.Arrays;
+
+/**
+ * 경로 구간(RouteGeometry의 꼭짓점 i → i+1)을 격자에 나눠 담아, GPS 위치마다 가장 가까운 구간을 빨리 찾습니다.
+ *
+ * - 좌표는 경로 첫 점 기준 평면(m)으로 바꿔 둡니다. 도시 안 거리에서는 haversine과 차이가 무시할 만합니다.
+ * - 구간마다 감싸는 사각형이 걸치는 칸에 구간 번호를 넣고, (칸 번호, 구간 번호)를 정렬한 배열로 들고 있습니다.
+ *   칸 찾기는 이분 탐색 O(log 칸 수)이고, 칸 객체나 Map을 만들지 않습니다.
+ * - 찾기: 위치가 든 칸부터 한 겹씩 넓혀 가다가, 찾은 거리보다 다음 겹이 더 멀면 멈춥니다.
+ *   maxSearchMeters 안에 구간이 없으면(경로에서 멀리 벗어남) 전체를 훑어 정확한 거리를 돌려줍니다.
+ *
+ * 경로마다 한 번 만들고 바꾸지 않습니다. 결과는 호출하는 쪽이 넘긴 Match에 써서 GPS마다 객체를 만들지 않습니다.
+ */
+public class RouteSegmentIndex {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+
+    private final RouteGeometry geometry;
+    private final double cellMeters;
+    private final int maxRing;
+
+    // 평면 좌표 (m)
+    private final double originLat;
+    private final double originLon;
+    private final double metersPerDegLat;
+    private final double metersPerDegLon;
+    private final double[] xs;
+    private final double[] ys;
+
+    // 격자
+    private final double minX;
+    private final double minY;
+    private final int cols;
+    private final int rows;
+    private final long[] cellKeys;     // 구간이 있는 칸 번호 (오름차순)
+    private final int[] cellStarts;    // cellKeys[k]의 구간들이 cellSegments에서 시작하는 위치 (마지막은 끝)
+    private final int[] cellSegments;
+
+    /**
+     * 찾은 결과. 한 개를 만들어 두고 계속 넘겨 씁니다.
+     */
+    public static class Match {
+        /** 가장 가까운 구간 번호. 경로가 비어 있으면 -1 */
+        public int segmentIndex = -1;
+        /** 구간 안 위치 (0 = 시작 꼭짓점, 1 = 끝 꼭짓점) */
+        public double fraction;
+        /** 경로까지 거리 (m) */
+        public double distanceMeters = Double.NaN;
+        /** 출발점부터 경로를 따라 가장 가까운 지점까지 거리 (m) */
+        public double alongTrackMeters;
+        /** 경로 위 가장 가까운 지점 */
+        public double latitude;
+        public double longitude;
+
+        public boolean isValid() {
+            return segmentIndex >= 0;
+        }
+    }
+
+    /**
+     * @param cellMeters 칸 크기 (m). 보행 경로는 20~30m 정도
+     * @param maxSearchMeters 격자로 찾을 최대 거리. 이보다 멀면 전체를 훑음
+     */
+    public RouteSegmentIndex(RouteGeometry geometry, double cellMeters, double maxSearchMeters) {
+        this.geometry = geometry;
+        this.cellMeters = cellMeters;
+        this.maxRing = (int) Math.ceil(maxSearchMeters / cellMeters);
+
+        int n = geometry.size();
+        originLat = n > 0 ? geometry.latitude(0) : 0;
+        originLon = n > 0 ? geometry.longitude(0) : 0;
+        metersPerDegLat = Math.toRadians(1) * EARTH_RADIUS_M;
+        metersPerDegLon = metersPerDegLat * Math.cos(Math.toRadians(originLat));
+
+        xs = new double[n];
+        ys = new double[n];
+        double loX = 0, loY = 0, hiX = 0, hiY = 0;
+        for (int i = 0; i < n; i++) {
+            xs[i] = toX(geometry.longitude(i));
+            ys[i] = toY(geometry.latitude(i));
+            loX = Math.min(loX, xs[i]);
+            loY = Math.min(loY, ys[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiY = Math.max(hiY, ys[i]);
+        }
+        minX = loX;
+        minY = loY;
+        cols = (int) ((hiX - loX) / cellMeters) + 1;
+        rows = (int) ((hiY - loY) / cellMeters) + 1;
+
+        // (칸 번호 << 31 | 구간 번호)를 모아 정렬 → 칸별 구간 목록
+        int segments = geometry.segmentCount();
+        long[] pairs = new long[Math.max(16, segments * 2)];
+        int pairCount = 0;
+        for (int s = 0; s < segments; s++) {
+            int c0 = cellX(Math.min(xs[s], xs[s + 1]));
+            int c1 = cellX(Math.max(xs[s], xs[s + 1]));
+            int r0 = cellY(Math.min(ys[s], ys[s + 1]));
+            int r1 = cellY(Math.max(ys[s], ys[s + 1]));
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    if (pairCount == pairs.length) pairs = Arrays.copyOf(pairs, pairCount * 2);
+                    pairs[pairCount++] = (cellKey(c, r) << 31) | s;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        int cellCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i == 0 || (pairs[i] >>> 31) != (pairs[i - 1] >>> 31)) cellCount++;
+        }
+        cellKeys = new long[cellCount];
+        cellStarts = new int[cellCount + 1];
+        cellSegments = new int[pairCount];
+        int k = -1;
+        for (int i = 0; i < pairCount; i++) {
+            long key = pairs[i] >>> 31;
+            if (k < 0 || cellKeys[k] != key) {
+                cellKeys[++k] = key;
+                cellStarts[k] = i;
+            }
+            cellSegments[i] = (int) (pairs[i] & 0x7FFFFFFFL);
+        }
+        cellStarts[cellCount] = pairCount;
+    }
+
+    public RouteGeometry getGeometry() {
+        return geometry;
+    }
+
+    /** 격자에 들어 있는 (칸, 구간) 수 (로그용) */
+    public int getEntryCount() {
+        return cellSegments.length;
+    }
+
+    /**
+     * 가장 가까운 구간을 찾아 out에 씁니다.
+     * @return 경로가 비어 있으면 false
+     */
+    public boolean nearest(double lat, double lon, Match out) {
+        int n = geometry.size();
+        if (n == 0) {
+            out.segmentIndex = -1;
+            out.distanceMeters = Double.NaN;
+            return false;
+        }
+        if (n == 1) {
+            fill(out, 0, 0, xs[0], ys[0], toX(lon), toY(lat));
+            out.segmentIndex = 0;
+            out.alongTrackMeters = 0;
+            return true;
+        }
+
+        double px = toX(lon);
+        double py = toY(lat);
+        int qc = cellX(px);
+        int qr = cellY(py);
+
+        int bestSegment = -1;
+        double bestD2 = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = qr - ring; r <= qr + ring; r++) {
+                if (r < 0 || r >= rows) continue;
+                boolean edgeRow = r == qr - ring || r == qr + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = qc - ring; c <= qc + ring; c += step) {
+                    if (c < 0 || c >= cols) continue;
+                    int k = Arrays.binarySearch(cellKeys, cellKey(c, r));
+                    if (k < 0) continue;
+                    for (int i = cellStarts[k]; i < cellStarts[k + 1]; i++) {
+                        int s = cellSegments[i];
+                        double d2 = distanceSquared(s, px, py);
+                        if (d2 < bestD2) {
+                            bestD2 = d2;
+                            bestSegment = s;
+                        }
+                    }
+                }
+            }
+            // 다음 겹의 칸은 모두 ring × cellMeters보다 멂
+            if (bestSegment >= 0 && bestD2 <= (ring * cellMeters) * (ring * cellMeters)) break;
+        }
+
+        if (bestSegment < 0 || bestD2 > (maxRing * cellMeters) * (maxRing * cellMeters)) {
+            return nearestLinear(lat, lon, out);
+        }
+        matchSegment(out, bestSegment, px, py);
+        return true;
+    }
+
+    /**
+     * 모든 구간을 훑어 찾습니다. (멀리 벗어났을 때, 비교용)
+     */
+    public boolean nearestLinear(double lat, double lon, Match out) {
+        int segments = geometry.segmentCount();
+        if (segments == 0) return nearest(lat, lon, out);
+        double px = toX(lon);
+        double py = toY(lat);
+        int bestSegment = 0;
+        double bestD2 = Double.MAX_VALUE;
+        for (int s = 0; s < segments; s++) {
+            double d2 = distanceSquared(s, px, py);
+            if (d2 < bestD2) {
+                bestD2 = d2;
+                bestSegment = s;
+            }
+        }
+        matchSegment(out, bestSegment, px, py);
+        return true;
+    }
+
+    private double distanceSquared(int s, double px, double py) {
+        double t = fractionOn(s, px, py);
+        double dx = px - (xs[s] + (xs[s + 1] - xs[s]) * t);
+        double dy = py - (ys[s] + (ys[s + 1] - ys[s]) * t);
+        return dx * dx + dy * dy;
+    }
+
+    private double fractionOn(int s, double px, double py) {
+        double ax = xs[s], ay = ys[s];
+        double dx = xs[s + 1] - ax, dy = ys[s + 1] - ay;
+        double len2 = dx * dx + dy * dy;
+        if (len2 == 0) return 0;
+        return Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / len2));
+    }
+
+    private void matchSegment(Match out, int s, double px, double py) {
+        double t = fractionOn(s, px, py);
+        fill(out, s, t, xs[s] + (xs[s + 1] - xs[s]) * t, ys[s] + (ys[s + 1] - ys[s]) * t, px, py);
+        out.alongTrackMeters = geometry.distanceFromStart(s) + geometry.segmentLength(s) * t;
+    }
+
+    private void fill(Match out, int s, double t, double x, double y, double px, double py) {
+        out.segmentIndex = s;
+        out.fraction = t;
+        out.distanceMeters = Math.hypot(px - x, py - y);
+        out.latitude = originLat + y / metersPerDegLat;
+        out.longitude = originLon + x / metersPerDegLon;
+    }
+
+    private double toX(double lon) {
+        return (lon - originLon) * metersPerDegLon;
+    }
+
+    private double toY(double lat) {
+        return (lat - originLat) * metersPerDegLat;
+    }
+
+    private int cellX(double x) {
+        return (int) Math.floor((x - minX) / cellMeters);
+    }
+
+    private int cellY(double y) {
+        return (int) Math.floor((y - minY) / cellMeters);
+    }
+
+    private long cellKey(int c, int r) {
+        return (long) r * cols + c;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.capstone_map.common.route;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * TMap 보행자 경로 응답을 JsonReader로 처음부터 끝까지 한 번만 읽어 ParsedRoute를 만듭니다.
+ *
+ * RouteJsonParser는 org.json 트리(feature마다 JSONObject, 좌표마다 JSONArray와 Double)를 만든 뒤
+ * 좌표/문구/요약을 뽑을 때마다 features를 다시 돕니다. 여기서는 트리를 만들지 않고 좌표를 바로 double 배열에 씁니다.
+ *
+ * - geometry.type과 coordinates의 순서에 기대지 않습니다. coordinates가 [[경도, 위도], ...]이면 LineString, [경도, 위도]이면 Point로 봅니다.
+ * - 서버가 숫자를 문자열("11", "")로 줄 때도 있어 숫자 필드는 둘 다 받습니다. 읽을 수 없으면 -1(또는 0)로 둡니다.
+ */
+public class RouteStreamParser {
+
+    private RouteStreamParser() {
+    }
+
+    public static ParsedRoute parse(String json) throws IOException {
+        return parse(new StringReader(json));
+    }
+
+    /**
+     * @throws IOException JSON이 깨졌거나 features가 없을 때 (TMap 에러 응답 등)
+     */
+    public static ParsedRoute parse(Reader in) throws IOException {
+        ParsedRoute.Builder builder = new ParsedRoute.Builder();
+        boolean hasFeatures = false;
+        try (JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("features".equals(reader.nextName())) {
+                    readFeatures(reader, builder);
+                    hasFeatures = true;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // 예상과 다른 토큰 (JsonReader는 IllegalStateException으로 알림)
+            throw new IOException("경로 응답 형식 오류: " + e.getMessage(), e);
+        }
+        if (!hasFeatures) throw new IOException("경로 응답에 features가 없습니다");
+        return builder.build();
+    }
+
+    /** feature 하나를 읽는 동안 쓰는 임시값. feature마다 새로 만들지 않고 reset()해서 씀 */
+    private static class FeatureState {
+        boolean isPoint;
+        double pointLat;
+        double pointLon;
+        String description;
+        String pointType;
+        int turnType;
+        int pointIndex;
+        int totalDistance;
+        int totalTime;
+
+        void reset() {
+            isPoint = false;
+            description = null;
+            pointType = null;
+            turnType = -1;
+            pointIndex = -1;
+            totalDistance = 0;
+            totalTime = 0;
+        }
+    }
+
+    private static void readFeatures(JsonReader reader, ParsedRoute.Builder builder) throws IOException {
+        FeatureState state = new FeatureState();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            state.reset();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("geometry".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    readGeometry(reader, builder, state);
+                } else if ("properties".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    readProperties(reader, state);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            boolean hasDescription = state.description != null && !state.description.isEmpty();
+            if (hasDescription) builder.addDescription(state.description);
+            if (state.isPoint) {
+                builder.addManeuver(state.pointLat, state.pointLon, state.turnType, state.pointIndex, state.description);
+            }
+            if ("SP".equals(state.pointType) && !builder.hasSummary()) {
+                builder.setSummary(state.totalDistance, state.totalTime);
+            }
+        }
+        reader.endArray();
+    }
+
+    private static void readGeometry(JsonReader reader, ParsedRoute.Builder builder, FeatureState state) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"coordinates".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                // LineString: [[경도, 위도], ...] 를 바로 배열에
+                while (reader.hasNext()) {
+                    reader.beginArray();
+                    double lon = reader.nextDouble();
+                    double lat = reader.nextDouble();
+                    while (reader.hasNext()) reader.skipValue();  // 고도 등
+                    reader.endArray();
+                    builder.addPoint(lat, lon);
+                }
+            } else if (reader.hasNext()) {
+                // Point: [경도, 위도]
+                state.pointLon = reader.nextDouble();
+                state.pointLat = reader.nextDouble();
+                state.isPoint = true;
+                while (reader.hasNext()) reader.skipValue();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+    }
+
+    private static void readProperties(JsonReader reader, FeatureState state) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "description":
+                    state.description = readString(reader);
+                    break;
+                case "pointType":
+                    state.pointType = readString(reader);
+                    break;
+                case "turnType":
+                    state.turnType = readInt(reader, -1);
+                    break;
+                case "pointIndex":
+                    state.pointIndex = readInt(reader, -1);
+                    break;
+                case "totalDistance":
+                    state.totalDistance = readInt(reader, 0);
+                    break;
+                case "totalTime":
+                    state.totalTime = readInt(reader, 0);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) return reader.nextString();
+        reader.skipValue();
+        return null;
+    }
+
+    private static int readInt(JsonReader reader, int fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER) return (int) reader.nextDouble();
+        if (token == JsonToken.STRING) {
+            String s = reader.nextString().trim();
+            try {
+                return s.isEmpty() ? fallback : (int) Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        reader.skipValue();
+        return fallback;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.capstone_map.common.upload;
+
+import java.util.Locale;
+
+/**
+ * 최근 망 상태(LinkQualityEstimator)를 보고 업로드할 JPEG의 긴 변 길이와 품질을 고릅니다.
+ *
+ * 단계표는 좋은 화질부터 나쁜 화질 순서입니다. 각 단계의 예상 크기(픽셀 수 x 픽셀당 바이트)를
+ * 예상 처리량으로 올리는 시간이 요청당 예산 안에 들어오는 첫 단계를 씁니다. 어느 단계도 안 되면 마지막 단계.
+ * 처리량을 아직 모르면(첫 요청) 첫 단계를 씁니다.
+ *
+ * 픽셀당 바이트는 실제로 인코딩한 결과로 단계마다 계속 보정합니다. (장면에 따라 크게 달라짐)
+ */
+public class AdaptiveJpegPolicy {
+
+    private static final float BYTES_PER_PIXEL_ALPHA = 0.3f;
+
+    /**
+     * 고른 설정. 로그/지연 시간 보고서에 그대로 남깁니다.
+     */
+    public static final class Choice {
+        public final int step;
+        public final int maxSide;      // 0이면 줄이지 않음
+        public final int quality;
+        public final int width;
+        public final int height;
+        public final long predictedBytes;
+        public final double predictedMs;   // 처리량을 모르면 NaN
+        public final long budgetMs;
+
+        Choice(int step, int maxSide, int quality, int width, int height,
+               long predictedBytes, double predictedMs, long budgetMs) {
+            this.step = step;
+            this.maxSide = maxSide;
+            this.quality = quality;
+            this.width = width;
+            this.height = height;
+            this.predictedBytes = predictedBytes;
+            this.predictedMs = predictedMs;
+            this.budgetMs = budgetMs;
+        }
+
+        public int getPixels() {
+            return width * height;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%dx%d q%d (단계 %d, 예상 %dKB / %.0fms, 예산 %dms)",
+                    width, height, quality, step, predictedBytes / 1024, predictedMs, budgetMs);
+        }
+    }
+
+    private final LinkQualityEstimator link;
+    private final long budgetMs;
+    private final int[] maxSides;
+    private final int[] qualities;
+    private final double[] bytesPerPixel;
+    private final long[] chosenCounts;
+
+    /**
+     * @param budgetMs 요청 하나를 올리는 데 쓸 수 있는 시간 (RTT 포함)
+     * @param ladder {긴 변 길이(0이면 원본), JPEG 품질} 쌍들. 좋은 화질부터
+     */
+    public AdaptiveJpegPolicy(LinkQualityEstimator link, long budgetMs, int[]... ladder) {
+        if (ladder.length == 0) throw new IllegalArgumentException("단계표가 비어 있음");
+        this.link = link;
+        this.budgetMs = budgetMs;
+        this.maxSides = new int[ladder.length];
+        this.qualities = new int[ladder.length];
+        this.bytesPerPixel = new double[ladder.length];
+        this.chosenCounts = new long[ladder.length];
+        for (int i = 0; i < ladder.length; i++) {
+            maxSides[i] = ladder[i][0];
+            qualities[i] = ladder[i][1];
+            bytesPerPixel[i] = initialBytesPerPixel(ladder[i][1]);
+        }
+    }
+
+    /**
+     * 카메라 사진 기준 대략값 (q85 ≈ 1.4비트/픽셀). 첫 인코딩 뒤로는 실측값으로 바뀝니다.
+     */
+    static double initialBytesPerPixel(int quality) {
+        return 0.04 + quality * quality * 0.000018;
+    }
+
+    /**
+     * @param sourceWidth 원본 폭 (이보다 크게 늘리지는 않음)
+     */
+    public synchronized Choice choose(int sourceWidth, int sourceHeight) {
+        int last = maxSides.length - 1;
+        int chosen = 0;
+        if (link.hasThroughput()) {
+            chosen = last;
+            for (int i = 0; i <= last; i++) {
+                if (predictMs(i, sourceWidth, sourceHeight) <= budgetMs) {
+                    chosen = i;
+                    break;
+                }
+            }
+        }
+        chosenCounts[chosen]++;
+        int width = scaledWidth(sourceWidth, sourceHeight, maxSides[chosen]);
+        int height = scaledHeight(sourceWidth, sourceHeight, maxSides[chosen]);
+        long bytes = Math.round(width * (double) height * bytesPerPixel[chosen]);
+        return new Choice(chosen, maxSides[chosen], qualities[chosen], width, height,
+                bytes, link.predictUploadMs(bytes), budgetMs);
+    }
+
+    private double predictMs(int step, int sourceWidth, int sourceHeight) {
+        double pixels = scaledWidth(sourceWidth, sourceHeight, maxSides[step])
+                * (double) scaledHeight(sourceWidth, sourceHeight, maxSides[step]);
+        return link.predictUploadMs(Math.round(pixels * bytesPerPixel[step]));
+    }
+
+    /**
+     * 실제 인코딩 결과로 그 단계의 픽셀당 바이트를 보정합니다.
+     * @param pixels 인코딩한 이미지의 픽셀 수 (크롭처럼 choice와 크기가 다를 수 있음)
+     */
+    public synchronized void recordEncoded(Choice choice, int pixels, long bytes) {
+        if (pixels <= 0 || bytes <= 0) return;
+        double sample = bytes / (double) pixels;
+        bytesPerPixel[choice.step] += BYTES_PER_PIXEL_ALPHA * (sample - bytesPerPixel[choice.step]);
+    }
+
+    /**
+     * 긴 변을 maxSide에 맞춘 크기. 원본이 더 작거나 maxSide가 0이면 원본 크기.
+     */
+    public static int scaledWidth(int width, int height, int maxSide) {
+        int longSide = Math.max(width, height);
+        if (maxSide <= 0 || longSide <= maxSide) return width;
+        return Math.max(1, Math.round(width * (float) maxSide / longSide));
+    }
+
+    public static int scaledHeight(int width, int height, int maxSide) {
+        int longSide = Math.max(width, height);
+        if (maxSide <= 0 || longSide <= maxSide) return height;
+        return Math.max(1, Math.round(height * (float) maxSide / longSide));
+    }
+
+    public LinkQualityEstimator getLink() {
+        return link;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder(link.toString()).append(" / 선택:");
+        for (int i = 0; i < maxSides.length; i++) {
+            text.append(String.format(Locale.US, " [%s q%d] %d회 (%.3fB/px)",
+                    maxSides[i] > 0 ? maxSides[i] + "px" : "원본", qualities[i], chosenCounts[i], bytesPerPixel[i]));
+        }
+        return text.toString();
+    }
+}
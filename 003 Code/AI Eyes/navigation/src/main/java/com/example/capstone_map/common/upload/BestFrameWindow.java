@@ -0,0 +1,109 @@
+package com.example.capstone_map.common.upload;
+
+import java.util.function.Consumer;
+
+/**
+ * 업로드할 사진이 흐리거나 어두우면 바로 보내지 않고, 짧은 시간 동안 이어지는 사진 중 가장 나은 것을 고릅니다.
+ *
+ * - open(): 보낼 일이 생겼을 때 창을 엽니다. 이미 열려 있으면 처음 연 시각을 유지합니다.
+ * - offer(): 열린 동안 들어오는 사진마다 부릅니다. 좋은 사진(isGood)이면 바로 그 사진을 돌려주고 창을 닫습니다.
+ *   아니면 지금까지 가장 나은 사진 하나만 남기고 나머지는 releaser로 돌려줍니다.
+ * - poll(): 창이 windowMs를 넘겼으면 남긴 사진을 돌려줍니다. 그 사진도 보낼 수 없는 수준(isUsable 아님)이면 버리고 null.
+ *   offer()도 마감을 확인하지만, 게이트에 막혀 offer()가 불리지 않는 동안에도 창이 끝나도록 캡처 단계에서 매 프레임 부릅니다.
+ *
+ * 사진을 고르는 단계(추론 스레드)와 취소하는 쪽(메인 스레드)이 다를 수 있어 동기화합니다.
+ */
+public class BestFrameWindow<T> {
+
+    private final FrameQualityScorer scorer;
+    private final long windowMs;
+    private final Consumer<T> releaser;
+
+    private boolean open = false;
+    private long openedAt;
+    private T best;
+    private float bestQuality;
+
+    private long sentImmediately = 0;
+    private long sentAfterWait = 0;
+    private long rejected = 0;
+
+    /**
+     * @param scorer 좋은/보낼 수 있는 사진 기준 (isGood, isUsable만 씀)
+     * @param releaser 고르지 않은 사진 반환
+     */
+    public BestFrameWindow(FrameQualityScorer scorer, long windowMs, Consumer<T> releaser) {
+        this.scorer = scorer;
+        this.windowMs = windowMs;
+        this.releaser = releaser;
+    }
+
+    public synchronized void open(long nowMs) {
+        if (open) return;
+        open = true;
+        openedAt = nowMs;
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @return 지금 보낼 사진. 아직 기다리는 중이거나 보낼 사진이 없으면 null (넘긴 사진은 창이 맡음)
+     */
+    public synchronized T offer(T frame, float quality, long nowMs) {
+        if (!open) {
+            releaser.accept(frame);
+            return null;
+        }
+        if (scorer.isGood(quality)) {
+            if (best != null) releaser.accept(best);
+            best = null;
+            open = false;
+            if (nowMs == openedAt) sentImmediately++;
+            else sentAfterWait++;
+            return frame;
+        }
+        if (best == null || quality > bestQuality) {
+            if (best != null) releaser.accept(best);
+            best = frame;
+            bestQuality = quality;
+        } else {
+            releaser.accept(frame);
+        }
+        return poll(nowMs);
+    }
+
+    /**
+     * 창이 끝났으면 남긴 사진을 돌려줍니다. 창이 닫혀 있으면 바로 돌아가므로 매 프레임 불러도 됩니다.
+     * @return 아직 기다리는 중이거나 보낼 사진이 없으면 null
+     */
+    public synchronized T poll(long nowMs) {
+        if (!open || nowMs - openedAt < windowMs) return null;
+        open = false;
+        T chosen = best;
+        best = null;
+        if (chosen == null) return null;
+        if (!scorer.isUsable(bestQuality)) {
+            rejected++;
+            releaser.accept(chosen);
+            return null;
+        }
+        sentAfterWait++;
+        return chosen;
+    }
+
+    /**
+     * 창을 닫고 남긴 사진을 반환합니다. (분석 중지)
+     */
+    public synchronized void cancel() {
+        if (best != null) releaser.accept(best);
+        best = null;
+        open = false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "바로 보냄 " + sentImmediately + "회, 기다려 고름 " + sentAfterWait + "회, 품질 미달로 버림 " + rejected + "회";
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.capstone_map.common.upload;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 업로드 전에 사진이 흔들렸거나(흐림) 너무 어둡거나 밝은지(노출) 가볍게 판단합니다.
+ *
+ * 작게 줄인 밝기(luma) 평면에서
+ * - 흐림: 라플라시안(4방향) 분산. 초점이 맞고 흔들리지 않은 사진일수록 경계가 뚜렷해 값이 큽니다.
+ * - 노출: 밝기 히스토그램. 평균이 너무 낮거나, 거의 검은/흰 칸 비율이 크면 노출 불량.
+ * 점수(quality)는 노출이 괜찮으면 라플라시안 분산, 노출 불량이면 0입니다.
+ * minSharpness 미만이면 보내지 않을 사진, goodSharpness 이상이면 바로 보내도 되는 사진입니다.
+ *
+ * 축소 버퍼를 재사용하므로 한 스레드에서만 씁니다. 마지막 판단의 세부값은 toString()으로 로그에 남깁니다.
+ */
+public class FrameQualityScorer {
+
+    private static final int DARK_LEVEL = 24;
+    private static final int BRIGHT_LEVEL = 240;
+    private static final int MIN_MEAN = 40;
+    private static final int MAX_MEAN = 225;
+    private static final float MAX_CLIPPED_FRACTION = 0.5f;
+
+    private final int sampleWidth;
+    private final int sampleHeight;
+    private final float minSharpness;
+    private final float goodSharpness;
+    private final int[] luma;
+    private final int[] histogram = new int[256];
+
+    private float sharpness;
+    private float mean;
+    private float darkFraction;
+    private float brightFraction;
+    private boolean exposureOk;
+
+    /**
+     * @param sampleWidth 줄인 밝기 평면 폭 (원본보다 크면 원본 크기로 씀)
+     * @param minSharpness 이보다 흐리면 보내지 않음
+     * @param goodSharpness 이 이상이면 더 나은 사진을 기다리지 않음
+     */
+    public FrameQualityScorer(int sampleWidth, int sampleHeight, float minSharpness, float goodSharpness) {
+        this.sampleWidth = sampleWidth;
+        this.sampleHeight = sampleHeight;
+        this.minSharpness = minSharpness;
+        this.goodSharpness = goodSharpness;
+        this.luma = new int[sampleWidth * sampleHeight];
+    }
+
+    /**
+     * 카메라 RGBA 평면(행 끝 여백 있음)의 점수. 칸마다 가운데 2x2 픽셀 평균을 씁니다. 버퍼의 position은 바꾸지 않습니다.
+     */
+    public float scoreRgba(ByteBuffer rgba, int width, int height, int rowStride) {
+        int w = Math.min(sampleWidth, width / 2);
+        int h = Math.min(sampleHeight, height / 2);
+        for (int y = 0; y < h; y++) {
+            int sy = Math.min(height - 2, (2 * y + 1) * height / (2 * h));
+            for (int x = 0; x < w; x++) {
+                int sx = Math.min(width - 2, (2 * x + 1) * width / (2 * w));
+                int top = sy * rowStride + sx * 4;
+                int bottom = top + rowStride;
+                int sum = lumaAt(rgba, top) + lumaAt(rgba, top + 4) + lumaAt(rgba, bottom) + lumaAt(rgba, bottom + 4);
+                luma[y * w + x] = sum >> 2;
+            }
+        }
+        return scoreLuma(w, h);
+    }
+
+    /**
+     * 이미 줄인 ARGB 픽셀(Bitmap.getPixels)의 점수. 폭/높이는 sampleWidth/sampleHeight 이하여야 합니다.
+     */
+    public float scoreArgb(int[] argb, int width, int height) {
+        if (width > sampleWidth || height > sampleHeight) {
+            throw new IllegalArgumentException("축소 크기보다 큼: " + width + "x" + height);
+        }
+        for (int i = 0; i < width * height; i++) {
+            int c = argb[i];
+            luma[i] = luma((c >> 16) & 0xFF, (c >> 8) & 0xFF, c & 0xFF);
+        }
+        return scoreLuma(width, height);
+    }
+
+    private static int lumaAt(ByteBuffer rgba, int offset) {
+        return luma(rgba.get(offset) & 0xFF, rgba.get(offset + 1) & 0xFF, rgba.get(offset + 2) & 0xFF);
+    }
+
+    private static int luma(int r, int g, int b) {
+        return (r * 77 + g * 150 + b * 29) >> 8;
+    }
+
+    private float scoreLuma(int width, int height) {
+        Arrays.fill(histogram, 0);
+        int count = width * height;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            histogram[luma[i]]++;
+            total += luma[i];
+        }
+        int dark = 0;
+        for (int v = 0; v < DARK_LEVEL; v++) dark += histogram[v];
+        int bright = 0;
+        for (int v = BRIGHT_LEVEL; v < 256; v++) bright += histogram[v];
+        mean = count > 0 ? (float) total / count : 0f;
+        darkFraction = count > 0 ? (float) dark / count : 1f;
+        brightFraction = count > 0 ? (float) bright / count : 0f;
+        exposureOk = mean >= MIN_MEAN && mean <= MAX_MEAN
+                && darkFraction <= MAX_CLIPPED_FRACTION && brightFraction <= MAX_CLIPPED_FRACTION;
+
+        sharpness = laplacianVariance(luma, width, height);
+        return exposureOk ? sharpness : 0f;
+    }
+
+    /**
+     * 테두리를 뺀 안쪽 칸의 4방향 라플라시안 분산
+     */
+    static float laplacianVariance(int[] luma, int width, int height) {
+        if (width < 3 || height < 3) return 0f;
+        long sum = 0;
+        long sumSquares = 0;
+        for (int y = 1; y < height - 1; y++) {
+            int row = y * width;
+            for (int x = 1; x < width - 1; x++) {
+                int i = row + x;
+                int lap = luma[i - 1] + luma[i + 1] + luma[i - width] + luma[i + width] - 4 * luma[i];
+                sum += lap;
+                sumSquares += (long) lap * lap;
+            }
+        }
+        int n = (width - 2) * (height - 2);
+        double average = (double) sum / n;
+        return (float) ((double) sumSquares / n - average * average);
+    }
+
+    /** 보내도 되는 사진인지 (노출이 괜찮고 너무 흐리지 않음) */
+    public boolean isUsable(float quality) {
+        return quality >= minSharpness;
+    }
+
+    /** 더 나은 사진을 기다릴 필요가 없는지 */
+    public boolean isGood(float quality) {
+        return quality >= goodSharpness;
+    }
+
+    /**
+     * 마지막 판단의 세부값
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "선명도 %.0f (기준 %.0f/%.0f), 밝기 평균 %.0f, 어두운 칸 %.0f%%, 밝은 칸 %.0f%%%s",
+                sharpness, minSharpness, goodSharpness, mean, darkFraction * 100, brightFraction * 100,
+                exposureOk ? "" : " → 노출 불량");
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.capstone_map.common.upload;
+
+import java.util.Locale;
+
+/**
+ * 최근 요청들로 업로드 처리량(bytes/s)과 RTT를 지수 이동 평균(EWMA)으로 추정합니다.
+ *
+ * - 처리량: 요청 헤더 쓰기 시작 → 응답 헤더 시작에서 서버 처리 시간과 RTT를 뺀 시간 (UploadMetricsListener 참고).
+ *   너무 작은 요청(MIN_UPLOAD_BYTES 미만)은 소켓 버퍼에 다 들어가 시간이 의미 없으므로 쓰지 않습니다.
+ * - RTT: 새 연결을 맺을 때 TCP 연결 시간 (TLS 전까지). 연결을 재사용하는 동안은 마지막 값을 유지합니다.
+ *
+ * OkHttp 스레드(기록)와 인코딩 스레드(조회)에서 함께 쓰므로 메서드를 동기화합니다.
+ */
+public class LinkQualityEstimator {
+
+    public static final int MIN_UPLOAD_BYTES = 16 * 1024;
+
+    private final float alpha;
+    private double throughputBytesPerSec = Double.NaN;
+    private double rttMs = Double.NaN;
+    private long uploadSamples = 0;
+    private long rttSamples = 0;
+
+    /**
+     * @param alpha 새 측정값 가중치 (0~1). 클수록 망 변화에 빨리 따라감
+     */
+    public LinkQualityEstimator(float alpha) {
+        this.alpha = alpha;
+    }
+
+    public synchronized void recordUpload(long bytes, long elapsedNanos) {
+        if (bytes < MIN_UPLOAD_BYTES || elapsedNanos <= 0) return;
+        double sample = bytes * 1e9 / Math.max(elapsedNanos, 1_000_000L);
+        throughputBytesPerSec = Double.isNaN(throughputBytesPerSec)
+                ? sample : throughputBytesPerSec + alpha * (sample - throughputBytesPerSec);
+        uploadSamples++;
+    }
+
+    public synchronized void recordRtt(long elapsedNanos) {
+        if (elapsedNanos <= 0) return;
+        double sample = elapsedNanos / 1e6;
+        rttMs = Double.isNaN(rttMs) ? sample : rttMs + alpha * (sample - rttMs);
+        rttSamples++;
+    }
+
+    /** 측정값이 없으면 NaN */
+    public synchronized double getThroughputBytesPerSec() {
+        return throughputBytesPerSec;
+    }
+
+    /** 측정값이 없으면 0 */
+    public synchronized double getRttMs() {
+        return Double.isNaN(rttMs) ? 0 : rttMs;
+    }
+
+    public synchronized boolean hasThroughput() {
+        return uploadSamples > 0;
+    }
+
+    /**
+     * 이 크기를 올리는 데 걸릴 예상 시간 (RTT 포함). 처리량을 아직 모르면 NaN
+     */
+    public synchronized double predictUploadMs(long bytes) {
+        if (uploadSamples == 0) return Double.NaN;
+        return getRttMs() + bytes * 1000.0 / throughputBytesPerSec;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "업로드 %.0fkbps (%d회), RTT %.0fms (%d회)",
+                throughputBytesPerSec * 8 / 1000, uploadSamples, getRttMs(), rttSamples);
+    }
+}
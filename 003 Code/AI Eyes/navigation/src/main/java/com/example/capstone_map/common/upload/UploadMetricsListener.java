@@ -0,0 +1,121 @@
+package com.example.capstone_map.common.upload;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * OkHttp 호출 하나의 연결/업로드 시각을 재서 LinkQualityEstimator에 넘깁니다.
+ * 호출마다 새로 만들어지므로(factory) 필드는 한 호출 안에서만 씁니다.
+ *
+ * 본문 쓰기가 끝난 시각은 소켓 버퍼에 들어간 시각이라, 업로드 시간은 응답 헤더가 오기 시작할 때까지로 잽니다.
+ * 여기에는 서버 처리 시간과 1 RTT가 들어 있으므로 서버가 Server-Timing 헤더로 처리 시간을 알려 주면 둘 다 빼고 씁니다.
+ * 알려 주지 않으면 본문 쓰기 시간을 쓰되, MIN_WRITE_NANOS보다 짧으면 버퍼에만 들어간 것으로 보고 버립니다.
+ *
+ * 사용: new OkHttpClient.Builder().eventListenerFactory(UploadMetricsListener.factory(estimator))
+ */
+public class UploadMetricsListener extends EventListener {
+
+    static final long MIN_WRITE_NANOS = 30_000_000L;
+
+    private final LinkQualityEstimator estimator;
+    private long connectStartNanos;
+    private boolean rttRecorded;
+    private long requestStartNanos;
+    private long bodyEndNanos;
+    private long bodyBytes;
+    private long responseStartNanos;
+
+    private UploadMetricsListener(LinkQualityEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    public static EventListener.Factory factory(LinkQualityEstimator estimator) {
+        return call -> new UploadMetricsListener(estimator);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+        rttRecorded = false;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        // TCP 핸드셰이크가 끝난 시점 = 약 1 RTT. TLS 핸드셰이크 시간은 빼고 잼
+        recordRtt();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        recordRtt();  // http:// 이면 secureConnectStart가 불리지 않음
+    }
+
+    private void recordRtt() {
+        if (rttRecorded || connectStartNanos == 0) return;
+        rttRecorded = true;
+        estimator.recordRtt(System.nanoTime() - connectStartNanos);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        bodyEndNanos = System.nanoTime();
+        bodyBytes = byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        responseStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        if (requestStartNanos == 0 || bodyEndNanos == 0) return;
+        long serverMs = parseServerTimingMs(response.header("Server-Timing"));
+        long elapsed = uploadNanos(requestStartNanos, bodyEndNanos, responseStartNanos, serverMs, estimator.getRttMs());
+        if (elapsed > 0) estimator.recordUpload(bodyBytes, elapsed);
+    }
+
+    /**
+     * 한 요청의 업로드 시간. 믿을 만한 값이 없으면 -1
+     * @param serverMs 서버 처리 시간. 모르면 -1
+     */
+    static long uploadNanos(long requestStartNanos, long bodyEndNanos, long responseStartNanos, long serverMs, double rttMs) {
+        long written = bodyEndNanos - requestStartNanos;
+        if (serverMs >= 0 && responseStartNanos > bodyEndNanos) {
+            long elapsed = responseStartNanos - requestStartNanos - serverMs * 1_000_000L - (long) (rttMs * 1_000_000L);
+            if (elapsed > written) return elapsed;
+            // RTT 추정 오차 등으로 본문 쓰기 시간보다 짧게 나오면 아래 기준으로 판단
+        }
+        return written >= MIN_WRITE_NANOS ? written : -1;
+    }
+
+    /**
+     * "app;dur=850.2, db;dur=12" 형태에서 가장 큰 dur (ms). 없으면 -1
+     */
+    static long parseServerTimingMs(String header) {
+        if (header == null) return -1;
+        double max = -1;
+        for (String metric : header.split(",")) {
+            for (String param : metric.split(";")) {
+                String p = param.trim();
+                if (!p.startsWith("dur=")) continue;
+                try {
+                    max = Math.max(max, Double.parseDouble(p.substring(4).trim()));
+                } catch (NumberFormatException ignored) {
+                    // 잘못된 값은 건너뜀
+                }
+            }
+        }
+        return max < 0 ? -1 : Math.round(max);
+    }
+}
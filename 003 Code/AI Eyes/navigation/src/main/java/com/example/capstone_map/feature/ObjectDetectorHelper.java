@@ -2,33 +2,63 @@ package com.example.capstone_map.feature;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.os.SystemClock;
 import android.util.Log;
-import org.tensorflow.lite.support.image.ImageProcessor;
+
+import com.example.capstone_map.feature.obstacle.FrameBufferCache;
+import com.example.capstone_map.feature.obstacle.PipelineTracer;
+
+import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.support.image.TensorImage;
-import org.tensorflow.lite.support.image.ops.Rot90Op;
 import org.tensorflow.lite.task.core.BaseOptions;
 import org.tensorflow.lite.task.vision.detector.Detection;
 import org.tensorflow.lite.task.vision.detector.ObjectDetector;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class ObjectDetectorHelper {
     private final float threshold;
     private final int numThreads;
+    private final boolean useNnapi;
     private final int maxResults;
     private final String modelName;
     private final Context context;
     private final DetectorListener detectorListener;
     private ObjectDetector objectDetector;
+    private PipelineTracer tracer;
+
+    // 프레임마다 새로 만들지 않고 재사용하는 객체들 (GC 방지)
+    private final FrameBufferCache<RotatedFrame> rotatedFrames =
+            new FrameBufferCache<>((width, height) -> new RotatedFrame(width, height));
+    private final Matrix rotationMatrix = new Matrix();
+    private final TensorImage tensorImage = new TensorImage(DataType.UINT8);
+    private final ArrayList<Detection> results;
+
+    // 추론 횟수와 누적 시간 (ms)
+    private long inferenceCount = 0;
+    private long inferenceTotalMs = 0;
 
     public ObjectDetectorHelper(Context context, String modelName, float threshold, int numThreads, int maxResults, DetectorListener detectorListener) {
+        this(context, modelName, threshold, numThreads, false, maxResults, detectorListener);
+    }
+
+    /**
+     * @param useNnapi true면 NNAPI delegate 사용 (DetectorAutoTuner가 더 빠르다고 측정한 기기에서만)
+     */
+    public ObjectDetectorHelper(Context context, String modelName, float threshold, int numThreads, boolean useNnapi,
+                                int maxResults, DetectorListener detectorListener) {
         this.context = context;
+        this.useNnapi = useNnapi;
         this.modelName = modelName;
         this.threshold = threshold;
         this.numThreads = numThreads;
         this.maxResults = maxResults;
         this.detectorListener = detectorListener;
+        this.results = new ArrayList<>(maxResults);
         setupObjectDetector();
     }
 
@@ -37,6 +67,7 @@ public class ObjectDetectorHelper {
                 .setScoreThreshold(threshold)
                 .setMaxResults(maxResults);
         BaseOptions.Builder baseOptionsBuilder = BaseOptions.builder().setNumThreads(numThreads);
+        if (useNnapi) baseOptionsBuilder.useNnapi();
         optionsBuilder.setBaseOptions(baseOptionsBuilder.build());
         try {
             objectDetector = ObjectDetector.createFromFileAndOptions(context, modelName, optionsBuilder.build());
@@ -46,20 +77,101 @@ public class ObjectDetectorHelper {
         }
     }
 
+    /**
+     * 프레임 하나를 탐지합니다.
+     * 회전 버퍼/TensorImage/결과 리스트를 모두 재사용하므로 정상 상태에서는 이 경로에서 새 객체를 만들지 않습니다.
+     * onResults로 넘기는 리스트도 재사용되므로, 콜백 밖에서 보관하려면 복사해야 합니다.
+     */
     public void detect(Bitmap image, int imageRotation) {
+        detect(image, imageRotation, 0L);
+    }
+
+    /**
+     * @param frameSeq 프레임이 든 FrameRing 칸의 getSeq() (단계별 기록에 붙임)
+     */
+    public void detect(Bitmap image, int imageRotation, long frameSeq) {
         if (objectDetector == null) {
             setupObjectDetector();
+            if (objectDetector == null) return;
         }
+        PipelineTracer tracer = this.tracer;
+        long traceStart = tracer != null ? tracer.begin(PipelineTracer.Stage.ROTATE) : 0L;
+        Bitmap rotated = rotate(image, imageRotation);
+        if (tracer != null) tracer.end(PipelineTracer.Stage.ROTATE, frameSeq, traceStart);
+
         long inferenceTime = SystemClock.uptimeMillis();
-        ImageProcessor imageProcessor = new ImageProcessor.Builder().add(new Rot90Op(-imageRotation / 90)).build();
-        TensorImage tensorImage = imageProcessor.process(TensorImage.fromBitmap(image));
-        List<Detection> results = objectDetector.detect(tensorImage);
+        if (tracer != null) traceStart = tracer.begin(PipelineTracer.Stage.INFERENCE);
+        tensorImage.load(rotated);
+        List<Detection> detections = objectDetector.detect(tensorImage);
+        results.clear();
+        for (int i = 0; i < detections.size(); i++) {
+            results.add(detections.get(i));
+        }
+        if (tracer != null) tracer.end(PipelineTracer.Stage.INFERENCE, frameSeq, traceStart);
         inferenceTime = SystemClock.uptimeMillis() - inferenceTime;
+        inferenceCount++;
+        inferenceTotalMs += inferenceTime;
         detectorListener.onResults(results, inferenceTime);
     }
 
+    /**
+     * 회전/추론 단계를 기록할 tracer. null이면 기록하지 않습니다.
+     */
+    public void setTracer(PipelineTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * 추론 통계 한 줄 요약 (로그용)
+     */
+    public String getStageStats() {
+        if (inferenceCount == 0) return "프레임 없음";
+        return "탐지 모델 " + inferenceCount + "회 실행 (평균 "
+                + String.format(Locale.US, "%.1f", (double) inferenceTotalMs / inferenceCount) + "ms)";
+    }
+
+    /**
+     * 기존 Rot90Op(-rotation / 90)와 같은 방향(시계 방향)으로 회전한 비트맵을 돌려줍니다.
+     * Rot90Op는 매 프레임 새 Bitmap을 만들기 때문에, 회전별로 미리 만든 버퍼에 Canvas로 그립니다.
+     */
+    private Bitmap rotate(Bitmap image, int imageRotation) {
+        int rotationIndex = FrameBufferCache.rotationIndex(imageRotation);
+        if (rotationIndex == 0) return image;
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = rotationIndex % 2 == 1;
+        RotatedFrame frame = rotatedFrames.obtain(rotationIndex, swap ? height : width, swap ? width : height);
+
+        rotationMatrix.setRotate(rotationIndex * 90);
+        switch (rotationIndex) {
+            case 1: rotationMatrix.postTranslate(height, 0); break;
+            case 2: rotationMatrix.postTranslate(width, height); break;
+            case 3: rotationMatrix.postTranslate(0, width); break;
+        }
+        frame.canvas.drawBitmap(image, rotationMatrix, null);
+        return frame.bitmap;
+    }
+
+    /**
+     * 지금까지 프레임 경로에서 새로 만든 버퍼 수. 워밍업 이후에는 늘지 않아야 합니다.
+     */
+    public int getAllocationCount() {
+        return rotatedFrames.getAllocationCount();
+    }
+
+    private static class RotatedFrame {
+        final Bitmap bitmap;
+        final Canvas canvas;
+
+        RotatedFrame(int width, int height) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            canvas = new Canvas(bitmap);
+        }
+    }
+
     public interface DetectorListener {
         void onError(String error);
         void onResults(List<Detection> results, long inferenceTime);
     }
-}
\ No newline at end of file
+}
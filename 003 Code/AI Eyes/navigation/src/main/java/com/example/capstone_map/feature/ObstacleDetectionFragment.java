@@ -2,17 +2,26 @@ package com.example.capstone_map.feature; // ★ 패키지 이름 유지
 
 import android.Manifest;
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
+import android.graphics.RectF;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
 import android.hardware.camera2.CameraCharacteristics;
+import android.location.Location;
 import android.media.AudioAttributes;
 import android.media.SoundPool;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.speech.tts.TextToSpeech;
 import android.speech.tts.UtteranceProgressListener;
 import android.util.Base64;
 import android.util.Log;
 import android.util.Size;
+import android.util.SizeF;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -39,23 +48,62 @@ import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
 import com.example.capstone_map.R; // ★ R 임포트 유지
+import com.example.capstone_map.common.location.tracker.LocationTracker;
+import com.example.capstone_map.common.location.tracker.LocationUpdateCallback;
+import com.example.capstone_map.common.upload.AdaptiveJpegPolicy;
+import com.example.capstone_map.common.upload.BestFrameWindow;
+import com.example.capstone_map.common.upload.FrameQualityScorer;
+import com.example.capstone_map.common.upload.LinkQualityEstimator;
+import com.example.capstone_map.common.upload.UploadMetricsListener;
+import com.example.capstone_map.feature.obstacle.AnalysisLevelSelector;
+import com.example.capstone_map.feature.obstacle.CloudRequestPipeline;
+import com.example.capstone_map.feature.obstacle.DetectionRateScheduler;
+import com.example.capstone_map.feature.obstacle.DetectorAutoTuner;
+import com.example.capstone_map.feature.obstacle.DeviceMotionDetector;
+import com.example.capstone_map.feature.obstacle.FrameDataset;
+import com.example.capstone_map.feature.obstacle.FrameRing;
+import com.example.capstone_map.feature.obstacle.HazardDecisionEngine;
+import com.example.capstone_map.feature.obstacle.HazardEstimator;
+import com.example.capstone_map.feature.obstacle.HazardPolicyTable;
+import com.example.capstone_map.feature.obstacle.JpegOutputStream;
+import com.example.capstone_map.feature.obstacle.LatestFrameMailbox;
+import com.example.capstone_map.feature.obstacle.MotionGateStage;
+import com.example.capstone_map.feature.obstacle.ObstacleTracker;
+import com.example.capstone_map.feature.obstacle.PipelineTracer;
+import com.example.capstone_map.feature.obstacle.RoiCropper;
+import com.example.capstone_map.feature.obstacle.SceneHashCache;
+import com.example.capstone_map.feature.obstacle.SceneHasher;
+import com.example.capstone_map.feature.obstacle.SentenceChunker;
+import com.example.capstone_map.feature.obstacle.SseEventReader;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
+import org.tensorflow.lite.support.label.Category;
 import org.tensorflow.lite.task.vision.detector.Detection;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -69,6 +117,8 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
     private SoundPool soundPool;
     private int detectionSoundId;
     private final String UTTERANCE_ID = "ai_eyes_utterance";
+    // 스트리밍 결과는 "ai_eyes_utterance:<ticket>:<문장 번호>"로 나눠 읽고, 끝에 ":end" 무음 표시를 붙임
+    private static final String STREAM_END_SUFFIX = ":end";
 
     private PreviewView previewView;
     private TextView txtResult;
@@ -76,16 +126,94 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
     private ProgressBar progressBar;
 
     private UploadApi api;
+    private UploadApi streamApi;  // 응답 본문을 로그용으로 모으지 않는 클라이언트 (스트리밍 응답용)
     private TextToSpeech tts;
+    // 캡처(cameraExecutor) → 추론(inferenceExecutor) → 인코딩(encodeExecutor)
+    // 단계 사이는 한 칸 우편함이라 앞 단계는 기다리지 않고, 뒤 단계가 바쁘면 오래된 프레임이 밀려남
     private ExecutorService cameraExecutor;
-    private boolean isContinuousAnalysis = false;
-    private long lastCloudApiCallTime = 0;
-    private static final long CLOUD_API_INTERVAL_MS = 5000;
-    private ObjectDetectorHelper objectDetectorHelper;
-    private Bitmap bitmapBuffer = null;
-    private static final Set<String> DANGEROUS_OBJECTS = new HashSet<>(Arrays.asList(
-            "car", "bicycle", "motorcycle", "bus", "truck", "person", "chair", "table"
-    ));
+    private ExecutorService inferenceExecutor;
+    private ExecutorService encodeExecutor;
+    private ExecutorService streamExecutor;  // 스트리밍 응답을 읽는 스레드 (execute()로 블록됨)
+    private ExecutorService reportExecutor;  // 지연 시간 보고서 저장 (파일 I/O)
+    // 순번이 붙은 프레임 버퍼 고리. 단계마다 칸을 붙잡고(retain) 다 쓰면 놓으므로(release),
+    // 인코딩이 붙잡은 칸은 캡처가 덮어쓸 수 없음 → 업로드 픽셀은 항상 탐지한 그 프레임
+    private static final int FRAME_RING_SIZE = 5;  // 캡처 1 + 우편함 1 + 추론 1 + 인코딩 1 + 품질 대기 1
+    private final FrameRing<Bitmap> frameRing = new FrameRing<>(FRAME_RING_SIZE,
+            (width, height) -> Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+    private LatestFrameMailbox<FrameRing.Slot<Bitmap>> inferenceMailbox;
+    private LatestFrameMailbox<EncodeJob> encodeMailbox;
+    private FrameRing.Slot<Bitmap> inferenceFrame;  // 추론 스레드 전용: 지금 탐지 중인 프레임
+    private final AtomicLong frameSeqMismatchCount = new AtomicLong();  // 0이 아니면 버그
+    private volatile boolean isContinuousAnalysis = false;
+    private volatile ObjectDetectorHelper objectDetectorHelper;  // 카메라 executor에서 자동 튜닝 후 생성
+    // 추론 시간에 맞춰 초당 탐지 횟수를 조절 (평상시 5회, 위험 객체가 보이면 3초간 10회, 최소 1회)
+    private final DetectionRateScheduler frameScheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+    // 폰이 움직이지 않고(가속도/자이로) 장면도 그대로면(밝기 18 넘게 바뀐 칸이 2% 미만) 1초에 한 번만 탐지
+    // 카메라 콜백에서 픽셀 복사 전에 판단하므로 막힌 프레임은 복사/회전/추론을 모두 건너뜀. 움직이면 다음 프레임부터 바로 탐지
+    private final DeviceMotionDetector deviceMotion = new DeviceMotionDetector(0.6f, 0.35f, 800);
+    private final MotionGateStage motionGate = new MotionGateStage(18, 0.02f, 1000, deviceMotion);
+    // 걷는 속도로 분석 단계를 고름: 빠른 걸음 1(한 문장), 보통 2, 서 있음 3(자세히)
+    // 속도는 GPS(LocationTracker), GPS가 없거나 약하면 가속도계 걸음 수로 어림. onResume ~ onPause 동안만 받음
+    private final AnalysisLevelSelector levelSelector = new AnalysisLevelSelector();
+    private LocationTracker locationTracker;
+    private SensorManager sensorManager;
+    private Sensor accelerometer;
+    private Sensor gyroscope;
+    // true면 JPEG 바이트를 그대로 업로드 (base64는 33% 더 크고 문자열/JSON 복사가 추가로 생김)
+    // 서버에 analyze-binary가 없으면(404/405/415) 그 요청은 예전 JSON(base64)으로 다시 보내고, 이후로는 JSON만 씀
+    private static final boolean USE_BINARY_UPLOAD = true;
+    private volatile boolean binaryEndpointAvailable = true;
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final MediaType IMAGE_JPEG = MediaType.parse("image/jpeg");
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain");
+    // true면 장면 전체는 작은 썸네일로, 알림을 일으킨 객체 주변은 원본 해상도로 잘라서 함께 보냄
+    private static final boolean USE_ROI_UPLOAD = true;
+    private static final int THUMBNAIL_SIZE = 320;
+    private static final float ROI_PADDING = 0.2f;   // 박스 크기 대비 사방 여백
+    private static final int ROI_MIN_SIDE = 128;
+    private static final int ROI_MAX_SIDE = 640;
+    private final float[] roiBox = new float[4];
+    // 최근 업로드 처리량/RTT로 전체 프레임 해상도와 JPEG 품질을 고름 (업로드에 0.7초 안쪽, 처음에는 640px q85)
+    private static final long UPLOAD_BUDGET_MS = 700;
+    private final LinkQualityEstimator uploadLink = new LinkQualityEstimator(0.3f);
+    private final AdaptiveJpegPolicy uploadPolicy = new AdaptiveJpegPolicy(uploadLink, UPLOAD_BUDGET_MS,
+            new int[]{640, 85}, new int[]{512, 80}, new int[]{448, 75}, new int[]{384, 70}, new int[]{320, 60});
+    // 흔들렸거나 어두운 프레임은 바로 올리지 않고 0.6초 동안 이어지는 프레임 중 가장 선명한 것을 올림
+    // 점수는 캡처 단계에서 160x120 밝기로 계산 (라플라시안 분산 + 히스토그램). 끝까지 기준 미달이면 올리지 않음
+    private static final long BEST_FRAME_WINDOW_MS = 600;
+    private final FrameQualityScorer qualityScorer = new FrameQualityScorer(160, 120, 30f, 90f);
+    private final BestFrameWindow<EncodeJob> bestFrameWindow = new BestFrameWindow<>(qualityScorer, BEST_FRAME_WINDOW_MS,
+            job -> frameRing.release(job.frame));
+    private int pendingCloudPriority;                       // 추론 스레드 전용: 창을 연 클라우드 판단
+    private ObstacleTracker.Track pendingFocusTrack;
+    private boolean pendingApproaching;
+    // 박스 크기 + 카메라 초점거리로 거리/방향을 어림해 네트워크 없이 바로 경고 ("자동차, 2시 방향, 약 5미터")
+    private final HazardEstimator hazardEstimator = new HazardEstimator();
+    private static final String WARNING_UTTERANCE_ID = "ai_eyes_warning";
+    private volatile boolean warningSpeaking = false;
+    // true면 분석 결과를 SSE로 받아 첫 문장이 완성되는 대로 읽고 나머지는 이어서 읽음 (level 3처럼 긴 설명에서 수 초 단축)
+    // 서버에 analyze-stream이 없으면(404/405/415) 그 요청은 한 번에 받는 방식으로 다시 보내고, 이후로는 스트리밍을 쓰지 않음
+    private static final boolean USE_STREAMING_RESPONSE = true;
+    private volatile boolean streamEndpointAvailable = true;
+    // 단계별 지연 시간 (프레임 번호별). onPause에서 보고서를 로그 + filesDir/obstacle_trace에 남김
+    private final PipelineTracer tracer = new PipelineTracer();
+    private volatile long warningSpeakRequestedAt = 0;   // 즉시 경고 speak() 호출 시각 (ns)
+    private volatile long warningFrameSeq = 0;
+    private final Map<Long, AnalysisRequest> activeRequests = new ConcurrentHashMap<>();  // 티켓 → 요청 (단계 기록용)
+    // true면 분석 중인 카메라 프레임을 getExternalFilesDir("replay")/frames_<ms>.aief로 저장 (PC 재생 테스트용)
+    // 한 장이 약 1.2MB라 저장하는 동안은 프레임이 더 많이 버려짐. 평소에는 꺼 둠
+    private static final boolean RECORD_FRAMES = false;
+    private static final int MAX_RECORDED_FRAMES = 600;
+    private File recordDir;
+    private FrameDataset.Writer frameRecorder;  // 카메라 executor에서만 사용
+    // 거의 같은 장면이면 서버에 다시 보내지 않고 최근 결과를 재사용 (64비트 중 6비트 이하 차이, 30초 유지)
+    private final SceneHasher sceneHasher = new SceneHasher();
+    private final SceneHashCache sceneCache = new SceneHashCache(8, 6, 30_000);
+    // 진행 중 1개 + 대기 1개(최신 프레임 우선). 대기 3초, 응답 8초가 넘으면 지나간 장면으로 보고 버림
+    private final CloudRequestPipeline cloudPipeline = new CloudRequestPipeline(3000, 8000);
+    // 프레임 간 같은 물체를 추적 → 새로 나타났거나 다가오는 물체만 즉시 경고/클라우드 분석 (녹화 재생 테스트와 같은 규칙)
+    // 클래스별 우선순위/최소 신뢰도/재알림 간격은 assets/hazard_policy.json. onCreate에서 executor보다 먼저 만듦
+    private HazardDecisionEngine hazardEngine;
 
     private final ActivityResultLauncher<String> requestPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
@@ -102,12 +230,104 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        Context appContext = requireContext().getApplicationContext();
+        hazardEngine = HazardDecisionEngine.createDefault(loadHazardPolicies(appContext), hazardEstimator);
+
         cameraExecutor = Executors.newSingleThreadExecutor();
-        objectDetectorHelper = new ObjectDetectorHelper(requireContext(), "1.tflite", 0.5f, 2, 5, this);
+        inferenceExecutor = Executors.newSingleThreadExecutor();
+        encodeExecutor = Executors.newSingleThreadExecutor();
+        streamExecutor = Executors.newSingleThreadExecutor();
+        reportExecutor = Executors.newSingleThreadExecutor();
+        inferenceMailbox = new LatestFrameMailbox<>(inferenceExecutor, this::runDetection, frameRing::release);
+        encodeMailbox = new LatestFrameMailbox<>(encodeExecutor, this::encodeAndSubmit, job -> frameRing.release(job.frame));
+        // 기기별로 가장 빠른 스레드 수/NNAPI 여부를 한 번 측정해 저장 (처음 실행할 때만 1~3초)
+        // 탐지와 같은 executor에서 돌리므로 헬퍼가 만들어지기 전의 프레임은 그냥 건너뜀
+        if (RECORD_FRAMES) recordDir = appContext.getExternalFilesDir("replay");
+        DetectorAutoTuner autoTuner = new DetectorAutoTuner(appContext, "1.tflite",
+                new DetectorAutoTuner.Config(2, false, 0f));
+        inferenceExecutor.execute(() -> {
+            DetectorAutoTuner.Config config = autoTuner.loadOrCalibrate();
+            Log.d(TAG, "탐지 모델 설정: " + config);
+            // 움직임 게이트는 카메라 콜백에서 먼저 거르므로 여기서는 게이트 없이 매번 1.tflite 실행
+            // 점수 0.4는 하한일 뿐이고, 클래스별 최소 신뢰도는 위험 정책 표에서 다시 거름
+            ObjectDetectorHelper helper = new ObjectDetectorHelper(appContext, "1.tflite", 0.4f,
+                    config.numThreads, config.useNnapi, 5, this);
+            helper.setTracer(tracer);
+            objectDetectorHelper = helper;
+        });
 
         setupNetwork();
         setupTTS();
         setupSoundPool();
+        setupSpeedSensors(appContext);
+    }
+
+    private void setupSpeedSensors(Context context) {
+        locationTracker = new LocationTracker(context, new LocationUpdateCallback() {
+            @Override
+            public void onLocationChanged(Location location) {
+                levelSelector.onLocation(SystemClock.elapsedRealtime(), location.getLatitude(), location.getLongitude(),
+                        location.getAccuracy(),
+                        location.hasSpeed() ? location.getSpeed() : Float.NaN,
+                        location.hasSpeedAccuracy() ? location.getSpeedAccuracyMetersPerSecond() : Float.NaN);
+                updateAnalysisLevel(SystemClock.elapsedRealtime());
+            }
+
+            @Override
+            public void onLocationAccuracyChanged(float accuracy) {
+            }
+
+            @Override
+            public void onGPSSignalWeak() {
+                levelSelector.onGpsSignalWeak();
+            }
+
+            @Override
+            public void onGPSSignalRestored() {
+            }
+        });
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        accelerometer = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+        gyroscope = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE) : null;
+    }
+
+    private final SensorEventListener motionSensorListener = new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            float[] v = event.values;
+            if (event.sensor.getType() == Sensor.TYPE_GYROSCOPE) {
+                deviceMotion.onGyroscope(event.timestamp, v[0], v[1], v[2]);
+                return;
+            }
+            deviceMotion.onAccelerometer(event.timestamp, v[0], v[1], v[2]);
+            levelSelector.onAccelerometer(event.timestamp, v[0], v[1], v[2]);
+            updateAnalysisLevel(event.timestamp / 1_000_000L);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        }
+    };
+
+    private void updateAnalysisLevel(long nowMs) {
+        int previous = levelSelector.getLevel();
+        if (levelSelector.update(nowMs) != previous) {
+            Log.d(TAG, "분석 단계 변경: " + previous + " -> " + levelSelector);
+        }
+    }
+
+    /**
+     * 위험 정책 표를 읽습니다. 파일이 없거나 형식이 틀리면 이전 규칙(모든 위험 라벨 동일 취급)으로 동작합니다.
+     */
+    private static HazardPolicyTable loadHazardPolicies(Context context) {
+        try (Reader reader = new InputStreamReader(context.getAssets().open(HazardPolicyTable.ASSET_NAME), StandardCharsets.UTF_8)) {
+            HazardPolicyTable policies = HazardPolicyTable.parse(reader);
+            Log.d(TAG, "위험 정책: " + policies);
+            return policies;
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "위험 정책 읽기 실패, 이전 규칙 사용: " + e.getMessage());
+            return HazardPolicyTable.legacy();
+        }
     }
 
     @Nullable
@@ -138,9 +358,14 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
         isContinuousAnalysis = !isContinuousAnalysis;
         if (isContinuousAnalysis) {
             btnToggleAnalysis.setText("분석 중지");
+            frameScheduler.reset();
+            hazardEngine.reset();
+            motionGate.reset();
             tts.speak("연속 분석을 시작합니다.", TextToSpeech.QUEUE_FLUSH, null, null);
             resetState();
         } else {
+            cancelAllAnalysis();
+            if (progressBar != null) progressBar.setVisibility(View.GONE);
             btnToggleAnalysis.setText("분석 시작");
             txtResult.setText("분석이 중지되었습니다.");
             tts.speak("분석을 중지합니다.", TextToSpeech.QUEUE_FLUSH, null, null);
@@ -186,18 +411,46 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                         .build();
 
                 imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> {
-                    if (bitmapBuffer == null) {
-                        bitmapBuffer = Bitmap.createBitmap(imageProxy.getWidth(), imageProxy.getHeight(), Bitmap.Config.ARGB_8888);
+                    long frameTime = SystemClock.uptimeMillis();
+                    // 품질 창 마감: 이 프레임이 아래에서 버려져도 기다리던 프레임은 제때 올림
+                    EncodeJob expired = bestFrameWindow.poll(frameTime);
+                    if (expired != null) encodeMailbox.offer(expired);
+                    // 재생 테스트가 탐지 빈도 조절까지 다시 돌릴 수 있도록 건너뛰기 전에 모든 프레임을 저장
+                    if (RECORD_FRAMES) recordFrame(imageProxy, frameTime);
+                    // 이번 프레임을 탐지할 차례가 아니면 픽셀 복사도 하지 않고 바로 버림
+                    if (!isContinuousAnalysis || !frameScheduler.shouldProcessFrame(frameTime)) {
+                        imageProxy.close();
+                        return;
                     }
-                    bitmapBuffer.copyPixelsFromBuffer(imageProxy.getPlanes()[0].getBuffer());
-
-                    int imageRotation = imageProxy.getImageInfo().getRotationDegrees();
-
-                    if (isContinuousAnalysis && objectDetectorHelper != null) {
-                        objectDetectorHelper.detect(bitmapBuffer, imageRotation);
+                    // 폰도 장면도 그대로면 버림 (센서 시각과 맞추려고 elapsedRealtime 기준)
+                    // 게이트는 링 칸(프레임 번호)을 잡기 전에 돌므로 NO_FRAME으로 기록
+                    ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+                    long gateStart = tracer.begin(PipelineTracer.Stage.GATE);
+                    boolean candidates = motionGate.hasCandidates(plane.getBuffer(), imageProxy.getWidth(), imageProxy.getHeight(),
+                            plane.getRowStride(), SystemClock.elapsedRealtime());
+                    tracer.end(PipelineTracer.Stage.GATE, PipelineTracer.NO_FRAME, gateStart);
+                    if (!candidates) {
+                        imageProxy.close();
+                        return;
                     }
 
+                    // 추론/인코딩 단계가 모든 칸을 붙잡고 있으면 이 프레임은 버림 (카메라 스레드는 기다리지 않음)
+                    // 여기서 붙잡은 칸은 우편함을 거쳐 추론 단계가 놓음
+                    FrameRing.Slot<Bitmap> frame = frameRing.acquire(imageProxy.getWidth(), imageProxy.getHeight());
+                    if (frame == null) {
+                        imageProxy.close();
+                        return;
+                    }
+                    frame.timestampMs = frameTime;
+                    frame.rotationDegrees = imageProxy.getImageInfo().getRotationDegrees();
+                    frame.quality = qualityScorer.scoreRgba(plane.getBuffer(), imageProxy.getWidth(), imageProxy.getHeight(),
+                            plane.getRowStride());
+                    long copyStart = tracer.begin(PipelineTracer.Stage.COPY);
+                    frame.getBuffer().copyPixelsFromBuffer(plane.getBuffer());
+                    tracer.end(PipelineTracer.Stage.COPY, frame.getSeq(), copyStart);
                     imageProxy.close();
+
+                    inferenceMailbox.offer(frame);
                 });
 
                 cameraProvider.unbindAll();
@@ -218,6 +471,43 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
     }
 
 
+    /**
+     * 분석 중인 동안 프레임을 녹화 파일에 이어 씁니다. 분석이 꺼지면 파일을 닫습니다. (카메라 executor)
+     */
+    private void recordFrame(ImageProxy imageProxy, long timestampMs) {
+        try {
+            if (!isContinuousAnalysis || recordDir == null) {
+                closeFrameRecorder();
+                return;
+            }
+            if (frameRecorder == null) {
+                File file = new File(recordDir, "frames_" + System.currentTimeMillis() + ".aief");
+                frameRecorder = new FrameDataset.Writer(file, imageProxy.getWidth(), imageProxy.getHeight(), MAX_RECORDED_FRAMES);
+                Log.d(TAG, "프레임 녹화 시작: " + file.getAbsolutePath());
+            }
+            ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+            // 재생할 때 움직임 게이트가 센서 판단도 똑같이 따르도록 함께 저장
+            int flags = deviceMotion.isMoving(SystemClock.elapsedRealtime()) ? FrameDataset.FLAG_DEVICE_MOVING : 0;
+            frameRecorder.append(timestampMs, imageProxy.getImageInfo().getRotationDegrees(), flags,
+                    plane.getBuffer(), plane.getRowStride());
+        } catch (IOException e) {
+            Log.e(TAG, "프레임 녹화 실패: " + e.getMessage());
+            recordDir = null;
+            closeFrameRecorder();
+        }
+    }
+
+    private void closeFrameRecorder() {
+        if (frameRecorder == null) return;
+        try {
+            Log.d(TAG, "프레임 녹화 종료: " + frameRecorder.getFrameCount() + "장");
+            frameRecorder.close();
+        } catch (IOException e) {
+            Log.e(TAG, "녹화 파일 닫기 실패: " + e.getMessage());
+        }
+        frameRecorder = null;
+    }
+
     @ExperimentalCamera2Interop
     @SuppressWarnings("deprecation")
     private CameraSelector getWideAngleCameraSelector(ProcessCameraProvider cameraProvider) {
@@ -239,6 +529,10 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                         if (currentMinFocalLength < minFocalLength) {
                             minFocalLength = currentMinFocalLength;
                             wideAngleCameraSelector = cameraInfo.getCameraSelector();
+                            SizeF sensorSize = characteristics.get(CameraCharacteristics.SENSOR_INFO_PHYSICAL_SIZE);
+                            if (sensorSize != null) {
+                                hazardEstimator.setIntrinsics(currentMinFocalLength, sensorSize.getWidth(), sensorSize.getHeight());
+                            }
                         }
                     }
                 }
@@ -249,37 +543,298 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
         return wideAngleCameraSelector;
     }
 
+    /**
+     * 추론 단계 (inferenceExecutor). 캡처가 붙잡아 넘긴 칸을 탐지가 끝나면 놓습니다.
+     * 클라우드 분석을 올리면 onResults에서 인코딩 단계가 따로 붙잡으므로 칸은 그쪽이 놓을 때까지 유지됩니다.
+     */
+    private void runDetection(FrameRing.Slot<Bitmap> frame) {
+        ObjectDetectorHelper detectorHelper = objectDetectorHelper;
+        inferenceFrame = frame;
+        try {
+            if (isContinuousAnalysis && detectorHelper != null) {
+                detectorHelper.detect(frame.getBuffer(), frame.rotationDegrees, frame.getSeq());
+            }
+        } finally {
+            inferenceFrame = null;
+            frameRing.release(frame);
+        }
+    }
+
+    /**
+     * 탐지 결과 처리. detect() 안에서 불리므로 추론 스레드에서 실행됩니다.
+     */
     @Override
     public void onResults(List<Detection> results, long inferenceTime) {
-        if (progressBar == null || progressBar.getVisibility() == View.VISIBLE || !isContinuousAnalysis) return;
-
-        boolean shouldCallCloudApi = false;
+        FrameRing.Slot<Bitmap> frame = inferenceFrame;
+        if (frame == null) return;
+        long now = SystemClock.uptimeMillis();
+        float frameWidth = frame.getRotatedWidth();
+        float frameHeight = frame.getRotatedHeight();
+        long frameSeq = frame.getSeq();
+
+        long trackStart = tracer.begin(PipelineTracer.Stage.TRACK);
+        hazardEngine.beginFrame(now);
         if (results != null) {
             for (Detection detection : results) {
-                String label = detection.getCategories().get(0).getLabel();
-                if (DANGEROUS_OBJECTS.contains(label)) {
-                    shouldCallCloudApi = true;
-                    break;
-                }
+                Category category = detection.getCategories().get(0);
+                RectF box = detection.getBoundingBox();
+                hazardEngine.offerDetection(category.getLabel(), category.getIndex(), category.getScore(),
+                        box.left / frameWidth, box.top / frameHeight,
+                        box.right / frameWidth, box.bottom / frameHeight);
             }
         }
+        HazardDecisionEngine.Decision decision = hazardEngine.endFrame(now, frame.rotationDegrees, isContinuousAnalysis);
+        tracer.end(PipelineTracer.Stage.TRACK, frameSeq, trackStart);
+
+        float previousRate = frameScheduler.getCurrentRate();
+        frameScheduler.onInferenceFinished(inferenceTime, decision.dangerSeen, now);
+        if (previousRate != frameScheduler.getCurrentRate()) {
+            Log.d(TAG, "탐지 빈도 변경: " + previousRate + " -> " + frameScheduler.getCurrentRate() + "회/초 (추론 " + inferenceTime + "ms)");
+        }
+
+        if (!isContinuousAnalysis) return;
 
-        if (shouldCallCloudApi && (System.currentTimeMillis() - lastCloudApiCallTime > CLOUD_API_INTERVAL_MS)) {
-            lastCloudApiCallTime = System.currentTimeMillis();
+        if (decision.warningText != null) {
+            speakLocalWarning(decision.warningText, decision.warningTrack, frameSeq, now);
+        }
+
+        if (decision.cloudCall) {
             if (soundPool != null) {
                 soundPool.play(detectionSoundId, 1, 1, 1, 0, 1.0f);
             }
+            if (!bestFrameWindow.isOpen() || decision.cloudPriority > pendingCloudPriority) {
+                pendingCloudPriority = decision.cloudPriority;
+                pendingFocusTrack = decision.focusTrack;
+                pendingApproaching = decision.cloudApproaching;
+            }
+            bestFrameWindow.open(now);
+        }
+        if (bestFrameWindow.isOpen()) {
+            // 인코딩은 별도 스레드에서. 인코딩(또는 품질 대기) 몫으로 칸을 한 번 더 붙잡아 넘김
+            // (트랙은 다음 프레임에 갱신되므로 크롭할 박스는 지금 값으로 복사해 둠)
+            frameRing.retain(frame);
+            EncodeJob job = new EncodeJob(frame, frameSeq, pendingCloudPriority, pendingFocusTrack, pendingApproaching);
+            EncodeJob chosen = bestFrameWindow.offer(job, frame.quality, now);
+            if (chosen != null) {
+                encodeMailbox.offer(chosen);
+            } else if (!bestFrameWindow.isOpen()) {
+                Log.d(TAG, "기다린 프레임이 모두 품질 미달 → 업로드 안 함 (" + bestFrameWindow + ")");
+            } else if (decision.cloudCall) {
+                Log.d(TAG, "흐리거나 어두운 프레임 (품질 " + frame.quality + ") → 더 나은 프레임 기다림");
+            }
+        }
+    }
+
+    /**
+     * 인코딩 단계에 넘기는 일감. 붙잡은 칸은 이 일감이 끝날 때 놓습니다.
+     */
+    private static class EncodeJob {
+        final FrameRing.Slot<Bitmap> frame;
+        final long detectedSeq;    // 탐지한 프레임 순번. 인코딩 전후로 칸의 순번과 같아야 함
+        final int priority;
+        final boolean approaching;  // 다가오는 트랙 때문에 올리는지 (장면 캐시를 쓰지 않음)
+        final String focusLabel;
+        final float[] focusBox;   // 회전된 이미지 기준 (left, top, right, bottom), 크롭할 트랙이 없으면 null
+        final long createdAtNanos = SystemClock.elapsedRealtimeNanos();
+
+        EncodeJob(FrameRing.Slot<Bitmap> frame, long detectedSeq, int priority, ObstacleTracker.Track focusTrack,
+                  boolean approaching) {
+            this.frame = frame;
+            this.detectedSeq = detectedSeq;
+            this.priority = priority;
+            this.approaching = approaching;
+            this.focusLabel = focusTrack != null ? focusTrack.label : null;
+            this.focusBox = focusTrack != null
+                    ? new float[]{focusTrack.getLeft(), focusTrack.getTop(), focusTrack.getRight(), focusTrack.getBottom()}
+                    : null;
+        }
+    }
+
+    /**
+     * 인코딩 단계 (encodeExecutor). 대기칸에 들어갈 수 있으므로 업로드 데이터를 미리 만들어 요청에 담습니다.
+     */
+    private void encodeAndSubmit(EncodeJob job) {
+        try {
+            if (!isContinuousAnalysis || !isSameFrame(job, "인코딩 전")) return;
+            long now = SystemClock.uptimeMillis();
+            Bitmap bitmap = job.frame.getBuffer();
+            long sceneHash = sceneHasher.hash(bitmap);
+            // 캐시 조회와 업로드가 같은 단계를 쓰도록 여기서 한 번만 읽음
+            int level = levelSelector.getLevel();
+            // 다가오는 물체는 9x8 해시로는 장면이 같아 보여도 거리가 달라졌으므로 항상 새로 분석
+            String cachedResult = job.approaching ? null : sceneCache.lookup(sceneHash, level, now);
+            AnalysisRequest request;
+            if (cachedResult != null) {
+                Log.d(TAG, "비슷한 장면 → 캐시 결과 재사용 (적중률 " + sceneCache.getHitRate()
+                        + ", 절약 " + sceneCache.getSavedBytes() + " bytes)");
+                request = new AnalysisRequest(job, sceneHash, level, cachedResult, null, null);
+            } else {
+                AdaptiveJpegPolicy.Choice choice = uploadPolicy.choose(bitmap.getWidth(), bitmap.getHeight());
+                Log.d(TAG, "업로드 설정: " + choice + " / " + uploadLink);
+                if (USE_ROI_UPLOAD && job.focusBox != null) {
+                    request = buildRoiRequest(job, sceneHash, level, choice);
+                } else if (canSendBinary()) {
+                    request = new AnalysisRequest(job, sceneHash, level, null,
+                            bitmapToJpeg(bitmap, choice.maxSide, choice, job.detectedSeq), null);
+                } else {
+                    request = new AnalysisRequest(job, sceneHash, level, null, null, bitmapToBase64(bitmap, choice, job.detectedSeq));
+                }
+            }
+            // 인코딩하는 동안 칸이 다시 쓰였다면 업로드 데이터가 다른 프레임일 수 있으므로 보내지 않음
+            if (!isSameFrame(job, "인코딩 후")) return;
+            cloudPipeline.submit(request, now);
+        } finally {
+            frameRing.release(job.frame);
+        }
+    }
+
+    /**
+     * 칸을 붙잡고 있는 동안에는 순번이 바뀔 수 없으므로 항상 true여야 합니다. (어긋나면 붙잡기/놓기 버그)
+     */
+    private boolean isSameFrame(EncodeJob job, String when) {
+        if (job.frame.getSeq() == job.detectedSeq) return true;
+        frameSeqMismatchCount.incrementAndGet();
+        Log.e(TAG, when + " 프레임 순번 불일치: 탐지 " + job.detectedSeq + ", 버퍼 " + job.frame.getSeq() + " → 업로드 안 함");
+        return false;
+    }
+
+    /**
+     * 가장 가까운 새 트랙/다가오는 트랙 경고를 바로 읽어줍니다.
+     * 클라우드 설명은 그대로 요청하고, 도착하면 이 경고 뒤에 이어서 읽습니다.
+     */
+    private void speakLocalWarning(String warning, ObstacleTracker.Track track, long frameSeq, long now) {
+        if (tts == null) return;
+        Log.d(TAG, "즉시 경고: " + warning + " (처음 보인 뒤 " + (now - track.firstSeenAt) + "ms)");
+        tracer.record(PipelineTracer.Stage.LOCAL_WARNING, frameSeq, (now - track.firstSeenAt) * 1_000_000L);
+        warningFrameSeq = frameSeq;
+        warningSpeakRequestedAt = SystemClock.elapsedRealtimeNanos();
+        warningSpeaking = true;
+        // 경고는 하던 설명을 끊고 먼저 읽음
+        tts.speak(warning, TextToSpeech.QUEUE_FLUSH, null, WARNING_UTTERANCE_ID);
+    }
+
+    /**
+     * 썸네일 + 객체 주변 크롭 요청을 만듭니다. 박스는 썸네일(회전 전 원본과 같은 비율) 기준 좌표로 보냅니다.
+     * 망이 느리면 업로드 정책이 고른 품질로, 썸네일은 그 단계의 긴 변보다 크지 않게 만듭니다.
+     */
+    private AnalysisRequest buildRoiRequest(EncodeJob job, long sceneHash, int level, AdaptiveJpegPolicy.Choice choice) {
+        FrameRing.Slot<Bitmap> frame = job.frame;
+        System.arraycopy(job.focusBox, 0, roiBox, 0, 4);
+        RoiCropper.toSourceBox(roiBox, frame.rotationDegrees);
+        long encodeStart = tracer.begin(PipelineTracer.Stage.ENCODE);
+        RoiCropper.Roi roi = RoiCropper.crop(frame.getBuffer(), roiBox, ROI_PADDING, ROI_MIN_SIDE, ROI_MAX_SIDE);
+        JpegOutputStream crop = new JpegOutputStream(32 * 1024);
+        roi.bitmap.compress(Bitmap.CompressFormat.JPEG, choice.quality, crop);
+        tracer.end(PipelineTracer.Stage.ENCODE, job.detectedSeq, encodeStart);
+        uploadPolicy.recordEncoded(choice, roi.bitmap.getWidth() * roi.bitmap.getHeight(), crop.size());
+
+        JpegOutputStream thumbnail = bitmapToJpeg(frame.getBuffer(), Math.min(THUMBNAIL_SIZE, choice.maxSide), choice,
+                job.detectedSeq);
+        if (canSendBinary()) {
+            return new AnalysisRequest(job, sceneHash, level, null, thumbnail, null)
+                    .withCrop(crop, roi.boxString(), job.focusLabel);
+        }
+        long base64Start = tracer.begin(PipelineTracer.Stage.BASE64);
+        String base64Thumbnail = Base64.encodeToString(thumbnail.getBuffer(), 0, thumbnail.size(), Base64.NO_WRAP);
+        tracer.end(PipelineTracer.Stage.BASE64, job.detectedSeq, base64Start);
+        return new AnalysisRequest(job, sceneHash, level, null, null, base64Thumbnail)
+                .withCrop(crop, roi.boxString(), job.focusLabel);
+    }
+
+    /**
+     * 클라우드 분석 요청 하나. 만들 때 프레임을 인코딩해 두고, 파이프라인이 차례가 되면 start()를 부릅니다.
+     */
+    private class AnalysisRequest implements CloudRequestPipeline.Request {
+        private final int priority;
+        private final long sceneHash;
+        private final int level;
+        private final String cachedResult;
+        private final JpegOutputStream jpeg;
+        private final String base64Image;
+        private JpegOutputStream crop;
+        private String cropBox;
+        private String cropLabel;
+        private volatile Call<?> call;
+        // 단계 기록용: 이 요청을 만든 프레임 번호, 클라우드 분석을 정한 시각, speak() 호출 시각 (ns)
+        private final long frameSeq;
+        private final long createdAtNanos;
+        private volatile long speakRequestedAtNanos;
+
+        AnalysisRequest(EncodeJob job, long sceneHash, int level, String cachedResult, JpegOutputStream jpeg, String base64Image) {
+            this.priority = job.priority;
+            this.frameSeq = job.detectedSeq;
+            this.createdAtNanos = job.createdAtNanos;
+            this.sceneHash = sceneHash;
+            this.level = level;
+            this.cachedResult = cachedResult;
+            this.jpeg = jpeg;
+            this.base64Image = base64Image;
+        }
+
+        /**
+         * 객체 주변 크롭을 함께 보냅니다.
+         */
+        AnalysisRequest withCrop(JpegOutputStream crop, String box, String label) {
+            this.crop = crop;
+            this.cropBox = box;
+            this.cropLabel = label;
+            return this;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void start(long ticket) {
+            activeRequests.put(ticket, this);
             if (isAdded()) {
                 requireActivity().runOnUiThread(() -> {
                     if (progressBar != null) progressBar.setVisibility(View.VISIBLE);
                     if (txtResult != null) txtResult.setText("탐지 중...");
                 });
             }
-            String base64Image = bitmapToBase64(bitmapBuffer);
-            sendImageToServer(base64Image);
+            if (cachedResult != null) {
+                deliverResult(cachedResult, ticket);
+            } else if (USE_STREAMING_RESPONSE && streamEndpointAvailable && jpeg != null) {
+                streamAnalysis(jpeg, crop, cropBox, cropLabel, sceneHash, level, ticket, this);
+            } else {
+                send(ticket);
+            }
+        }
+
+        /**
+         * JSON으로 한 번에 받는 요청. 바이너리 엔드포인트가 없는 서버면 base64 JSON으로 보냅니다.
+         */
+        void send(long ticket) {
+            if (jpeg != null && canSendBinary()) {
+                call = crop != null
+                        ? sendImageWithCropToServer(jpeg, crop, cropBox, cropLabel, sceneHash, level, ticket, this)
+                        : sendImageBytesToServer(jpeg, sceneHash, level, ticket, this);
+                return;
+            }
+            String image = base64Image;
+            if (image == null && jpeg != null) {
+                image = Base64.encodeToString(jpeg.getBuffer(), 0, jpeg.size(), Base64.NO_WRAP);
+            }
+            call = sendImageToServer(image, crop, cropBox, cropLabel, sceneHash, level, ticket);
+        }
+
+        @Override
+        public void cancel() {
+            Call<?> current = call;
+            if (current != null) current.cancel();
         }
     }
 
+    /**
+     * 현재 적용 중인 탐지 빈도(회/초)
+     */
+    public float getCurrentDetectionRate() {
+        return frameScheduler.getCurrentRate();
+    }
+
     @Override
     public void onError(String error) {
         if (isAdded()) {
@@ -287,33 +842,113 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
         }
     }
 
-    private void sendImageToServer(String base64Image) {
+    private boolean canSendBinary() {
+        return USE_BINARY_UPLOAD && binaryEndpointAvailable;
+    }
+
+    /**
+     * 새 엔드포인트를 모르는 (예전 버전) 서버의 응답인지
+     */
+    private static boolean isUnsupportedEndpoint(int code) {
+        return code == 404 || code == 405 || code == 415;
+    }
+
+    private Call<JsonObject> sendImageToServer(String base64Image, JpegOutputStream crop, String cropBox, String cropLabel,
+                                               long sceneHash, int level, long ticket) {
+        if (api == null || base64Image == null) {
+            Log.e(TAG, "API client is null.");
+            finishAnalysis(ticket);
+            return null;
+        }
+
         JsonObject json = new JsonObject();
         json.addProperty("image", base64Image);
-        json.addProperty("level", 2);
+        json.addProperty("level", level);
+        int payloadBytes = base64Image.length();
+        if (crop != null) {
+            String base64Crop = Base64.encodeToString(crop.getBuffer(), 0, crop.size(), Base64.NO_WRAP);
+            json.addProperty("crop", base64Crop);
+            json.addProperty("box", cropBox);
+            json.addProperty("label", cropLabel);
+            payloadBytes += base64Crop.length();
+        }
 
+        return enqueueAnalysis(api.sendImage(json), sceneHash, level, payloadBytes, ticket, null);
+    }
+
+    /**
+     * 썸네일과 크롭을 multipart로 보냅니다. (둘 다 JPEG 바이트 그대로)
+     */
+    private Call<JsonObject> sendImageWithCropToServer(JpegOutputStream thumbnail, JpegOutputStream crop, String cropBox,
+                                                       String cropLabel, long sceneHash, int level, long ticket,
+                                                       AnalysisRequest request) {
         if (api == null) {
             Log.e(TAG, "API client is null.");
-            if (isAdded()) requireActivity().runOnUiThread(() -> resetState());
-            return;
+            finishAnalysis(ticket);
+            return null;
         }
 
-        api.sendImage(json).enqueue(new Callback<JsonObject>() {
+        MultipartBody.Part image = MultipartBody.Part.createFormData("image", "scene.jpg",
+                RequestBody.create(thumbnail.getBuffer(), IMAGE_JPEG, 0, thumbnail.size()));
+        MultipartBody.Part cropPart = MultipartBody.Part.createFormData("crop", "crop.jpg",
+                RequestBody.create(crop.getBuffer(), IMAGE_JPEG, 0, crop.size()));
+        Call<JsonObject> call = api.sendImageWithCrop(image, cropPart,
+                RequestBody.create(cropBox, TEXT_PLAIN), RequestBody.create(cropLabel, TEXT_PLAIN), level);
+        return enqueueAnalysis(call, sceneHash, level, thumbnail.size() + crop.size(), ticket, request);
+    }
+
+    /**
+     * JPEG 바이트를 그대로(application/octet-stream) 보냅니다. 버퍼는 복사하지 않습니다.
+     */
+    private Call<JsonObject> sendImageBytesToServer(JpegOutputStream jpeg, long sceneHash, int level, long ticket,
+                                                    AnalysisRequest request) {
+        if (api == null || jpeg == null) {
+            Log.e(TAG, "API client is null.");
+            finishAnalysis(ticket);
+            return null;
+        }
+
+        RequestBody body = RequestBody.create(jpeg.getBuffer(), OCTET_STREAM, 0, jpeg.size());
+        return enqueueAnalysis(api.sendImageBinary(body, level), sceneHash, level, jpeg.size(), ticket, request);
+    }
+
+    /**
+     * @param binaryRequest 바이너리 엔드포인트로 보낸 요청이면 그 요청 (서버에 엔드포인트가 없으면 JSON으로 다시 보냄), 아니면 null
+     */
+    private Call<JsonObject> enqueueAnalysis(Call<JsonObject> call, long sceneHash, int level, int payloadBytes, long ticket,
+                                             AnalysisRequest binaryRequest) {
+        AnalysisRequest request = activeRequests.get(ticket);
+        long frameSeq = request != null ? request.frameSeq : 0L;
+        long networkStart = tracer.beginAsync(PipelineTracer.Stage.NETWORK, (int) ticket);
+        call.enqueue(new Callback<JsonObject>() {
             @Override
             public void onResponse(@NonNull Call<JsonObject> call, @NonNull Response<JsonObject> response) {
+                tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
                 if (!isAdded()) return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     String resultText = response.body().get("result").getAsString();
-                    requireActivity().runOnUiThread(() -> {
-                        if (txtResult != null) txtResult.setText(resultText);
-                    });
-                    Bundle params = new Bundle();
-                    params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, UTTERANCE_ID);
-                    if (tts != null) {
-                        tts.speak(resultText, TextToSpeech.QUEUE_FLUSH, params, UTTERANCE_ID);
+                    // 결과 자체는 캐시에 남겨두되, 취소됐거나 너무 늦게 온 결과는 읽지 않음
+                    sceneCache.put(sceneHash, level, resultText, payloadBytes, SystemClock.uptimeMillis());
+                    if (!cloudPipeline.acceptResult(ticket, SystemClock.uptimeMillis())) {
+                        Log.d(TAG, "지나간 장면의 분석 결과 → 버림 (ticket " + ticket + ")");
+                        activeRequests.remove(ticket);
+                        onPipelineMaybeIdle();
+                        return;
                     }
+                    deliverResult(resultText, ticket);
                 } else {
+                    if (!cloudPipeline.isCurrent(ticket)) {
+                        activeRequests.remove(ticket);
+                        onPipelineMaybeIdle();
+                        return;
+                    }
+                    if (binaryRequest != null && isUnsupportedEndpoint(response.code())) {
+                        Log.w(TAG, "서버에 바이너리 업로드가 없음 (Code: " + response.code() + ") → JSON(base64)으로 다시 보냄");
+                        binaryEndpointAvailable = false;
+                        binaryRequest.send(ticket);
+                        return;
+                    }
                     Log.e(TAG, "API Response Not Successful. Code: " + response.code());
                     try {
                         if (response.errorBody() != null) {
@@ -323,49 +958,274 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                         Log.e(TAG, "Error reading errorBody: " + e.getMessage());
                     }
 
-                    requireActivity().runOnUiThread(() -> {
-                        if (tts != null) {
-                            tts.speak("서버 오류가 발생하여 분석을 중지합니다.", TextToSpeech.QUEUE_FLUSH, null, null);
-                        }
-
-                        isContinuousAnalysis = false;
-
-                        if (btnToggleAnalysis != null) {
-                            btnToggleAnalysis.setText("분석 시작");
-                        }
-
-                        resetState();
-
-                        if (txtResult != null) {
-                            txtResult.setText("서버 오류 발생 (Code: " + response.code() + ")");
-                        }
-                    });
+                    stopAnalysisWithError("서버 오류가 발생하여 분석을 중지합니다.", "서버 오류 발생 (Code: " + response.code() + ")");
                 }
             }
 
             @Override
             public void onFailure(@NonNull Call<JsonObject> call, @NonNull Throwable t) {
+                tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
                 if (!isAdded()) return;
+                // 더 급한 요청에 밀려 취소된 경우는 오류가 아님
+                if (call.isCanceled() || !cloudPipeline.isCurrent(ticket)) {
+                    activeRequests.remove(ticket);
+                    return;
+                }
                 Log.e("RetrofitError", "Cloud API 통신 실패", t);
-                requireActivity().runOnUiThread(() -> {
-                    if (tts != null) {
-                        tts.speak("네트워크 오류가 발생하여 분석을 중지합니다.", TextToSpeech.QUEUE_FLUSH, null, null);
-                    }
+                stopAnalysisWithError("네트워크 오류가 발생하여 분석을 중지합니다.", "네트워크 연결 실패");
+            }
+        });
+        return call;
+    }
 
-                    isContinuousAnalysis = false;
+    /**
+     * 서버/네트워크 오류로 연속 분석을 멈추고 알립니다.
+     */
+    private void stopAnalysisWithError(String speech, String status) {
+        cancelAllAnalysis();
+        if (!isAdded()) return;
+        requireActivity().runOnUiThread(() -> {
+            if (tts != null) {
+                tts.speak(speech, TextToSpeech.QUEUE_FLUSH, null, null);
+            }
 
-                    if (btnToggleAnalysis != null) {
-                        btnToggleAnalysis.setText("분석 시작");
-                    }
+            isContinuousAnalysis = false;
 
-                    resetState();
+            if (btnToggleAnalysis != null) {
+                btnToggleAnalysis.setText("분석 시작");
+            }
 
-                    if (txtResult != null) {
-                        txtResult.setText("네트워크 연결 실패");
+            resetState();
+
+            if (txtResult != null) {
+                txtResult.setText(status);
+            }
+        });
+    }
+
+    /**
+     * 이미지(+크롭)를 보내고 결과를 SSE로 받습니다. 읽기는 streamExecutor에서 합니다.
+     * 읽기를 넘기기 전에 request.call을 채워 두므로, 그 사이에 밀려나도 cancel()로 업로드를 끊을 수 있습니다.
+     */
+    private void streamAnalysis(JpegOutputStream jpeg, JpegOutputStream crop, String cropBox,
+                                String cropLabel, long sceneHash, int level, long ticket, AnalysisRequest request) {
+        if (streamApi == null) {
+            Log.e(TAG, "API client is null.");
+            finishAnalysis(ticket);
+            return;
+        }
+        Call<ResponseBody> call;
+        int payloadBytes;
+        if (crop != null) {
+            MultipartBody.Part image = MultipartBody.Part.createFormData("image", "scene.jpg",
+                    RequestBody.create(jpeg.getBuffer(), IMAGE_JPEG, 0, jpeg.size()));
+            MultipartBody.Part cropPart = MultipartBody.Part.createFormData("crop", "crop.jpg",
+                    RequestBody.create(crop.getBuffer(), IMAGE_JPEG, 0, crop.size()));
+            call = streamApi.streamImageWithCrop(image, cropPart,
+                    RequestBody.create(cropBox, TEXT_PLAIN), RequestBody.create(cropLabel, TEXT_PLAIN), level);
+            payloadBytes = jpeg.size() + crop.size();
+        } else {
+            call = streamApi.streamImageBinary(RequestBody.create(jpeg.getBuffer(), OCTET_STREAM, 0, jpeg.size()), level);
+            payloadBytes = jpeg.size();
+        }
+        request.call = call;
+        try {
+            streamExecutor.execute(() -> readAnalysisStream(call, sceneHash, level, payloadBytes, ticket));
+        } catch (RejectedExecutionException e) {
+            finishAnalysis(ticket);  // 화면 종료 중
+        }
+    }
+
+    /**
+     * 스트리밍 응답을 읽으며 문장이 완성될 때마다 읽어줍니다.
+     * NETWORK 단계는 첫 조각이 도착할 때까지(= 업로드 + 첫 문장 생성)로 잽니다.
+     */
+    private void readAnalysisStream(Call<ResponseBody> call, long sceneHash, int level, int payloadBytes, long ticket) {
+        AnalysisRequest request = activeRequests.get(ticket);
+        long frameSeq = request != null ? request.frameSeq : 0L;
+        long networkStart = tracer.beginAsync(PipelineTracer.Stage.NETWORK, (int) ticket);
+        boolean firstChunk = true;
+        StringBuilder fullText = new StringBuilder();
+        SentenceChunker chunker = new SentenceChunker();
+        int sentences = 0;
+        try {
+            Response<ResponseBody> response = call.execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
+                firstChunk = false;
+                if (response.errorBody() != null) response.errorBody().close();
+                if (!isAdded() || !cloudPipeline.isCurrent(ticket)) {
+                    activeRequests.remove(ticket);
+                    onPipelineMaybeIdle();
+                    return;
+                }
+                if (request != null && isUnsupportedEndpoint(response.code())) {
+                    Log.w(TAG, "서버에 스트리밍 응답이 없음 (Code: " + response.code() + ") → 한 번에 받는 요청으로 다시 보냄");
+                    streamEndpointAvailable = false;
+                    request.send(ticket);
+                    return;
+                }
+                Log.e(TAG, "API Response Not Successful. Code: " + response.code());
+                stopAnalysisWithError("서버 오류가 발생하여 분석을 중지합니다.", "서버 오류 발생 (Code: " + response.code() + ")");
+                return;
+            }
+            try (SseEventReader reader = new SseEventReader(response.body().charStream())) {
+                SseEventReader.Event event;
+                while ((event = reader.next()) != null) {
+                    if ("error".equals(event.getName())) throw new IOException("서버 분석 실패: " + event.getData());
+                    if ("done".equals(event.getName())) break;
+                    JsonObject json = JsonParser.parseString(event.getData()).getAsJsonObject();
+                    if (!json.has("delta")) continue;
+
+                    if (firstChunk) {
+                        firstChunk = false;
+                        tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
+                        if (!cloudPipeline.acceptResult(ticket, SystemClock.uptimeMillis())) {
+                            Log.d(TAG, "지나간 장면의 분석 결과 → 버림 (ticket " + ticket + ")");
+                            call.cancel();
+                            activeRequests.remove(ticket);
+                            onPipelineMaybeIdle();
+                            return;
+                        }
                     }
-                });
+                    // 더 급한 요청에 밀렸으면 나머지는 받지 않음
+                    if (!isAdded() || !cloudPipeline.isCurrent(ticket)) {
+                        call.cancel();
+                        activeRequests.remove(ticket);
+                        return;
+                    }
+                    String delta = json.get("delta").getAsString();
+                    fullText.append(delta);
+                    chunker.append(delta);
+                    String sentence;
+                    while ((sentence = chunker.nextSentence()) != null) {
+                        speakStreamedSentence(sentence, fullText.toString(), ticket, sentences++);
+                    }
+                }
+            }
+            if (firstChunk) tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
+            String rest = chunker.finish();
+            if (rest != null && cloudPipeline.isCurrent(ticket)) {
+                speakStreamedSentence(rest, fullText.toString(), ticket, sentences++);
             }
+            if (fullText.length() > 0) {
+                sceneCache.put(sceneHash, level, fullText.toString(), payloadBytes, SystemClock.uptimeMillis());
+            }
+            finishStreamedSpeech(ticket, sentences);
+        } catch (IOException | RuntimeException e) {
+            if (firstChunk) tracer.endAsync(PipelineTracer.Stage.NETWORK, (int) ticket, frameSeq, networkStart);
+            // 더 급한 요청에 밀려 취소된 경우는 오류가 아님
+            if (call.isCanceled() || !cloudPipeline.isCurrent(ticket)) {
+                activeRequests.remove(ticket);
+                return;
+            }
+            if (!isAdded()) return;
+            Log.e("RetrofitError", "Cloud API 스트리밍 실패", e);
+            stopAnalysisWithError("네트워크 오류가 발생하여 분석을 중지합니다.", "네트워크 연결 실패");
+        }
+    }
+
+    /**
+     * 스트리밍으로 받은 문장 하나를 읽습니다.
+     * 첫 문장은 이전 설명(밀려난 요청)을 끊고 바로 읽되, 즉시 경고를 읽는 중이면 그 뒤에 이어서 읽습니다.
+     */
+    private void speakStreamedSentence(String sentence, String textSoFar, long ticket, int index) {
+        if (tts == null) return;
+        if (isAdded()) {
+            requireActivity().runOnUiThread(() -> {
+                if (txtResult != null) txtResult.setText(textSoFar);
+            });
+        }
+        String utteranceId = UTTERANCE_ID + ":" + ticket + ":" + index;
+        if (index == 0) {
+            AnalysisRequest request = activeRequests.get(ticket);
+            if (request != null) request.speakRequestedAtNanos = SystemClock.elapsedRealtimeNanos();
+        }
+        int queueMode = index == 0 && !warningSpeaking ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD;
+        Bundle params = new Bundle();
+        params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
+        tts.speak(sentence, queueMode, params, utteranceId);
+    }
+
+    /**
+     * 마지막 문장 뒤에 무음 표시를 넣어, 그것까지 다 읽으면 요청을 끝냅니다. (문장별 onDone으로는 끝을 알 수 없음)
+     */
+    private void finishStreamedSpeech(long ticket, int sentences) {
+        if (sentences == 0 || tts == null || !cloudPipeline.isCurrent(ticket)) {
+            finishAnalysis(ticket);
+            return;
+        }
+        tts.playSilentUtterance(1, TextToSpeech.QUEUE_ADD, UTTERANCE_ID + ":" + ticket + STREAM_END_SUFFIX);
+    }
+
+    /**
+     * 분석 결과를 화면에 표시하고 읽어줍니다. (서버 응답/캐시 재사용 공통)
+     * 다 읽으면 UtteranceProgressListener에서 이 요청을 끝내고 대기 중인 요청을 시작합니다.
+     */
+    private void deliverResult(String resultText, long ticket) {
+        if (!isAdded() || tts == null) {
+            finishAnalysis(ticket);
+            return;
+        }
+        requireActivity().runOnUiThread(() -> {
+            if (txtResult != null) txtResult.setText(resultText);
         });
+        String utteranceId = UTTERANCE_ID + ":" + ticket;
+        AnalysisRequest request = activeRequests.get(ticket);
+        if (request != null) request.speakRequestedAtNanos = SystemClock.elapsedRealtimeNanos();
+        Bundle params = new Bundle();
+        params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
+        // 아직 읽고 있는 이전 설명(밀려난 요청)은 끊고 바로 읽되, 즉시 경고를 읽는 중이면 그 뒤에 이어서 읽음
+        int queueMode = warningSpeaking ? TextToSpeech.QUEUE_ADD : TextToSpeech.QUEUE_FLUSH;
+        tts.speak(resultText, queueMode, params, utteranceId);
+    }
+
+    private void cancelAllAnalysis() {
+        if (inferenceMailbox != null) inferenceMailbox.clear();
+        bestFrameWindow.cancel();
+        if (encodeMailbox != null) encodeMailbox.clear();
+        cloudPipeline.cancelAll();
+        activeRequests.clear();
+    }
+
+    private void finishAnalysis(long ticket) {
+        activeRequests.remove(ticket);
+        cloudPipeline.finish(ticket, SystemClock.uptimeMillis());
+        onPipelineMaybeIdle();
+    }
+
+    private void onPipelineMaybeIdle() {
+        if (cloudPipeline.isIdle() && isAdded()) {
+            requireActivity().runOnUiThread(() -> resetState());
+        }
+    }
+
+    /**
+     * 요청의 마지막 발화인지. (한 번에 읽는 결과이거나, 스트리밍 결과의 끝 표시)
+     */
+    private boolean isLastUtterance(String utteranceId) {
+        return utteranceId.endsWith(STREAM_END_SUFFIX) || utteranceId.indexOf(':', UTTERANCE_ID.length() + 1) < 0;
+    }
+
+    /**
+     * 요청의 첫 발화인지. (지연 시간은 첫 발화 기준으로 기록)
+     */
+    private boolean isFirstUtterance(String utteranceId) {
+        int colon = utteranceId.indexOf(':', UTTERANCE_ID.length() + 1);
+        return colon < 0 || utteranceId.startsWith(":0", colon) && utteranceId.length() == colon + 2;
+    }
+
+    private long ticketOf(String utteranceId) {
+        if (utteranceId == null || !utteranceId.startsWith(UTTERANCE_ID + ":")) {
+            return CloudRequestPipeline.NO_TICKET;
+        }
+        String rest = utteranceId.substring(UTTERANCE_ID.length() + 1);
+        int colon = rest.indexOf(':');
+        try {
+            return Long.parseLong(colon < 0 ? rest : rest.substring(0, colon));
+        } catch (NumberFormatException e) {
+            return CloudRequestPipeline.NO_TICKET;
+        }
     }
 
     private void setupTTS() {
@@ -374,18 +1234,39 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                 tts.setLanguage(Locale.KOREAN);
                 tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
                     @Override
-                    public void onStart(String utteranceId) {}
+                    public void onStart(String utteranceId) {
+                        long now = SystemClock.elapsedRealtimeNanos();
+                        if (WARNING_UTTERANCE_ID.equals(utteranceId)) {
+                            tracer.record(PipelineTracer.Stage.TTS_START, warningFrameSeq, now - warningSpeakRequestedAt);
+                            return;
+                        }
+                        AnalysisRequest request = activeRequests.get(ticketOf(utteranceId));
+                        if (request != null && request.speakRequestedAtNanos != 0 && isFirstUtterance(utteranceId)) {
+                            tracer.record(PipelineTracer.Stage.TTS_START, request.frameSeq, now - request.speakRequestedAtNanos);
+                            tracer.record(PipelineTracer.Stage.END_TO_END, request.frameSeq, now - request.createdAtNanos);
+                        }
+                    }
 
                     @Override
                     public void onDone(String utteranceId) {
-                        if (UTTERANCE_ID.equals(utteranceId)) {
-                            if (isAdded()) requireActivity().runOnUiThread(() -> resetState());
-                        }
+                        if (WARNING_UTTERANCE_ID.equals(utteranceId)) warningSpeaking = false;
+                        long ticket = ticketOf(utteranceId);
+                        if (ticket != CloudRequestPipeline.NO_TICKET && isLastUtterance(utteranceId)) finishAnalysis(ticket);
                     }
 
                     @Override
                     public void onError(String utteranceId) {
-                        if (isAdded()) requireActivity().runOnUiThread(() -> resetState());
+                        if (WARNING_UTTERANCE_ID.equals(utteranceId)) warningSpeaking = false;
+                        long ticket = ticketOf(utteranceId);
+                        if (ticket != CloudRequestPipeline.NO_TICKET) finishAnalysis(ticket);
+                    }
+
+                    @Override
+                    public void onStop(String utteranceId, boolean interrupted) {
+                        // 다른 안내가 QUEUE_FLUSH로 끊은 경우에도 요청은 끝난 것으로 처리
+                        if (WARNING_UTTERANCE_ID.equals(utteranceId)) warningSpeaking = false;
+                        long ticket = ticketOf(utteranceId);
+                        if (ticket != CloudRequestPipeline.NO_TICKET) finishAnalysis(ticket);
                     }
                 });
             }
@@ -415,13 +1296,30 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
         }
     }
 
-    private String bitmapToBase64(Bitmap bitmap) {
+    private JpegOutputStream bitmapToJpeg(Bitmap bitmap, int maxSize, AdaptiveJpegPolicy.Choice choice, long frameSeq) {
+        if (bitmap == null) return null;
+        long encodeStart = tracer.begin(PipelineTracer.Stage.ENCODE);
+        Bitmap resizedBitmap = getResizedBitmap(bitmap, maxSize);
+        JpegOutputStream jpeg = new JpegOutputStream(64 * 1024);
+        resizedBitmap.compress(Bitmap.CompressFormat.JPEG, choice.quality, jpeg);
+        tracer.end(PipelineTracer.Stage.ENCODE, frameSeq, encodeStart);
+        uploadPolicy.recordEncoded(choice, resizedBitmap.getWidth() * resizedBitmap.getHeight(), jpeg.size());
+        return jpeg;
+    }
+
+    private String bitmapToBase64(Bitmap bitmap, AdaptiveJpegPolicy.Choice choice, long frameSeq) {
         if (bitmap == null) return null;
-        Bitmap resizedBitmap = getResizedBitmap(bitmap, 640);
+        long encodeStart = tracer.begin(PipelineTracer.Stage.ENCODE);
+        Bitmap resizedBitmap = getResizedBitmap(bitmap, choice.maxSide);
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        resizedBitmap.compress(Bitmap.CompressFormat.JPEG, 85, byteArrayOutputStream);
+        resizedBitmap.compress(Bitmap.CompressFormat.JPEG, choice.quality, byteArrayOutputStream);
         byte[] byteArray = byteArrayOutputStream.toByteArray();
-        return Base64.encodeToString(byteArray, Base64.NO_WRAP);
+        tracer.end(PipelineTracer.Stage.ENCODE, frameSeq, encodeStart);
+        uploadPolicy.recordEncoded(choice, resizedBitmap.getWidth() * resizedBitmap.getHeight(), byteArray.length);
+        long base64Start = tracer.begin(PipelineTracer.Stage.BASE64);
+        String base64 = Base64.encodeToString(byteArray, Base64.NO_WRAP);
+        tracer.end(PipelineTracer.Stage.BASE64, frameSeq, base64Start);
+        return base64;
     }
 
     public Bitmap getResizedBitmap(Bitmap image, int maxSize) {
@@ -445,6 +1343,7 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                 .readTimeout(60, TimeUnit.SECONDS)
                 .writeTimeout(60, TimeUnit.SECONDS)
                 .addInterceptor(logger)
+                .eventListenerFactory(UploadMetricsListener.factory(uploadLink))
                 .build();
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl("https://api-v2-dot-obstacledetection.du.r.appspot.com")
@@ -452,13 +1351,55 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
         api = retrofit.create(UploadApi.class);
+
+        // BODY 로그는 응답을 끝까지 모은 뒤에 넘기므로 스트리밍 응답에는 헤더만 로그 (연결 풀은 공유)
+        OkHttpClient.Builder streamClient = okHttpClient.newBuilder();
+        streamClient.interceptors().remove(logger);
+        streamClient.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.HEADERS));
+        streamApi = retrofit.newBuilder().client(streamClient.build()).build().create(UploadApi.class);
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        if (locationTracker != null) locationTracker.startTracking();
+        if (accelerometer != null) {
+            sensorManager.registerListener(motionSensorListener, accelerometer, SensorManager.SENSOR_DELAY_GAME);
+        }
+        if (gyroscope != null) {
+            sensorManager.registerListener(motionSensorListener, gyroscope, SensorManager.SENSOR_DELAY_GAME);
+        }
     }
 
     @Override
     public void onPause() {
         super.onPause();
         Log.d(TAG, "onPause");
+        if (locationTracker != null) locationTracker.stopTracking();
+        if (sensorManager != null) sensorManager.unregisterListener(motionSensorListener);
+        Log.d(TAG, "분석 단계: " + levelSelector);
+        Log.d(TAG, "장면 캐시: 조회 " + sceneCache.getLookupCount() + "회, 적중 " + sceneCache.getHitCount()
+                + "회, 절약 " + sceneCache.getSavedBytes() + " bytes");
+        Log.d(TAG, "분석 요청: 제출 " + cloudPipeline.getSubmittedCount() + "회, 선점 취소 " + cloudPipeline.getPreemptedCount()
+                + "회, 대기 교체 " + cloudPipeline.getReplacedCount() + "회, 버림 " + cloudPipeline.getDroppedCount() + "회");
+        if (objectDetectorHelper != null) {
+            Log.d(TAG, "탐지 단계: " + objectDetectorHelper.getStageStats());
+        }
+        Log.d(TAG, "움직임 게이트: " + motionGate.getStats());
+        Log.d(TAG, "추론 우편함: " + inferenceMailbox + " / 인코딩 우편함: " + encodeMailbox
+                + " / 빈 칸이 없어 버린 프레임 " + frameRing.getExhaustedCount() + "장, 순번 불일치 " + frameSeqMismatchCount.get() + "회");
+        Log.d(TAG, "업로드 정책: " + uploadPolicy);
+        Log.d(TAG, "프레임 품질: " + bestFrameWindow);
+        // 보고서는 이번 분석 구간만 담고, 저장은 메인 스레드 밖에서
+        Context appContext = requireContext().getApplicationContext();
+        reportExecutor.execute(() -> {
+            String report = tracer.dumpReportAndReset();
+            Log.d(TAG, "단계별 지연 시간\n" + report);
+            File traceFile = PipelineTracer.writeReport(appContext, report);
+            if (traceFile != null) Log.d(TAG, "지연 시간 보고서 저장: " + traceFile.getAbsolutePath());
+        });
         isContinuousAnalysis = false;
+        cancelAllAnalysis();
         if (btnToggleAnalysis != null) {
             btnToggleAnalysis.setText("분석 시작");
         }
@@ -483,9 +1424,15 @@ public class ObstacleDetectionFragment extends Fragment implements ObjectDetecto
         super.onDestroy();
         Log.d(TAG, "onDestroy");
 
+        cancelAllAnalysis();
         if (cameraExecutor != null) {
+            if (RECORD_FRAMES) cameraExecutor.execute(this::closeFrameRecorder);
             cameraExecutor.shutdown();
         }
+        if (inferenceExecutor != null) inferenceExecutor.shutdown();
+        if (encodeExecutor != null) encodeExecutor.shutdown();
+        if (streamExecutor != null) streamExecutor.shutdown();
+        if (reportExecutor != null) reportExecutor.shutdown();
         if (tts != null) {
             tts.stop();
             tts.shutdown();
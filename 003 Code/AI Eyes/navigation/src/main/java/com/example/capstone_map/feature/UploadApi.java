@@ -1,13 +1,61 @@
 package com.example.capstone_map.feature;
 
 import com.google.gson.JsonObject;
+
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.Headers;
+import retrofit2.http.Multipart;
 import retrofit2.http.POST;
+import retrofit2.http.Part;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface UploadApi {
     @Headers("Content-Type: application/json")
     @POST("analyze")
     Call<JsonObject> sendImage(@Body JsonObject body);
+
+    /**
+     * JPEG 바이트를 base64/JSON 없이 그대로 보냅니다. (application/octet-stream)
+     * 응답 형식은 sendImage와 같습니다. ({"result": "..."})
+     */
+    @POST("analyze-binary")
+    Call<JsonObject> sendImageBinary(@Body RequestBody jpeg, @Query("level") int level);
+
+    /**
+     * 장면 썸네일(image) + 위험 객체 주변을 잘라낸 원본 해상도 이미지(crop)를 함께 보냅니다.
+     * box는 썸네일 기준 정규화 좌표 "left,top,right,bottom", label은 탐지된 객체 이름입니다.
+     */
+    @Multipart
+    @POST("analyze-binary")
+    Call<JsonObject> sendImageWithCrop(@Part MultipartBody.Part image,
+                                       @Part MultipartBody.Part crop,
+                                       @Part("box") RequestBody box,
+                                       @Part("label") RequestBody label,
+                                       @Query("level") int level);
+
+    /**
+     * sendImageBinary와 같은 요청이지만 결과를 text/event-stream으로 생성되는 대로 받습니다.
+     * data: {"delta": "..."} 여러 번 → event: done (data: {"result": "..."}), 실패하면 event: error.
+     * 본문을 메모리에 모으지 않으므로(@Streaming) 백그라운드 스레드에서 execute()로 읽어야 합니다.
+     */
+    @Streaming
+    @POST("analyze-stream")
+    Call<ResponseBody> streamImageBinary(@Body RequestBody jpeg, @Query("level") int level);
+
+    /**
+     * sendImageWithCrop의 스트리밍 버전. 응답 형식은 streamImageBinary와 같습니다.
+     */
+    @Streaming
+    @Multipart
+    @POST("analyze-stream")
+    Call<ResponseBody> streamImageWithCrop(@Part MultipartBody.Part image,
+                                           @Part MultipartBody.Part crop,
+                                           @Part("box") RequestBody box,
+                                           @Part("label") RequestBody label,
+                                           @Query("level") int level);
 }
@@ -3,6 +3,7 @@ import android.content.Context
 import android.location.Location
 import android.os.Build
 import android.os.Looper
+import android.os.SystemClock
 import android.os.Vibrator
 import android.util.Log
 import androidx.lifecycle.MutableLiveData
@@ -15,7 +16,10 @@ import com.example.capstone_map.common.route.Feature
 import com.example.capstone_map.common.route.FeatureCollection
 import com.example.capstone_map.common.route.Geometry
 import com.example.capstone_map.common.route.JsonCallback
+import com.example.capstone_map.common.route.OffRouteDetector
 import com.example.capstone_map.common.route.RouteCacheManager
+import com.example.capstone_map.common.route.RouteGeometry
+import com.example.capstone_map.common.route.RouteSegmentIndex
 import com.example.capstone_map.common.sharedVM.SharedNavigationViewModel
 import com.example.capstone_map.common.voice.STTManager
 import com.example.capstone_map.common.voice.TTSManager
@@ -58,6 +62,11 @@ class NavigationViewModel(
 
     @Volatile private var isSpeaking = false
 
+    init {
+        // 경로 캐시를 디스크에도 저장 (매일 같은 길은 TMap 재요청 없이)
+        RouteCacheManager.init(context)
+    }
+
     private var lastDirection: String? = null  // "오른쪽" or "왼쪽"
 
     // 완료 관련
@@ -70,6 +79,18 @@ class NavigationViewModel(
 
     private var locationTracker: LocationTracker? = null
     private var isTrackingLocation = false // 현재 추적 중인지 상태 저장
+
+    // 경로 구간 격자: 경로를 받을 때 한 번 만들고, GPS마다 가장 가까운 구간을 찾음
+    @Volatile private var routeIndex: RouteSegmentIndex? = null
+    private val routeMatch = RouteSegmentIndex.Match()
+    private val ROUTE_INDEX_CELL_M = 25.0     // 격자 칸 크기
+    private val ROUTE_INDEX_SEARCH_M = 100.0  // 이보다 멀리 벗어나면 전체 구간을 훑음
+
+    // 경로 이탈: 칼만 필터로 다듬은 위치로 판단하고, 재탐색은 한 번에 하나만
+    private val locationFilter = KalmanLatLong(3f)  // 보행 속도 기준 (m/s)
+    private val offRouteDetector = OffRouteDetector()
+    private val MIN_SPEED_FOR_HEADING = 0.7f  // 이보다 느리면 GPS bearing을 믿지 않음 (m/s)
+
     val navigationState = MutableLiveData<NavigationState>()
     private val candidates = mutableListOf<String>() // 예시: 실제로는 POI 모델을 써야 함
     private var currentIndex = 0
@@ -193,14 +214,19 @@ class NavigationViewModel(
 
     /** 받아온 데이터 파싱 */
     fun parseRawJson() {
+        val routeJsonString = stateViewModel.routeJsonData.value ?: return
+        applyRoute(routeJsonString)
+        offRouteDetector.reset()
+        updateState(AligningDirection)
+    }
+
+    /** 경로 JSON을 안내 지점/경로 선/격자로 만들어 반영 (처음 경로, 재탐색 경로 공통) */
+    private fun applyRoute(routeJsonString: String) {
 // Gson 인스턴스를 만드는 곳 (예시)
         val gson: Gson = GsonBuilder()
             .registerTypeAdapter(Geometry::class.java, GeometryDeserializer()) // 이 부분을 추가!
             .create()
 
-
-        val routeJsonString = stateViewModel.routeJsonData.value ?: return
-
         val routeData = gson.fromJson(routeJsonString, FeatureCollection::class.java)
 
         val pointFeatures = mutableListOf<Feature>()
@@ -234,14 +260,21 @@ class NavigationViewModel(
 
         Log.d("ROUTE_CHECK", "Total Points: ${sortedPoints.size}, Total Lines: ${sortedLines.size}")
 
+        // 경로 선: 구간 좌표를 double 배열로 이어 붙임 (꼭짓점마다 객체를 만들지 않음)
+        val geometryBuilder = RouteGeometry.Builder()
+        for (line in sortedLines) {
+            val coords = line.geometry.coordinates as? Coordinates.LineString ?: continue
+            for ((lon, lat) in coords.points) geometryBuilder.add(lat, lon)
+        }
+        val geometry = geometryBuilder.build()
+        Log.d("ROUTE_CHECK", "경로 선: 꼭짓점 ${geometry.size()}개, 길이 ${"%.0f".format(geometry.totalLength())}m")
+
 
         // ViewModel에 저장
 
         stateViewModel.routePointFeatures.postValue(sortedPoints)
         stateViewModel.routeLineFeatures.postValue(sortedLines)
-        updateState(AligningDirection)
-
-
+        routeIndex = RouteSegmentIndex(geometry, ROUTE_INDEX_CELL_M, ROUTE_INDEX_SEARCH_M)
     }
 
 
@@ -349,6 +382,7 @@ class NavigationViewModel(
                     Log.d("TRACKING", " 위치 갱신됨 → ${location.latitude}, ${location.longitude}")
                     stateViewModel.currentLocation.postValue(location)
                     checkAndSpeakNextPoint(location)
+                    updateRouteProgress(location)
                 }
 
                 override fun onLocationAccuracyChanged(accuracy: Float) {
@@ -399,6 +433,93 @@ class NavigationViewModel(
 
 
 
+    /** 경로 위 어디쯤인지(가장 가까운 구간, 경로까지 거리, 출발점부터 거리) 갱신하고, 안내 중이면 이탈 여부 판단 */
+    private fun updateRouteProgress(location: Location) {
+        val nowMs = SystemClock.elapsedRealtime()
+        locationFilter.process(location.latitude, location.longitude, location.accuracy, nowMs)
+
+        val index = routeIndex ?: return
+        if (!index.nearest(locationFilter.latitude, locationFilter.longitude, routeMatch)) return
+        val remaining = index.geometry.remainingDistance(routeMatch.alongTrackMeters)
+        Log.d(
+            "NAVIGATION",
+            "경로 구간 ${routeMatch.segmentIndex}, 경로까지 ${"%.1f".format(routeMatch.distanceMeters)}m, " +
+                    "진행 ${"%.0f".format(routeMatch.alongTrackMeters)}m, 남은 거리 ${"%.0f".format(remaining)}m"
+        )
+
+        if (navigationState.value !is GuidingNavigation) return
+
+        val geometry = index.geometry
+        val heading = if (location.hasBearing() && location.speed >= MIN_SPEED_FOR_HEADING) {
+            location.bearing.toDouble()
+        } else Double.NaN
+        val routeBearing = if (geometry.segmentCount() > 0) {
+            geometry.segmentBearing(routeMatch.segmentIndex)
+        } else Double.NaN
+
+        // 정확도는 필터 전 값으로 판단 (신호가 나쁠 때는 이탈 판단을 미룸)
+        when (offRouteDetector.onFix(nowMs, routeMatch.distanceMeters, location.accuracy, heading, routeBearing)) {
+            OffRouteDetector.Decision.REROUTE -> requestReroute(locationFilter.latitude, locationFilter.longitude)
+            OffRouteDetector.Decision.BACK_ON_ROUTE -> {
+                Log.i("NAVIGATION", "경로로 돌아옴 → $offRouteDetector")
+                speak("경로로 돌아왔습니다.")
+            }
+            else -> {}
+        }
+    }
+
+    /**
+     * 경로를 벗어났을 때 지금 위치에서 목적지까지 다시 찾기.
+     * 새 경로가 올 때까지 예전 경로로 계속 안내하고, 실패하면 예전 경로를 그대로 둠 (상태는 GuidingNavigation 유지)
+     */
+    private fun requestReroute(lat: Double, lon: Double) {
+        val destinationPoi = stateViewModel.decidedDestinationPOI.value
+        val endX = destinationPoi?.pnsLon?.toDoubleOrNull()
+        val endY = destinationPoi?.pnsLat?.toDoubleOrNull()
+        if (endX == null || endY == null) {
+            offRouteDetector.onRerouteFinished(false)
+            return
+        }
+
+        Log.i("NAVIGATION", "경로 이탈 → 재탐색 요청 ($lat, $lon), $offRouteDetector")
+        vibrate(300)
+        forceSpeak("경로를 벗어났습니다. 경로를 다시 찾습니다.")
+
+        RouteCacheManager.fetchRouteIfNeeded(
+            lon, lat, "현위치",
+            endX, endY, destinationPoi?.name ?: "목적지",
+            object : JsonCallback {
+                override fun onSuccess(json: JSONObject) {
+                    val jsonString = json.toString()
+                    viewModelScope.launch(Dispatchers.Main) {
+                        // 그 사이 안내가 끝났으면 버림
+                        if (navigationState.value !is GuidingNavigation) {
+                            offRouteDetector.onRerouteFinished(false)
+                            return@launch
+                        }
+                        try {
+                            applyRoute(jsonString)
+                        } catch (e: Exception) {
+                            Log.e("NAVIGATION", "재탐색 경로 파싱 실패: ${e.message}")
+                            offRouteDetector.onRerouteFinished(false)
+                            return@launch
+                        }
+                        stateViewModel.routeJsonData.value = jsonString
+                        lastSpokenIndex = -1
+                        offRouteDetector.onRerouteFinished(true)
+                        speak("새 경로로 안내합니다.")
+                    }
+                }
+
+                override fun onFailure(errorMessage: String) {
+                    Log.w("NAVIGATION", "재탐색 실패, 예전 경로 유지: $errorMessage")
+                    viewModelScope.launch(Dispatchers.Main) { offRouteDetector.onRerouteFinished(false) }
+                }
+            }
+        )
+    }
+
+
     private fun checkAndSpeakNextPoint(location: Location) {
         val pointFeatures = stateViewModel.routePointFeatures.value ?: return
         val lastPointIndex = pointFeatures.maxOfOrNull { it.properties.pointIndex ?: -1 } ?: return
@@ -0,0 +1,182 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.Locale;
+
+/**
+ * 걷는 속도로 클라우드 분석 단계(level)를 고릅니다. 서버 프롬프트와 같은 번호입니다.
+ *
+ * - 1: 빠르게 걷는 중 → 가장 급한 위험 하나만 한 문장으로 (응답이 가장 빠름)
+ * - 2: 보통 걸음 → 주요 장애물 + 안내 한두 문장
+ * - 3: 서 있음 → 주변을 자세히
+ *
+ * 속도는 최근 GPS 값(정확도가 괜찮고 GPS_MAX_AGE_MS 안에 받은 것)을 쓰고, 없으면 가속도계 케이던스로 어림합니다.
+ * 경계 근처에서 단계가 오락가락하지 않도록 들어갈 때/나올 때 기준을 다르게 두고,
+ * 바뀐 단계가 일정 시간 유지돼야 바꿉니다. (빨라지는 쪽은 짧게, 느려지는 쪽은 길게)
+ */
+public class AnalysisLevelSelector {
+
+    public static final int LEVEL_FAST = 1;
+    public static final int LEVEL_WALKING = 2;
+    public static final int LEVEL_STANDING = 3;
+
+    public enum Source { NONE, GPS, CADENCE }
+
+    private static final float FAST_ENTER_MPS = 1.5f;
+    private static final float FAST_EXIT_MPS = 1.2f;
+    private static final float STANDING_ENTER_MPS = 0.25f;
+    private static final float STANDING_EXIT_MPS = 0.5f;
+    private static final long GPS_MAX_AGE_MS = 5000;
+    private static final float MAX_FIX_ACCURACY_M = 20f;     // LocationTracker의 "GPS 약함" 기준과 같음
+    private static final float MAX_SPEED_ACCURACY_MPS = 1f;
+
+    private final CadenceEstimator cadence;
+    private final long dwellToFasterMs;
+    private final long dwellToSlowerMs;
+
+    private int level = LEVEL_WALKING;
+    private int pendingLevel = LEVEL_WALKING;
+    private long pendingSince = 0;
+    private float speed = Float.NaN;
+    private Source source = Source.NONE;
+
+    private float gpsSpeed = Float.NaN;
+    private long gpsSpeedAt = Long.MIN_VALUE;
+    // 속도를 주지 않는 위치(네트워크 위치 등)는 기준 위치와의 거리로 계산
+    private double lastLatitude = Double.NaN;
+    private double lastLongitude;
+    private long lastFixAt;
+    private long levelChanges = 0;
+
+    /**
+     * @param dwellToFasterMs 더 빠른 단계(숫자가 작은 쪽)로 바꾸기 전에 유지돼야 하는 시간
+     * @param dwellToSlowerMs 더 느린 단계로 바꾸기 전에 유지돼야 하는 시간
+     */
+    public AnalysisLevelSelector(CadenceEstimator cadence, long dwellToFasterMs, long dwellToSlowerMs) {
+        this.cadence = cadence;
+        this.dwellToFasterMs = dwellToFasterMs;
+        this.dwellToSlowerMs = dwellToSlowerMs;
+    }
+
+    public AnalysisLevelSelector() {
+        this(new CadenceEstimator(), 1500, 4000);
+    }
+
+    /**
+     * 새 위치를 반영합니다. 시각은 elapsedRealtime 기준(ms).
+     * @param speedMps Location.getSpeed(), 없으면 NaN
+     * @param speedAccuracyMps Location.getSpeedAccuracyMetersPerSecond(), 없으면 NaN
+     */
+    public synchronized void onLocation(long nowMs, double latitude, double longitude, float accuracyM,
+                                        float speedMps, float speedAccuracyMps) {
+        if (accuracyM > MAX_FIX_ACCURACY_M) {
+            lastLatitude = Double.NaN;
+            return;
+        }
+        if (!Float.isNaN(speedMps)) {
+            if (Float.isNaN(speedAccuracyMps) || speedAccuracyMps <= MAX_SPEED_ACCURACY_MPS) {
+                gpsSpeed = speedMps;
+                gpsSpeedAt = nowMs;
+            }
+        } else if (!Double.isNaN(lastLatitude) && nowMs > lastFixAt && nowMs - lastFixAt <= GPS_MAX_AGE_MS) {
+            float distance = distanceMeters(lastLatitude, lastLongitude, latitude, longitude);
+            // 위치 오차보다 작은 이동은 멈춘 건지 오차인지 알 수 없으므로 케이던스에 맡기고,
+            // 기준 위치는 그대로 둬서 천천히 움직인 거리가 쌓이게 함
+            if (distance <= accuracyM) return;
+            gpsSpeed = distance * 1000f / (nowMs - lastFixAt);
+            gpsSpeedAt = nowMs;
+        }
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        lastFixAt = nowMs;
+    }
+
+    /**
+     * GPS 신호가 약해지면 이전 속도를 버리고 케이던스로 넘어갑니다.
+     */
+    public synchronized void onGpsSignalWeak() {
+        gpsSpeedAt = Long.MIN_VALUE;
+        lastLatitude = Double.NaN;
+    }
+
+    public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+        cadence.onAccelerometer(timestampNanos, x, y, z);
+    }
+
+    /**
+     * 지금 속도로 단계를 다시 고릅니다.
+     * @return 지금 적용 중인 단계
+     */
+    public synchronized int update(long nowMs) {
+        if (gpsSpeedAt != Long.MIN_VALUE && nowMs - gpsSpeedAt <= GPS_MAX_AGE_MS) {
+            speed = gpsSpeed;
+            source = Source.GPS;
+        } else if (cadence.hasSamples(nowMs)) {
+            speed = cadence.getSpeed(nowMs);
+            source = Source.CADENCE;
+        } else {
+            // 속도를 알 수 없으면 지금 단계 유지
+            speed = Float.NaN;
+            source = Source.NONE;
+            pendingLevel = level;
+            return level;
+        }
+
+        int target = targetLevel(level, speed);
+        if (target == level) {
+            pendingLevel = level;
+            return level;
+        }
+        if (target != pendingLevel) {
+            pendingLevel = target;
+            pendingSince = nowMs;
+        }
+        long dwell = target < level ? dwellToFasterMs : dwellToSlowerMs;
+        if (nowMs - pendingSince >= dwell) {
+            level = target;
+            levelChanges++;
+        }
+        return level;
+    }
+
+    /**
+     * 지금 단계에서 나가는 기준은 들어오는 기준보다 느슨하게 둡니다.
+     */
+    static int targetLevel(int current, float speed) {
+        if (current == LEVEL_FAST && speed >= FAST_EXIT_MPS) return LEVEL_FAST;
+        if (current == LEVEL_STANDING && speed <= STANDING_EXIT_MPS) return LEVEL_STANDING;
+        if (speed >= FAST_ENTER_MPS) return LEVEL_FAST;
+        if (speed <= STANDING_ENTER_MPS) return LEVEL_STANDING;
+        return LEVEL_WALKING;
+    }
+
+    /**
+     * 지금 적용 중인 단계. 요청을 만들 때 한 번 읽어 캐시 조회와 업로드에 같이 씁니다.
+     */
+    public synchronized int getLevel() {
+        return level;
+    }
+
+    public synchronized Source getSource() {
+        return source;
+    }
+
+    public synchronized long getLevelChangeCount() {
+        return levelChanges;
+    }
+
+    /**
+     * 짧은 거리용 근사 (등장방형 투영)
+     */
+    static float distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double earthRadius = 6_371_000d;
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return (float) (Math.sqrt(x * x + y * y) * earthRadius);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "level %d (%s %.2fm/s, 변경 %d회, 걸음 %d)",
+                level, source, speed, levelChanges, cadence.getTotalSteps());
+    }
+}
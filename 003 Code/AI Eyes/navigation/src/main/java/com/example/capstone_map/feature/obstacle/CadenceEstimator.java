@@ -0,0 +1,111 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 가속도계 값으로 걸음 수(케이던스)를 세어 걷는 속도를 어림합니다. GPS 속도를 못 쓸 때(실내, 신호 약함) 대신 씁니다.
+ *
+ * - 크기(|a|)에서 느린 평균(중력)을 빼고, 살짝 부드럽게 한 값이 stepThreshold를 넘어가는 순간을 한 걸음으로 셉니다.
+ *   다시 그 절반 밑으로 내려와야 다음 걸음을 셉니다. (한 걸음의 흔들림을 두 번 세지 않도록)
+ * - 걸음 사이가 MIN_STEP_INTERVAL_MS보다 짧으면 무시합니다. (초당 4걸음 이상은 걷기가 아님)
+ * - 속도 = 케이던스(걸음/초) x 보폭. 마지막 걸음 뒤 STOP_AFTER_MS가 지나면 멈춘 것으로 봅니다.
+ *
+ * 시각은 SensorEvent.timestamp와 같은 elapsedRealtime 기준(ns)입니다.
+ */
+public class CadenceEstimator {
+
+    private static final float GRAVITY_ALPHA = 0.02f;
+    private static final float SMOOTH_ALPHA = 0.3f;
+    private static final long MIN_STEP_INTERVAL_MS = 250;
+    private static final long WINDOW_MS = 4000;
+    private static final long STOP_AFTER_MS = 1500;
+    private static final int MAX_STEPS = 16;
+
+    private final float stepThreshold;
+    private final float strideMeters;
+
+    private float gravity = Float.NaN;
+    private float smoothed = 0f;
+    private boolean armed = true;
+    // 최근 걸음 시각(ms) 고리 버퍼
+    private final long[] stepTimes = new long[MAX_STEPS];
+    private int stepHead = 0;
+    private int stepCount = 0;
+    private long lastSampleMs = Long.MIN_VALUE;
+    private long totalSteps = 0;
+
+    /**
+     * @param stepThreshold 중력을 뺀 가속도가 이 값(m/s²)을 넘으면 한 걸음
+     * @param strideMeters 한 걸음 길이 (성인 평균 약 0.7m)
+     */
+    public CadenceEstimator(float stepThreshold, float strideMeters) {
+        this.stepThreshold = stepThreshold;
+        this.strideMeters = strideMeters;
+    }
+
+    public CadenceEstimator() {
+        this(1.2f, 0.7f);
+    }
+
+    public synchronized void onAccelerometer(long timestampNanos, float x, float y, float z) {
+        long nowMs = timestampNanos / 1_000_000L;
+        lastSampleMs = nowMs;
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        if (Float.isNaN(gravity)) {
+            gravity = magnitude;
+            return;
+        }
+        gravity += GRAVITY_ALPHA * (magnitude - gravity);
+        smoothed += SMOOTH_ALPHA * ((magnitude - gravity) - smoothed);
+
+        if (armed && smoothed > stepThreshold) {
+            armed = false;
+            int last = (stepHead - 1 + MAX_STEPS) % MAX_STEPS;
+            if (stepCount == 0 || nowMs - stepTimes[last] >= MIN_STEP_INTERVAL_MS) {
+                stepTimes[stepHead] = nowMs;
+                stepHead = (stepHead + 1) % MAX_STEPS;
+                if (stepCount < MAX_STEPS) stepCount++;
+                totalSteps++;
+            }
+        } else if (!armed && smoothed < stepThreshold * 0.5f) {
+            armed = true;
+        }
+    }
+
+    /**
+     * 가속도 값이 한 번이라도 들어왔는지 (센서가 없는 기기면 false)
+     */
+    public synchronized boolean hasSamples(long nowMs) {
+        return lastSampleMs != Long.MIN_VALUE && nowMs - lastSampleMs < STOP_AFTER_MS;
+    }
+
+    /**
+     * 최근 WINDOW_MS 동안의 걸음/초. 걸음이 3개 미만이거나 마지막 걸음이 오래됐으면 0
+     */
+    public synchronized float getCadence(long nowMs) {
+        if (stepCount == 0) return 0f;
+        int newest = (stepHead - 1 + MAX_STEPS) % MAX_STEPS;
+        long newestAt = stepTimes[newest];
+        if (nowMs - newestAt > STOP_AFTER_MS) return 0f;
+
+        int steps = 1;
+        long oldestAt = newestAt;
+        for (int i = 1; i < stepCount; i++) {
+            long at = stepTimes[(newest - i + MAX_STEPS) % MAX_STEPS];
+            if (nowMs - at > WINDOW_MS) break;
+            oldestAt = at;
+            steps++;
+        }
+        if (steps < 3 || newestAt == oldestAt) return 0f;
+        return (steps - 1) * 1000f / (newestAt - oldestAt);
+    }
+
+    /**
+     * 케이던스 x 보폭 (m/s)
+     */
+    public float getSpeed(long nowMs) {
+        return getCadence(nowMs) * strideMeters;
+    }
+
+    public synchronized long getTotalSteps() {
+        return totalSteps;
+    }
+}
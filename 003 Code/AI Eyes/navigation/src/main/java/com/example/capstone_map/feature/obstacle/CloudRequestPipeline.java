@@ -0,0 +1,147 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 클라우드 분석 요청을 "진행 중 1칸 + 대기 1칸"으로 관리하는 파이프라인.
+ *
+ * - 진행 중인 요청이 있으면 새 요청은 대기칸에 들어가고, 대기칸은 항상 가장 최근 요청으로 덮어씁니다. (최신 프레임 우선)
+ * - 새 요청의 우선순위가 진행 중인 요청보다 높으면 진행 중인 요청을 취소하고 바로 시작합니다.
+ * - 요청마다 티켓(세대 번호)을 발급합니다. 취소됐거나 너무 늦게 온 응답은 acceptResult()가 false를 돌려주므로 버리면 됩니다.
+ * - 화면을 벗어나거나 분석을 멈추면 cancelAll()로 진행 중/대기 요청을 모두 취소합니다.
+ *
+ * 요청 하나는 "서버 응답 + 결과 읽어주기"까지를 포함합니다. 다 끝나면 finish(ticket)을 불러야 다음 요청이 시작됩니다.
+ */
+public class CloudRequestPipeline {
+
+    /**
+     * 파이프라인에 넣을 요청
+     */
+    public interface Request {
+        /** 클수록 급한 요청 */
+        int getPriority();
+
+        /** 요청을 시작합니다. 오래 막으면 안 됩니다. (enqueue만 하고 바로 돌아오기) */
+        void start(long ticket);
+
+        /** 진행 중인 네트워크 요청을 취소합니다. */
+        void cancel();
+    }
+
+    public static final long NO_TICKET = 0L;
+
+    private final long maxPendingAgeMs;
+    private final long maxResultAgeMs;
+
+    private Request inFlight;
+    private long inFlightTicket = NO_TICKET;
+    private long inFlightSubmittedAt;
+    private Request pending;
+    private long pendingSubmittedAt;
+    private long lastTicket = NO_TICKET;
+
+    private long submittedCount = 0;
+    private long preemptedCount = 0;
+    private long replacedCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * @param maxPendingAgeMs 대기칸에서 이보다 오래 기다린 요청은 시작하지 않고 버림
+     * @param maxResultAgeMs 제출 후 이보다 늦게 도착한 결과는 이미 지나간 장면으로 보고 버림
+     */
+    public CloudRequestPipeline(long maxPendingAgeMs, long maxResultAgeMs) {
+        this.maxPendingAgeMs = maxPendingAgeMs;
+        this.maxResultAgeMs = maxResultAgeMs;
+    }
+
+    /**
+     * 요청을 넣습니다.
+     */
+    public synchronized void submit(Request request, long nowMs) {
+        submittedCount++;
+        if (inFlight == null) {
+            start(request, nowMs);
+            return;
+        }
+        if (request.getPriority() > inFlight.getPriority()) {
+            // 더 급한 위험이 나타남 → 진행 중인 요청은 취소하고 바로 시작
+            preemptedCount++;
+            inFlight.cancel();
+            if (pending != null && pending.getPriority() <= request.getPriority()) {
+                pending = null;
+                replacedCount++;
+            }
+            start(request, nowMs);
+            return;
+        }
+        if (pending != null) replacedCount++;
+        pending = request;
+        pendingSubmittedAt = nowMs;
+    }
+
+    /**
+     * 응답이 왔을 때 결과를 써도 되는지 확인합니다.
+     * 쓸 수 없는 응답이면(늦게 도착) 이 요청을 끝낸 것으로 처리하고 대기 요청으로 넘어갑니다.
+     */
+    public synchronized boolean acceptResult(long ticket, long nowMs) {
+        if (!isCurrent(ticket)) return false;
+        if (nowMs - inFlightSubmittedAt > maxResultAgeMs) {
+            droppedCount++;
+            finish(ticket, nowMs);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 현재 진행 중인 요청의 티켓인지 (취소/교체된 요청이면 false)
+     */
+    public synchronized boolean isCurrent(long ticket) {
+        return ticket != NO_TICKET && ticket == inFlightTicket;
+    }
+
+    /**
+     * 요청 하나가 끝났을 때 호출합니다. 대기 요청이 있으면 이어서 시작합니다.
+     * @return 이 티켓이 진행 중인 요청이었는지 (이미 취소된 요청이면 false)
+     */
+    public synchronized boolean finish(long ticket, long nowMs) {
+        if (!isCurrent(ticket)) return false;
+        inFlight = null;
+        inFlightTicket = NO_TICKET;
+
+        Request next = pending;
+        pending = null;
+        if (next != null) {
+            if (nowMs - pendingSubmittedAt > maxPendingAgeMs) {
+                droppedCount++;
+            } else {
+                start(next, pendingSubmittedAt);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 진행 중/대기 요청을 모두 취소합니다. 이후 도착하는 응답은 모두 버려집니다.
+     */
+    public synchronized void cancelAll() {
+        if (inFlight != null) inFlight.cancel();
+        inFlight = null;
+        inFlightTicket = NO_TICKET;
+        pending = null;
+    }
+
+    public synchronized boolean isIdle() {
+        return inFlight == null;
+    }
+
+    public synchronized long getSubmittedCount() { return submittedCount; }
+    public synchronized long getPreemptedCount() { return preemptedCount; }
+    public synchronized long getReplacedCount() { return replacedCount; }
+    public synchronized long getDroppedCount() { return droppedCount; }
+
+    private void start(Request request, long submittedAt) {
+        inFlight = request;
+        inFlightTicket = ++lastTicket;
+        inFlightSubmittedAt = submittedAt;
+        request.start(inFlightTicket);
+    }
+}
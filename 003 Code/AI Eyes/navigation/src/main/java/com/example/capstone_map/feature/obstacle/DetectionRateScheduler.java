@@ -0,0 +1,87 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 측정된 추론 시간을 보고 "초당 몇 번 탐지할지"를 정하는 스케줄러.
+ *
+ * - 평상시에는 baseRate(회/초)를 목표로 합니다.
+ * - 위험 객체가 보이면 boostHoldMs 동안 boostedRate로 올립니다.
+ * - 추론이 길어지면(발열로 클럭이 떨어진 경우 등) CPU 점유율이 maxDutyCycle을 넘지 않도록 낮춥니다.
+ *   단, minRate 밑으로는 내려가지 않습니다.
+ *
+ * 카메라는 계속 최신 프레임을 넘겨주므로, shouldProcessFrame()이 false면 그 프레임은 복사도 하지 않고 버립니다.
+ */
+public class DetectionRateScheduler {
+
+    private static final float EMA_ALPHA = 0.2f;
+
+    private final float baseRate;
+    private final float boostedRate;
+    private final float minRate;
+    private final long boostHoldMs;
+    private final float maxDutyCycle;
+
+    private float inferenceEmaMs = 0f;
+    private long lastFrameAt = Long.MIN_VALUE;
+    private long boostUntil = Long.MIN_VALUE;
+    private float currentRate;
+
+    public DetectionRateScheduler(float baseRate, float boostedRate, float minRate, long boostHoldMs) {
+        this(baseRate, boostedRate, minRate, boostHoldMs, 0.6f);
+    }
+
+    public DetectionRateScheduler(float baseRate, float boostedRate, float minRate, long boostHoldMs, float maxDutyCycle) {
+        this.baseRate = baseRate;
+        this.boostedRate = boostedRate;
+        this.minRate = minRate;
+        this.boostHoldMs = boostHoldMs;
+        this.maxDutyCycle = maxDutyCycle;
+        this.currentRate = baseRate;
+    }
+
+    /**
+     * 이번 프레임을 탐지할 차례인지 판단합니다. true를 돌려주면 그 시각을 마지막 탐지 시각으로 기록합니다.
+     */
+    public synchronized boolean shouldProcessFrame(long nowMs) {
+        long intervalMs = (long) (1000f / currentRate);
+        if (lastFrameAt != Long.MIN_VALUE && nowMs - lastFrameAt < intervalMs) {
+            return false;
+        }
+        lastFrameAt = nowMs;
+        return true;
+    }
+
+    /**
+     * 탐지가 끝날 때마다 호출합니다.
+     * @param inferenceMs 이번 추론에 걸린 시간
+     * @param dangerSeen 위험 객체가 보였는지
+     */
+    public synchronized void onInferenceFinished(long inferenceMs, boolean dangerSeen, long nowMs) {
+        inferenceEmaMs = inferenceEmaMs == 0f
+                ? inferenceMs
+                : inferenceEmaMs + EMA_ALPHA * (inferenceMs - inferenceEmaMs);
+        if (dangerSeen) {
+            boostUntil = nowMs + boostHoldMs;
+        }
+
+        float target = nowMs < boostUntil ? boostedRate : baseRate;
+        if (inferenceEmaMs > 0f) {
+            float sustainable = 1000f * maxDutyCycle / inferenceEmaMs;
+            target = Math.min(target, sustainable);
+        }
+        currentRate = Math.max(minRate, target);
+    }
+
+    /**
+     * 지금 적용 중인 탐지 빈도(회/초)
+     */
+    public synchronized float getCurrentRate() {
+        return currentRate;
+    }
+
+    public synchronized void reset() {
+        inferenceEmaMs = 0f;
+        lastFrameAt = Long.MIN_VALUE;
+        boostUntil = Long.MIN_VALUE;
+        currentRate = baseRate;
+    }
+}
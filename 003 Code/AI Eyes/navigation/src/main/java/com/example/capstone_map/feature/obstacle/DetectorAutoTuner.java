@@ -0,0 +1,208 @@
+package com.example.capstone_map.feature.obstacle;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.support.image.TensorImage;
+import org.tensorflow.lite.task.core.BaseOptions;
+import org.tensorflow.lite.task.vision.detector.ObjectDetector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * 기기마다 가장 빠른 TFLite 실행 설정(스레드 수, NNAPI 사용 여부)을 한 번 측정해서 저장합니다.
+ *
+ * - CPU(XNNPACK 기본 적용)로 스레드 1~maxThreads개, 그리고 NNAPI를 차례로 돌려 중앙값 추론 시간을 비교합니다.
+ *   Task 라이브러리 BaseOptions에는 XNNPACK을 끄는 옵션이 없어서 CPU 쪽은 스레드 수만 바꿉니다.
+ * - 결과는 SharedPreferences에 "모델 + 기기 + OS 버전" 키로 저장하고, 다음 실행부터는 측정 없이 바로 씁니다.
+ * - 측정 이미지는 assets/calibration.jpg가 있으면 그것을, 없으면 고정 시드로 만든 합성 프레임을 씁니다.
+ *
+ * 측정에 1~3초 걸리므로 메인 스레드가 아닌 곳(카메라 executor 등)에서 호출해야 합니다.
+ */
+public class DetectorAutoTuner {
+
+    private static final String TAG = "DetectorAutoTuner";
+    private static final String PREFS_NAME = "detector_autotune";
+    private static final String CALIBRATION_ASSET = "calibration.jpg";
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 7;
+    private static final int SAMPLE_WIDTH = 480;
+    private static final int SAMPLE_HEIGHT = 640;
+
+    /**
+     * 측정 결과 (가장 빠른 설정)
+     */
+    public static class Config {
+        public final int numThreads;
+        public final boolean useNnapi;
+        public final float medianMs;
+
+        public Config(int numThreads, boolean useNnapi, float medianMs) {
+            this.numThreads = numThreads;
+            this.useNnapi = useNnapi;
+            this.medianMs = medianMs;
+        }
+
+        @Override
+        public String toString() {
+            return (useNnapi ? "NNAPI" : "CPU") + " " + numThreads + "스레드 (" + medianMs + "ms)";
+        }
+    }
+
+    private final Context context;
+    private final String modelName;
+    private final int maxThreads;
+    private final Config fallback;
+
+    /**
+     * @param fallback 측정이 전부 실패했을 때 쓸 설정 (기존 기본값)
+     */
+    public DetectorAutoTuner(Context context, String modelName, Config fallback) {
+        this.context = context.getApplicationContext();
+        this.modelName = modelName;
+        this.maxThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.fallback = fallback;
+    }
+
+    /**
+     * 저장된 설정이 있으면 그대로, 없으면 측정 후 저장해서 돌려줍니다.
+     * 측정이 전부 실패해 fallback을 돌려줄 때는 저장하지 않아 다음 실행에서 다시 측정합니다.
+     */
+    public Config loadOrCalibrate() {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String key = preferenceKey();
+        if (prefs.contains(key + ".threads")) {
+            Config saved = new Config(
+                    prefs.getInt(key + ".threads", fallback.numThreads),
+                    prefs.getBoolean(key + ".nnapi", fallback.useNnapi),
+                    prefs.getFloat(key + ".ms", 0f));
+            Log.d(TAG, "저장된 설정 사용: " + saved);
+            return saved;
+        }
+
+        Config best = calibrate();
+        if (best == fallback) return best;  // 일시적인 모델 로드 실패 등 → 측정값이 아니므로 저장 안 함
+        prefs.edit()
+                .putInt(key + ".threads", best.numThreads)
+                .putBoolean(key + ".nnapi", best.useNnapi)
+                .putFloat(key + ".ms", best.medianMs)
+                .apply();
+        return best;
+    }
+
+    /**
+     * 저장된 측정값을 지웁니다. (모델 교체 후 다시 측정할 때)
+     */
+    public void clear() {
+        String key = preferenceKey();
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .remove(key + ".threads")
+                .remove(key + ".nnapi")
+                .remove(key + ".ms")
+                .apply();
+    }
+
+    private Config calibrate() {
+        Bitmap sample = loadSample();
+        TensorImage tensorImage = new TensorImage(DataType.UINT8);
+        tensorImage.load(sample);
+
+        Config best = null;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            best = faster(best, measure(tensorImage, threads, false));
+        }
+        best = faster(best, measure(tensorImage, maxThreads, true));
+
+        if (best == null) {
+            Log.w(TAG, "측정 실패 → 기본 설정 사용: " + fallback);
+            return fallback;
+        }
+        Log.d(TAG, "측정 완료, 선택: " + best);
+        return best;
+    }
+
+    private Config measure(TensorImage tensorImage, int numThreads, boolean useNnapi) {
+        BaseOptions.Builder baseOptions = BaseOptions.builder().setNumThreads(numThreads);
+        if (useNnapi) baseOptions.useNnapi();
+        ObjectDetector.ObjectDetectorOptions options = ObjectDetector.ObjectDetectorOptions.builder()
+                .setBaseOptions(baseOptions.build())
+                .setMaxResults(5)
+                .build();
+
+        ObjectDetector detector = null;
+        try {
+            detector = ObjectDetector.createFromFileAndOptions(context, modelName, options);
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                detector.detect(tensorImage);
+            }
+            long[] times = new long[MEASURED_RUNS];
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                detector.detect(tensorImage);
+                times[i] = SystemClock.elapsedRealtimeNanos() - start;
+            }
+            Arrays.sort(times);
+            Config result = new Config(numThreads, useNnapi, times[MEASURED_RUNS / 2] / 1_000_000f);
+            Log.d(TAG, "측정: " + result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // NNAPI를 지원하지 않는 기기 등은 후보에서 제외
+            Log.w(TAG, (useNnapi ? "NNAPI" : "CPU " + numThreads + "스레드") + " 측정 실패: " + e.getMessage());
+            return null;
+        } finally {
+            if (detector != null) detector.close();
+        }
+    }
+
+    private static Config faster(Config a, Config b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.medianMs < a.medianMs ? b : a;
+    }
+
+    private Bitmap loadSample() {
+        try (InputStream input = context.getAssets().open(CALIBRATION_ASSET)) {
+            Bitmap bitmap = BitmapFactory.decodeStream(input);
+            if (bitmap != null) return bitmap;
+        } catch (IOException ignored) {
+            // 측정용 이미지를 따로 넣지 않았으면 합성 프레임 사용
+        }
+        return syntheticFrame();
+    }
+
+    /**
+     * 카메라 분석 프레임(세로 480x640)과 같은 크기의 합성 이미지.
+     * 추론 시간은 내용보다 입력 크기에 좌우되므로, 매번 같은 값이 나오도록 고정 시드 잡음 + 사각형 몇 개로 만듭니다.
+     */
+    static Bitmap syntheticFrame() {
+        int[] pixels = new int[SAMPLE_WIDTH * SAMPLE_HEIGHT];
+        int seed = 0x2545F491;
+        for (int y = 0; y < SAMPLE_HEIGHT; y++) {
+            for (int x = 0; x < SAMPLE_WIDTH; x++) {
+                seed ^= seed << 13;
+                seed ^= seed >>> 17;
+                seed ^= seed << 5;
+                int base = 96 + (y * 64 / SAMPLE_HEIGHT);
+                int noise = seed & 0x1F;
+                int v = base + noise;
+                // 밝고 어두운 사각형 (물체 후보)
+                if (x > 60 && x < 200 && y > 300 && y < 560) v = 40 + noise;
+                if (x > 280 && x < 420 && y > 120 && y < 260) v = 220 - noise;
+                pixels[y * SAMPLE_WIDTH + x] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        return Bitmap.createBitmap(pixels, SAMPLE_WIDTH, SAMPLE_HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    private String preferenceKey() {
+        return modelName + "|" + Build.MANUFACTURER + "|" + Build.MODEL + "|" + Build.VERSION.SDK_INT;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 가속도계/자이로 값으로 폰이 움직이는 중인지 판단합니다. MotionGateStage가 프레임 차분보다 먼저 봅니다.
+ *
+ * - 가속도: 크기에서 느린 평균(중력)을 뺀 값이 accelThreshold(m/s²)를 넘으면 움직임
+ * - 자이로: 회전 속도 크기가 gyroThreshold(rad/s)를 넘으면 움직임 (고개를 돌리거나 폰을 드는 경우)
+ * 마지막 움직임 뒤 holdMs 동안은 계속 움직이는 중으로 봅니다.
+ *
+ * 시각은 SensorEvent.timestamp와 같은 elapsedRealtime 기준입니다. 센서 스레드(메인)에서 쓰고 카메라 스레드에서 읽습니다.
+ */
+public class DeviceMotionDetector {
+
+    private static final float GRAVITY_ALPHA = 0.05f;
+
+    private final float accelThreshold;
+    private final float gyroThreshold;
+    private final long holdMs;
+
+    private float gravity = Float.NaN;
+    private volatile long lastMotionAtMs = Long.MIN_VALUE;
+
+    public DeviceMotionDetector(float accelThreshold, float gyroThreshold, long holdMs) {
+        this.accelThreshold = accelThreshold;
+        this.gyroThreshold = gyroThreshold;
+        this.holdMs = holdMs;
+    }
+
+    public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+        long nowMs = timestampNanos / 1_000_000L;
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        if (Float.isNaN(gravity)) {
+            gravity = magnitude;
+            return;
+        }
+        gravity += GRAVITY_ALPHA * (magnitude - gravity);
+        if (Math.abs(magnitude - gravity) > accelThreshold) lastMotionAtMs = nowMs;
+    }
+
+    public void onGyroscope(long timestampNanos, float x, float y, float z) {
+        if (x * x + y * y + z * z > gyroThreshold * gyroThreshold) lastMotionAtMs = timestampNanos / 1_000_000L;
+    }
+
+    public boolean isMoving(long nowMs) {
+        long motionAt = lastMotionAtMs;
+        return motionAt != Long.MIN_VALUE && nowMs - motionAt <= holdMs;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 회전(0/90/180/270)별로 프레임 버퍼를 하나씩 보관해 재사용하는 캐시.
+ * 요청한 크기가 이전과 같으면 기존 객체를 그대로 돌려주고,
+ * 크기가 바뀌었을 때만 새로 만들고 할당 횟수를 올립니다.
+ *
+ * 프레임 루프가 정상 상태에 들어가면 allocationCount가 더 이상 늘지 않아야 합니다.
+ */
+public class FrameBufferCache<T> {
+
+    public interface Factory<T> {
+        T create(int width, int height);
+    }
+
+    private static final int ROTATION_COUNT = 4;
+
+    private final Factory<T> factory;
+    private final Object[] buffers = new Object[ROTATION_COUNT];
+    private final int[] widths = new int[ROTATION_COUNT];
+    private final int[] heights = new int[ROTATION_COUNT];
+    private int allocationCount = 0;
+
+    public FrameBufferCache(Factory<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * 회전 각도(도 단위)를 0~3 인덱스로 바꿉니다. 음수/360 이상도 허용합니다.
+     */
+    public static int rotationIndex(int rotationDegrees) {
+        return ((rotationDegrees / 90) % ROTATION_COUNT + ROTATION_COUNT) % ROTATION_COUNT;
+    }
+
+    /**
+     * 해당 회전 슬롯의 버퍼를 가져옵니다. 크기가 다르면 새로 만듭니다.
+     */
+    @SuppressWarnings("unchecked")
+    public T obtain(int rotationIndex, int width, int height) {
+        Object buffer = buffers[rotationIndex];
+        if (buffer == null || widths[rotationIndex] != width || heights[rotationIndex] != height) {
+            buffer = factory.create(width, height);
+            buffers[rotationIndex] = buffer;
+            widths[rotationIndex] = width;
+            heights[rotationIndex] = height;
+            allocationCount++;
+        }
+        return (T) buffer;
+    }
+
+    /**
+     * 지금까지 새로 만든 버퍼 수 (테스트/계측용)
+     */
+    public int getAllocationCount() {
+        return allocationCount;
+    }
+
+    public void clear() {
+        for (int i = 0; i < ROTATION_COUNT; i++) {
+            buffers[i] = null;
+            widths[i] = 0;
+            heights[i] = 0;
+        }
+    }
+}
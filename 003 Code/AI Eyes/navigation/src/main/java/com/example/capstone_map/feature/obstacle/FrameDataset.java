@@ -0,0 +1,234 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 녹화한 분석 프레임 묶음 (.aief). 기기에서 Writer로 저장하고, PC(JVM)에서 메모리 맵으로 읽어 재생합니다.
+ *
+ * 형식 (리틀 엔디언, 레코드 크기가 고정이라 i번째 프레임 위치를 바로 계산할 수 있음)
+ * - 헤더 32바이트: magic "AIEF", version, width, height, pixelFormat(1 = RGBA_8888), frameCount, 예약 2칸
+ * - 프레임마다: timestampMs(long), rotationDegrees(int), flags(int), RGBA 픽셀 width*height*4 바이트 (행 사이 여백 없음)
+ *   flags의 FLAG_DEVICE_MOVING은 캡처할 때 폰이 움직이는 중이었는지(DeviceMotionDetector)입니다. 예전 파일은 0.
+ *
+ * 안드로이드 API를 쓰지 않습니다. (java.nio만 사용)
+ */
+public class FrameDataset implements Closeable {
+
+    public static final int MAGIC = 0x46454941;  // "AIEF"
+    public static final int VERSION = 1;
+    public static final int PIXEL_FORMAT_RGBA_8888 = 1;
+    public static final int FLAG_DEVICE_MOVING = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_HEADER_BYTES = 16;
+    private static final int FRAME_COUNT_OFFSET = 20;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int frameCount;
+    private final long recordBytes;
+    private final int framesPerWindow;
+
+    // 2GB 넘는 파일도 읽도록 프레임 여러 장 단위로 나눠서 매핑
+    private MappedByteBuffer window;
+    private int windowIndex = -1;
+
+    private FrameDataset(RandomAccessFile file, int width, int height, int frameCount) {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.width = width;
+        this.height = height;
+        this.frameCount = frameCount;
+        this.recordBytes = RECORD_HEADER_BYTES + (long) width * height * 4;
+        this.framesPerWindow = (int) Math.max(1, Integer.MAX_VALUE / recordBytes);
+    }
+
+    /**
+     * 파일을 엽니다. 헤더의 frameCount보다 파일이 짧으면 온전한 프레임까지만 읽습니다.
+     * 녹화 중 앱이 종료되면 헤더의 frameCount가 0으로 남으므로, 이때는 파일 길이로 온전한 프레임 수를 셉니다.
+     */
+    public static FrameDataset open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            file.getChannel().read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("녹화 프레임 파일이 아닙니다: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("지원하지 않는 버전: " + version);
+            int width = header.getInt();
+            int height = header.getInt();
+            int pixelFormat = header.getInt();
+            if (pixelFormat != PIXEL_FORMAT_RGBA_8888) throw new IOException("지원하지 않는 픽셀 형식: " + pixelFormat);
+            int frameCount = header.getInt();
+
+            long recordBytes = RECORD_HEADER_BYTES + (long) width * height * 4;
+            long complete = (file.length() - HEADER_BYTES) / recordBytes;
+            long frames = frameCount > 0 ? Math.min(frameCount, complete) : complete;
+            return new FrameDataset(file, width, height, (int) Math.min(frames, Integer.MAX_VALUE));
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public long getTimestampMs(int index) {
+        return record(index).getLong(offsetInWindow(index));
+    }
+
+    public int getRotationDegrees(int index) {
+        return record(index).getInt(offsetInWindow(index) + 8);
+    }
+
+    public int getFlags(int index) {
+        return record(index).getInt(offsetInWindow(index) + 12);
+    }
+
+    /**
+     * i번째 프레임의 RGBA 픽셀. 복사 없이 매핑된 영역을 가리키는 읽기 전용 버퍼입니다. (position 0, limit = width*height*4)
+     */
+    public ByteBuffer getPixels(int index) {
+        ByteBuffer view = record(index).duplicate();
+        int start = offsetInWindow(index) + RECORD_HEADER_BYTES;
+        view.limit(start + width * height * 4);
+        view.position(start);
+        return view.slice();
+    }
+
+    private MappedByteBuffer record(int index) {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("frame " + index + " / " + frameCount);
+        }
+        int wanted = index / framesPerWindow;
+        if (wanted != windowIndex) {
+            long start = HEADER_BYTES + (long) wanted * framesPerWindow * recordBytes;
+            long frames = Math.min(framesPerWindow, frameCount - (long) wanted * framesPerWindow);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, frames * recordBytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("프레임 매핑 실패", e);
+            }
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowIndex = wanted;
+        }
+        return window;
+    }
+
+    private int offsetInWindow(int index) {
+        return (int) ((index % framesPerWindow) * recordBytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        file.close();
+    }
+
+    /**
+     * 프레임을 파일 끝에 이어 씁니다. close()할 때 헤더의 frameCount를 채웁니다.
+     * 한 스레드(카메라 executor)에서만 부르세요.
+     */
+    public static class Writer implements Closeable {
+
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final int width;
+        private final int height;
+        private final int maxFrames;
+        private final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private int frameCount = 0;
+
+        /**
+         * @param maxFrames 이만큼 쓰면 더 이상 받지 않음 (640x480 한 장이 약 1.2MB)
+         */
+        public Writer(File path, int width, int height, int maxFrames) throws IOException {
+            this.file = new RandomAccessFile(path, "rw");
+            this.channel = file.getChannel();
+            this.width = width;
+            this.height = height;
+            this.maxFrames = maxFrames;
+            file.setLength(0);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+                    .putInt(PIXEL_FORMAT_RGBA_8888).putInt(0).putInt(0).putInt(0);
+            header.flip();
+            writeFully(header);
+        }
+
+        /**
+         * @param rgba ImageProxy 평면 버퍼 등. position/limit는 건드리지 않습니다.
+         * @param rowStride 한 행의 바이트 수 (width*4보다 크면 여백을 빼고 씀)
+         * @return 저장했으면 true, 최대 장수를 채웠으면 false
+         */
+        public boolean append(long timestampMs, int rotationDegrees, ByteBuffer rgba, int rowStride) throws IOException {
+            return append(timestampMs, rotationDegrees, 0, rgba, rowStride);
+        }
+
+        /**
+         * @param flags FLAG_DEVICE_MOVING 등
+         */
+        public boolean append(long timestampMs, int rotationDegrees, int flags, ByteBuffer rgba, int rowStride) throws IOException {
+            if (frameCount >= maxFrames) return false;
+            recordHeader.clear();
+            recordHeader.putLong(timestampMs).putInt(rotationDegrees).putInt(flags);
+            recordHeader.flip();
+            writeFully(recordHeader);
+
+            int rowBytes = width * 4;
+            ByteBuffer source = rgba.duplicate();
+            if (rowStride == rowBytes) {
+                source.limit(rowBytes * height);
+                source.position(0);
+                writeFully(source);
+            } else {
+                for (int y = 0; y < height; y++) {
+                    source.limit(y * rowStride + rowBytes);
+                    source.position(y * rowStride);
+                    writeFully(source);
+                }
+            }
+            frameCount++;
+            return true;
+        }
+
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, frameCount);
+            channel.write(count, FRAME_COUNT_OFFSET);
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 순번이 붙은 프레임 버퍼 고리. 캡처 → 추론 → 인코딩 단계가 같은 버퍼를 참조 카운트로 붙잡고 씁니다.
+ *
+ * - acquire(): 아무도 붙잡지 않은(refCount 0) 칸만 쓰기용으로 내줍니다. 내줄 때마다 새 순번을 붙입니다.
+ * - 누가 한 번이라도 retain()한 칸은 모두 release()할 때까지 다시 acquire()되지 않으므로,
+ *   붙잡고 있는 동안 픽셀과 순번이 바뀌지 않습니다. (탐지한 프레임 = 업로드한 프레임)
+ * - 빈 칸이 없으면 null → 캡처가 그 프레임을 버립니다. 기다리거나 새로 만들지 않습니다.
+ * - 버퍼는 칸마다 한 번 만들고, 해상도가 바뀔 때만 다시 만듭니다.
+ */
+public class FrameRing<T> {
+
+    /**
+     * 고리의 한 칸. 버퍼와 그 버퍼에 담긴 프레임 정보
+     */
+    public static class Slot<T> {
+        private final AtomicInteger refCount = new AtomicInteger();
+        private T buffer;
+        private int width;
+        private int height;
+        private volatile long seq;
+        public long timestampMs;
+        public int rotationDegrees;
+        public float quality;   // 업로드용 사진 품질 (FrameQualityScorer 점수). 캡처 단계가 채움
+
+        public T getBuffer() {
+            return buffer;
+        }
+
+        /** acquire()할 때 붙인 순번 (1부터). 붙잡고 있는 동안 바뀌지 않습니다. */
+        public long getSeq() {
+            return seq;
+        }
+
+        /** 탐지 박스 기준(회전 후) 폭 */
+        public int getRotatedWidth() {
+            return rotationDegrees % 180 != 0 ? height : width;
+        }
+
+        /** 탐지 박스 기준(회전 후) 높이 */
+        public int getRotatedHeight() {
+            return rotationDegrees % 180 != 0 ? width : height;
+        }
+
+        public int getRefCount() {
+            return refCount.get();
+        }
+    }
+
+    private final FrameBufferCache.Factory<T> factory;
+    private final Slot<T>[] slots;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final AtomicInteger allocationCount = new AtomicInteger();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    /**
+     * @param capacity 칸 수 (단계 수 + 우편함 칸 수면 정상 상태에서 모자라지 않음)
+     */
+    @SuppressWarnings("unchecked")
+    public FrameRing(int capacity, FrameBufferCache.Factory<T> factory) {
+        this.factory = factory;
+        this.slots = (Slot<T>[]) new Slot<?>[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot<>();
+        }
+    }
+
+    /**
+     * 쓰기용 칸을 가져옵니다. 돌려받은 칸은 refCount 1(호출한 쪽이 붙잡은 상태)입니다.
+     * 가장 오래전에 쓴 칸부터 고리 순서로 찾습니다.
+     * @return 모든 칸이 사용 중이면 null
+     */
+    public Slot<T> acquire(int width, int height) {
+        int start = cursor.get();
+        for (int i = 0; i < slots.length; i++) {
+            int index = (start + i) % slots.length;
+            Slot<T> slot = slots[index];
+            if (!slot.refCount.compareAndSet(0, 1)) continue;
+
+            cursor.set((index + 1) % slots.length);
+            if (slot.buffer == null || slot.width != width || slot.height != height) {
+                slot.buffer = factory.create(width, height);
+                slot.width = width;
+                slot.height = height;
+                allocationCount.incrementAndGet();
+            }
+            slot.seq = nextSeq.incrementAndGet();
+            return slot;
+        }
+        exhaustedCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 다른 단계가 같은 칸을 함께 붙잡습니다. 이미 붙잡고 있는 쪽만 부를 수 있습니다.
+     */
+    public void retain(Slot<T> slot) {
+        if (slot.refCount.getAndIncrement() <= 0) {
+            slot.refCount.decrementAndGet();
+            throw new IllegalStateException("붙잡지 않은 칸을 retain: seq " + slot.seq);
+        }
+    }
+
+    /**
+     * 붙잡은 칸을 놓습니다. 마지막으로 놓으면 다시 acquire()될 수 있습니다.
+     */
+    public void release(Slot<T> slot) {
+        if (slot == null) return;
+        if (slot.refCount.decrementAndGet() < 0) {
+            slot.refCount.incrementAndGet();
+            throw new IllegalStateException("이미 놓은 칸을 release: seq " + slot.seq);
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /** 지금까지 새로 만든 버퍼 수. 워밍업 이후에는 늘지 않아야 합니다. */
+    public int getAllocationCount() {
+        return allocationCount.get();
+    }
+
+    /** 빈 칸이 없어 프레임을 버린 횟수 */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+}
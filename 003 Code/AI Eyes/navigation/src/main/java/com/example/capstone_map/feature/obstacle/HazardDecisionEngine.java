@@ -0,0 +1,257 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 탐지 결과 → "즉시 경고를 읽을지, 클라우드 분석을 올릴지" 판단.
+ *
+ * ObstacleDetectionFragment.onResults에 있던 규칙을 그대로 옮긴 것으로, 안드로이드 API를 쓰지 않아서
+ * 기기 없이 JVM(녹화 프레임 재생 테스트)에서도 같은 규칙을 돌릴 수 있습니다.
+ * 어떤 물체를 얼마나 자주 알릴지는 클래스별 정책 표(HazardPolicyTable)를 따릅니다.
+ *
+ * - 즉시 경고: 처음 보인 트랙 또는 다시 다가오는 트랙 중 우선순위가 가장 높고 가장 가까운 것 하나
+ *   (경고끼리 최소 간격. 단, 더 높은 우선순위는 간격을 기다리지 않음)
+ * - 클라우드: cloud 클래스의 새 트랙 또는 다가오는 트랙이 있고, 그 클래스의 마지막 요청 뒤 재알림 간격이 지났을 때
+ *   (간격은 클래스마다 따로 셈. 방금 의자를 알렸다고 다가오는 버스를 막지 않음)
+ *
+ * 사용 순서: beginFrame() → offerDetection() 여러 번 → endFrame(). 돌려주는 Decision은 재사용합니다.
+ */
+public class HazardDecisionEngine {
+
+    private static final long APPROACH_CLOUD_API_INTERVAL_MS = 1500; // 다가오는 물체는 클래스 간격보다 빨리 다시 알림
+    private static final long TRACK_ESCALATION_COOLDOWN_MS = 4000;    // 같은 트랙을 다시 올려보내기까지 최소 간격
+    private static final long LOCAL_WARNING_GAP_MS = 1500;        // 경고끼리 최소 간격 (말이 겹치지 않게)
+    private static final long LOCAL_WARNING_REPEAT_MS = 4000;     // 같은 트랙이 계속 다가오면 이 간격으로 다시 경고
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /**
+     * 클라우드 요청 우선순위. 클래스 우선순위가 먼저이고, 같은 클래스면 다가오는 쪽이 높습니다.
+     * (CloudRequestPipeline은 더 높은 값이 들어오면 진행 중인 요청을 취소하고 먼저 보냄)
+     */
+    public static int cloudPriority(int classPriority, boolean approaching) {
+        return classPriority * 2 + (approaching ? 1 : 0);
+    }
+
+    /**
+     * 한 프레임의 판단 결과. 다음 endFrame() 호출 때 덮어씁니다.
+     */
+    public static class Decision {
+        /** 위험 라벨이 하나라도 보였는지 (탐지 빈도 조절용) */
+        public boolean dangerSeen;
+        public List<ObstacleTracker.Track> tracks = Collections.emptyList();
+        /** 즉시 경고할 트랙과 문장. 없으면 null */
+        public ObstacleTracker.Track warningTrack;
+        public String warningText;
+        /** 클라우드 분석을 올릴지, 우선순위, 다가오는 트랙 때문인지, 크롭할 트랙 */
+        public boolean cloudCall;
+        public int cloudPriority;
+        public boolean cloudApproaching;
+        public ObstacleTracker.Track focusTrack;
+
+        void clear() {
+            dangerSeen = false;
+            tracks = Collections.emptyList();
+            warningTrack = null;
+            warningText = null;
+            cloudCall = false;
+            cloudPriority = 0;
+            cloudApproaching = false;
+            focusTrack = null;
+        }
+    }
+
+    private final HazardPolicyTable policies;
+    private final ObstacleTracker tracker;
+    private final HazardEstimator estimator;
+    private final long approachCloudIntervalMs;
+    private final long trackEscalationCooldownMs;
+    private final long warningGapMs;
+    private final long warningRepeatMs;
+
+    private final Decision decision = new Decision();
+    private boolean dangerSeen = false;
+    // 클래스(정책 id)별 마지막 클라우드 요청/즉시 경고 시각
+    private final long[] lastCloudCallTime;
+    private final long[] lastWarningTimeByClass;
+    private long lastWarningTime = NEVER;
+    private int lastWarningPriority = 0;
+
+    /**
+     * @param policies 클래스별 우선순위/최소 신뢰도/재알림 간격
+     * @param approachCloudIntervalMs 다가오는 트랙은 클래스 재알림 간격 대신 이 간격만 지나면 다시 올림 (더 짧게)
+     * @param trackEscalationCooldownMs 같은 트랙을 다시 올려보내기까지 최소 간격
+     * @param warningGapMs 즉시 경고끼리 최소 간격 (말이 겹치지 않게)
+     * @param warningRepeatMs 같은 트랙이 계속 다가오면 이 간격으로 다시 경고
+     */
+    public HazardDecisionEngine(HazardPolicyTable policies, ObstacleTracker tracker, HazardEstimator estimator,
+                                long approachCloudIntervalMs, long trackEscalationCooldownMs,
+                                long warningGapMs, long warningRepeatMs) {
+        this.policies = policies;
+        this.tracker = tracker;
+        this.estimator = estimator;
+        this.approachCloudIntervalMs = approachCloudIntervalMs;
+        this.trackEscalationCooldownMs = trackEscalationCooldownMs;
+        this.warningGapMs = warningGapMs;
+        this.warningRepeatMs = warningRepeatMs;
+        this.lastCloudCallTime = new long[policies.size()];
+        this.lastWarningTimeByClass = new long[policies.size()];
+        Arrays.fill(lastCloudCallTime, NEVER);
+        Arrays.fill(lastWarningTimeByClass, NEVER);
+    }
+
+    /**
+     * 앱(ObstacleDetectionFragment)과 녹화 재생 테스트가 같은 임계값을 쓰도록 한곳에서 만듭니다.
+     */
+    public static HazardDecisionEngine createDefault(HazardPolicyTable policies, HazardEstimator estimator) {
+        return new HazardDecisionEngine(policies, new ObstacleTracker(0.3f, 2, 1500, 0.25f), estimator,
+                APPROACH_CLOUD_API_INTERVAL_MS, TRACK_ESCALATION_COOLDOWN_MS,
+                LOCAL_WARNING_GAP_MS, LOCAL_WARNING_REPEAT_MS);
+    }
+
+    public void beginFrame(long nowMs) {
+        dangerSeen = false;
+        tracker.beginFrame(nowMs);
+    }
+
+    /**
+     * 탐지 하나를 넘깁니다. 좌표는 회전된 이미지 기준 0~1 정규화 값.
+     * @param labelIndex 탐지기의 라벨 번호 (정책 조회 키). 모르면 -1
+     * @return 위험 클래스이고 최소 신뢰도를 넘어 추적 대상에 넣었으면 true
+     */
+    public boolean offerDetection(String label, int labelIndex, float score,
+                                  float left, float top, float right, float bottom) {
+        HazardPolicyTable.Policy policy = policies.policyFor(labelIndex, label);
+        if (!policy.isHazard() || score < policy.minConfidence) return false;
+        dangerSeen = true;
+        tracker.addDetection(policy.id, label, score, left, top, right, bottom);
+        return true;
+    }
+
+    /**
+     * @param rotationDegrees 분석 프레임 회전 각도 (거리/방향 계산용)
+     * @param active 연속 분석 중인지. false면 추적만 갱신하고 경고/클라우드 판단은 하지 않음
+     */
+    public Decision endFrame(long nowMs, int rotationDegrees, boolean active) {
+        decision.clear();
+        decision.dangerSeen = dangerSeen;
+        decision.tracks = tracker.endFrame();
+        if (!active) return decision;
+
+        decideLocalWarning(decision.tracks, nowMs, rotationDegrees);
+        decideCloudCall(decision.tracks, nowMs);
+        return decision;
+    }
+
+    /**
+     * 새로 나타났거나 다가오는 트랙 중 우선순위가 가장 높고, 같으면 가장 가까운 것 하나를 고릅니다.
+     * 처음 보인 트랙은 그 클래스의 재알림 간격이 지났을 때만 후보입니다.
+     */
+    private void decideLocalWarning(List<ObstacleTracker.Track> tracks, long now, int rotation) {
+        ObstacleTracker.Track best = null;
+        HazardPolicyTable.Policy bestPolicy = null;
+        float bestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < tracks.size(); i++) {
+            ObstacleTracker.Track track = tracks.get(i);
+            HazardPolicyTable.Policy policy = policies.get(track.classId);
+            boolean firstTime = track.getLastAnnouncedAt() == NEVER
+                    && elapsed(now, lastWarningTimeByClass[policy.id], policy.cooldownMs);
+            boolean approachingAgain = tracker.isApproaching(track)
+                    && elapsed(now, track.getLastAnnouncedAt(), warningRepeatMs);
+            if (!firstTime && !approachingAgain) continue;
+            float distance = estimator.estimateDistance(track.label, track.getBottom() - track.getTop(), rotation);
+            if (distance < 0f) distance = Float.MAX_VALUE / 2f;  // 높이를 모르는 라벨은 뒤로
+            if (best == null || policy.priority > bestPolicy.priority
+                    || (policy.priority == bestPolicy.priority && distance < bestDistance)) {
+                best = track;
+                bestPolicy = policy;
+                bestDistance = distance;
+            }
+        }
+        if (best == null) return;
+        // 간격 안이라도 방금 읽은 것보다 위험한 물체면 바로 경고 (말을 끊고 읽음)
+        if (!elapsed(now, lastWarningTime, warningGapMs) && bestPolicy.priority <= lastWarningPriority) return;
+
+        decision.warningTrack = best;
+        decision.warningText = estimator.describe(best.label, best.getLeft(), best.getTop(),
+                best.getRight(), best.getBottom(), rotation);
+        // 같이 나타난 덜 위험한 물체는 한꺼번에 읽지 않고 클라우드 설명에 맡김
+        for (int i = 0; i < tracks.size(); i++) {
+            ObstacleTracker.Track track = tracks.get(i);
+            if (track.getLastAnnouncedAt() == NEVER && policies.get(track.classId).priority <= bestPolicy.priority) {
+                tracker.markAnnounced(track, now);
+            }
+        }
+        tracker.markAnnounced(best, now);
+        lastWarningTimeByClass[bestPolicy.id] = now;
+        lastWarningTime = now;
+        lastWarningPriority = bestPolicy.priority;
+    }
+
+    /**
+     * cloud 클래스의 새 트랙(클래스 재알림 간격이 지난) 또는 다가오는 트랙이 있을 때만 클라우드 분석.
+     * 잘라서 보낼 객체: 우선순위가 가장 높은 클래스 중 다가오는 트랙이면 가장 빠른 것, 없으면 새 트랙 중 가장 큰 것
+     */
+    private void decideCloudCall(List<ObstacleTracker.Track> tracks, long now) {
+        ObstacleTracker.Track focusTrack = null;
+        HazardPolicyTable.Policy focusPolicy = null;
+        boolean focusApproaching = false;
+        for (int i = 0; i < tracks.size(); i++) {
+            ObstacleTracker.Track track = tracks.get(i);
+            HazardPolicyTable.Policy policy = policies.get(track.classId);
+            if (policy.escalation != HazardPolicyTable.Escalation.CLOUD) continue;
+            long lastCall = lastCloudCallTime[policy.id];
+            boolean approaching;
+            if (tracker.isNew(track)) {
+                if (!elapsed(now, lastCall, policy.cooldownMs)) continue;
+                approaching = false;
+            } else if (tracker.isApproaching(track)
+                    && elapsed(now, track.getLastEscalatedAt(), trackEscalationCooldownMs)
+                    && elapsed(now, lastCall, Math.min(policy.cooldownMs, approachCloudIntervalMs))) {
+                approaching = true;
+            } else {
+                continue;
+            }
+            if (focusTrack == null || isMoreUrgent(policy, approaching, track, focusPolicy, focusApproaching, focusTrack)) {
+                focusTrack = track;
+                focusPolicy = policy;
+                focusApproaching = approaching;
+            }
+        }
+        if (focusTrack == null) return;
+
+        // 이번 업로드가 장면 전체를 설명하므로 지금 보이는 트랙은 모두 알린 것으로 처리
+        for (int i = 0; i < tracks.size(); i++) {
+            ObstacleTracker.Track track = tracks.get(i);
+            if (tracker.isNew(track) || tracker.isApproaching(track)) {
+                lastCloudCallTime[track.classId] = now;
+            }
+            tracker.markEscalated(track, now);
+        }
+        lastCloudCallTime[focusPolicy.id] = now;
+        decision.cloudCall = true;
+        decision.cloudPriority = cloudPriority(focusPolicy.priority, focusApproaching);
+        decision.cloudApproaching = focusApproaching;
+        decision.focusTrack = focusTrack;
+    }
+
+    private static boolean isMoreUrgent(HazardPolicyTable.Policy policy, boolean approaching, ObstacleTracker.Track track,
+                                        HazardPolicyTable.Policy other, boolean otherApproaching, ObstacleTracker.Track otherTrack) {
+        int priority = cloudPriority(policy.priority, approaching);
+        int otherPriority = cloudPriority(other.priority, otherApproaching);
+        if (priority != otherPriority) return priority > otherPriority;
+        return approaching ? track.getApproachRate() > otherTrack.getApproachRate() : track.getArea() > otherTrack.getArea();
+    }
+
+    private static boolean elapsed(long now, long since, long intervalMs) {
+        return since == NEVER || now - since > intervalMs;
+    }
+
+    /**
+     * 분석을 다시 시작할 때. 트랙만 지우고 클래스별 마지막 요청/경고 시각은 유지합니다. (바로 다시 켜도 연달아 부르지 않게)
+     */
+    public void reset() {
+        tracker.clear();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 탐지 박스만으로 거리와 시계 방향을 어림해서 짧은 경고 문장을 만듭니다. (네트워크 없이 바로 안내)
+ *
+ * 핀홀 카메라 모델: 거리 = 실제 높이 × 초점거리(px) / 박스 높이(px)
+ * - 초점거리(mm)와 센서 크기(mm)로 "이미지 폭/높이 대비 초점거리" 비율을 구해 두면 해상도와 무관하게 계산됩니다.
+ * - 센서 크기는 가로 방향(센서 기준) 값이라, 프레임이 90/270도 회전되면 가로/세로를 바꿔 씁니다.
+ * - 물체 높이는 라벨별 평균값이라 오차가 큽니다. 그래서 "약 N미터"로만 말합니다.
+ *
+ * 박스 좌표는 ObstacleTracker와 같이 회전된 이미지 기준 0~1 정규화 값입니다.
+ */
+public class HazardEstimator {
+
+    // 초점거리/센서 정보를 못 읽었을 때: 일반적인 스마트폰 메인 카메라 (가로 화각 약 66도, 4:3)
+    private static final float DEFAULT_FOCAL_MM = 4.3f;
+    private static final float DEFAULT_SENSOR_WIDTH_MM = 5.6f;
+    private static final float DEFAULT_SENSOR_HEIGHT_MM = 4.2f;
+
+    private static final Map<String, Float> KNOWN_HEIGHTS_M = new HashMap<>();
+    private static final Map<String, String> KOREAN_LABELS = new HashMap<>();
+
+    static {
+        KNOWN_HEIGHTS_M.put("person", 1.65f);
+        KNOWN_HEIGHTS_M.put("car", 1.5f);
+        KNOWN_HEIGHTS_M.put("bicycle", 1.0f);
+        KNOWN_HEIGHTS_M.put("motorcycle", 1.1f);
+        KNOWN_HEIGHTS_M.put("bus", 3.2f);
+        KNOWN_HEIGHTS_M.put("truck", 3.0f);
+        KNOWN_HEIGHTS_M.put("chair", 0.9f);
+        KNOWN_HEIGHTS_M.put("table", 0.75f);
+        KNOWN_HEIGHTS_M.put("dining table", 0.75f);
+
+        KOREAN_LABELS.put("person", "사람");
+        KOREAN_LABELS.put("car", "자동차");
+        KOREAN_LABELS.put("bicycle", "자전거");
+        KOREAN_LABELS.put("motorcycle", "오토바이");
+        KOREAN_LABELS.put("bus", "버스");
+        KOREAN_LABELS.put("truck", "트럭");
+        KOREAN_LABELS.put("chair", "의자");
+        KOREAN_LABELS.put("table", "탁자");
+        KOREAN_LABELS.put("dining table", "탁자");
+    }
+
+    // 센서 기준 (회전 전) 이미지 폭/높이 대비 초점거리
+    private volatile float focalOverWidth = DEFAULT_FOCAL_MM / DEFAULT_SENSOR_WIDTH_MM;
+    private volatile float focalOverHeight = DEFAULT_FOCAL_MM / DEFAULT_SENSOR_HEIGHT_MM;
+
+    /**
+     * 카메라 특성값으로 초점거리 비율을 설정합니다.
+     * @param focalLengthMm LENS_INFO_AVAILABLE_FOCAL_LENGTHS 중 사용하는 값
+     * @param sensorWidthMm SENSOR_INFO_PHYSICAL_SIZE의 width
+     * @param sensorHeightMm SENSOR_INFO_PHYSICAL_SIZE의 height
+     */
+    public void setIntrinsics(float focalLengthMm, float sensorWidthMm, float sensorHeightMm) {
+        if (focalLengthMm <= 0f || sensorWidthMm <= 0f || sensorHeightMm <= 0f) return;
+        focalOverWidth = focalLengthMm / sensorWidthMm;
+        focalOverHeight = focalLengthMm / sensorHeightMm;
+    }
+
+    /**
+     * 물체까지 거리(m). 높이를 모르는 라벨이면 -1.
+     * @param boxHeight 정규화된 박스 높이 (회전된 이미지 기준)
+     * @param rotationDegrees 분석 프레임 회전 각도
+     */
+    public float estimateDistance(String label, float boxHeight, int rotationDegrees) {
+        Float realHeight = KNOWN_HEIGHTS_M.get(label);
+        if (realHeight == null || boxHeight <= 0f) return -1f;
+        // 박스가 화면 위/아래에 잘린 경우 실제보다 가깝게 나오지만, 경고 용도로는 가까운 쪽이 안전함
+        return realHeight * verticalFocal(rotationDegrees) / boxHeight;
+    }
+
+    /**
+     * 정면을 12시로 보는 시계 방향 (9 ~ 3시).
+     * @param centerX 정규화된 박스 중심 x (회전된 이미지 기준)
+     */
+    public int estimateClockHour(float centerX, int rotationDegrees) {
+        double angle = Math.toDegrees(Math.atan((centerX - 0.5f) / horizontalFocal(rotationDegrees)));
+        int offset = (int) Math.round(angle / 30.0);
+        offset = Math.max(-3, Math.min(3, offset));
+        return offset <= 0 ? 12 + offset : offset;
+    }
+
+    /**
+     * "자동차, 2시 방향, 약 5미터" 형태의 경고 문장
+     */
+    public String describe(String label, float left, float top, float right, float bottom, int rotationDegrees) {
+        String name = KOREAN_LABELS.containsKey(label) ? KOREAN_LABELS.get(label) : label;
+        int hour = estimateClockHour((left + right) / 2f, rotationDegrees);
+        float distance = estimateDistance(label, bottom - top, rotationDegrees);
+
+        StringBuilder text = new StringBuilder(name).append(", ").append(hour).append("시 방향");
+        if (distance > 0f) {
+            text.append(", ").append(formatDistance(distance));
+        }
+        return text.toString();
+    }
+
+    static String formatDistance(float meters) {
+        if (meters < 1f) return "1미터 이내";
+        if (meters < 10f) return String.format(Locale.KOREAN, "약 %d미터", Math.round(meters));
+        return String.format(Locale.KOREAN, "약 %d미터", Math.round(meters / 5f) * 5);
+    }
+
+    private float verticalFocal(int rotationDegrees) {
+        return FrameBufferCache.rotationIndex(rotationDegrees) % 2 == 1 ? focalOverWidth : focalOverHeight;
+    }
+
+    private float horizontalFocal(int rotationDegrees) {
+        return FrameBufferCache.rotationIndex(rotationDegrees) % 2 == 1 ? focalOverHeight : focalOverWidth;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.capstone_map.feature.obstacle;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 클래스별 위험 정책 표 (assets/hazard_policy.json).
+ *
+ * 클래스마다 우선순위, 최소 신뢰도, 재알림 간격, 클라우드로 올릴지(cloud) 기기 경고만 할지(local)를 따로 둡니다.
+ * 예: 의자는 기기 경고만 10초에 한 번, 버스는 3초만 지나면 다시 클라우드 분석.
+ *
+ * 조회는 탐지기의 라벨 번호(Category.getIndex())로 합니다. 라벨 번호마다 처음 한 번만 문자열로 찾고
+ * 배열에 넣어 두므로, 이후에는 문자열 비교나 할당 없이 배열 한 칸을 읽습니다.
+ * 추론 스레드 하나에서만 조회합니다.
+ */
+public class HazardPolicyTable {
+
+    public static final String ASSET_NAME = "hazard_policy.json";
+
+    public enum Escalation {
+        LOCAL,  // 기기에서 바로 경고만
+        CLOUD   // 기기 경고 + 클라우드 분석
+    }
+
+    /**
+     * 클래스 하나의 정책. id는 표 안에서의 순번(0부터)으로 클래스별 상태 배열의 칸 번호로 씁니다.
+     */
+    public static final class Policy {
+        public final int id;
+        public final String label;
+        public final int priority;          // 클수록 먼저. 0이면 위험 물체가 아님
+        public final float minConfidence;
+        public final long cooldownMs;       // 같은 클래스를 다시 알리기까지 최소 간격 (다가오는 트랙은 예외)
+        public final Escalation escalation;
+
+        Policy(int id, String label, int priority, float minConfidence, long cooldownMs, Escalation escalation) {
+            this.id = id;
+            this.label = label;
+            this.priority = priority;
+            this.minConfidence = minConfidence;
+            this.cooldownMs = cooldownMs;
+            this.escalation = escalation;
+        }
+
+        public boolean isHazard() {
+            return priority > 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s(p%d, >=%.2f, %dms, %s)", label, priority, minConfidence, cooldownMs, escalation);
+        }
+    }
+
+    /** 표에 없는 라벨 */
+    public static final Policy NONE = new Policy(-1, "", 0, Float.MAX_VALUE, Long.MAX_VALUE, Escalation.LOCAL);
+
+    private final Policy[] policies;
+    private final Map<String, Policy> byLabel = new HashMap<>();
+    private Policy[] byIndex = new Policy[128];
+
+    public HazardPolicyTable(List<Policy> policies) {
+        this.policies = policies.toArray(new Policy[0]);
+        for (int i = 0; i < this.policies.length; i++) {
+            Policy policy = this.policies[i];
+            if (policy.id != i) throw new IllegalArgumentException("정책 id가 순번과 다름: " + policy);
+            byLabel.put(policy.label, policy);
+        }
+    }
+
+    /**
+     * hazard_policy.json 형식을 읽습니다.
+     * { "classes": { "bus": { "priority": 3, "minConfidence": 0.45, "cooldownMs": 3000, "escalation": "cloud" }, ... } }
+     * @throws JsonParseException 형식이 틀리거나 값이 범위를 벗어나면
+     */
+    public static HazardPolicyTable parse(Reader reader) {
+        JsonObject classes = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("classes");
+        if (classes == null) throw new JsonParseException("classes 항목이 없음");
+
+        List<Policy> policies = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : classes.entrySet()) {
+            JsonObject value = entry.getValue().getAsJsonObject();
+            int priority = value.get("priority").getAsInt();
+            float minConfidence = value.get("minConfidence").getAsFloat();
+            long cooldownMs = value.get("cooldownMs").getAsLong();
+            String escalation = value.get("escalation").getAsString();
+            if (priority < 1 || minConfidence < 0f || minConfidence > 1f || cooldownMs < 0) {
+                throw new JsonParseException("잘못된 정책 값: " + entry.getKey());
+            }
+            Escalation mode;
+            if ("cloud".equals(escalation)) {
+                mode = Escalation.CLOUD;
+            } else if ("local".equals(escalation)) {
+                mode = Escalation.LOCAL;
+            } else {
+                throw new JsonParseException("escalation은 cloud 또는 local: " + entry.getKey());
+            }
+            policies.add(new Policy(policies.size(), entry.getKey(), priority, minConfidence, cooldownMs, mode));
+        }
+        return new HazardPolicyTable(policies);
+    }
+
+    /**
+     * 정책 파일을 읽지 못했을 때 쓰는 이전 규칙. 모든 위험 라벨을 같은 우선순위로 클라우드에 올리고 5초 간격을 둡니다.
+     * 탐지기 하한(0.4)에 걸친 오탐으로 클라우드 요청이 나가지 않도록 신뢰도는 예전처럼 0.5 이상만 봅니다.
+     */
+    public static HazardPolicyTable legacy() {
+        List<Policy> policies = new ArrayList<>();
+        for (String label : Arrays.asList("car", "bicycle", "motorcycle", "bus", "truck", "person", "chair", "dining table")) {
+            policies.add(new Policy(policies.size(), label, 1, 0.5f, 5000, Escalation.CLOUD));
+        }
+        return new HazardPolicyTable(policies);
+    }
+
+    /**
+     * @param labelIndex 탐지기의 라벨 번호. 모르면 -1 (문자열로 찾음)
+     * @param label 라벨 번호를 처음 볼 때만 사용
+     * @return 표에 없으면 NONE
+     */
+    public Policy policyFor(int labelIndex, String label) {
+        if (labelIndex < 0) return policyFor(label);
+        if (labelIndex >= byIndex.length) {
+            byIndex = Arrays.copyOf(byIndex, Math.max(labelIndex + 1, byIndex.length * 2));
+        }
+        Policy policy = byIndex[labelIndex];
+        if (policy == null) {
+            policy = policyFor(label);
+            byIndex[labelIndex] = policy;
+        }
+        return policy;
+    }
+
+    public Policy policyFor(String label) {
+        Policy policy = label == null ? null : byLabel.get(label);
+        return policy == null ? NONE : policy;
+    }
+
+    /** id(0 ~ size()-1)로 조회 */
+    public Policy get(int id) {
+        return policies[id];
+    }
+
+    public int size() {
+        return policies.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(policies);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 내부 버퍼를 복사 없이 꺼낼 수 있는 ByteArrayOutputStream.
+ * toByteArray()는 전체를 한 번 더 복사하므로, 업로드할 때는 getBuffer() + size()를 사용합니다.
+ */
+public class JpegOutputStream extends ByteArrayOutputStream {
+
+    public JpegOutputStream(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * 내부 버퍼. 유효한 데이터는 0 ~ size() 까지입니다.
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+}
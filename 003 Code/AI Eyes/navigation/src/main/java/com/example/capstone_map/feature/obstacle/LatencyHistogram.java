@@ -0,0 +1,84 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 지연 시간 분포를 로그 간격 버킷에 모으는 히스토그램.
+ *
+ * - 버킷 경계는 1µs부터 2^(1/8) 배씩 커집니다. (한 옥타브에 8칸, 오차 약 9% 이내)
+ * - 1µs ~ 약 67초까지 208칸. 범위 밖은 양 끝 칸에 넣습니다.
+ * - record()는 배열 칸 하나만 올리므로 새 객체를 만들지 않고, 여러 스레드에서 동시에 불러도 됩니다.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS_PER_OCTAVE = 8;
+    private static final int OCTAVES = 26;
+    private static final int BUCKET_COUNT = BUCKETS_PER_OCTAVE * OCTAVES;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // 다른 스레드가 먼저 바꿨으면 다시 비교
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        double micros = nanos / 1000.0;
+        if (micros <= 1.0) return 0;
+        int index = (int) (Math.log(micros) / Math.log(2) * BUCKETS_PER_OCTAVE);
+        return Math.min(BUCKET_COUNT - 1, index);
+    }
+
+    /** 버킷의 위쪽 경계 (ns) */
+    static long upperBoundNanos(int bucket) {
+        return (long) (Math.pow(2, (bucket + 1) / (double) BUCKETS_PER_OCTAVE) * 1000.0);
+    }
+
+    /**
+     * 백분위 값 (ms). 해당 버킷의 위쪽 경계를 돌려주므로 실제보다 약간 크게 나옵니다.
+     * @param percentile 0~100
+     */
+    public double percentileMs(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundNanos(i), maxNanos.get()) / 1_000_000.0;
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMs() {
+        long total = count.get();
+        return total == 0 ? 0 : totalNanos.get() / (double) total / 1_000_000.0;
+    }
+
+    public double getMaxMs() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) buckets.set(i, 0);
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 두 단계(예: 카메라 → 추론) 사이에 놓는 한 칸짜리 우편함. 잠금 없이 AtomicReference 하나로 동작합니다.
+ *
+ * - offer()는 기다리지 않습니다. 칸에 아직 안 가져간 항목이 있으면 새 항목으로 바꾸고, 밀려난 항목은 recycler로 돌려줍니다.
+ *   (뒤 단계가 느리면 오래된 프레임을 버리고 항상 최신 프레임만 처리)
+ * - 받는 쪽은 consumerExecutor에서 돌고, 칸이 빌 때까지 consumer를 부릅니다. 처리 중에는 실행 작업을 더 올리지 않습니다.
+ *
+ * consumer는 받은 항목을 다 쓰면 직접 돌려줘야 합니다. (다음 단계로 넘기거나 풀에 반환)
+ * consumer가 예외를 던지면 그 항목만 실패로 세고 다음 항목을 계속 처리합니다. 항목 반환은 consumer가 finally로 보장해야 합니다.
+ */
+public class LatestFrameMailbox<T> {
+
+    private final AtomicReference<T> slot = new AtomicReference<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final Executor consumerExecutor;
+    private final Consumer<T> consumer;
+    private final Consumer<T> recycler;
+    private final Runnable drainTask = this::drain;
+
+    private final AtomicLong offeredCount = new AtomicLong();
+    private final AtomicLong consumedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile RuntimeException lastFailure;
+
+    /**
+     * @param consumerExecutor 받는 단계의 스레드 (단일 스레드 executor)
+     * @param consumer 항목 처리
+     * @param recycler 처리되지 못하고 밀려난 항목 반환
+     */
+    public LatestFrameMailbox(Executor consumerExecutor, Consumer<T> consumer, Consumer<T> recycler) {
+        this.consumerExecutor = consumerExecutor;
+        this.consumer = consumer;
+        this.recycler = recycler;
+    }
+
+    public void offer(T item) {
+        offeredCount.incrementAndGet();
+        T displaced = slot.getAndSet(item);
+        if (displaced != null) {
+            droppedCount.incrementAndGet();
+            recycler.accept(displaced);
+        }
+        if (draining.compareAndSet(false, true)) {
+            try {
+                consumerExecutor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // 받는 쪽이 이미 종료됨
+                draining.set(false);
+                clear();
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            T item;
+            while ((item = slot.getAndSet(null)) != null) {
+                consumedCount.incrementAndGet();
+                try {
+                    consumer.accept(item);
+                } catch (RuntimeException e) {
+                    // 한 항목이 실패해도 draining이 걸린 채로 남아 이 단계가 멈추지 않도록 삼키고 셈
+                    failedCount.incrementAndGet();
+                    lastFailure = e;
+                }
+            }
+            draining.set(false);
+            // draining을 내리기 직전에 들어온 항목은 offer()가 작업을 올리지 않았으므로 여기서 다시 확인
+            if (slot.get() == null || !draining.compareAndSet(false, true)) return;
+        }
+    }
+
+    /**
+     * 아직 안 가져간 항목을 버리고 반환합니다.
+     */
+    public void clear() {
+        T item = slot.getAndSet(null);
+        if (item != null) {
+            droppedCount.incrementAndGet();
+            recycler.accept(item);
+        }
+    }
+
+    public long getOfferedCount() {
+        return offeredCount.get();
+    }
+
+    public long getConsumedCount() {
+        return consumedCount.get();
+    }
+
+    /** 뒤 단계가 바빠서 처리되지 못하고 밀려난 항목 수 */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** consumer가 예외를 던진 항목 수 */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /** 마지막으로 consumer가 던진 예외 (없으면 null) */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public String toString() {
+        RuntimeException failure = lastFailure;
+        return "넣음 " + offeredCount.get() + ", 처리 " + consumedCount.get() + ", 밀려남 " + droppedCount.get()
+                + ", 실패 " + failedCount.get() + (failure != null ? " (마지막: " + failure + ")" : "");
+    }
+}
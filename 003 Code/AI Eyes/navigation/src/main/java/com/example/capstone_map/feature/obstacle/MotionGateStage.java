@@ -0,0 +1,142 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * 프레임 차분으로 움직임이 있을 때만 탐지 모델을 돌리는 1단계.
+ *
+ * 카메라 RGBA 버퍼에서 32x24 칸을 뽑아 이전 프레임과 밝기를 비교하고,
+ * 밝기가 pixelThreshold 넘게 바뀐 칸이 minChangedFraction 이상이면 후보가 있다고 봅니다.
+ * 화면이 그대로여도 heartbeatMs마다 한 번은 통과시켜 멈춰 있는 장애물을 놓치지 않게 합니다.
+ * (heartbeatMs는 ObstacleTracker의 maxAgeMs보다 짧아야 트랙이 끊기지 않습니다)
+ * DeviceMotionDetector를 주면 폰이 움직이는 동안은 차분 결과와 상관없이 바로 통과시킵니다.
+ * 이때 timestampMs는 센서와 같은 elapsedRealtime 기준이어야 합니다.
+ *
+ * 비트맵 없이 동작해서 JVM 재생 테스트에서도 씁니다.
+ */
+public class MotionGateStage {
+
+    private static final int SAMPLE_WIDTH = 32;
+    private static final int SAMPLE_HEIGHT = 24;
+
+    private final int pixelThreshold;
+    private final float minChangedFraction;
+    private final long heartbeatMs;
+    private final DeviceMotionDetector deviceMotion;   // null이면 프레임 차분만 봄
+
+    private int[] previousLuma = new int[SAMPLE_WIDTH * SAMPLE_HEIGHT];
+    private int[] currentLuma = new int[SAMPLE_WIDTH * SAMPLE_HEIGHT];
+    private boolean hasPrevious = false;
+    private long lastPassedAt = Long.MIN_VALUE;
+    // 통과 이유별 횟수 (로그용)
+    private long passedFirst = 0;      // 비교할 이전 프레임이 없음 (시작/재시작 직후)
+    private long passedByDevice = 0;
+    private long passedByScene = 0;
+    private long passedByHeartbeat = 0;
+    private long gatedCount = 0;
+
+    /**
+     * @param pixelThreshold 바뀐 칸으로 볼 밝기 차이 (0~255)
+     * @param minChangedFraction 바뀐 칸 비율이 이 값 이상이면 통과
+     * @param heartbeatMs 움직임이 없어도 이 간격마다 한 번은 통과
+     */
+    public MotionGateStage(int pixelThreshold, float minChangedFraction, long heartbeatMs) {
+        this(pixelThreshold, minChangedFraction, heartbeatMs, null);
+    }
+
+    /**
+     * @param deviceMotion 폰이 움직이는 중이면 바로 통과 (null이면 프레임 차분만 봄)
+     */
+    public MotionGateStage(int pixelThreshold, float minChangedFraction, long heartbeatMs, DeviceMotionDetector deviceMotion) {
+        this.pixelThreshold = pixelThreshold;
+        this.minChangedFraction = minChangedFraction;
+        this.heartbeatMs = heartbeatMs;
+        this.deviceMotion = deviceMotion;
+    }
+
+    /**
+     * 행 여백 없는 RGBA 버퍼(녹화 프레임)로 판단합니다. 칸마다 가운데 픽셀 하나를 씁니다.
+     * 비트맵 축소(필터링)와 값이 조금 다를 수 있어 임계값 근처 프레임은 결과가 달라질 수 있습니다.
+     */
+    public boolean hasCandidates(ByteBuffer rgba, int width, int height, long timestampMs) {
+        return hasCandidates(rgba, width, height, width * 4, timestampMs);
+    }
+
+    /**
+     * 카메라 RGBA 평면(행 끝 여백 있음)으로 바로 판단합니다. 복사/회전 전에 부를 수 있어 막힌 프레임은 비용이 거의 없습니다.
+     * 버퍼의 position은 바꾸지 않습니다.
+     */
+    public synchronized boolean hasCandidates(ByteBuffer rgba, int width, int height, int rowStride, long timestampMs) {
+        for (int y = 0; y < SAMPLE_HEIGHT; y++) {
+            int sy = (2 * y + 1) * height / (2 * SAMPLE_HEIGHT);
+            for (int x = 0; x < SAMPLE_WIDTH; x++) {
+                int sx = (2 * x + 1) * width / (2 * SAMPLE_WIDTH);
+                int offset = sy * rowStride + sx * 4;
+                currentLuma[y * SAMPLE_WIDTH + x] = luma(rgba.get(offset) & 0xFF,
+                        rgba.get(offset + 1) & 0xFF, rgba.get(offset + 2) & 0xFF);
+            }
+        }
+        return decide(timestampMs);
+    }
+
+    private static int luma(int r, int g, int b) {
+        return (r * 77 + g * 150 + b * 29) >> 8;
+    }
+
+    private boolean decide(long timestampMs) {
+        boolean pass;
+        if (!hasPrevious) {
+            pass = true;
+            passedFirst++;
+        } else if (deviceMotion != null && deviceMotion.isMoving(timestampMs)) {
+            pass = true;
+            passedByDevice++;
+        } else if (changedFraction(previousLuma, currentLuma, pixelThreshold) >= minChangedFraction) {
+            pass = true;
+            passedByScene++;
+        } else if (timestampMs - lastPassedAt >= heartbeatMs) {
+            pass = true;
+            passedByHeartbeat++;
+        } else {
+            pass = false;
+            gatedCount++;
+        }
+
+        int[] swap = previousLuma;
+        previousLuma = currentLuma;
+        currentLuma = swap;
+        hasPrevious = true;
+        if (pass) lastPassedAt = timestampMs;
+        return pass;
+    }
+
+    /**
+     * 두 밝기 배열에서 threshold 넘게 바뀐 칸의 비율
+     */
+    static float changedFraction(int[] previous, int[] current, int threshold) {
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (Math.abs(current[i] - previous[i]) > threshold) changed++;
+        }
+        return (float) changed / current.length;
+    }
+
+    public String getName() {
+        return deviceMotion != null ? "motion+imu" : "motion";
+    }
+
+    /**
+     * 통과 이유별 횟수 한 줄 요약 (로그용)
+     */
+    public synchronized String getStats() {
+        return String.format(Locale.US, "%s: 첫 프레임 %d, 센서 움직임 %d, 장면 변화 %d, 정지 중 주기 통과 %d, 막음 %d",
+                getName(), passedFirst, passedByDevice, passedByScene, passedByHeartbeat, gatedCount);
+    }
+
+    /** 분석을 다시 시작할 때 이전 프레임을 버립니다. */
+    public synchronized void reset() {
+        hasPrevious = false;
+        lastPassedAt = Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TFLite 탐지 결과에 프레임 간 고정 ID를 붙여주는 SORT 방식 추적기.
+ *
+ * - 각 트랙은 박스 중심(x, y)과 면적(s)을 등속 칼만 필터로 예측/보정합니다.
+ * - 새 프레임의 탐지는 같은 클래스끼리 IoU가 큰 순서로 트랙에 매칭합니다. (탐지 수가 적어서 헝가리안 대신 그리디)
+ * - 면적 증가율(s'/s, 1/초)로 접근 속도를 추정합니다. 물체가 다가오면 박스가 커집니다.
+ *
+ * 좌표는 0~1로 정규화된 값을 사용합니다. (이미지 크기와 무관하게 임계값을 쓰기 위해)
+ *
+ * 사용 순서: beginFrame() → addDetection() 여러 번 → endFrame()
+ */
+public class ObstacleTracker {
+
+    private final float iouThreshold;
+    private final int minHits;
+    private final long maxAgeMs;
+    private final float approachRateThreshold;
+
+    private final List<Track> tracks = new ArrayList<>();
+    private final List<Track> liveTracks = new ArrayList<>();
+
+    // 이번 프레임 탐지 (재사용 버퍼)
+    private int detectionCount = 0;
+    private String[] detLabels = new String[8];
+    private int[] detClassIds = new int[8];
+    private float[] detScores = new float[8];
+    private float[] detBoxes = new float[8 * 4];
+    private boolean[] detMatched = new boolean[8];
+
+    private long frameTimeMs;
+    private int nextId = 1;
+
+    /**
+     * @param iouThreshold 같은 물체로 볼 최소 IoU
+     * @param minHits 트랙을 확정하기까지 필요한 연속 탐지 수 (한두 프레임 오탐 방지)
+     * @param maxAgeMs 이 시간 동안 다시 보이지 않으면 트랙 삭제
+     * @param approachRateThreshold 면적 증가율(1/초)이 이 값을 넘으면 "접근 중"으로 판단
+     */
+    public ObstacleTracker(float iouThreshold, int minHits, long maxAgeMs, float approachRateThreshold) {
+        this.iouThreshold = iouThreshold;
+        this.minHits = minHits;
+        this.maxAgeMs = maxAgeMs;
+        this.approachRateThreshold = approachRateThreshold;
+    }
+
+    /**
+     * 새 프레임 시작. 모든 트랙을 현재 시각으로 예측합니다.
+     */
+    public void beginFrame(long timestampMs) {
+        frameTimeMs = timestampMs;
+        detectionCount = 0;
+        for (int i = 0; i < tracks.size(); i++) {
+            tracks.get(i).predict(timestampMs);
+        }
+    }
+
+    /**
+     * @param classId 클래스 번호. 같은 번호끼리만 같은 물체로 매칭합니다.
+     */
+    public void addDetection(int classId, String label, float score, float left, float top, float right, float bottom) {
+        if (detectionCount == detLabels.length) {
+            int capacity = detLabels.length * 2;
+            detLabels = java.util.Arrays.copyOf(detLabels, capacity);
+            detClassIds = java.util.Arrays.copyOf(detClassIds, capacity);
+            detScores = java.util.Arrays.copyOf(detScores, capacity);
+            detBoxes = java.util.Arrays.copyOf(detBoxes, capacity * 4);
+            detMatched = new boolean[capacity];
+        }
+        int i = detectionCount++;
+        detLabels[i] = label;
+        detClassIds[i] = classId;
+        detScores[i] = score;
+        detBoxes[i * 4] = left;
+        detBoxes[i * 4 + 1] = top;
+        detBoxes[i * 4 + 2] = right;
+        detBoxes[i * 4 + 3] = bottom;
+    }
+
+    /**
+     * 매칭/갱신/생성/삭제를 처리하고 확정된 트랙 목록을 돌려줍니다.
+     * 돌려준 리스트는 다음 endFrame()에서 재사용됩니다.
+     */
+    public List<Track> endFrame() {
+        for (int d = 0; d < detectionCount; d++) detMatched[d] = false;
+        for (int t = 0; t < tracks.size(); t++) tracks.get(t).matchedThisFrame = false;
+
+        // IoU가 가장 큰 (트랙, 탐지) 쌍부터 하나씩 확정
+        while (true) {
+            float bestIou = iouThreshold;
+            int bestTrack = -1;
+            int bestDet = -1;
+            for (int t = 0; t < tracks.size(); t++) {
+                Track track = tracks.get(t);
+                if (track.matchedThisFrame) continue;
+                for (int d = 0; d < detectionCount; d++) {
+                    if (detMatched[d] || track.classId != detClassIds[d]) continue;
+                    float iou = iou(track, d);
+                    if (iou >= bestIou) {
+                        bestIou = iou;
+                        bestTrack = t;
+                        bestDet = d;
+                    }
+                }
+            }
+            if (bestTrack < 0) break;
+            Track track = tracks.get(bestTrack);
+            track.update(detBoxes, bestDet * 4, detScores[bestDet], frameTimeMs);
+            track.matchedThisFrame = true;
+            detMatched[bestDet] = true;
+        }
+
+        // 매칭되지 않은 탐지는 새 트랙
+        for (int d = 0; d < detectionCount; d++) {
+            if (detMatched[d]) continue;
+            Track track = new Track(nextId++, detClassIds[d], detLabels[d], frameTimeMs);
+            track.update(detBoxes, d * 4, detScores[d], frameTimeMs);
+            tracks.add(track);
+        }
+
+        // 오래 안 보인 트랙 삭제 + 확정 트랙 수집
+        liveTracks.clear();
+        for (int t = tracks.size() - 1; t >= 0; t--) {
+            Track track = tracks.get(t);
+            if (frameTimeMs - track.lastSeenAt > maxAgeMs) {
+                tracks.remove(t);
+                continue;
+            }
+            if (track.matchedThisFrame && track.hits >= minHits) {
+                liveTracks.add(track);
+            }
+        }
+        return liveTracks;
+    }
+
+    /**
+     * 한 번도 알리지 않은 새 트랙인지
+     */
+    public boolean isNew(Track track) {
+        return track.lastEscalatedAt == Long.MIN_VALUE;
+    }
+
+    /**
+     * 박스가 빠르게 커지고 있는(다가오는) 트랙인지
+     */
+    public boolean isApproaching(Track track) {
+        return track.getApproachRate() > approachRateThreshold;
+    }
+
+    public void markEscalated(Track track, long nowMs) {
+        track.lastEscalatedAt = nowMs;
+    }
+
+    /**
+     * 기기에서 바로 경고 음성을 낸 시각을 기록합니다. (클라우드 분석과 따로 관리)
+     */
+    public void markAnnounced(Track track, long nowMs) {
+        track.lastAnnouncedAt = nowMs;
+    }
+
+    public void clear() {
+        tracks.clear();
+        liveTracks.clear();
+        detectionCount = 0;
+    }
+
+    private float iou(Track track, int d) {
+        int o = d * 4;
+        float left = Math.max(track.getLeft(), detBoxes[o]);
+        float top = Math.max(track.getTop(), detBoxes[o + 1]);
+        float right = Math.min(track.getRight(), detBoxes[o + 2]);
+        float bottom = Math.min(track.getBottom(), detBoxes[o + 3]);
+        float inter = Math.max(0f, right - left) * Math.max(0f, bottom - top);
+        float detArea = (detBoxes[o + 2] - detBoxes[o]) * (detBoxes[o + 3] - detBoxes[o + 1]);
+        float union = track.getArea() + detArea - inter;
+        return union <= 0f ? 0f : inter / union;
+    }
+
+    /**
+     * 추적 중인 물체 하나
+     */
+    public static class Track {
+        public final int id;
+        public final int classId;
+        public final String label;
+        public final long firstSeenAt;
+
+        private final KalmanAxis cx = new KalmanAxis(0.05f, 0.01f);
+        private final KalmanAxis cy = new KalmanAxis(0.05f, 0.01f);
+        private final KalmanAxis area = new KalmanAxis(0.02f, 0.005f);
+        private float aspect = 1f;   // 너비/높이 (측정값 그대로)
+        private float score;
+        private int hits = 0;
+        private long lastSeenAt;
+        private long lastEscalatedAt = Long.MIN_VALUE;
+        private long lastAnnouncedAt = Long.MIN_VALUE;
+        private boolean matchedThisFrame;
+
+        Track(int id, int classId, String label, long nowMs) {
+            this.id = id;
+            this.classId = classId;
+            this.label = label;
+            this.firstSeenAt = nowMs;
+            this.lastSeenAt = nowMs;
+        }
+
+        void predict(long nowMs) {
+            cx.predict(nowMs);
+            cy.predict(nowMs);
+            area.predict(nowMs);
+        }
+
+        void update(float[] boxes, int o, float score, long nowMs) {
+            float w = boxes[o + 2] - boxes[o];
+            float h = boxes[o + 3] - boxes[o + 1];
+            cx.update(boxes[o] + w / 2f, nowMs);
+            cy.update(boxes[o + 1] + h / 2f, nowMs);
+            area.update(w * h, nowMs);
+            if (h > 0f) aspect = w / h;
+            this.score = score;
+            this.hits++;
+            this.lastSeenAt = nowMs;
+        }
+
+        public float getArea() { return Math.max(area.x, 1e-6f); }
+        private float width() { return (float) Math.sqrt(getArea() * aspect); }
+        private float height() { return getArea() / width(); }
+        public float getCenterX() { return cx.x; }
+        public float getCenterY() { return cy.x; }
+        public float getLeft() { return cx.x - width() / 2f; }
+        public float getTop() { return cy.x - height() / 2f; }
+        public float getRight() { return cx.x + width() / 2f; }
+        public float getBottom() { return cy.x + height() / 2f; }
+        public float getScore() { return score; }
+        public int getHits() { return hits; }
+        public long getLastEscalatedAt() { return lastEscalatedAt; }
+        public long getLastAnnouncedAt() { return lastAnnouncedAt; }
+
+        /**
+         * 면적 증가율 (1/초). 양수면 다가오는 중.
+         * 면적은 거리의 제곱에 반비례하므로, 대략 2 / (충돌까지 남은 시간) 입니다.
+         */
+        public float getApproachRate() {
+            return area.v / getArea() * 1000f;
+        }
+    }
+
+    /**
+     * 한 축(위치 + 속도)에 대한 등속 칼만 필터. 시간 단위는 ms.
+     */
+    static class KalmanAxis {
+        private final float processNoise;      // 속도 변화 불확실성 (단위/초)
+        private final float measurementNoise;  // 측정값 표준편차
+        float x;        // 위치
+        float v;        // 속도 (단위/ms)
+        private float p00 = 1f, p01 = 0f, p10 = 0f, p11 = 1f;
+        private long timeMs;
+        private boolean initialized = false;
+
+        KalmanAxis(float processNoise, float measurementNoise) {
+            this.processNoise = processNoise;
+            this.measurementNoise = measurementNoise;
+        }
+
+        void predict(long nowMs) {
+            if (!initialized) return;
+            float dt = nowMs - timeMs;
+            if (dt <= 0f) return;
+            timeMs = nowMs;
+
+            x += v * dt;
+            // P = F P F^T + Q
+            float q = processNoise / 1000f;
+            float qv = q * q * dt;
+            float n00 = p00 + dt * (p10 + p01) + dt * dt * p11;
+            float n01 = p01 + dt * p11;
+            float n10 = p10 + dt * p11;
+            p00 = n00 + qv * dt * dt / 4f;
+            p01 = n01 + qv * dt / 2f;
+            p10 = n10 + qv * dt / 2f;
+            p11 = p11 + qv;
+        }
+
+        void update(float z, long nowMs) {
+            if (!initialized) {
+                x = z;
+                v = 0f;
+                p00 = measurementNoise * measurementNoise;
+                p01 = p10 = 0f;
+                p11 = 1e-6f;
+                timeMs = nowMs;
+                initialized = true;
+                return;
+            }
+            predict(nowMs);
+            float r = measurementNoise * measurementNoise;
+            float s = p00 + r;
+            float k0 = p00 / s;
+            float k1 = p10 / s;
+            float y = z - x;
+            x += k0 * y;
+            v += k1 * y;
+            float n00 = (1 - k0) * p00;
+            float n01 = (1 - k0) * p01;
+            float n10 = p10 - k1 * p00;
+            float n11 = p11 - k1 * p01;
+            p00 = n00; p01 = n01; p10 = n10; p11 = n11;
+        }
+    }
+}
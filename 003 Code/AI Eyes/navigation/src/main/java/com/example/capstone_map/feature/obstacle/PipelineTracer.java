@@ -0,0 +1,211 @@
+package com.example.capstone_map.feature.obstacle;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 장애물 경고 파이프라인의 단계별 지연 시간을 기록합니다.
+ *
+ * - 단계마다 LatencyHistogram에 모으고, 최근 이벤트 RECENT_EVENTS개는 (프레임 번호, 단계, 시간)으로 따로 보관합니다.
+ * - 같은 스레드에서 끝나는 단계는 begin()/end()로 감싸면 android.os.Trace 구간도 함께 남습니다. (systrace/Perfetto에서 확인)
+ * - 네트워크처럼 다른 스레드에서 끝나는 단계는 beginAsync()/endAsync()를 씁니다. (API 29 이상에서만 Trace 비동기 구간)
+ * - dumpReport()로 p50/p95/p99 표를 만들고, writeReport()로 filesDir에 저장해 현장 기기에서 꺼낼 수 있습니다.
+ *   파일은 최근 MAX_REPORT_FILES개만 남깁니다.
+ *   표에는 단계별 처리량(회/초)과 바쁜 비율(그 단계 스레드가 일한 시간 / 경과 시간)도 함께 나옵니다.
+ *
+ * 기록 경로는 객체를 만들지 않습니다.
+ */
+public class PipelineTracer {
+
+    private static final String TAG = "PipelineTracer";
+    private static final int RECENT_EVENTS = 256;
+    private static final int MAX_REPORT_FILES = 20;
+
+    /** 프레임 번호가 아직 없는 단계의 seq. (GATE는 FrameRing 칸을 잡기 전에 돌아 번호가 없음) 보고서에는 "-"로 나옵니다. */
+    public static final long NO_FRAME = 0L;
+
+    public enum Stage {
+        COPY("obstacle:copy"),                // ImageProxy RGBA → bitmapBuffer
+        ROTATE("obstacle:rotate"),            // 회전 버퍼에 그리기
+        GATE("obstacle:gate"),                // 움직임 게이트 (카메라 콜백, 복사 전, seq는 NO_FRAME)
+        INFERENCE("obstacle:inference"),      // TFLite 탐지
+        TRACK("obstacle:track"),              // 추적/판단 (onResults)
+        ENCODE("obstacle:encode"),            // 축소 + JPEG 압축 (+ 크롭)
+        BASE64("obstacle:base64"),
+        NETWORK("obstacle:network"),          // Retrofit 요청 ~ 응답
+        TTS_START("obstacle:tts_start"),      // speak() 호출 ~ 실제 발화 시작
+        LOCAL_WARNING("obstacle:local_warning"),  // 트랙이 처음 보인 뒤 즉시 경고까지
+        END_TO_END("obstacle:end_to_end");    // 분석 프레임 탐지 ~ 클라우드 설명 발화 시작
+
+        final String sectionName;
+
+        Stage(String sectionName) {
+            this.sectionName = sectionName;
+        }
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final long[] recentSeq = new long[RECENT_EVENTS];
+    private final int[] recentStage = new int[RECENT_EVENTS];
+    private final long[] recentNanos = new long[RECENT_EVENTS];
+    private int recentNext = 0;
+    private volatile long startedAtNanos = SystemClock.elapsedRealtimeNanos();
+
+    public PipelineTracer() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 같은 스레드에서 끝나는 단계 시작. 돌려준 값을 end()에 넘기세요.
+     */
+    public long begin(Stage stage) {
+        Trace.beginSection(stage.sectionName);
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public void end(Stage stage, long seq, long startNanos) {
+        long elapsed = SystemClock.elapsedRealtimeNanos() - startNanos;
+        Trace.endSection();
+        record(stage, seq, elapsed);
+    }
+
+    /**
+     * 다른 스레드에서 끝나는 단계 시작. cookie는 같은 단계의 동시 구간끼리 구분하는 값(티켓 등)입니다.
+     */
+    public long beginAsync(Stage stage, int cookie) {
+        if (Build.VERSION.SDK_INT >= 29) {
+            Trace.beginAsyncSection(stage.sectionName, cookie);
+        }
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public void endAsync(Stage stage, int cookie, long seq, long startNanos) {
+        long elapsed = SystemClock.elapsedRealtimeNanos() - startNanos;
+        if (Build.VERSION.SDK_INT >= 29) {
+            Trace.endAsyncSection(stage.sectionName, cookie);
+        }
+        record(stage, seq, elapsed);
+    }
+
+    /**
+     * 이미 잰 시간을 기록합니다.
+     */
+    public void record(Stage stage, long seq, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+        synchronized (this) {
+            recentSeq[recentNext] = seq;
+            recentStage[recentNext] = stage.ordinal();
+            recentNanos[recentNext] = nanos;
+            recentNext = (recentNext + 1) % RECENT_EVENTS;
+        }
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * 단계별 요약 표 + 최근 이벤트 목록
+     */
+    public String dumpReport() {
+        double elapsedSeconds = Math.max(1e-3, (SystemClock.elapsedRealtimeNanos() - startedAtNanos) / 1e9);
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%-14s %7s %9s %9s %9s %9s %9s %7s %6s%n",
+                "stage", "count", "mean", "p50", "p95", "p99", "max", "rate/s", "busy"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histograms[stage.ordinal()];
+            if (h.getCount() == 0) continue;
+            double busy = h.getCount() * h.getMeanMs() / 1000.0 / elapsedSeconds;
+            report.append(String.format(Locale.US, "%-14s %7d %8.2fms %8.2fms %8.2fms %8.2fms %8.2fms %7.2f %5.1f%%%n",
+                    stage.name().toLowerCase(Locale.US), h.getCount(), h.getMeanMs(),
+                    h.percentileMs(50), h.percentileMs(95), h.percentileMs(99), h.getMaxMs(),
+                    h.getCount() / elapsedSeconds, busy * 100.0));
+        }
+
+        report.append("\nrecent events (seq, stage, ms)\n");
+        Stage[] stages = Stage.values();
+        synchronized (this) {
+            for (int i = 0; i < RECENT_EVENTS; i++) {
+                int index = (recentNext + i) % RECENT_EVENTS;
+                if (recentSeq[index] == 0 && recentNanos[index] == 0) continue;
+                if (recentSeq[index] == NO_FRAME) report.append('-');
+                else report.append(recentSeq[index]);
+                report.append(',')
+                        .append(stages[recentStage[index]].name().toLowerCase(Locale.US)).append(',')
+                        .append(String.format(Locale.US, "%.2f", recentNanos[index] / 1_000_000.0)).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * 보고서를 만들고 바로 기록을 비웁니다. 다음 보고서는 이 시점부터의 구간만 담습니다.
+     */
+    public synchronized String dumpReportAndReset() {
+        String report = dumpReport();
+        reset();
+        return report;
+    }
+
+    /**
+     * 보고서를 filesDir/obstacle_trace/ 아래 파일로 저장하고 오래된 파일을 지웁니다. (adb pull 또는 공유로 회수)
+     * 파일 I/O가 있으니 메인 스레드에서 부르지 마세요.
+     * @return 저장한 파일, 실패하면 null
+     */
+    public static File writeReport(Context context, String report) {
+        File dir = new File(context.getFilesDir(), "obstacle_trace");
+        if (!dir.exists() && !dir.mkdirs()) return null;
+        File file = new File(dir, "trace_" + System.currentTimeMillis() + ".txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(Build.MANUFACTURER + " " + Build.MODEL + " (SDK " + Build.VERSION.SDK_INT + ")\n\n");
+            writer.write(report);
+        } catch (IOException e) {
+            Log.e(TAG, "보고서 저장 실패: " + e.getMessage());
+            return null;
+        }
+        pruneReports(dir, MAX_REPORT_FILES);
+        return file;
+    }
+
+    /**
+     * trace_*.txt 중 최근 keep개만 남깁니다. (파일 이름의 시각 순)
+     */
+    static void pruneReports(File dir, int keep) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith("trace_") && name.endsWith(".txt"));
+        if (files == null || files.length <= keep) return;
+        Arrays.sort(files, (a, b) -> Long.compare(reportTime(a), reportTime(b)));
+        for (int i = 0; i < files.length - keep; i++) {
+            if (!files[i].delete()) Log.w(TAG, "오래된 보고서 삭제 실패: " + files[i].getName());
+        }
+    }
+
+    private static long reportTime(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring("trace_".length(), name.length() - ".txt".length()));
+        } catch (NumberFormatException e) {
+            return file.lastModified();
+        }
+    }
+
+    public synchronized void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+        for (int i = 0; i < RECENT_EVENTS; i++) {
+            recentSeq[i] = 0;
+            recentNanos[i] = 0;
+        }
+        recentNext = 0;
+        startedAtNanos = SystemClock.elapsedRealtimeNanos();
+    }
+}
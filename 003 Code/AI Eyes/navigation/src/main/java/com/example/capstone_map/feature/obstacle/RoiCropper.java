@@ -0,0 +1,98 @@
+package com.example.capstone_map.feature.obstacle;
+
+import android.graphics.Bitmap;
+
+import java.util.Locale;
+
+/**
+ * 위험 객체 주변만 잘라서 올리기 위한 도구.
+ *
+ * 탐지 박스는 회전된 이미지 기준(0~1 정규화)인데, 업로드하는 프레임(bitmapBuffer)은 회전 전 원본입니다.
+ * 그래서 박스를 원본 기준으로 되돌린 뒤, 여백을 붙여 원본 해상도 그대로 잘라냅니다.
+ * 장면 전체는 작은 썸네일로 따로 보내므로, 같은 용량이면 물체 쪽에 픽셀이 더 많이 갑니다.
+ */
+public final class RoiCropper {
+
+    private RoiCropper() {}
+
+    /**
+     * 잘라낸 영역
+     */
+    public static class Roi {
+        public final Bitmap bitmap;
+        /** 원본 프레임 기준 정규화 좌표 (left, top, right, bottom) */
+        public final float left, top, right, bottom;
+
+        Roi(Bitmap bitmap, float left, float top, float right, float bottom) {
+            this.bitmap = bitmap;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        /** 서버로 보낼 "l,t,r,b" 문자열 */
+        public String boxString() {
+            return String.format(Locale.US, "%.4f,%.4f,%.4f,%.4f", left, top, right, bottom);
+        }
+    }
+
+    /**
+     * 회전된 이미지 기준 정규화 박스를 회전 전 원본 기준으로 바꿉니다. (ObjectDetectorHelper.rotate의 역변환)
+     * @param box [left, top, right, bottom], 결과로 덮어씁니다
+     * @param rotationDegrees 분석 프레임의 회전 각도 (시계 방향)
+     */
+    public static void toSourceBox(float[] box, int rotationDegrees) {
+        int rotationIndex = FrameBufferCache.rotationIndex(rotationDegrees);
+        float l = box[0], t = box[1], r = box[2], b = box[3];
+        switch (rotationIndex) {
+            case 1: // 90도: x' = 1 - y, y' = x
+                box[0] = t; box[1] = 1f - r; box[2] = b; box[3] = 1f - l;
+                break;
+            case 2: // 180도
+                box[0] = 1f - r; box[1] = 1f - b; box[2] = 1f - l; box[3] = 1f - t;
+                break;
+            case 3: // 270도: x' = y, y' = 1 - x
+                box[0] = 1f - b; box[1] = l; box[2] = 1f - t; box[3] = r;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 원본 프레임에서 박스 주변을 여백을 붙여 잘라냅니다.
+     * @param sourceBox 원본 기준 정규화 박스 (toSourceBox 결과)
+     * @param padding 박스 크기 대비 여백 비율 (0.2면 사방으로 20%)
+     * @param minSidePx 잘라낸 영역의 최소 한 변 길이 (너무 작은 물체도 주변이 보이도록)
+     * @param maxSidePx 잘라낸 영역이 이보다 크면 줄임
+     */
+    public static Roi crop(Bitmap source, float[] sourceBox, float padding, int minSidePx, int maxSidePx) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        float boxWidth = (sourceBox[2] - sourceBox[0]) * width;
+        float boxHeight = (sourceBox[3] - sourceBox[1]) * height;
+        float cropWidth = Math.min(width, Math.max(minSidePx, boxWidth * (1f + 2f * padding)));
+        float cropHeight = Math.min(height, Math.max(minSidePx, boxHeight * (1f + 2f * padding)));
+        float centerX = (sourceBox[0] + sourceBox[2]) / 2f * width;
+        float centerY = (sourceBox[1] + sourceBox[3]) / 2f * height;
+
+        // 가장자리에 걸리면 영역을 줄이지 않고 안쪽으로 밀어 넣음
+        int w = clamp(Math.round(cropWidth), 1, width);
+        int h = clamp(Math.round(cropHeight), 1, height);
+        int x = clamp(Math.round(centerX - w / 2f), 0, width - w);
+        int y = clamp(Math.round(centerY - h / 2f), 0, height - h);
+
+        Bitmap cropped = Bitmap.createBitmap(source, x, y, w, h);
+        int longSide = Math.max(w, h);
+        if (longSide > maxSidePx) {
+            float scale = (float) maxSidePx / longSide;
+            cropped = Bitmap.createScaledBitmap(cropped, Math.max(1, Math.round(w * scale)), Math.max(1, Math.round(h * scale)), true);
+        }
+        return new Roi(cropped, (float) x / width, (float) y / height, (float) (x + w) / width, (float) (y + h) / height);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 최근에 업로드한 장면의 지각 해시(dHash)와 분석 결과를 보관하는 작은 캐시.
+ *
+ * 사용자가 제자리에 서 있으면 거의 같은 프레임이 계속 올라가므로,
+ * 해밍 거리가 maxDistance 이하인 장면은 네트워크 대신 저장된 결과를 다시 읽어줍니다.
+ * 항목 수가 적어서(기본 8개) 해시맵 대신 배열을 선형 탐색합니다.
+ *
+ * - TTL: 오래된 결과는 장면이 같아도 다시 분석합니다. (주변 상황이 바뀌었을 수 있음)
+ * - LRU: 가득 차면 가장 오래 안 쓴 항목을 덮어씁니다.
+ */
+public class SceneHashCache {
+
+    /** dHash 입력 크기: 가로 9 x 세로 8 (가로로 이웃한 두 칸을 비교해 64비트) */
+    public static final int HASH_WIDTH = 9;
+    public static final int HASH_HEIGHT = 8;
+
+    private final int capacity;
+    private final int maxDistance;
+    private final long ttlMs;
+
+    private final long[] hashes;
+    private final int[] levels;
+    private final String[] results;
+    private final int[] payloadBytes;
+    private final long[] createdAt;
+    private final long[] lastUsedAt;
+    private int size = 0;
+
+    private long lookupCount = 0;
+    private long hitCount = 0;
+    private long savedBytes = 0;
+
+    public SceneHashCache(int capacity, int maxDistance, long ttlMs) {
+        this.capacity = capacity;
+        this.maxDistance = maxDistance;
+        this.ttlMs = ttlMs;
+        this.hashes = new long[capacity];
+        this.levels = new int[capacity];
+        this.results = new String[capacity];
+        this.payloadBytes = new int[capacity];
+        this.createdAt = new long[capacity];
+        this.lastUsedAt = new long[capacity];
+    }
+
+    /**
+     * ARGB 픽셀(이미 작게 줄인 이미지)에서 dHash를 계산합니다.
+     * 이미지를 9x8 칸으로 나눠 칸마다 밝기 평균을 내고, 왼쪽 칸이 오른쪽 칸보다 밝으면 1입니다.
+     */
+    public static long dHash(int[] argb, int width, int height) {
+        long hash = 0L;
+        for (int row = 0; row < HASH_HEIGHT; row++) {
+            int y0 = row * height / HASH_HEIGHT;
+            int y1 = Math.max(y0 + 1, (row + 1) * height / HASH_HEIGHT);
+            int previous = cellLuma(argb, width, 0, y0, y1);
+            for (int col = 1; col < HASH_WIDTH; col++) {
+                int current = cellLuma(argb, width, col, y0, y1);
+                hash <<= 1;
+                if (previous > current) hash |= 1L;
+                previous = current;
+            }
+        }
+        return hash;
+    }
+
+    private static int cellLuma(int[] argb, int width, int col, int y0, int y1) {
+        int x0 = col * width / HASH_WIDTH;
+        int x1 = Math.max(x0 + 1, (col + 1) * width / HASH_WIDTH);
+        int sum = 0;
+        for (int y = y0; y < y1; y++) {
+            int offset = y * width;
+            for (int x = x0; x < x1; x++) {
+                int c = argb[offset + x];
+                // 정수 근사 밝기: (R*77 + G*150 + B*29) / 256
+                sum += (((c >> 16) & 0xFF) * 77 + ((c >> 8) & 0xFF) * 150 + (c & 0xFF) * 29) >> 8;
+            }
+        }
+        return sum / ((x1 - x0) * (y1 - y0));
+    }
+
+    /**
+     * 비슷한 장면의 결과를 찾습니다. 없으면 null.
+     */
+    public synchronized String lookup(long hash, int level, long nowMs) {
+        lookupCount++;
+        int best = -1;
+        int bestDistance = maxDistance + 1;
+        for (int i = 0; i < size; i++) {
+            if (levels[i] != level || nowMs - createdAt[i] > ttlMs) continue;
+            int distance = Long.bitCount(hashes[i] ^ hash);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        if (best < 0) return null;
+
+        hitCount++;
+        savedBytes += payloadBytes[best];
+        lastUsedAt[best] = nowMs;
+        return results[best];
+    }
+
+    /**
+     * 서버에서 받은 결과를 저장합니다.
+     * @param uploadedBytes 이 결과를 얻으려고 보낸 바이트 수 (재사용 시 절약한 양으로 집계)
+     */
+    public synchronized void put(long hash, int level, String result, int uploadedBytes, long nowMs) {
+        int slot = -1;
+        for (int i = 0; i < size; i++) {
+            // 만료된 항목이 있으면 그 자리를 먼저 씀
+            if (nowMs - createdAt[i] > ttlMs) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot < 0) {
+            if (size < capacity) {
+                slot = size++;
+            } else {
+                slot = 0;
+                for (int i = 1; i < size; i++) {
+                    if (lastUsedAt[i] < lastUsedAt[slot]) slot = i;
+                }
+            }
+        }
+        hashes[slot] = hash;
+        levels[slot] = level;
+        results[slot] = result;
+        payloadBytes[slot] = uploadedBytes;
+        createdAt[slot] = nowMs;
+        lastUsedAt[slot] = nowMs;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) results[i] = null;
+        size = 0;
+    }
+
+    public synchronized long getLookupCount() { return lookupCount; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getSavedBytes() { return savedBytes; }
+
+    public synchronized float getHitRate() {
+        return lookupCount == 0 ? 0f : (float) hitCount / lookupCount;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.capstone_map.feature.obstacle;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * 프레임을 작은 비트맵(72x64)으로 줄여 dHash를 계산합니다.
+ * 축소용 비트맵과 픽셀 배열은 재사용합니다.
+ */
+public class SceneHasher {
+
+    private static final int SAMPLE_WIDTH = SceneHashCache.HASH_WIDTH * 8;
+    private static final int SAMPLE_HEIGHT = SceneHashCache.HASH_HEIGHT * 8;
+
+    private final Bitmap sample = Bitmap.createBitmap(SAMPLE_WIDTH, SAMPLE_HEIGHT, Bitmap.Config.ARGB_8888);
+    private final Canvas canvas = new Canvas(sample);
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect dst = new Rect(0, 0, SAMPLE_WIDTH, SAMPLE_HEIGHT);
+    private final int[] pixels = new int[SAMPLE_WIDTH * SAMPLE_HEIGHT];
+
+    public synchronized long hash(Bitmap frame) {
+        canvas.drawBitmap(frame, null, dst, paint);
+        sample.getPixels(pixels, 0, SAMPLE_WIDTH, 0, 0, SAMPLE_WIDTH, SAMPLE_HEIGHT);
+        return SceneHashCache.dHash(pixels, SAMPLE_WIDTH, SAMPLE_HEIGHT);
+    }
+}
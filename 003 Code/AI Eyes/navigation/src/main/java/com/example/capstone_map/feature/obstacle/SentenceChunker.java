@@ -0,0 +1,68 @@
+package com.example.capstone_map.feature.obstacle;
+
+/**
+ * 조각조각 도착하는 텍스트를 문장 단위로 끊습니다. (스트리밍 응답을 문장이 완성되는 대로 읽어주기 위해)
+ *
+ * 문장 끝: '.', '?', '!', '。' 뒤에 공백/줄바꿈이 온 경우, 또는 줄바꿈.
+ * 끝 문자 바로 뒤가 아직 도착하지 않았으면 기다립니다. ("1.5미터"의 '.'을 문장 끝으로 보지 않도록)
+ * 끝 문자 뒤에 붙은 닫는 따옴표/괄호는 앞 문장에 포함합니다.
+ */
+public class SentenceChunker {
+
+    private final StringBuilder pending = new StringBuilder();
+    private int scanFrom = 0;
+
+    public void append(CharSequence text) {
+        pending.append(text);
+    }
+
+    /**
+     * 완성된 문장 하나를 꺼냅니다.
+     * @return 아직 완성된 문장이 없으면 null
+     */
+    public String nextSentence() {
+        while (true) {
+            int end = findBoundary();
+            if (end < 0) return null;
+            String sentence = pending.substring(0, end).trim();
+            pending.delete(0, end);
+            scanFrom = 0;
+            if (!sentence.isEmpty()) return sentence;
+        }
+    }
+
+    /**
+     * 스트림이 끝났을 때 남은 텍스트를 마지막 문장으로 꺼냅니다.
+     * @return 남은 글자가 없으면 null
+     */
+    public String finish() {
+        String rest = pending.toString().trim();
+        pending.setLength(0);
+        scanFrom = 0;
+        return rest.isEmpty() ? null : rest;
+    }
+
+    /** 문장이 끝나는 위치(다음 문장 시작 인덱스). 없으면 -1 */
+    private int findBoundary() {
+        int length = pending.length();
+        for (int i = scanFrom; i < length; i++) {
+            char c = pending.charAt(i);
+            if (c == '\n') return i + 1;
+            if (c != '.' && c != '?' && c != '!' && c != '。') continue;
+
+            int next = i + 1;
+            while (next < length && isCloser(pending.charAt(next))) next++;
+            if (next >= length) {
+                scanFrom = i;  // 뒤 글자가 오면 다시 확인
+                return -1;
+            }
+            if (Character.isWhitespace(pending.charAt(next))) return next;
+        }
+        scanFrom = length;
+        return -1;
+    }
+
+    private static boolean isCloser(char c) {
+        return c == '"' || c == '\'' || c == ')' || c == '”' || c == '’' || c == '.';
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.capstone_map.feature.obstacle;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * text/event-stream(Server-Sent Events) 응답을 이벤트 단위로 읽습니다.
+ *
+ * - "event: 이름" / "data: 내용" 줄을 모으다가 빈 줄에서 이벤트 하나를 돌려줍니다. data가 여러 줄이면 \n으로 잇습니다.
+ * - ":"로 시작하는 줄(주석, keep-alive)과 id/retry 줄은 무시합니다.
+ *
+ * 돌려주는 Event는 재사용하므로 다음 next() 전에 값을 꺼내 써야 합니다.
+ */
+public class SseEventReader implements Closeable {
+
+    public static final class Event {
+        private String name = "message";
+        private final StringBuilder data = new StringBuilder();
+
+        /** event: 줄이 없으면 "message" */
+        public String getName() {
+            return name;
+        }
+
+        public String getData() {
+            return data.toString();
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Event event = new Event();
+
+    public SseEventReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * 다음 이벤트까지 읽습니다. (블록됨)
+     * @return 스트림이 끝났으면 null
+     */
+    public Event next() throws IOException {
+        event.name = "message";
+        event.data.setLength(0);
+        boolean hasField = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (hasField) return event;
+                continue;
+            }
+            if (line.charAt(0) == ':') continue;
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) value = value.substring(1);
+
+            if ("event".equals(field)) {
+                event.name = value;
+                hasField = true;
+            } else if ("data".equals(field)) {
+                if (event.data.length() > 0) event.data.append('\n');
+                event.data.append(value);
+                hasField = true;
+            }
+        }
+        // 마지막 빈 줄 없이 끝난 이벤트
+        return hasField ? event : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
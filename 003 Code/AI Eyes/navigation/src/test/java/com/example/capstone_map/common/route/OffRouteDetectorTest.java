@@ -0,0 +1,119 @@
+package com.example.capstone_map.common.route;
+
+import org.junit.Test;
+
+import static com.example.capstone_map.common.route.OffRouteDetector.Decision.*;
+import static org.junit.Assert.*;
+
+/**
+ * 1초마다 GPS 위치가 들어온다고 보고, 이탈 확정/복귀/재탐색 한 번만 요청하는지 확인합니다.
+ */
+public class OffRouteDetectorTest {
+
+    private static final double NORTH = 0;
+    private static final double EAST = 90;
+    private static final double UNKNOWN = Double.NaN;
+
+    @Test
+    public void brieflyDriftingOutIsNotOffRoute() {
+        OffRouteDetector d = new OffRouteDetector();
+        // 5초 동안 30m 밖으로 튀었다가 돌아옴
+        for (int t = 0; t < 5; t++) assertEquals(NONE, d.onFix(t * 1000L, 30, 8f, UNKNOWN, NORTH));
+        assertEquals(NONE, d.onFix(5000, 5, 8f, UNKNOWN, NORTH));
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+    }
+
+    @Test
+    public void sustainedDistanceTriggersOneReroute() {
+        OffRouteDetector d = new OffRouteDetector();
+        int reroutes = 0;
+        for (int t = 0; t <= 20; t++) {
+            if (d.onFix(t * 1000L, 30, 8f, UNKNOWN, NORTH) == REROUTE) {
+                reroutes++;
+                assertTrue("8초는 지나야 함", t >= 8);
+            }
+        }
+        assertEquals(1, reroutes);
+        assertTrue(d.isRerouting());
+
+        // 실패하면 30초 간격이 지나야 다시 요청
+        d.onRerouteFinished(false);
+        assertEquals(NONE, d.onFix(21_000, 30, 8f, UNKNOWN, NORTH));
+        assertEquals(REROUTE, d.onFix(40_000, 30, 8f, UNKNOWN, NORTH));
+
+        // 성공하면 새 경로 기준으로 처음부터
+        d.onRerouteFinished(true);
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+    }
+
+    @Test
+    public void headingAwayShortensDwell() {
+        OffRouteDetector d = new OffRouteDetector();
+        // 북쪽 경로에서 동쪽으로 걸어 나감 → 4초 만에 확정
+        OffRouteDetector.Decision last = NONE;
+        for (int t = 0; t <= 4; t++) last = d.onFix(t * 1000L, 25, 8f, EAST, NORTH);
+        assertEquals(REROUTE, last);
+    }
+
+    @Test
+    public void walkingParallelNearbyIsNotSuspected() {
+        OffRouteDetector d = new OffRouteDetector();
+        // 건너편 인도: 25m 떨어져 있지만 경로와 같은 방향으로 걸음
+        for (int t = 0; t < 60; t++) assertEquals(NONE, d.onFix(t * 1000L, 25, 8f, 10, NORTH));
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+    }
+
+    @Test
+    public void poorAccuracyIsIgnored() {
+        OffRouteDetector d = new OffRouteDetector();
+        // 빌딩 사이: 정확도 40m, 위치는 80m씩 튐
+        for (int t = 0; t < 60; t++) assertEquals(NONE, d.onFix(t * 1000L, 80, 40f, UNKNOWN, NORTH));
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+
+        // 정확도 20m면 20m 안쪽은 이탈로 보지 않음
+        for (int t = 60; t < 80; t++) assertEquals(NONE, d.onFix(t * 1000L, 19, 20f, UNKNOWN, NORTH));
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+    }
+
+    @Test
+    public void suspicionMustBeUnbroken() {
+        OffRouteDetector d = new OffRouteDetector();
+        for (int t = 0; t < 3; t++) assertEquals(NONE, d.onFix(t * 1000L, 30, 8f, UNKNOWN, NORTH));
+        // 몇 분 동안 15m (이탈 기준 안쪽) → 의심을 거둠
+        for (int t = 3; t < 180; t++) assertEquals(NONE, d.onFix(t * 1000L, 15, 8f, UNKNOWN, NORTH));
+        assertEquals(OffRouteDetector.State.ON_ROUTE, d.getState());
+
+        // 한 번 21m로 튄다고 바로 확정되지 않고, 다시 8초를 채워야 함
+        assertEquals(NONE, d.onFix(180_000, 21, 8f, UNKNOWN, NORTH));
+        for (int t = 181; t < 188; t++) assertEquals(NONE, d.onFix(t * 1000L, 21, 8f, UNKNOWN, NORTH));
+        assertEquals(REROUTE, d.onFix(188_000, 21, 8f, UNKNOWN, NORTH));
+    }
+
+    @Test
+    public void noRetryWhileNotAway() {
+        OffRouteDetector d = new OffRouteDetector();
+        for (int t = 0; t <= 8; t++) d.onFix(t * 1000L, 30, 8f, UNKNOWN, NORTH);
+        d.onRerouteFinished(false);
+
+        // 재탐색 실패 뒤 15m에 머물거나 25m에서 나란히 걸으면 다시 요청하지 않음
+        for (int t = 9; t < 120; t++) {
+            assertEquals(NONE, d.onFix(t * 1000L, 15, 8f, UNKNOWN, NORTH));
+            assertEquals(NONE, d.onFix(t * 1000L + 500, 25, 8f, 10, NORTH));
+        }
+        assertEquals(OffRouteDetector.State.OFF_ROUTE, d.getState());
+        assertEquals(REROUTE, d.onFix(120_000, 30, 8f, UNKNOWN, NORTH));
+    }
+
+    @Test
+    public void hysteresisBeforeBackOnRoute() {
+        OffRouteDetector d = new OffRouteDetector(20, 10, 8000, 4000, 30, 60, 25f, 30_000);
+        for (int t = 0; t <= 8; t++) d.onFix(t * 1000L, 30, 8f, UNKNOWN, NORTH);
+        d.onRerouteFinished(false);
+        assertEquals(OffRouteDetector.State.OFF_ROUTE, d.getState());
+
+        // 15m: 이탈 기준보다는 가깝지만 복귀 기준(10m)보다 멂 → 그대로
+        assertEquals(NONE, d.onFix(10_000, 15, 8f, UNKNOWN, NORTH));
+        assertEquals(OffRouteDetector.State.OFF_ROUTE, d.getState());
+        assertEquals(BACK_ON_ROUTE, d.onFix(11_000, 6, 8f, UNKNOWN, NORTH));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.capstone_map.common.route;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class RouteCacheTest {
+
+    private static final long TTL = 60_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("routes").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private RouteCache newCache() {
+        return new RouteCache(dir, 0.0002, 2, 3, TTL);
+    }
+
+    @Test
+    public void key_separatesDestinationsAndOptions_butToleratesJitter() {
+        RouteCache cache = newCache();
+        String home = cache.keyOf(126.97800, 37.56660, 127.02760, 37.49790, "0");
+        assertEquals(home, cache.keyOf(126.97803, 37.56662, 127.02760, 37.49790, "0"));  // 몇 m 흔들림
+        assertNotEquals(home, cache.keyOf(126.97800, 37.56660, 127.03500, 37.50100, "0"));  // 다른 목적지
+        assertNotEquals(home, cache.keyOf(126.97800, 37.56660, 127.02760, 37.49790, "30"));  // 다른 옵션
+    }
+
+    @Test
+    public void memoryLru_evictsLeastRecentlyUsed_butDiskKeepsIt() {
+        RouteCache cache = newCache();
+        cache.put("a", "{\"a\":1}", T0);
+        cache.put("b", "{\"b\":1}", T0);
+        assertNotNull(cache.get("a", T0 + 1));  // a를 최근으로
+        cache.put("c", "{\"c\":1}", T0);       // 메모리에서 b가 밀림
+
+        assertEquals("{\"b\":1}", cache.get("b", T0 + 2));
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getDiskHits());
+    }
+
+    @Test
+    public void diskTier_survivesNewInstance_untilTtl() {
+        newCache().put("commute", "{\"features\":[]}", T0);
+
+        RouteCache restarted = newCache();  // 앱 재시작
+        assertEquals("{\"features\":[]}", restarted.get("commute", T0 + TTL - 1));
+        assertNull(newCache().get("commute", T0 + TTL));
+        assertFalse(new File(dir, "commute.json").exists());
+    }
+
+    @Test
+    public void diskTier_trimsOldestFiles() {
+        RouteCache cache = newCache();
+        for (int i = 0; i < 5; i++) cache.put("r" + i, "{}", T0 + i * 1000L);
+        assertEquals(3, dir.listFiles().length);
+        assertNull(newCache().get("r0", T0 + 5000));
+        assertNotNull(newCache().get("r4", T0 + 5000));
+    }
+
+    @Test
+    public void clear_removesBothTiers() {
+        RouteCache cache = newCache();
+        cache.put("a", "{}", T0);
+        cache.clear();
+        assertNull(cache.get("a", T0));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, dir.listFiles().length);
+    }
+}
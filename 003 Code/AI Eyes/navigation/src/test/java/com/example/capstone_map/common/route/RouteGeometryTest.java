@@ -0,0 +1,70 @@
+package com.example.capstone_map.common.route;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouteGeometryTest {
+
+    // 위도 0.001도 ≈ 111.2m
+    private static RouteGeometry lShape() {
+        return new RouteGeometry.Builder()
+                .add(37.500, 127.000)
+                .add(37.501, 127.000)
+                .add(37.501, 127.000)  // LineString 이음점 중복
+                .add(37.501, 127.001)
+                .build();
+    }
+
+    @Test
+    public void precomputesDistancesAndBearings() {
+        RouteGeometry g = lShape();
+        assertEquals(3, g.size());
+        assertEquals(2, g.segmentCount());
+        assertEquals(111.2, g.segmentLength(0), 0.2);
+        assertEquals(88.2, g.segmentLength(1), 0.2);  // 경도 0.001도 × cos(37.5°)
+        assertEquals(g.segmentLength(0) + g.segmentLength(1), g.totalLength(), 1e-9);
+        assertEquals(g.distanceFromStart(1), g.segmentLength(0), 1e-9);
+        assertEquals(0, g.segmentBearing(0), 0.1);   // 북
+        assertEquals(90, g.segmentBearing(1), 0.1);  // 동
+    }
+
+    @Test
+    public void locatesPositionAlongRoute() {
+        RouteGeometry g = lShape();
+        assertEquals(0, g.segmentAtDistance(-5));
+        assertEquals(0, g.segmentAtDistance(50));
+        assertEquals(1, g.segmentAtDistance(150));
+        assertEquals(1, g.segmentAtDistance(10_000));
+
+        double[] out = new double[2];
+        g.pointAtDistance(g.segmentLength(0) / 2, out);
+        assertEquals(37.5005, out[0], 1e-7);
+        assertEquals(127.000, out[1], 1e-9);
+        assertEquals(g.segmentLength(1), g.remainingDistance(g.distanceFromStart(1)), 1e-9);
+    }
+
+    @Test
+    public void emptyAndSinglePoint() {
+        RouteGeometry empty = new RouteGeometry.Builder().build();
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.totalLength(), 0);
+        assertEquals(-1, empty.segmentAtDistance(0));
+
+        RouteGeometry single = new RouteGeometry.Builder().add(37.5, 127.0).build();
+        assertEquals(0, single.segmentCount());
+        double[] out = new double[2];
+        single.pointAtDistance(10, out);
+        assertEquals(37.5, out[0], 0);
+    }
+
+    @Test
+    public void fromParsedRoute_dropsJoinDuplicates() throws Exception {
+        String body = RouteStreamParserTest.tmapRoute(2000);
+        RouteGeometry g = RouteStreamParser.parse(body).getGeometry();
+        int points = RouteJsonParser.parseToLatLonList(new JSONObject(body)).size();
+        assertEquals(points - 12, g.size());  // 13개 구간 → 이음점 12개
+        assertEquals(1950, g.totalLength(), 5);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.capstone_map.common.route;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 격자로 찾은 결과가 전체 탐색과 같은지 확인합니다.
+ * 경로 길이별로 GPS 위치 한 번당 찾는 시간을 비교하는 벤치마크는 따로 켤 때만 돕니다.
+ * (JMH는 안드로이드 모듈 단위 테스트에 붙이기 어려워 워밍업 후 System.nanoTime으로 잼)
+ *
+ *   ./gradlew :navigation:testDebugUnitTest --tests '*RouteSegmentIndexTest*' -Pbenchmark=true -i
+ */
+public class RouteSegmentIndexTest {
+
+    private static final double METERS_PER_DEG_LAT = 111_195.0;
+
+    /** 10m 간격으로 방향을 조금씩 틀며 걷는 경로 (골목길처럼 꺾이고 되돌아오기도 함) */
+    private static RouteGeometry randomWalk(int vertices, long seed) {
+        Random random = new Random(seed);
+        double lat = 37.5665, lon = 126.9780, heading = 0;
+        double metersPerDegLon = METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat));
+        RouteGeometry.Builder builder = new RouteGeometry.Builder(vertices);
+        for (int i = 0; i < vertices; i++) {
+            builder.add(lat, lon);
+            if (random.nextInt(15) == 0) heading += (random.nextBoolean() ? 90 : -90);
+            heading += random.nextGaussian() * 5;
+            lat += 10 * Math.cos(Math.toRadians(heading)) / METERS_PER_DEG_LAT;
+            lon += 10 * Math.sin(Math.toRadians(heading)) / metersPerDegLon;
+        }
+        return builder.build();
+    }
+
+    /** 경로 위 임의 지점에서 GPS 오차 정도(±offset m) 떨어진 위치들 */
+    private static double[][] fixesNear(RouteGeometry g, int count, double offsetMeters, long seed) {
+        Random random = new Random(seed);
+        double metersPerDegLon = METERS_PER_DEG_LAT * Math.cos(Math.toRadians(g.latitude(0)));
+        double[][] fixes = new double[count][2];
+        double[] p = new double[2];
+        for (int i = 0; i < count; i++) {
+            g.pointAtDistance(random.nextDouble() * g.totalLength(), p);
+            fixes[i][0] = p[0] + (random.nextDouble() * 2 - 1) * offsetMeters / METERS_PER_DEG_LAT;
+            fixes[i][1] = p[1] + (random.nextDouble() * 2 - 1) * offsetMeters / metersPerDegLon;
+        }
+        return fixes;
+    }
+
+    @Test
+    public void matchesLinearScan() {
+        RouteGeometry g = randomWalk(3000, 7);
+        RouteSegmentIndex index = new RouteSegmentIndex(g, 25, 100);
+        RouteSegmentIndex.Match fast = new RouteSegmentIndex.Match();
+        RouteSegmentIndex.Match slow = new RouteSegmentIndex.Match();
+
+        // 가까운 위치(격자) + 멀리 벗어난 위치(전체 탐색으로 넘어감)
+        for (double offset : new double[]{5, 40, 400}) {
+            for (double[] fix : fixesNear(g, 500, offset, 11)) {
+                assertTrue(index.nearest(fix[0], fix[1], fast));
+                index.nearestLinear(fix[0], fix[1], slow);
+                assertEquals(slow.distanceMeters, fast.distanceMeters, 1e-6);
+                // 거리가 같은 구간이 둘이면 어느 쪽이든 맞음
+                if (fast.segmentIndex == slow.segmentIndex) assertEquals(slow.alongTrackMeters, fast.alongTrackMeters, 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void reportsDistanceAndAlongTrack() {
+        // 북쪽으로 100m, 동쪽으로 100m
+        RouteGeometry g = new RouteGeometry.Builder()
+                .add(37.5, 127.0)
+                .add(37.5 + 100 / METERS_PER_DEG_LAT, 127.0)
+                .add(37.5 + 100 / METERS_PER_DEG_LAT, 127.0 + 100 / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(37.5))))
+                .build();
+        RouteSegmentIndex index = new RouteSegmentIndex(g, 20, 100);
+        RouteSegmentIndex.Match m = new RouteSegmentIndex.Match();
+
+        // 첫 구간 중간에서 서쪽으로 8m
+        index.nearest(37.5 + 50 / METERS_PER_DEG_LAT, 127.0 - 8 / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(37.5))), m);
+        assertEquals(0, m.segmentIndex);
+        assertEquals(8, m.distanceMeters, 0.05);
+        assertEquals(50, m.alongTrackMeters, 0.1);
+        assertEquals(0.5, m.fraction, 1e-3);
+        assertEquals(127.0, m.longitude, 1e-9);
+
+        // 두 번째 구간 위
+        index.nearest(37.5 + 103 / METERS_PER_DEG_LAT, 127.0 + 30 / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(37.5))), m);
+        assertEquals(1, m.segmentIndex);
+        assertEquals(3, m.distanceMeters, 0.05);
+        assertEquals(130, m.alongTrackMeters, 0.2);
+    }
+
+    @Test
+    public void emptyRoute() {
+        RouteSegmentIndex index = new RouteSegmentIndex(new RouteGeometry.Builder().build(), 20, 100);
+        RouteSegmentIndex.Match m = new RouteSegmentIndex.Match();
+        assertFalse(index.nearest(37.5, 127.0, m));
+        assertFalse(m.isValid());
+    }
+
+    @Test
+    public void benchmark_routeLengths() {
+        Assume.assumeTrue("benchmark가 꺼져 있어 탐색 벤치마크를 건너뜁니다", Boolean.getBoolean("benchmark"));
+        System.out.println("꼭짓점 | 경로 길이 | 격자 항목 | 전체 탐색 | 격자");
+        for (int vertices : new int[]{500, 2_000, 10_000, 50_000}) {
+            RouteGeometry g = randomWalk(vertices, vertices);
+            RouteSegmentIndex index = new RouteSegmentIndex(g, 25, 100);
+            double[][] fixes = fixesNear(g, 2_000, 15, 3);
+            RouteSegmentIndex.Match m = new RouteSegmentIndex.Match();
+            double sink = 0;
+
+            for (int w = 0; w < 3; w++) {
+                for (double[] f : fixes) {
+                    index.nearest(f[0], f[1], m);
+                    sink += m.distanceMeters;
+                    index.nearestLinear(f[0], f[1], m);
+                    sink += m.distanceMeters;
+                }
+            }
+
+            long t0 = System.nanoTime();
+            for (double[] f : fixes) {
+                index.nearestLinear(f[0], f[1], m);
+                sink += m.distanceMeters;
+            }
+            long linearNanos = (System.nanoTime() - t0) / fixes.length;
+
+            t0 = System.nanoTime();
+            for (double[] f : fixes) {
+                index.nearest(f[0], f[1], m);
+                sink += m.distanceMeters;
+            }
+            long indexNanos = (System.nanoTime() - t0) / fixes.length;
+
+            System.out.println(String.format(Locale.US, "%6d | %6.1fkm | %7d | %8.1fus | %6.1fus (sink %.0f)",
+                    vertices, g.totalLength() / 1000, index.getEntryCount(),
+                    linearNanos / 1e3, indexNanos / 1e3, sink % 10));
+        }
+    }
+}
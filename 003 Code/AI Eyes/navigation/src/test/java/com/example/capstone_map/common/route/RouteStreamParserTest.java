@@ -0,0 +1,184 @@
+package com.example.capstone_map.common.route;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * RouteStreamParser가 RouteJsonParser(org.json 트리)와 같은 결과를 내는지 확인합니다.
+ * 긴 경로에서 파싱 시간과 할당량을 비교하는 벤치마크는 따로 켤 때만 돕니다.
+ *
+ *   ./gradlew :navigation:testDebugUnitTest --tests '*RouteStreamParserTest*' -Pbenchmark=true -i
+ */
+public class RouteStreamParserTest {
+
+    private static final double METERS_PER_DEG_LAT = 111_320.0;
+
+    /**
+     * TMap 보행자 경로 응답과 같은 모양의 JSON. 10m마다 좌표, 150m마다 안내 지점(Point)과 구간(LineString)
+     */
+    static String tmapRoute(int lengthMeters) {
+        double lat = 37.5665, lon = 126.9780;
+        double metersPerDegLon = METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat));
+        int legs = Math.max(1, lengthMeters / 150);
+
+        StringBuilder sb = new StringBuilder(lengthMeters * 8);
+        sb.append("{\"type\":\"FeatureCollection\",\"features\":[");
+        int pointIndex = 0;
+        for (int leg = 0; leg <= legs; leg++) {
+            String pointType = leg == 0 ? "SP" : leg == legs ? "EP" : "GP";
+            if (leg > 0) sb.append(',');
+            sb.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[")
+                    .append(fmt(lon)).append(',').append(fmt(lat)).append("]},\"properties\":{")
+                    .append("\"totalDistance\":").append(leg == 0 ? lengthMeters : 0).append(',')
+                    .append("\"totalTime\":").append(leg == 0 ? lengthMeters * 3 / 4 : 0).append(',')
+                    .append("\"index\":").append(leg * 2).append(',')
+                    .append("\"pointIndex\":").append(pointIndex++).append(',')
+                    .append("\"name\":\"\",\"description\":\"").append(leg == legs ? "도착" : (leg % 2 == 0 ? "우회전 후 " : "좌회전 후 ") + "150m 이동").append("\",")
+                    .append("\"direction\":\"\",\"nearPoiName\":\"\",\"nearPoiX\":\"0.0\",\"nearPoiY\":\"0.0\",")
+                    .append("\"intersectionName\":\"\",\"facilityType\":\"11\",\"facilityName\":\"\",")
+                    .append("\"turnType\":").append(leg == 0 ? 200 : leg == legs ? 201 : (leg % 2 == 0 ? 13 : 12)).append(',')
+                    .append("\"pointType\":\"").append(pointType).append("\"}}");
+            if (leg == legs) break;
+
+            // 한 구간 15개 좌표, 동쪽/북쪽 번갈아
+            sb.append(",{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+            for (int i = 0; i <= 15; i++) {
+                if (i > 0) {
+                    if (leg % 2 == 0) lon += 10 / metersPerDegLon;
+                    else lat += 10 / METERS_PER_DEG_LAT;
+                    sb.append(',');
+                }
+                sb.append('[').append(fmt(lon)).append(',').append(fmt(lat)).append(']');
+            }
+            sb.append("]},\"properties\":{\"index\":").append(leg * 2 + 1)
+                    .append(",\"lineIndex\":").append(leg)
+                    .append(",\"name\":\"보행자도로\",\"description\":\"보행자도로, 150m\",\"distance\":150,\"time\":108,")
+                    .append("\"roadType\":21,\"categoryRoadType\":0,\"facilityType\":\"11\",\"facilityName\":\"\"}}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static String fmt(double v) {
+        return String.format(Locale.US, "%.7f", v);
+    }
+
+    @Test
+    public void matchesOrgJsonParser() throws IOException, JSONException {
+        String body = tmapRoute(2000);
+        ParsedRoute route = RouteStreamParser.parse(body);
+        JSONObject json = new JSONObject(body);
+
+        // 같은 좌표를 같은 순서로 읽었는지: org.json 결과에서 연속 중복만 뺀 것과 같아야 함
+        RouteGeometry.Builder builder = new RouteGeometry.Builder();
+        for (double[] p : RouteJsonParser.parseToLatLonList(json)) builder.add(p[0], p[1]);
+        RouteGeometry expected = builder.build();
+        RouteGeometry geometry = route.getGeometry();
+        assertEquals(expected.size(), geometry.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.latitude(i), geometry.latitude(i), 0);
+            assertEquals(expected.longitude(i), geometry.longitude(i), 0);
+        }
+        assertEquals(RouteJsonParser.parseToDescriptions(json), route.getDescriptions());
+
+        RouteJsonParser.RouteSummary summary = RouteJsonParser.parseSummary(json);
+        assertEquals(2000, route.getSummary().totalDistance);
+        assertEquals(summary.totalDistance, route.getSummary().totalDistance);
+        assertEquals(summary.totalTime, route.getSummary().totalTime);
+
+        assertEquals(14, route.getManeuverCount());
+        assertEquals(200, route.getManeuverTurnType(0));
+        assertEquals(13, route.getManeuverPointIndex(13));
+        assertEquals("도착", route.getManeuverDescription(13));
+    }
+
+    @Test
+    public void acceptsPropertiesFirstAndNumbersAsStrings() throws IOException {
+        String body = "{\"features\":[{\"properties\":{\"pointType\":\"SP\",\"totalDistance\":\"320\",\"totalTime\":\"\","
+                + "\"turnType\":\"200\",\"description\":\"출발\",\"extra\":{\"a\":[1,2]}},"
+                + "\"geometry\":{\"coordinates\":[126.9,37.5],\"type\":\"Point\"},\"type\":\"Feature\"},"
+                + "{\"type\":\"Feature\",\"properties\":{\"description\":null},"
+                + "\"geometry\":{\"coordinates\":[[126.9,37.5,0],[126.91,37.51,0]],\"type\":\"LineString\"}}]}";
+        ParsedRoute route = RouteStreamParser.parse(body);
+        assertEquals(2, route.getGeometry().size());
+        assertEquals(37.51, route.getGeometry().latitude(1), 0);
+        assertEquals(1, route.getManeuverCount());
+        assertEquals(200, route.getManeuverTurnType(0));
+        assertEquals(-1, route.getManeuverPointIndex(0));
+        assertEquals(320, route.getSummary().totalDistance);
+        assertEquals(0, route.getSummary().totalTime);
+        assertEquals(List.of("출발"), route.getDescriptions());
+    }
+
+    @Test(expected = IOException.class)
+    public void errorResponse_throws() throws IOException {
+        RouteStreamParser.parse("{\"error\":{\"id\":\"400\",\"category\":\"tmap\",\"code\":\"3102\",\"message\":\"서비스 지역이 아닙니다\"}}");
+    }
+
+    @Test(expected = IOException.class)
+    public void wrongShape_throwsIOException() throws IOException {
+        RouteStreamParser.parse("{\"features\":[{\"geometry\":{\"coordinates\":[[\"x\",1]]}}]}");
+    }
+
+    /** DOM 쪽: 예전 화면 코드가 하던 대로 트리를 만들고 좌표/문구/요약을 따로 뽑음 */
+    private static int parseWithOrgJson(String body) throws JSONException {
+        JSONObject json = new JSONObject(body);
+        int n = RouteJsonParser.parseToLatLonList(json).size();
+        n += RouteJsonParser.parseToDescriptions(json).size();
+        n += RouteJsonParser.parseSummary(json).totalDistance;
+        return n;
+    }
+
+    private static int parseWithStream(String body) throws IOException {
+        ParsedRoute route = RouteStreamParser.parse(body);
+        return route.getGeometry().size() + route.getDescriptions().size() + route.getSummary().totalDistance;
+    }
+
+    @Test
+    public void benchmark_longRoutes() throws Exception {
+        Assume.assumeTrue("benchmark가 꺼져 있어 파싱 벤치마크를 건너뜁니다", Boolean.getBoolean("benchmark"));
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("이 JVM은 스레드 할당량 측정을 지원하지 않습니다", bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long tid = Thread.currentThread().getId();
+
+        System.out.println("경로 길이 | 좌표 수 | 응답 크기 | org.json 시간/할당 | 스트리밍 시간/할당");
+        for (int lengthMeters : new int[]{2_000, 10_000, 30_000}) {
+            String body = tmapRoute(lengthMeters);
+            int points = RouteJsonParser.parseToLatLonList(new JSONObject(body)).size();
+            int warmup = 30, iterations = 60;
+            long sink = 0;
+
+            for (int i = 0; i < warmup; i++) sink += parseWithOrgJson(body) + parseWithStream(body);
+
+            long bytes0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < iterations; i++) sink += parseWithOrgJson(body);
+            long domNanos = (System.nanoTime() - t0) / iterations;
+            long domBytes = (threads.getThreadAllocatedBytes(tid) - bytes0) / iterations;
+
+            bytes0 = threads.getThreadAllocatedBytes(tid);
+            t0 = System.nanoTime();
+            for (int i = 0; i < iterations; i++) sink += parseWithStream(body);
+            long streamNanos = (System.nanoTime() - t0) / iterations;
+            long streamBytes = (threads.getThreadAllocatedBytes(tid) - bytes0) / iterations;
+
+            System.out.println(String.format(Locale.US, "%6.1fkm | %6d | %6dKB | %6.2fms / %6dKB | %6.2fms / %6dKB (sink %d)",
+                    lengthMeters / 1000f, points, body.length() / 1024,
+                    domNanos / 1e6, domBytes / 1024, streamNanos / 1e6, streamBytes / 1024, sink % 10));
+
+            // 시간은 기기/JIT에 따라 흔들리므로 할당량만 확인
+            assertTrue("스트리밍 파서가 더 적게 할당해야 함", streamBytes < domBytes);
+        }
+    }
+}
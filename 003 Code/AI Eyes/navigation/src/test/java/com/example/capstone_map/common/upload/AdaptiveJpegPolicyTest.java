@@ -0,0 +1,60 @@
+package com.example.capstone_map.common.upload;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveJpegPolicyTest {
+
+    private static AdaptiveJpegPolicy policy(LinkQualityEstimator link) {
+        return new AdaptiveJpegPolicy(link, 700,
+                new int[]{640, 85}, new int[]{512, 80}, new int[]{384, 70}, new int[]{320, 60});
+    }
+
+    @Test
+    public void unknownLink_usesBestStep() {
+        AdaptiveJpegPolicy.Choice choice = policy(new LinkQualityEstimator(0.3f)).choose(480, 640);
+        assertEquals(0, choice.step);
+        assertEquals(85, choice.quality);
+        assertEquals(480, choice.width);
+        assertEquals(640, choice.height);
+    }
+
+    @Test
+    public void fastLink_keepsBestStep() {
+        LinkQualityEstimator link = new LinkQualityEstimator(0.3f);
+        link.recordRtt(30_000_000L);
+        link.recordUpload(500_000, 200_000_000L);  // 2.5MB/s
+        assertEquals(0, policy(link).choose(480, 640).step);
+    }
+
+    @Test
+    public void congestedLink_shrinksToFitBudget() {
+        LinkQualityEstimator link = new LinkQualityEstimator(0.3f);
+        link.recordRtt(150_000_000L);
+        link.recordUpload(60_000, 1_000_000_000L);  // 60KB/s
+        AdaptiveJpegPolicy.Choice choice = policy(link).choose(480, 640);
+        assertTrue(choice.step > 0);
+        assertTrue(choice.predictedMs <= 700 || choice.step == 3);
+        assertTrue(choice.height <= 512);
+    }
+
+    @Test
+    public void encodedSizes_correctBytesPerPixel() {
+        LinkQualityEstimator link = new LinkQualityEstimator(0.3f);
+        link.recordUpload(100_000, 1_000_000_000L);  // 100KB/s → 예산 안에 약 70KB
+        AdaptiveJpegPolicy policy = policy(link);
+        AdaptiveJpegPolicy.Choice first = policy.choose(480, 640);
+        // 실제 결과가 예상보다 훨씬 크면 다음에는 더 낮은 단계로 내려감
+        for (int i = 0; i < 10; i++) policy.recordEncoded(first, first.getPixels(), first.predictedBytes * 3);
+        assertTrue(policy.choose(480, 640).step > first.step);
+    }
+
+    @Test
+    public void scaledSize_neverUpscales() {
+        assertEquals(300, AdaptiveJpegPolicy.scaledWidth(300, 200, 640));
+        assertEquals(4000, AdaptiveJpegPolicy.scaledWidth(4000, 3000, 0));
+        assertEquals(2048, AdaptiveJpegPolicy.scaledWidth(4000, 3000, 2048));
+        assertEquals(1536, AdaptiveJpegPolicy.scaledHeight(4000, 3000, 2048));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.capstone_map.common.upload;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BestFrameWindowTest {
+
+    // 30 미만은 버림, 90 이상은 바로 보냄
+    private final FrameQualityScorer scorer = new FrameQualityScorer(160, 120, 30f, 90f);
+    private final List<String> released = new ArrayList<>();
+    private final BestFrameWindow<String> window = new BestFrameWindow<>(scorer, 600, released::add);
+
+    @Test
+    public void goodFrame_isSentImmediately() {
+        window.open(0);
+        assertEquals("sharp", window.offer("sharp", 120f, 0));
+        assertFalse(window.isOpen());
+        assertTrue(released.isEmpty());
+    }
+
+    @Test
+    public void windowExpiry_sendsBestFrameEvenWithoutNewOffers() {
+        window.open(0);
+        assertNull(window.offer("blurry", 40f, 0));
+        assertNull(window.offer("better", 70f, 100));
+        assertNull(window.offer("worse", 50f, 200));
+        assertEquals(List.of("blurry", "worse"), released);
+
+        // 게이트에 막혀 offer()가 더 불리지 않아도 마감 확인으로 보냄
+        assertNull(window.poll(599));
+        assertTrue(window.isOpen());
+        assertEquals("better", window.poll(600));
+        assertFalse(window.isOpen());
+        assertNull(window.poll(700));
+    }
+
+    @Test
+    public void allFramesBelowThreshold_sendsNothing() {
+        window.open(0);
+        assertNull(window.offer("dark", 5f, 0));
+        assertNull(window.offer("shaky", 20f, 300));
+        assertNull(window.offer("late", 10f, 650));
+        assertFalse(window.isOpen());
+        assertEquals(3, released.size());
+        assertTrue(window.toString().contains("품질 미달로 버림 1회"));
+    }
+
+    @Test
+    public void cancel_releasesHeldFrameAndCloses() {
+        window.open(0);
+        assertNull(window.offer("blurry", 40f, 0));
+        window.cancel();
+        assertFalse(window.isOpen());
+        assertEquals(List.of("blurry"), released);
+        assertNull(window.poll(1000));
+
+        // 닫힌 창에 들어온 사진은 바로 반환
+        assertNull(window.offer("after", 120f, 1100));
+        assertEquals(List.of("blurry", "after"), released);
+    }
+
+    @Test
+    public void reopening_keepsFirstOpenTime() {
+        window.open(0);
+        assertNull(window.offer("blurry", 40f, 0));
+        window.open(400);  // 더 높은 우선순위 판단이 와도 마감은 처음 연 시각 기준
+        assertEquals("blurry", window.poll(600));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.capstone_map.common.upload;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameQualityScorerTest {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+    private static final int ROW_STRIDE = WIDTH * 4 + 32;
+
+    /** 8px 체커보드. blurRadius만큼 가로/세로 상자 흐림, scale로 밝기 조절 */
+    private static ByteBuffer checkerboard(int blurRadius, float scale) {
+        int[] gray = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                gray[y * WIDTH + x] = ((x / 8 + y / 8) % 2 == 0) ? 40 : 210;
+            }
+        }
+        for (int pass = 0; pass < 2 && blurRadius > 0; pass++) {
+            int[] out = new int[gray.length];
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    int sum = 0, n = 0;
+                    for (int d = -blurRadius; d <= blurRadius; d++) {
+                        int sx = pass == 0 ? Math.max(0, Math.min(WIDTH - 1, x + d)) : x;
+                        int sy = pass == 1 ? Math.max(0, Math.min(HEIGHT - 1, y + d)) : y;
+                        sum += gray[sy * WIDTH + sx];
+                        n++;
+                    }
+                    out[y * WIDTH + x] = sum / n;
+                }
+            }
+            gray = out;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                byte v = (byte) Math.round(gray[y * WIDTH + x] * scale);
+                int offset = y * ROW_STRIDE + x * 4;
+                buffer.put(offset, v).put(offset + 1, v).put(offset + 2, v).put(offset + 3, (byte) 255);
+            }
+        }
+        return buffer;
+    }
+
+    @Test
+    public void sharpFrame_outscoresBlurredFrame() {
+        FrameQualityScorer scorer = new FrameQualityScorer(160, 120, 30f, 90f);
+        float sharp = scorer.scoreRgba(checkerboard(0, 1f), WIDTH, HEIGHT, ROW_STRIDE);
+        float blurred = scorer.scoreRgba(checkerboard(8, 1f), WIDTH, HEIGHT, ROW_STRIDE);
+        assertTrue(scorer.isGood(sharp));
+        assertTrue(sharp > blurred * 4);
+        assertFalse(scorer.isUsable(blurred));
+    }
+
+    @Test
+    public void darkFrame_isRejectedEvenWhenSharp() {
+        FrameQualityScorer scorer = new FrameQualityScorer(160, 120, 30f, 90f);
+        assertEquals(0f, scorer.scoreRgba(checkerboard(0, 0.12f), WIDTH, HEIGHT, ROW_STRIDE), 0f);
+        assertTrue(scorer.toString().contains("노출 불량"));
+    }
+
+    @Test
+    public void window_sendsGoodFrameImmediately() {
+        List<String> released = new ArrayList<>();
+        BestFrameWindow<String> window = new BestFrameWindow<>(new FrameQualityScorer(8, 8, 30f, 90f), 600, released::add);
+        window.open(0);
+        assertEquals("a", window.offer("a", 200f, 0));
+        assertFalse(window.isOpen());
+        assertTrue(released.isEmpty());
+    }
+
+    @Test
+    public void window_waitsAndPicksSharpestFrame() {
+        List<String> released = new ArrayList<>();
+        BestFrameWindow<String> window = new BestFrameWindow<>(new FrameQualityScorer(8, 8, 30f, 90f), 600, released::add);
+        window.open(0);
+        assertNull(window.offer("blurry", 20f, 0));
+        assertNull(window.offer("better", 60f, 200));
+        assertNull(window.offer("worse", 40f, 400));
+        assertEquals("better", window.offer("late", 10f, 600));
+        assertEquals(List.of("blurry", "worse", "late"), released);
+    }
+
+    @Test
+    public void window_dropsWhenNothingUsable() {
+        List<String> released = new ArrayList<>();
+        BestFrameWindow<String> window = new BestFrameWindow<>(new FrameQualityScorer(8, 8, 30f, 90f), 600, released::add);
+        window.open(0);
+        assertNull(window.offer("dark", 0f, 0));
+        assertNull(window.offer("shaky", 10f, 300));
+        assertNull(window.poll(700));
+        assertFalse(window.isOpen());
+        assertEquals(List.of("dark", "shaky"), released);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.capstone_map.common.upload;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UploadMetricsListenerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void parseServerTimingMs() {
+        assertEquals(850, UploadMetricsListener.parseServerTimingMs("app;dur=850.2"));
+        assertEquals(850, UploadMetricsListener.parseServerTimingMs("db;dur=12, app;desc=\"vision\";dur=850"));
+        assertEquals(-1, UploadMetricsListener.parseServerTimingMs("cache;desc=hit"));
+        assertEquals(-1, UploadMetricsListener.parseServerTimingMs("app;dur=abc"));
+        assertEquals(-1, UploadMetricsListener.parseServerTimingMs(null));
+    }
+
+    @Test
+    public void serverTiming_measuresUntilResponseMinusProcessingAndRtt() {
+        // 본문은 5ms 만에 소켓 버퍼로 들어갔지만 실제로는 응답 헤더까지 1.4초 (서버 처리 1초, RTT 100ms)
+        long elapsed = UploadMetricsListener.uploadNanos(0, 5 * MS, 1400 * MS, 1000, 100);
+        assertEquals(300 * MS, elapsed);
+    }
+
+    @Test
+    public void withoutServerTiming_dropsBufferedWrites() {
+        assertEquals(-1, UploadMetricsListener.uploadNanos(0, 5 * MS, 1400 * MS, -1, 100));
+        // 버퍼를 넘쳐 쓰기가 오래 걸렸으면 그 시간을 씀
+        assertEquals(200 * MS, UploadMetricsListener.uploadNanos(0, 200 * MS, 1400 * MS, -1, 100));
+    }
+
+    @Test
+    public void serverTimingLargerThanWait_fallsBackToWriteTime() {
+        // 처리 시간을 빼고 나니 쓰기 시간보다 짧음 → 쓰기 시간 기준 (짧으면 버림)
+        assertEquals(-1, UploadMetricsListener.uploadNanos(0, 5 * MS, 1050 * MS, 1000, 100));
+        assertEquals(80 * MS, UploadMetricsListener.uploadNanos(0, 80 * MS, 1050 * MS, 1000, 100));
+    }
+}
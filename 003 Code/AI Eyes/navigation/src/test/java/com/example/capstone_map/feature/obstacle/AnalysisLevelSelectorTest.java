@@ -0,0 +1,97 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AnalysisLevelSelectorTest {
+
+    private static final double LAT = 37.5665;
+    private static final double LON = 126.9780;
+
+    /** 50Hz 가속도 값. stepsPerSecond가 0이면 가만히 있는 폰 */
+    private static void walk(AnalysisLevelSelector selector, long fromMs, long toMs, float stepsPerSecond) {
+        for (long t = fromMs; t < toMs; t += 20) {
+            float bounce = stepsPerSecond > 0 ? (float) (3.0 * Math.sin(2 * Math.PI * stepsPerSecond * t / 1000.0)) : 0f;
+            selector.onAccelerometer(t * 1_000_000L, 0f, 9.81f + bounce, 0.3f);
+            selector.update(t);
+        }
+    }
+
+    @Test
+    public void gpsSpeed_picksLevelAfterDwell() {
+        AnalysisLevelSelector selector = new AnalysisLevelSelector(new CadenceEstimator(), 1000, 3000);
+        assertEquals(AnalysisLevelSelector.LEVEL_WALKING, selector.update(0));
+
+        selector.onLocation(0, LAT, LON, 5f, 1.8f, 0.3f);
+        assertEquals(AnalysisLevelSelector.LEVEL_WALKING, selector.update(100));
+        selector.onLocation(1200, LAT, LON, 5f, 1.8f, 0.3f);
+        assertEquals(AnalysisLevelSelector.LEVEL_FAST, selector.update(1200));
+        assertEquals(AnalysisLevelSelector.Source.GPS, selector.getSource());
+
+        // 1.3m/s는 빠른 걸음에 들어가는 기준에는 못 미치지만 나오는 기준보다는 빠름 → 유지
+        selector.onLocation(2000, LAT, LON, 5f, 1.3f, 0.3f);
+        assertEquals(AnalysisLevelSelector.LEVEL_FAST, selector.update(6000));
+    }
+
+    @Test
+    public void briefStop_doesNotSwitchToStanding() {
+        AnalysisLevelSelector selector = new AnalysisLevelSelector(new CadenceEstimator(), 1000, 3000);
+        selector.onLocation(0, LAT, LON, 5f, 0f, 0.2f);
+        assertEquals(AnalysisLevelSelector.LEVEL_WALKING, selector.update(2000));
+        selector.onLocation(2500, LAT, LON, 5f, 1.0f, 0.2f);
+        assertEquals(AnalysisLevelSelector.LEVEL_WALKING, selector.update(2500));
+
+        selector.onLocation(3000, LAT, LON, 5f, 0f, 0.2f);
+        selector.update(3000);
+        selector.onLocation(6500, LAT, LON, 5f, 0f, 0.2f);
+        assertEquals(AnalysisLevelSelector.LEVEL_STANDING, selector.update(6500));
+    }
+
+    @Test
+    public void inaccurateFix_isIgnored() {
+        AnalysisLevelSelector selector = new AnalysisLevelSelector(new CadenceEstimator(), 0, 0);
+        selector.onLocation(0, LAT, LON, 35f, 3f, 0.3f);
+        selector.onLocation(0, LAT, LON, 5f, 3f, 4f);
+        assertEquals(AnalysisLevelSelector.LEVEL_WALKING, selector.update(10));
+        assertEquals(AnalysisLevelSelector.Source.NONE, selector.getSource());
+    }
+
+    @Test
+    public void positionsWithoutSpeed_deriveSpeedFromDistance() {
+        AnalysisLevelSelector selector = new AnalysisLevelSelector(new CadenceEstimator(), 0, 0);
+        selector.onLocation(0, LAT, LON, 3f, Float.NaN, Float.NaN);
+        // 오차(3m)보다 작은 이동으로는 속도를 정하지 않음
+        selector.onLocation(1000, LAT + 0.00002, LON, 3f, Float.NaN, Float.NaN);
+        assertEquals(AnalysisLevelSelector.Source.NONE, selector.getSource());
+        // 2초에 약 4.4m 북쪽 → 2.2m/s
+        selector.onLocation(2000, LAT + 0.00004, LON, 3f, Float.NaN, Float.NaN);
+        assertEquals(AnalysisLevelSelector.LEVEL_FAST, selector.update(2000));
+        assertEquals(4.4f, AnalysisLevelSelector.distanceMeters(LAT, LON, LAT + 0.00004, LON), 0.1f);
+    }
+
+    @Test
+    public void withoutGps_cadenceDrivesLevel() {
+        AnalysisLevelSelector selector = new AnalysisLevelSelector(new CadenceEstimator(), 1000, 3000);
+        // 초당 2.5걸음 x 0.7m = 1.75m/s
+        walk(selector, 0, 6000, 2.5f);
+        assertEquals(AnalysisLevelSelector.LEVEL_FAST, selector.getLevel());
+        assertEquals(AnalysisLevelSelector.Source.CADENCE, selector.getSource());
+
+        // 멈춘 뒤 오래된 GPS 값은 쓰지 않음
+        selector.onLocation(0, LAT, LON, 5f, 1.8f, 0.3f);
+        walk(selector, 6000, 14000, 0f);
+        assertEquals(AnalysisLevelSelector.LEVEL_STANDING, selector.getLevel());
+    }
+
+    @Test
+    public void cadence_countsOneStepPerBounce() {
+        CadenceEstimator cadence = new CadenceEstimator();
+        for (long t = 0; t < 4000; t += 20) {
+            float bounce = (float) (3.0 * Math.sin(2 * Math.PI * 2.0 * t / 1000.0));
+            cadence.onAccelerometer(t * 1_000_000L, 0f, 9.81f + bounce, 0f);
+        }
+        assertEquals(2.0f, cadence.getCadence(4000), 0.2f);
+        assertEquals(0f, cadence.getCadence(8000), 0f);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CloudRequestPipelineTest {
+
+    /** 시작/취소만 기록하는 가짜 요청 */
+    private static class FakeRequest implements CloudRequestPipeline.Request {
+        final int priority;
+        long ticket = CloudRequestPipeline.NO_TICKET;
+        int starts = 0;
+        boolean cancelled = false;
+
+        FakeRequest(int priority) {
+            this.priority = priority;
+        }
+
+        @Override public int getPriority() { return priority; }
+        @Override public void start(long ticket) { this.ticket = ticket; starts++; }
+        @Override public void cancel() { cancelled = true; }
+    }
+
+    @Test
+    public void whileInFlight_onlyLatestPendingRuns() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(2000, 5000);
+        FakeRequest a = new FakeRequest(1), b = new FakeRequest(1), c = new FakeRequest(1);
+        pipeline.submit(a, 0);
+        pipeline.submit(b, 100);
+        pipeline.submit(c, 200);
+        assertEquals(1, a.starts);
+        assertEquals(0, b.starts);
+        assertEquals(1, pipeline.getReplacedCount());
+
+        assertTrue(pipeline.finish(a.ticket, 500));
+        assertEquals(0, b.starts);
+        assertEquals(1, c.starts);
+        assertTrue(pipeline.isCurrent(c.ticket));
+
+        assertTrue(pipeline.finish(c.ticket, 900));
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void higherPriority_preemptsAndStaleTicketIsRejected() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(2000, 5000);
+        FakeRequest chair = new FakeRequest(2);
+        FakeRequest lowPending = new FakeRequest(2);
+        FakeRequest car = new FakeRequest(7);
+        pipeline.submit(chair, 0);
+        pipeline.submit(lowPending, 50);
+        pipeline.submit(car, 100);
+
+        assertTrue(chair.cancelled);
+        assertEquals(1, car.starts);
+        assertEquals(1, pipeline.getPreemptedCount());
+        assertFalse(pipeline.isCurrent(chair.ticket));
+        assertFalse("취소된 요청의 응답은 버림", pipeline.acceptResult(chair.ticket, 300));
+        assertFalse("취소된 요청이 끝나도 다음을 시작하지 않음", pipeline.finish(chair.ticket, 300));
+
+        // 더 급한 요청보다 덜 급한 대기 요청은 지움
+        assertTrue(pipeline.finish(car.ticket, 600));
+        assertEquals(0, lowPending.starts);
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void equalPriority_doesNotPreempt() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(2000, 5000);
+        FakeRequest a = new FakeRequest(3), b = new FakeRequest(3);
+        pipeline.submit(a, 0);
+        pipeline.submit(b, 10);
+        assertFalse(a.cancelled);
+        assertEquals(0, b.starts);
+    }
+
+    @Test
+    public void lateResult_isDroppedAndPendingStarts() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(10_000, 3000);
+        FakeRequest a = new FakeRequest(1), b = new FakeRequest(1);
+        pipeline.submit(a, 0);
+        pipeline.submit(b, 1000);
+
+        assertFalse(pipeline.acceptResult(a.ticket, 3001));
+        assertEquals(1, pipeline.getDroppedCount());
+        assertEquals(1, b.starts);
+        assertTrue(pipeline.acceptResult(b.ticket, 3500));
+    }
+
+    @Test
+    public void stalePending_isDroppedInsteadOfStarted() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(2000, 10_000);
+        FakeRequest a = new FakeRequest(1), b = new FakeRequest(1);
+        pipeline.submit(a, 0);
+        pipeline.submit(b, 100);
+        pipeline.finish(a.ticket, 2101);
+        assertEquals(0, b.starts);
+        assertEquals(1, pipeline.getDroppedCount());
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void cancelAll_cancelsInFlightAndClearsPending() {
+        CloudRequestPipeline pipeline = new CloudRequestPipeline(2000, 5000);
+        FakeRequest a = new FakeRequest(1), b = new FakeRequest(1);
+        pipeline.submit(a, 0);
+        pipeline.submit(b, 10);
+        pipeline.cancelAll();
+
+        assertTrue(a.cancelled);
+        assertTrue(pipeline.isIdle());
+        assertFalse(pipeline.acceptResult(a.ticket, 20));
+        assertFalse(pipeline.finish(a.ticket, 20));
+        assertEquals(0, b.starts);
+
+        // 다시 시작하면 새 티켓
+        FakeRequest c = new FakeRequest(1);
+        pipeline.submit(c, 30);
+        assertNotEquals(a.ticket, c.ticket);
+        assertTrue(pipeline.isCurrent(c.ticket));
+    }
+}
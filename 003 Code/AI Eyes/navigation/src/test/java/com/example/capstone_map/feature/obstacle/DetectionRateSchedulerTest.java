@@ -0,0 +1,70 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DetectionRateSchedulerTest {
+
+    /** 30fps 카메라 프레임 중 탐지한 수 */
+    private static int processedFrames(DetectionRateScheduler scheduler, long fromMs, long toMs) {
+        int processed = 0;
+        for (long t = fromMs; t < toMs; t += 33) {
+            if (scheduler.shouldProcessFrame(t)) processed++;
+        }
+        return processed;
+    }
+
+    @Test
+    public void fastInference_keepsBaseRate() {
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+        scheduler.onInferenceFinished(20, false, 0);
+        assertEquals(5f, scheduler.getCurrentRate(), 1e-3);
+        assertEquals(5, processedFrames(scheduler, 0, 1000));
+    }
+
+    @Test
+    public void danger_boostsThenFallsBackAfterHold() {
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+        scheduler.onInferenceFinished(20, true, 0);
+        assertEquals(10f, scheduler.getCurrentRate(), 1e-3);
+
+        scheduler.onInferenceFinished(20, false, 2999);
+        assertEquals(10f, scheduler.getCurrentRate(), 1e-3);
+        scheduler.onInferenceFinished(20, false, 3001);
+        assertEquals(5f, scheduler.getCurrentRate(), 1e-3);
+    }
+
+    @Test
+    public void slowInference_capsDutyCycle() {
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000, 0.6f);
+        // 발열로 300ms씩 걸리면 초당 0.6초만 쓰도록 2회/초
+        for (int i = 0; i < 50; i++) scheduler.onInferenceFinished(300, true, i * 500L);
+        assertEquals(2f, scheduler.getCurrentRate(), 0.05);
+
+        // 다시 빨라지면 천천히(EMA) 돌아옴
+        scheduler.onInferenceFinished(20, false, 30_000);
+        float recovering = scheduler.getCurrentRate();
+        assertTrue(recovering > 2f && recovering < 5f);
+        for (int i = 1; i < 50; i++) scheduler.onInferenceFinished(20, false, 30_000 + i * 200L);
+        assertEquals(5f, scheduler.getCurrentRate(), 1e-3);
+    }
+
+    @Test
+    public void verySlowInference_neverBelowMinRate() {
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+        for (int i = 0; i < 20; i++) scheduler.onInferenceFinished(2000, false, i * 2000L);
+        assertEquals(1f, scheduler.getCurrentRate(), 1e-3);
+        assertEquals(2, processedFrames(scheduler, 0, 2000));
+    }
+
+    @Test
+    public void reset_restoresBaseRate() {
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+        scheduler.onInferenceFinished(2000, true, 0);
+        assertTrue(scheduler.shouldProcessFrame(0));
+        scheduler.reset();
+        assertEquals(5f, scheduler.getCurrentRate(), 1e-3);
+        assertTrue(scheduler.shouldProcessFrame(1));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameBufferCacheTest {
+
+    @Test
+    public void steadyStateFrameLoop_allocatesNothing() {
+        FrameBufferCache<int[]> cache = new FrameBufferCache<>((w, h) -> new int[w * h]);
+
+        // 워밍업: 회전 90도 프레임 한 장
+        int[] first = cache.obtain(FrameBufferCache.rotationIndex(90), 480, 640);
+        int warmedUp = cache.getAllocationCount();
+        assertEquals(1, warmedUp);
+
+        for (int i = 0; i < 1000; i++) {
+            assertSame(first, cache.obtain(FrameBufferCache.rotationIndex(90), 480, 640));
+        }
+        assertEquals(warmedUp, cache.getAllocationCount());
+    }
+
+    @Test
+    public void sizeChange_allocatesOnce() {
+        FrameBufferCache<int[]> cache = new FrameBufferCache<>((w, h) -> new int[w * h]);
+        cache.obtain(1, 480, 640);
+        cache.obtain(1, 720, 1280);
+        cache.obtain(1, 720, 1280);
+        assertEquals(2, cache.getAllocationCount());
+    }
+
+    @Test
+    public void rotationIndex_wrapsDegrees() {
+        assertEquals(0, FrameBufferCache.rotationIndex(0));
+        assertEquals(1, FrameBufferCache.rotationIndex(90));
+        assertEquals(3, FrameBufferCache.rotationIndex(-90));
+        assertEquals(2, FrameBufferCache.rotationIndex(540));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class FrameRingTest {
+
+    @Test
+    public void pinnedSlot_isNeverHandedOutForWriting() {
+        FrameRing<int[]> ring = new FrameRing<>(3, (w, h) -> new int[w * h]);
+        FrameRing.Slot<int[]> detected = ring.acquire(4, 3);
+        long seq = detected.getSeq();
+        ring.retain(detected);   // 인코딩 단계가 붙잡음
+        ring.release(detected);  // 추론 단계는 놓음
+
+        for (int i = 0; i < 100; i++) {
+            FrameRing.Slot<int[]> slot = ring.acquire(4, 3);
+            assertNotSame(detected, slot);
+            ring.release(slot);
+        }
+        assertEquals(seq, detected.getSeq());
+
+        ring.release(detected);
+        boolean reused = false;
+        for (int i = 0; i < 3 && !reused; i++) {
+            FrameRing.Slot<int[]> slot = ring.acquire(4, 3);
+            reused = slot == detected;
+            ring.release(slot);
+        }
+        assertTrue(reused);
+        assertTrue(detected.getSeq() > seq);
+    }
+
+    @Test
+    public void allSlotsPinned_dropsInsteadOfAllocating() {
+        FrameRing<int[]> ring = new FrameRing<>(2, (w, h) -> new int[w * h]);
+        FrameRing.Slot<int[]> a = ring.acquire(4, 3);
+        FrameRing.Slot<int[]> b = ring.acquire(4, 3);
+        assertNull(ring.acquire(4, 3));
+        assertEquals(1, ring.getExhaustedCount());
+        assertEquals(2, ring.getAllocationCount());
+
+        ring.release(a);
+        assertSame(a, ring.acquire(4, 3));
+        ring.release(b);
+    }
+
+    @Test
+    public void steadyState_reusesBuffers() {
+        FrameRing<int[]> ring = new FrameRing<>(3, (w, h) -> new int[w * h]);
+        for (int i = 0; i < 1000; i++) {
+            ring.release(ring.acquire(4, 3));
+        }
+        assertEquals(3, ring.getAllocationCount());
+        ring.release(ring.acquire(8, 6));
+        assertEquals(4, ring.getAllocationCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doubleRelease_throws() {
+        FrameRing<int[]> ring = new FrameRing<>(1, (w, h) -> new int[w * h]);
+        FrameRing.Slot<int[]> slot = ring.acquire(4, 3);
+        ring.release(slot);
+        ring.release(slot);
+    }
+
+    /**
+     * 캡처 스레드가 계속 덮어쓰는 동안 인코딩 쪽이 붙잡은 칸의 픽셀은 그 칸의 순번 그대로여야 함
+     */
+    @Test
+    public void concurrentWriter_neverTearsPinnedFrame() throws InterruptedException {
+        FrameRing<long[]> ring = new FrameRing<>(4, (w, h) -> new long[w * h]);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong written = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                FrameRing.Slot<long[]> slot = ring.acquire(16, 16);
+                if (slot == null) continue;
+                long[] pixels = slot.getBuffer();
+                for (int i = 0; i < pixels.length; i++) pixels[i] = slot.getSeq();
+                ring.release(slot);
+                written.incrementAndGet();
+            }
+        });
+        writer.start();
+
+        for (int round = 0; round < 2000; round++) {
+            FrameRing.Slot<long[]> slot = ring.acquire(16, 16);
+            if (slot == null) continue;
+            long seq = slot.getSeq();
+            long[] pixels = slot.getBuffer();
+            for (int i = 0; i < pixels.length; i++) pixels[i] = seq;
+            Thread.yield();
+            for (long value : pixels) assertEquals(seq, value);
+            assertEquals(seq, slot.getSeq());
+            ring.release(slot);
+        }
+        running.set(false);
+        writer.join();
+        assertTrue(written.get() > 0);
+    }
+}
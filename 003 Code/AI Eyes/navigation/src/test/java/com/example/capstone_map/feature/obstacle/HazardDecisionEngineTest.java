@@ -0,0 +1,93 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class HazardDecisionEngineTest {
+
+    private static final int CHAIR = 62;
+    private static final int BUS = 6;
+
+    private static HazardPolicyTable table() {
+        return HazardPolicyTable.parse(new StringReader("{\"classes\": {"
+                + "\"chair\": {\"priority\": 1, \"minConfidence\": 0.6, \"cooldownMs\": 10000, \"escalation\": \"local\"},"
+                + "\"bus\": {\"priority\": 3, \"minConfidence\": 0.45, \"cooldownMs\": 3000, \"escalation\": \"cloud\"}}}"));
+    }
+
+    /** 한 프레임에 탐지 하나씩 넣고 판단 결과를 돌려줌 */
+    private static HazardDecisionEngine.Decision frame(HazardDecisionEngine engine, long now,
+                                                      String label, int index, float score, float size) {
+        engine.beginFrame(now);
+        engine.offerDetection(label, index, score, 0.5f - size / 2f, 0.5f - size / 2f, 0.5f + size / 2f, 0.5f + size / 2f);
+        return engine.endFrame(now, 0, true);
+    }
+
+    @Test
+    public void assetPolicy_parses() throws IOException {
+        // Gradle은 모듈 디렉터리에서, IDE는 프로젝트 루트에서 실행하는 경우가 있음
+        File asset = new File("src/main/assets/" + HazardPolicyTable.ASSET_NAME);
+        if (!asset.exists()) asset = new File("navigation/src/main/assets/" + HazardPolicyTable.ASSET_NAME);
+        Assume.assumeTrue("정책 파일을 찾지 못했습니다: " + asset.getAbsolutePath(), asset.exists());
+        try (Reader reader = Files.newBufferedReader(asset.toPath())) {
+            HazardPolicyTable policies = HazardPolicyTable.parse(reader);
+            assertTrue(policies.policyFor("bus").priority > policies.policyFor("chair").priority);
+            assertEquals(HazardPolicyTable.Escalation.LOCAL, policies.policyFor("chair").escalation);
+        }
+    }
+
+    @Test
+    public void legacyPolicy_ignoresLowConfidence() {
+        HazardPolicyTable.Policy car = HazardPolicyTable.legacy().policyFor("car");
+        assertEquals(0.5f, car.minConfidence, 0f);
+        HazardDecisionEngine engine = HazardDecisionEngine.createDefault(HazardPolicyTable.legacy(), new HazardEstimator());
+        engine.beginFrame(0);
+        assertFalse(engine.offerDetection("car", -1, 0.45f, 0.4f, 0.4f, 0.6f, 0.6f));
+        assertTrue(engine.offerDetection("car", -1, 0.55f, 0.4f, 0.4f, 0.6f, 0.6f));
+    }
+
+    @Test
+    public void labelIndex_resolvesOnceThenHitsArray() {
+        HazardPolicyTable policies = table();
+        HazardPolicyTable.Policy bus = policies.policyFor(BUS, "bus");
+        assertEquals("bus", bus.label);
+        // 두 번째부터는 라벨 문자열을 보지 않음
+        assertSame(bus, policies.policyFor(BUS, null));
+        assertSame(HazardPolicyTable.NONE, policies.policyFor(1, "person"));
+        assertSame(HazardPolicyTable.NONE, policies.policyFor(1, null));
+    }
+
+    @Test
+    public void lowConfidence_isIgnoredPerClass() {
+        HazardDecisionEngine engine = HazardDecisionEngine.createDefault(table(), new HazardEstimator());
+        engine.beginFrame(0);
+        assertFalse(engine.offerDetection("chair", CHAIR, 0.55f, 0.4f, 0.4f, 0.6f, 0.6f));
+        assertTrue(engine.offerDetection("bus", BUS, 0.55f, 0.4f, 0.4f, 0.6f, 0.6f));
+    }
+
+    @Test
+    public void busAfterChair_isNotMutedByChairCooldown() {
+        HazardDecisionEngine engine = HazardDecisionEngine.createDefault(table(), new HazardEstimator());
+        long now = 10_000;
+
+        // 의자: 기기 경고만, 클라우드로는 올리지 않음
+        frame(engine, now, "chair", CHAIR, 0.9f, 0.2f);
+        HazardDecisionEngine.Decision chair = frame(engine, now += 100, "chair", CHAIR, 0.9f, 0.2f);
+        assertNotNull(chair.warningText);
+        assertFalse(chair.cloudCall);
+
+        // 곧바로(경고 간격 안) 버스가 나타남 → 바로 경고 + 클라우드
+        frame(engine, now += 100, "bus", BUS, 0.9f, 0.3f);
+        HazardDecisionEngine.Decision bus = frame(engine, now += 100, "bus", BUS, 0.9f, 0.3f);
+        assertNotNull(bus.warningText);
+        assertTrue(bus.cloudCall);
+        assertEquals(HazardDecisionEngine.cloudPriority(3, false), bus.cloudPriority);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HazardEstimatorTest {
+
+    private static final int CAR = 2;
+    private static final float CAR_HEIGHT_M = 1.5f;
+    // 기본 카메라값 (4.3mm / 4.2mm, 4.3mm / 5.6mm)
+    private static final float FOCAL_OVER_HEIGHT = 4.3f / 4.2f;
+    private static final float FOCAL_OVER_WIDTH = 4.3f / 5.6f;
+
+    @Test
+    public void estimateDistance_pinholeModel() {
+        HazardEstimator estimator = new HazardEstimator();
+        // 박스 높이 0.2 → 1.5 × 1.024 / 0.2 ≈ 7.7m
+        assertEquals(CAR_HEIGHT_M * FOCAL_OVER_HEIGHT / 0.2f, estimator.estimateDistance("car", 0.2f, 0), 1e-4f);
+        // 박스가 두 배면 거리는 절반
+        assertEquals(estimator.estimateDistance("car", 0.2f, 0) / 2f, estimator.estimateDistance("car", 0.4f, 0), 1e-4f);
+        // 모르는 라벨이나 빈 박스
+        assertEquals(-1f, estimator.estimateDistance("kite", 0.2f, 0), 0f);
+        assertEquals(-1f, estimator.estimateDistance("car", 0f, 0), 0f);
+    }
+
+    @Test
+    public void estimateDistance_swapsAxesWhenRotated() {
+        HazardEstimator estimator = new HazardEstimator();
+        // 세로로 든 폰(90/270도)은 센서 가로가 이미지 세로가 됨
+        assertEquals(CAR_HEIGHT_M * FOCAL_OVER_WIDTH / 0.2f, estimator.estimateDistance("car", 0.2f, 90), 1e-4f);
+        assertEquals(estimator.estimateDistance("car", 0.2f, 90), estimator.estimateDistance("car", 0.2f, 270), 1e-4f);
+        assertEquals(estimator.estimateDistance("car", 0.2f, 0), estimator.estimateDistance("car", 0.2f, 180), 1e-4f);
+
+        estimator.setIntrinsics(5f, 5f, 2.5f);
+        assertEquals(CAR_HEIGHT_M * 2f / 0.2f, estimator.estimateDistance("car", 0.2f, 0), 1e-4f);
+        assertEquals(CAR_HEIGHT_M / 0.2f, estimator.estimateDistance("car", 0.2f, 90), 1e-4f);
+    }
+
+    @Test
+    public void estimateClockHour() {
+        HazardEstimator estimator = new HazardEstimator();
+        assertEquals(12, estimator.estimateClockHour(0.5f, 0));
+        // 가장자리 (화각 절반 ≈ 33도) → 한 칸
+        assertEquals(1, estimator.estimateClockHour(1.0f, 0));
+        assertEquals(11, estimator.estimateClockHour(0.0f, 0));
+        // 화각이 넓으면 더 옆으로, 그래도 3시/9시를 넘지 않음
+        estimator.setIntrinsics(1f, 10f, 10f);
+        assertEquals(3, estimator.estimateClockHour(1.0f, 0));
+        assertEquals(9, estimator.estimateClockHour(0.0f, 0));
+    }
+
+    @Test
+    public void describe_andFormatDistance() {
+        HazardEstimator estimator = new HazardEstimator();
+        float distance = estimator.estimateDistance("car", 0.2f, 0);
+        assertEquals("자동차, 12시 방향, " + HazardEstimator.formatDistance(distance),
+                estimator.describe("car", 0.4f, 0.4f, 0.6f, 0.6f, 0));
+        // 높이를 모르는 라벨은 거리 없이, 이름도 그대로
+        assertEquals("kite, 12시 방향", estimator.describe("kite", 0.4f, 0.4f, 0.6f, 0.6f, 0));
+
+        assertEquals("1미터 이내", HazardEstimator.formatDistance(0.6f));
+        assertEquals("약 5미터", HazardEstimator.formatDistance(4.6f));
+        assertEquals("약 10미터", HazardEstimator.formatDistance(12.4f));
+        assertEquals("약 15미터", HazardEstimator.formatDistance(13f));
+    }
+
+    @Test
+    public void approachingCar_timeToContactAndDistance() {
+        HazardEstimator estimator = new HazardEstimator();
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        // 12m에서 2m/s로 다가오는 자동차를 10fps로 3초 동안 (핀홀 모델로 박스 크기 생성)
+        float speed = 2f;
+        ObstacleTracker.Track car = null;
+        for (int i = 0; i <= 30; i++) {
+            float distance = 12f - speed * i / 10f;
+            float h = CAR_HEIGHT_M * FOCAL_OVER_HEIGHT / distance;
+            float w = h * 1.5f;
+            tracker.beginFrame(i * 100L);
+            tracker.addDetection(CAR, "car", 0.8f, 0.5f - w / 2, 0.6f - h / 2, 0.5f + w / 2, 0.6f + h / 2);
+            List<ObstacleTracker.Track> tracks = tracker.endFrame();
+            if (!tracks.isEmpty()) car = tracks.get(0);
+        }
+        assertNotNull(car);
+
+        // 마지막 프레임: 6m, 충돌까지 3초 → 면적 증가율 ≈ 2 / 3
+        float timeToContact = 6f / speed;
+        assertEquals(2f / timeToContact, car.getApproachRate(), 0.15f);
+        assertTrue(tracker.isApproaching(car));
+        assertEquals(6f, estimator.estimateDistance(car.label, car.getBottom() - car.getTop(), 0), 0.6f);
+        assertEquals(12, estimator.estimateClockHour(car.getCenterX(), 0));
+    }
+
+    @Test
+    public void parkedCar_isNotApproaching() {
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        float h = CAR_HEIGHT_M * FOCAL_OVER_HEIGHT / 6f;
+        ObstacleTracker.Track car = null;
+        for (int i = 0; i <= 30; i++) {
+            tracker.beginFrame(i * 100L);
+            tracker.addDetection(CAR, "car", 0.8f, 0.3f, 0.6f - h / 2, 0.3f + h * 1.5f, 0.6f + h / 2);
+            List<ObstacleTracker.Track> tracks = tracker.endFrame();
+            if (!tracks.isEmpty()) car = tracks.get(0);
+        }
+        assertNotNull(car);
+        assertEquals(0f, car.getApproachRate(), 0.05f);
+        assertFalse(tracker.isApproaching(car));
+    }
+}
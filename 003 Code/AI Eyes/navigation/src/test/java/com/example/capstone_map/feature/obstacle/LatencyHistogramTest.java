@@ -0,0 +1,75 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private static final long MS = 1_000_000L;
+    // 한 옥타브에 8칸 → 버킷 위쪽 경계는 실제 값보다 최대 2^(1/8) 배
+    private static final double BUCKET_RATIO = Math.pow(2, 1 / 8.0);
+
+    @Test
+    public void percentiles_onUniformDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 1ms ~ 100ms 한 번씩 (순서를 섞어도 결과는 같아야 함)
+        for (int i = 100; i >= 1; i--) h.record(i * MS);
+
+        assertEquals(100, h.getCount());
+        assertEquals(50.5, h.getMeanMs(), 1e-9);
+        assertEquals(100.0, h.getMaxMs(), 1e-9);
+        assertBetween(50, h.percentileMs(50));
+        assertBetween(95, h.percentileMs(95));
+        assertBetween(99, h.percentileMs(99));
+        // 최댓값을 넘는 버킷 경계는 최댓값으로 자름
+        assertEquals(100.0, h.percentileMs(100), 1e-9);
+    }
+
+    @Test
+    public void percentiles_onSkewedDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 90%는 10ms, 9%는 200ms, 1%는 2초 (가끔 튀는 네트워크 응답)
+        for (int i = 0; i < 900; i++) h.record(10 * MS);
+        for (int i = 0; i < 90; i++) h.record(200 * MS);
+        for (int i = 0; i < 10; i++) h.record(2000 * MS);
+
+        assertBetween(10, h.percentileMs(50));
+        assertBetween(200, h.percentileMs(95));
+        assertBetween(200, h.percentileMs(99));
+        assertEquals(2000.0, h.percentileMs(99.5), 1e-9);
+    }
+
+    @Test
+    public void bucketUpperBound_neverBelowValue() {
+        for (long nanos = 1_500; nanos < 60_000 * MS; nanos = nanos * 3 / 2) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            assertTrue(nanos + "ns", LatencyHistogram.upperBoundNanos(bucket) >= nanos);
+            assertTrue(nanos + "ns", LatencyHistogram.upperBoundNanos(bucket) <= nanos * BUCKET_RATIO + 1);
+        }
+        // 범위 밖은 양 끝 칸
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(1_000));
+        assertEquals(LatencyHistogram.bucketOf(Long.MAX_VALUE), LatencyHistogram.bucketOf(3600_000 * MS));
+    }
+
+    @Test
+    public void emptyAndReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentileMs(99), 0);
+        assertEquals(0, h.getMeanMs(), 0);
+
+        h.record(5 * MS);
+        h.record(-1);  // 시계가 거꾸로 가도 0으로
+        assertEquals(2, h.getCount());
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMaxMs(), 0);
+        assertEquals(0, h.percentileMs(50), 0);
+    }
+
+    private static void assertBetween(double expectedMs, double actualMs) {
+        assertTrue("p = " + actualMs + "ms, 기대 " + expectedMs + "ms",
+                actualMs >= expectedMs && actualMs <= expectedMs * BUCKET_RATIO);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class LatestFrameMailboxTest {
+
+    /** 올라온 작업을 runAll()을 부를 때까지 쌓아 두는 executor */
+    private static class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) task.run();
+        }
+    }
+
+    @Test
+    public void slowConsumer_getsOnlyLatestAndRecyclesTheRest() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> consumed = new ArrayList<>();
+        List<Integer> recycled = new ArrayList<>();
+        LatestFrameMailbox<Integer> mailbox = new LatestFrameMailbox<>(executor, consumed::add, recycled::add);
+
+        for (int i = 1; i <= 5; i++) mailbox.offer(i);
+        assertEquals("처리 중에는 작업을 더 올리지 않음", 1, executor.tasks.size());
+        executor.runAll();
+
+        assertEquals(List.of(5), consumed);
+        assertEquals(List.of(1, 2, 3, 4), recycled);
+        assertEquals(5, mailbox.getOfferedCount());
+        assertEquals(1, mailbox.getConsumedCount());
+        assertEquals(4, mailbox.getDroppedCount());
+    }
+
+    @Test
+    public void offerDuringDrain_isConsumedByTheSameDrain() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> consumed = new ArrayList<>();
+        AtomicReference<LatestFrameMailbox<Integer>> box = new AtomicReference<>();
+        LatestFrameMailbox<Integer> mailbox = new LatestFrameMailbox<>(executor, item -> {
+            consumed.add(item);
+            // 처리하는 동안 앞 단계가 새 항목을 넣음
+            if (item < 3) box.get().offer(item + 1);
+        }, item -> fail("밀려난 항목 없음"));
+        box.set(mailbox);
+
+        mailbox.offer(1);
+        executor.runAll();
+        assertEquals(List.of(1, 2, 3), consumed);
+        assertTrue(executor.tasks.isEmpty());
+
+        // 끝난 뒤에는 다시 작업을 올림
+        mailbox.offer(4);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(List.of(1, 2, 3, 4), consumed);
+    }
+
+    @Test
+    public void throwingConsumer_doesNotStallTheStage() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> consumed = new ArrayList<>();
+        LatestFrameMailbox<Integer> mailbox = new LatestFrameMailbox<>(executor, item -> {
+            if (item == 1) throw new IllegalStateException("탐지 실패");
+            consumed.add(item);
+        }, item -> { });
+
+        mailbox.offer(1);
+        executor.runAll();
+        assertEquals(1, mailbox.getFailedCount());
+        assertTrue(mailbox.getLastFailure() instanceof IllegalStateException);
+
+        mailbox.offer(2);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(List.of(2), consumed);
+    }
+
+    @Test
+    public void concurrentOffers_everyItemIsConsumedOrRecycledOnce() throws InterruptedException {
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        int items = 20_000;
+        boolean[] seen = new boolean[items + 1];
+        int[] handled = new int[1];
+        CountDownLatch last = new CountDownLatch(1);
+        LatestFrameMailbox<Integer> mailbox = new LatestFrameMailbox<>(consumerThread, item -> {
+            synchronized (seen) {
+                assertFalse(seen[item]);
+                seen[item] = true;
+                handled[0]++;
+            }
+            if (item == items) last.countDown();
+        }, item -> {
+            synchronized (seen) {
+                assertFalse(seen[item]);
+                seen[item] = true;
+                handled[0]++;
+            }
+        });
+
+        for (int i = 1; i <= items; i++) mailbox.offer(i);
+        // 마지막 항목은 밀려날 수 없으므로 반드시 처리됨
+        assertTrue(last.await(5, TimeUnit.SECONDS));
+        consumerThread.shutdown();
+        assertTrue(consumerThread.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(items, handled[0]);
+        assertEquals(0, mailbox.getFailedCount());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MotionGateStageTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final int ROW_STRIDE = WIDTH * 4 + 16;  // 카메라 평면처럼 행 끝 여백
+
+    private static ByteBuffer frame(int gray) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH * 4; x++) buffer.put(y * ROW_STRIDE + x, (byte) gray);
+            // 여백은 매번 다른 값이어도 판단에 영향이 없어야 함
+            for (int x = WIDTH * 4; x < ROW_STRIDE; x++) buffer.put(y * ROW_STRIDE + x, (byte) (gray * 7 + x));
+        }
+        return buffer;
+    }
+
+    @Test
+    public void staticScene_dropsToHeartbeat() {
+        MotionGateStage gate = new MotionGateStage(18, 0.02f, 1000, new DeviceMotionDetector(0.6f, 0.35f, 800));
+        ByteBuffer still = frame(100);
+        int passed = 0;
+        for (long t = 0; t < 3000; t += 200) {
+            if (gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, t)) passed++;
+        }
+        assertEquals(3, passed);  // 첫 프레임 + 1초마다
+        assertEquals(0, still.position());
+    }
+
+    @Test
+    public void sceneChange_passesImmediately() {
+        MotionGateStage gate = new MotionGateStage(18, 0.02f, 1000);
+        assertTrue(gate.hasCandidates(frame(100), WIDTH, HEIGHT, ROW_STRIDE, 0));
+        assertFalse(gate.hasCandidates(frame(105), WIDTH, HEIGHT, ROW_STRIDE, 200));
+        assertTrue(gate.hasCandidates(frame(160), WIDTH, HEIGHT, ROW_STRIDE, 400));
+    }
+
+    @Test
+    public void deviceMotion_passesWithoutSceneChange() {
+        DeviceMotionDetector motion = new DeviceMotionDetector(0.6f, 0.35f, 800);
+        MotionGateStage gate = new MotionGateStage(18, 0.02f, 1000, motion);
+        ByteBuffer still = frame(100);
+        motion.onAccelerometer(0, 0f, 9.81f, 0f);
+        assertTrue(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 0));
+        assertFalse(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 200));
+
+        // 폰을 돌리면 다음 프레임부터 바로 통과, 멈춘 뒤 holdMs가 지나면 다시 막음
+        motion.onGyroscope(300_000_000L, 0f, 1.2f, 0f);
+        assertTrue(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 400));
+        assertTrue(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 1000));
+        assertFalse(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 1200));
+
+        motion.onAccelerometer(1300_000_000L, 4f, 9.81f, 0f);
+        assertTrue(gate.hasCandidates(still, WIDTH, HEIGHT, ROW_STRIDE, 1400));
+        // 첫 프레임은 센서 움직임으로 세지 않음
+        assertTrue(gate.getStats(), gate.getStats().contains("첫 프레임 1, 센서 움직임 3,"));
+    }
+}
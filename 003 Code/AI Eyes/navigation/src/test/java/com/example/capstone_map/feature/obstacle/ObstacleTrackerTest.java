@@ -0,0 +1,124 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ObstacleTrackerTest {
+
+    private static final int PERSON = 0;
+    private static final int CAR = 2;
+
+    private static List<ObstacleTracker.Track> frame(ObstacleTracker tracker, long t, float[]... boxes) {
+        tracker.beginFrame(t);
+        for (float[] b : boxes) {
+            tracker.addDetection((int) b[0], b[0] == CAR ? "car" : "person", 0.8f, b[1], b[2], b[3], b[4]);
+        }
+        return tracker.endFrame();
+    }
+
+    private static float[] box(int classId, float cx, float cy, float size) {
+        return new float[]{classId, cx - size / 2, cy - size / 2, cx + size / 2, cy + size / 2};
+    }
+
+    private static ObstacleTracker.Track byClass(List<ObstacleTracker.Track> tracks, int classId) {
+        for (ObstacleTracker.Track t : tracks) if (t.classId == classId) return t;
+        return null;
+    }
+
+    @Test
+    public void kalmanAxis_learnsConstantVelocityAndExtrapolates() {
+        ObstacleTracker.KalmanAxis axis = new ObstacleTracker.KalmanAxis(0.05f, 0.01f);
+        // 0.2 단위/초로 움직이는 측정 (100ms 간격)
+        for (int i = 0; i <= 30; i++) axis.update(0.1f + 0.02f * i, i * 100L);
+        assertEquals(0.2f, axis.v * 1000f, 0.02f);
+        assertEquals(0.7f, axis.x, 0.01f);
+
+        // 측정 없이 0.5초 예측
+        axis.predict(3500);
+        assertEquals(0.8f, axis.x, 0.015f);
+    }
+
+    @Test
+    public void confirmsAfterMinHitsAndKeepsIdWhileMoving() {
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        assertTrue("한 번 보인 것은 아직 확정 안 됨", frame(tracker, 0, box(PERSON, 0.30f, 0.5f, 0.2f)).isEmpty());
+
+        int id = -1;
+        List<ObstacleTracker.Track> tracks = null;
+        for (int i = 1; i <= 10; i++) {
+            tracks = frame(tracker, i * 100L, box(PERSON, 0.30f + 0.01f * i, 0.5f, 0.2f));
+            assertEquals(1, tracks.size());
+            if (id < 0) id = tracks.get(0).id;
+            assertEquals(id, tracks.get(0).id);
+        }
+        assertEquals(0.40f, tracks.get(0).getCenterX(), 0.01f);
+    }
+
+    @Test
+    public void associatesByClassAndOverlap() {
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        frame(tracker, 0, box(PERSON, 0.3f, 0.5f, 0.2f), box(CAR, 0.32f, 0.5f, 0.2f), box(PERSON, 0.8f, 0.5f, 0.2f));
+        List<ObstacleTracker.Track> first = frame(tracker, 50,
+                box(PERSON, 0.3f, 0.5f, 0.2f), box(CAR, 0.32f, 0.5f, 0.2f), box(PERSON, 0.8f, 0.5f, 0.2f));
+        assertEquals(3, first.size());
+        int personLeft = -1, car = -1, personRight = -1;
+        for (ObstacleTracker.Track t : first) {
+            if (t.classId == CAR) car = t.id;
+            else if (t.getCenterX() < 0.5f) personLeft = t.id;
+            else personRight = t.id;
+        }
+
+        // 같은 자리에 겹쳐 있어도 클래스가 다르면 서로 바뀌지 않음
+        List<ObstacleTracker.Track> second = frame(tracker, 100,
+                box(CAR, 0.31f, 0.5f, 0.2f), box(PERSON, 0.79f, 0.5f, 0.2f), box(PERSON, 0.31f, 0.5f, 0.2f));
+        assertEquals(3, second.size());
+        for (ObstacleTracker.Track t : second) {
+            if (t.classId == CAR) assertEquals(car, t.id);
+            else if (t.getCenterX() < 0.5f) assertEquals(personLeft, t.id);
+            else assertEquals(personRight, t.id);
+        }
+
+        // 겹치지 않는 곳의 탐지는 새 트랙
+        frame(tracker, 200, box(CAR, 0.8f, 0.1f, 0.1f));
+        List<ObstacleTracker.Track> third = frame(tracker, 250, box(CAR, 0.8f, 0.1f, 0.1f));
+        assertEquals(1, third.size());
+        assertNotEquals(car, third.get(0).id);
+    }
+
+    @Test
+    public void dropsTrackAfterMaxAge() {
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        frame(tracker, 0, box(PERSON, 0.5f, 0.5f, 0.2f));
+        int id = frame(tracker, 100, box(PERSON, 0.5f, 0.5f, 0.2f)).get(0).id;
+        assertTrue(frame(tracker, 1000).isEmpty());
+        assertEquals("간격 안이면 같은 트랙", id, frame(tracker, 1500, box(PERSON, 0.5f, 0.5f, 0.2f)).get(0).id);
+
+        assertTrue(frame(tracker, 3100).isEmpty());
+        assertTrue("지워진 뒤에는 새 트랙으로 다시 확정을 기다림", frame(tracker, 3200, box(PERSON, 0.5f, 0.5f, 0.2f)).isEmpty());
+        assertNotEquals(id, frame(tracker, 3300, box(PERSON, 0.5f, 0.5f, 0.2f)).get(0).id);
+    }
+
+    @Test
+    public void growingBox_isApproaching() {
+        ObstacleTracker tracker = new ObstacleTracker(0.3f, 2, 1500, 0.25f);
+        ObstacleTracker.Track car = null;
+        ObstacleTracker.Track parked = null;
+        for (int i = 0; i <= 20; i++) {
+            // 자동차는 박스 한 변이 초당 10%씩 커지고, 사람은 그대로
+            float size = 0.1f * (float) Math.pow(1.1, i / 10.0);
+            List<ObstacleTracker.Track> tracks = frame(tracker, i * 100L,
+                    box(CAR, 0.5f, 0.5f, size), box(PERSON, 0.15f, 0.5f, 0.1f));
+            car = byClass(tracks, CAR);
+            parked = byClass(tracks, PERSON);
+        }
+        assertNotNull(car);
+        assertNotNull(parked);
+        // 면적 증가율 = 2 × ln(1.1) ≈ 0.19/초
+        assertEquals(0.19f, car.getApproachRate(), 0.05f);
+        assertEquals(0f, parked.getApproachRate(), 0.02f);
+        assertFalse(tracker.isApproaching(parked));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class PipelineTracerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void report_listsRecordedStagesAndRecentEvents() {
+        PipelineTracer tracer = new PipelineTracer();
+        for (int i = 1; i <= 100; i++) tracer.record(PipelineTracer.Stage.INFERENCE, i, i * MS);
+        tracer.record(PipelineTracer.Stage.GATE, PipelineTracer.NO_FRAME, 2 * MS);
+
+        String report = tracer.dumpReport();
+        String inference = lineStartingWith(report, "inference");
+        assertNotNull(report, inference);
+        assertTrue(inference, inference.matches("inference\\s+100\\s+50\\.50ms\\s+5\\d\\.\\d\\dms.*"));
+        // 기록이 없는 단계는 표에 나오지 않음
+        assertNull(lineStartingWith(report, "network"));
+
+        assertTrue(report.contains("\n100,inference,100.00\n"));
+        assertTrue("프레임 번호가 없는 게이트는 -로", report.contains("\n-,gate,2.00\n"));
+    }
+
+    @Test
+    public void dumpReportAndReset_startsNewInterval() {
+        PipelineTracer tracer = new PipelineTracer();
+        tracer.record(PipelineTracer.Stage.ENCODE, 7, 12 * MS);
+        assertNotNull(lineStartingWith(tracer.dumpReportAndReset(), "encode"));
+
+        assertEquals(0, tracer.getHistogram(PipelineTracer.Stage.ENCODE).getCount());
+        String next = tracer.dumpReport();
+        assertNull(lineStartingWith(next, "encode"));
+        assertFalse(next.contains("7,encode"));
+    }
+
+    @Test
+    public void pruneReports_keepsNewestFiles() throws IOException {
+        File dir = Files.createTempDirectory("obstacle_trace").toFile();
+        try {
+            for (int i = 1; i <= 25; i++) assertTrue(new File(dir, "trace_" + (1000 + i) + ".txt").createNewFile());
+            assertTrue(new File(dir, "notes.txt").createNewFile());
+
+            PipelineTracer.pruneReports(dir, 20);
+
+            assertFalse(new File(dir, "trace_1005.txt").exists());
+            assertTrue(new File(dir, "trace_1006.txt").exists());
+            assertTrue(new File(dir, "trace_1025.txt").exists());
+            assertTrue("보고서가 아닌 파일은 그대로", new File(dir, "notes.txt").exists());
+            assertEquals(21, dir.listFiles().length);
+        } finally {
+            for (File f : dir.listFiles()) f.delete();
+            dir.delete();
+        }
+    }
+
+    private static String lineStartingWith(String report, String prefix) {
+        for (String line : report.split("\n")) {
+            if (line.startsWith(prefix + " ")) return line;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.capstone_map.feature.obstacle;
+
+import com.example.capstone_map.common.upload.BestFrameWindow;
+import com.example.capstone_map.common.upload.FrameQualityScorer;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.InterpreterApi;
+import org.tensorflow.lite.Tensor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * 녹화한 프레임(.aief)을 PC(JVM)에서 재생하며 앱과 같은 순서로 돌려 봅니다. 기기와 네트워크가 필요 없습니다.
+ *
+ * 탐지 빈도 조절(DetectionRateScheduler) → 움직임 게이트(MotionGateStage, 녹화된 센서 판단 포함) → TFLite 탐지
+ * → 경고/클라우드 판단(HazardDecisionEngine) → 품질 창(BestFrameWindow) → 장면 캐시(SceneHashCache) 순서이고,
+ * 시각은 녹화된 타임스탬프를 씁니다. 결과로 처리 fps, 프레임당 지연 시간 분포, 즉시 경고 수, 실제로 나갔을 클라우드 요청 수를 출력합니다.
+ *
+ * 실행 (replay.dataset이 없으면 재생 테스트는 건너뜀):
+ *   ./gradlew :navigation:testDebugUnitTest --tests '*ReplayHarnessTest*' \
+ *       -Preplay.dataset=/path/frames_123.aief -Preplay.jniDir=/path/to/jni [-Preplay.threads=4]
+ *
+ * replay.jniDir에는 Linux용 libtensorflowlite_jni.so가 있어야 합니다. (AAR 안의 .so는 안드로이드 전용)
+ * build.gradle.kts의 tensorflow-lite와 같은 버전 소스에서 bazel build //tensorflow/lite/java:tensorflowlite_jni 로 만듭니다.
+ * 녹화 파일은 ObstacleDetectionFragment의 RECORD_FRAMES를 켜고 기기에서 adb pull로 꺼냅니다.
+ */
+public class ReplayHarnessTest {
+
+    // ObstacleDetectionFragment와 같은 값
+    private static final float SCORE_THRESHOLD = 0.4f;
+    private static final int MAX_RESULTS = 5;
+
+    @Test
+    public void datasetRoundTrip_keepsPixelsRotationAndTimestamp() throws IOException {
+        File file = File.createTempFile("replay", ".aief");
+        file.deleteOnExit();
+        int width = 4, height = 2, rowStride = width * 4 + 8;  // 행 끝 여백이 있는 버퍼
+
+        ByteBuffer frame = ByteBuffer.allocateDirect(rowStride * height);
+        try (FrameDataset.Writer writer = new FrameDataset.Writer(file, width, height, 2)) {
+            for (int i = 0; i < 3; i++) {
+                for (int p = 0; p < frame.capacity(); p++) frame.put(p, (byte) (p + i));
+                boolean written = writer.append(1000L + i * 33, 90 * i, i == 1 ? FrameDataset.FLAG_DEVICE_MOVING : 0, frame, rowStride);
+                assertEquals(i < 2, written);
+            }
+        }
+
+        try (FrameDataset dataset = FrameDataset.open(file)) {
+            assertEquals(width, dataset.getWidth());
+            assertEquals(height, dataset.getHeight());
+            assertEquals(2, dataset.getFrameCount());
+            assertEquals(1033L, dataset.getTimestampMs(1));
+            assertEquals(90, dataset.getRotationDegrees(1));
+            assertEquals(0, dataset.getFlags(0));
+            assertEquals(FrameDataset.FLAG_DEVICE_MOVING, dataset.getFlags(1));
+            ByteBuffer pixels = dataset.getPixels(1);
+            assertEquals(width * height * 4, pixels.remaining());
+            // 두 번째 행은 여백(8바이트)을 건너뛴 위치에서 시작
+            assertEquals((byte) (rowStride + 1), pixels.get(width * 4));
+        }
+    }
+
+    @Test
+    public void datasetWithoutHeaderCount_readsCompleteFrames() throws IOException {
+        File file = File.createTempFile("replay", ".aief");
+        file.deleteOnExit();
+        int width = 4, height = 2;
+        ByteBuffer frame = ByteBuffer.allocateDirect(width * height * 4);
+        try (FrameDataset.Writer writer = new FrameDataset.Writer(file, width, height, 10)) {
+            for (int i = 0; i < 3; i++) writer.append(1000L + i * 33, 0, frame, width * 4);
+        }
+        // 녹화 중 앱 종료: 헤더 frameCount는 0이고 마지막 프레임은 쓰다 만 상태
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(20);
+            raw.writeInt(0);
+            raw.setLength(raw.length() - 5);
+        }
+
+        try (FrameDataset dataset = FrameDataset.open(file)) {
+            assertEquals(2, dataset.getFrameCount());
+            assertEquals(1033L, dataset.getTimestampMs(1));
+        }
+    }
+
+    @Test
+    public void replayRecordedFrames() throws Exception {
+        String datasetPath = System.getProperty("replay.dataset");
+        Assume.assumeTrue("replay.dataset이 없어 재생 테스트를 건너뜁니다", datasetPath != null && !datasetPath.isEmpty());
+        File modelFile = new File(System.getProperty("replay.model", "src/main/assets/1.tflite"));
+        int numThreads = Integer.parseInt(System.getProperty("replay.threads", "4"));
+
+        String[] labels = readLabels(modelFile);
+        HazardPolicyTable policies;
+        try (Reader reader = Files.newBufferedReader(new File("src/main/assets/" + HazardPolicyTable.ASSET_NAME).toPath())) {
+            policies = HazardPolicyTable.parse(reader);
+        }
+        InterpreterApi.Options options = new InterpreterApi.Options().setNumThreads(numThreads);
+
+        try (FrameDataset dataset = FrameDataset.open(new File(datasetPath));
+             InterpreterApi interpreter = InterpreterApi.create(modelFile, options)) {
+            Report report = replay(dataset, interpreter, labels, policies);
+            System.out.println(report);
+            assertTrue(report.framesTotal > 0);
+        }
+    }
+
+    private Report replay(FrameDataset dataset, InterpreterApi interpreter, String[] labels,
+                          HazardPolicyTable policies) {
+        Tensor input = interpreter.getInputTensor(0);
+        int inputHeight = input.shape()[1];
+        int inputWidth = input.shape()[2];
+        boolean quantized = input.dataType() == DataType.UINT8;
+        ByteBuffer inputBuffer = ByteBuffer.allocateDirect(inputWidth * inputHeight * 3 * (quantized ? 1 : 4))
+                .order(ByteOrder.nativeOrder());
+
+        int maxDetections = interpreter.getOutputTensor(0).shape()[1];
+        float[][][] locations = new float[1][maxDetections][4];
+        float[][] classes = new float[1][maxDetections];
+        float[][] scores = new float[1][maxDetections];
+        float[] count = new float[1];
+        Map<Integer, Object> outputs = new HashMap<>();
+        outputs.put(0, locations);
+        outputs.put(1, classes);
+        outputs.put(2, scores);
+        outputs.put(3, count);
+        Object[] inputs = {inputBuffer};
+
+        // 앱과 같은 설정
+        DetectionRateScheduler scheduler = new DetectionRateScheduler(5f, 10f, 1f, 3000);
+        // 센서 판단은 녹화할 때 유지 시간까지 반영된 값이라, 여기서는 그 프레임에만 움직임으로 표시 (유지 0)
+        DeviceMotionDetector deviceMotion = new DeviceMotionDetector(0.6f, 0.35f, 0);
+        MotionGateStage gate = new MotionGateStage(18, 0.02f, 1000, deviceMotion);
+        FrameQualityScorer qualityScorer = new FrameQualityScorer(160, 120, 30f, 90f);
+        BestFrameWindow<Candidate> bestFrameWindow = new BestFrameWindow<>(qualityScorer, 600, candidate -> { });
+        int pendingCloudPriority = 0;
+        boolean pendingApproaching = false;
+        HazardDecisionEngine engine = HazardDecisionEngine.createDefault(policies, new HazardEstimator());
+        SceneHashCache sceneCache = new SceneHashCache(8, 6, 30_000);
+        int[] hashSample = new int[SceneHashCache.HASH_WIDTH * 8 * SceneHashCache.HASH_HEIGHT * 8];
+
+        int width = dataset.getWidth();
+        int height = dataset.getHeight();
+        int[] sampleMap = null;
+        int sampleMapRotation = -1;
+
+        Report report = new Report();
+        report.framesTotal = dataset.getFrameCount();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < dataset.getFrameCount(); i++) {
+            long now = dataset.getTimestampMs(i);
+            // 앱과 같이 캡처 단계에서 품질 창 마감을 먼저 확인
+            boolean windowWasOpen = bestFrameWindow.isOpen();
+            Candidate expired = bestFrameWindow.poll(now);
+            if (expired != null) {
+                upload(dataset, expired, hashSample, sceneCache, now, report);
+            } else if (windowWasOpen && !bestFrameWindow.isOpen()) {
+                report.qualityDropped++;
+            }
+            if (!scheduler.shouldProcessFrame(now)) {
+                report.framesSkipped++;
+                continue;
+            }
+            int rotation = dataset.getRotationDegrees(i);
+            ByteBuffer pixels = dataset.getPixels(i);
+
+            long frameStart = System.nanoTime();
+            if ((dataset.getFlags(i) & FrameDataset.FLAG_DEVICE_MOVING) != 0) {
+                deviceMotion.onGyroscope(now * 1_000_000L, 1f, 0f, 0f);
+            }
+            if (!gate.hasCandidates(pixels, width, height, now)) {
+                report.framesGated++;
+                report.frameLatency.record(System.nanoTime() - frameStart);
+                continue;
+            }
+
+            float quality = qualityScorer.scoreRgba(pixels, width, height, width * 4);
+
+            if (rotation != sampleMapRotation) {
+                sampleMap = buildSampleMap(width, height, rotation, inputWidth, inputHeight);
+                sampleMapRotation = rotation;
+            }
+            long inferenceStart = System.nanoTime();
+            fillInput(pixels, sampleMap, inputBuffer, quantized);
+            interpreter.runForMultipleInputsOutputs(inputs, outputs);
+            long inferenceNanos = System.nanoTime() - inferenceStart;
+            report.inferenceLatency.record(inferenceNanos);
+
+            engine.beginFrame(now);
+            int found = Math.min(MAX_RESULTS, Math.min(maxDetections, (int) count[0]));
+            for (int d = 0; d < found; d++) {
+                if (scores[0][d] < SCORE_THRESHOLD) continue;
+                float[] box = locations[0][d];  // ymin, xmin, ymax, xmax (회전된 입력 기준 0~1)
+                int labelIndex = labelIndexOf(labels, (int) classes[0][d]);
+                engine.offerDetection(labelOf(labels, labelIndex), labelIndex, scores[0][d],
+                        clamp(box[1]), clamp(box[0]), clamp(box[3]), clamp(box[2]));
+            }
+            HazardDecisionEngine.Decision decision = engine.endFrame(now, rotation, true);
+            report.frameLatency.record(System.nanoTime() - frameStart);
+            report.framesDetected++;
+            scheduler.onInferenceFinished(inferenceNanos / 1_000_000L, decision.dangerSeen, now);
+
+            if (decision.warningText != null) {
+                report.localWarnings++;
+                report.warningLog.add(String.format(Locale.US, "%6dms  %s", now - dataset.getTimestampMs(0), decision.warningText));
+            }
+            // 앱과 같이 판단이 나면 품질 창을 열고, 창이 고른 프레임만 장면 캐시를 거쳐 업로드
+            if (decision.cloudCall) {
+                report.cloudDecisions[decision.cloudApproaching ? 1 : 0]++;
+                if (!bestFrameWindow.isOpen() || decision.cloudPriority > pendingCloudPriority) {
+                    pendingCloudPriority = decision.cloudPriority;
+                    pendingApproaching = decision.cloudApproaching;
+                }
+                bestFrameWindow.open(now);
+            }
+            if (bestFrameWindow.isOpen()) {
+                Candidate chosen = bestFrameWindow.offer(new Candidate(i, pendingApproaching), quality, now);
+                if (chosen != null) {
+                    upload(dataset, chosen, hashSample, sceneCache, now, report);
+                } else if (!bestFrameWindow.isOpen()) {
+                    report.qualityDropped++;
+                }
+            }
+        }
+        report.wallNanos = System.nanoTime() - wallStart;
+        if (report.framesTotal > 1) {
+            report.recordedMs = dataset.getTimestampMs(report.framesTotal - 1) - dataset.getTimestampMs(0);
+        }
+        report.qualitySummary = bestFrameWindow.toString();
+        return report;
+    }
+
+    /**
+     * 품질 창이 고른 프레임을 올림. 다가오는 트랙 때문이면 앱처럼 장면 캐시를 보지 않음
+     */
+    private static void upload(FrameDataset dataset, Candidate chosen, int[] hashSample, SceneHashCache sceneCache,
+                               long now, Report report) {
+        report.uploads++;
+        long hash = sceneHash(dataset.getPixels(chosen.index), dataset.getWidth(), dataset.getHeight(), hashSample);
+        if (!chosen.approaching && sceneCache.lookup(hash, 2, now) != null) {
+            report.cloudCacheHits++;
+        } else {
+            sceneCache.put(hash, 2, "replay", 0, now);
+        }
+    }
+
+    /** 품질 창에 넘기는 프레임 (앱의 EncodeJob 대신) */
+    private static class Candidate {
+        final int index;
+        final boolean approaching;
+
+        Candidate(int index, boolean approaching) {
+            this.index = index;
+            this.approaching = approaching;
+        }
+    }
+
+    /**
+     * 모델 입력 칸마다 원본 프레임의 어느 픽셀을 쓸지 미리 계산합니다. (회전 + 최근접 축소)
+     * 앱은 회전 후 Task 라이브러리가 이중선형으로 줄이므로 값이 조금 다를 수 있습니다.
+     */
+    static int[] buildSampleMap(int width, int height, int rotationDegrees, int inputWidth, int inputHeight) {
+        int rotationIndex = FrameBufferCache.rotationIndex(rotationDegrees);
+        int rotatedWidth = rotationIndex % 2 == 1 ? height : width;
+        int rotatedHeight = rotationIndex % 2 == 1 ? width : height;
+        int[] map = new int[inputWidth * inputHeight];
+        for (int oy = 0; oy < inputHeight; oy++) {
+            int ry = (2 * oy + 1) * rotatedHeight / (2 * inputHeight);
+            for (int ox = 0; ox < inputWidth; ox++) {
+                int rx = (2 * ox + 1) * rotatedWidth / (2 * inputWidth);
+                int sx, sy;
+                switch (rotationIndex) {
+                    case 1: sx = ry; sy = height - 1 - rx; break;               // 90도
+                    case 2: sx = width - 1 - rx; sy = height - 1 - ry; break;   // 180도
+                    case 3: sx = width - 1 - ry; sy = rx; break;                // 270도
+                    default: sx = rx; sy = ry; break;
+                }
+                map[oy * inputWidth + ox] = (sy * width + sx) * 4;
+            }
+        }
+        return map;
+    }
+
+    private static void fillInput(ByteBuffer rgba, int[] sampleMap, ByteBuffer input, boolean quantized) {
+        input.clear();
+        for (int offset : sampleMap) {
+            for (int c = 0; c < 3; c++) {
+                int value = rgba.get(offset + c) & 0xFF;
+                if (quantized) {
+                    input.put((byte) value);
+                } else {
+                    input.putFloat((value - 127.5f) / 127.5f);
+                }
+            }
+        }
+        input.rewind();
+    }
+
+    /**
+     * SceneHasher와 같은 72x64 축소 후 dHash (칸마다 가운데 픽셀)
+     */
+    private static long sceneHash(ByteBuffer rgba, int width, int height, int[] sample) {
+        int sampleWidth = SceneHashCache.HASH_WIDTH * 8;
+        int sampleHeight = SceneHashCache.HASH_HEIGHT * 8;
+        for (int y = 0; y < sampleHeight; y++) {
+            int sy = (2 * y + 1) * height / (2 * sampleHeight);
+            for (int x = 0; x < sampleWidth; x++) {
+                int sx = (2 * x + 1) * width / (2 * sampleWidth);
+                int offset = (sy * width + sx) * 4;
+                sample[y * sampleWidth + x] = 0xFF000000 | (rgba.get(offset) & 0xFF) << 16
+                        | (rgba.get(offset + 1) & 0xFF) << 8 | (rgba.get(offset + 2) & 0xFF);
+            }
+        }
+        return SceneHashCache.dHash(sample, sampleWidth, sampleHeight);
+    }
+
+    /**
+     * 모델 메타데이터(zip)에 들어 있는 labelmap.txt. 첫 줄이 "???"(배경)이면 클래스 번호를 하나 밀어서 씁니다.
+     */
+    private static String[] readLabels(File modelFile) throws IOException {
+        List<String> labels = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(modelFile)) {
+            ZipEntry entry = zip.getEntry("labelmap.txt");
+            if (entry == null) throw new IOException("모델에 labelmap.txt가 없습니다: " + modelFile);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) labels.add(line.trim());
+            }
+        }
+        return labels.toArray(new String[0]);
+    }
+
+    private static int labelIndexOf(String[] labels, int classIndex) {
+        return labels.length > 0 && "???".equals(labels[0]) ? classIndex + 1 : classIndex;
+    }
+
+    private static String labelOf(String[] labels, int index) {
+        return index >= 0 && index < labels.length ? labels[index] : Integer.toString(index);
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+
+    private static class Report {
+        int framesTotal;
+        int framesSkipped;      // 탐지 빈도 조절로 건너뜀
+        int framesGated;        // 1단계 게이트에서 걸러짐
+        int framesDetected;     // 탐지 모델까지 돈 프레임
+        int localWarnings;
+        final int[] cloudDecisions = new int[2];   // 새 트랙, 접근
+        int uploads;            // 품질 창이 고른 프레임
+        int qualityDropped;     // 창이 끝날 때까지 보낼 만한 프레임이 없었음
+        int cloudCacheHits;
+        String qualitySummary;
+        long wallNanos;
+        long recordedMs;
+        final LatencyHistogram frameLatency = new LatencyHistogram();
+        final LatencyHistogram inferenceLatency = new LatencyHistogram();
+        final List<String> warningLog = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            int cloudTotal = cloudDecisions[0] + cloudDecisions[1];
+            double wallSeconds = wallNanos / 1e9;
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "frames %d (녹화 %.1fs): 건너뜀 %d, 게이트 %d, 탐지 %d%n",
+                    framesTotal, recordedMs / 1000.0, framesSkipped, framesGated, framesDetected));
+            text.append(String.format(Locale.US, "처리 fps %.1f (탐지한 프레임 기준 %.1f)%n",
+                    (framesGated + framesDetected) / wallSeconds, framesDetected / wallSeconds));
+            appendLatency(text, "frame", frameLatency);
+            appendLatency(text, "inference", inferenceLatency);
+            text.append(String.format(Locale.US, "즉시 경고 %d회%n", localWarnings));
+            text.append(String.format(Locale.US, "클라우드 판단 %d회 (새 트랙 %d, 접근 %d) → 품질 창 선택 %d, 품질 미달 %d"
+                            + " → 장면 캐시 적중 %d, 실제 요청 %d회%n",
+                    cloudTotal, cloudDecisions[0], cloudDecisions[1], uploads, qualityDropped,
+                    cloudCacheHits, uploads - cloudCacheHits));
+            text.append("프레임 품질: ").append(qualitySummary).append('\n');
+            for (String line : warningLog) text.append("  ").append(line).append('\n');
+            return text.toString();
+        }
+
+        private static void appendLatency(StringBuilder text, String name, LatencyHistogram h) {
+            text.append(String.format(Locale.US, "%-9s mean %.2fms p50 %.2fms p95 %.2fms p99 %.2fms max %.2fms%n",
+                    name, h.getMeanMs(), h.percentileMs(50), h.percentileMs(95), h.percentileMs(99), h.getMaxMs()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SceneHashCacheTest {
+
+    private static final int W = 72;
+    private static final int H = 64;
+
+    /** 가로 밝기 물결 (주기가 다르면 다른 장면) */
+    private static int[] scene(double period, int noiseSeed) {
+        int[] argb = new int[W * H];
+        java.util.Random random = new java.util.Random(noiseSeed);
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int v = (int) (128 + 100 * Math.sin(x / period + y / 40.0)) + random.nextInt(5) - 2;
+                v = Math.max(0, Math.min(255, v));
+                argb[y * W + x] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        return argb;
+    }
+
+    @Test
+    public void dHash_sameSceneWithNoiseIsClose_differentSceneIsFar() {
+        long a = SceneHashCache.dHash(scene(6, 1), W, H);
+        long b = SceneHashCache.dHash(scene(6, 2), W, H);
+        long c = SceneHashCache.dHash(scene(13, 1), W, H);
+        assertTrue(Long.bitCount(a ^ b) <= 6);
+        assertTrue(Long.bitCount(a ^ c) > 6);
+    }
+
+    @Test
+    public void hitWithinDistance_missBeyond() {
+        SceneHashCache cache = new SceneHashCache(8, 6, 30_000);
+        long hash = 0x0F0F_0F0F_0F0F_0F0FL;
+        cache.put(hash, 1, "앞에 의자가 있습니다", 40_000, 0);
+
+        assertEquals("앞에 의자가 있습니다", cache.lookup(hash ^ 0b11_1111L, 1, 100));        // 6비트 차이
+        assertNull(cache.lookup(hash ^ 0b111_1111L, 1, 200));                            // 7비트 차이
+        assertNull("분석 단계가 다르면 재사용하지 않음", cache.lookup(hash, 2, 300));
+        assertEquals(3, cache.getLookupCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(40_000, cache.getSavedBytes());
+    }
+
+    @Test
+    public void closestEntryWins() {
+        SceneHashCache cache = new SceneHashCache(8, 6, 30_000);
+        cache.put(0b1111L, 1, "먼 장면", 1, 0);
+        cache.put(0b0001L, 1, "가까운 장면", 1, 0);
+        assertEquals("가까운 장면", cache.lookup(0L, 1, 10));
+    }
+
+    @Test
+    public void expiresAfterTtl_andReusesExpiredSlot() {
+        SceneHashCache cache = new SceneHashCache(2, 6, 30_000);
+        cache.put(1L, 1, "처음", 1, 0);
+        assertEquals("처음", cache.lookup(1L, 1, 30_000));
+        assertNull(cache.lookup(1L, 1, 30_001));
+
+        cache.put(2L, 1, "둘째", 1, 20_000);
+        cache.put(0xFFFF_0000L, 1, "셋째", 1, 40_000);   // 만료된 "처음" 자리를 씀
+        assertEquals("둘째", cache.lookup(2L, 1, 40_001));
+        assertEquals("셋째", cache.lookup(0xFFFF_0000L, 1, 40_002));
+    }
+
+    @Test
+    public void full_evictsLeastRecentlyUsed() {
+        SceneHashCache cache = new SceneHashCache(2, 2, 60_000);
+        cache.put(0L, 1, "A", 1, 0);
+        cache.put(0xFF00L, 1, "B", 1, 10);
+        cache.lookup(0L, 1, 20);                   // A를 최근에 씀
+        cache.put(0xFF_0000L, 1, "C", 1, 30);     // B를 덮어씀
+        assertEquals("A", cache.lookup(0L, 1, 40));
+        assertNull(cache.lookup(0xFF00L, 1, 50));
+        assertEquals("C", cache.lookup(0xFF_0000L, 1, 60));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SentenceChunkerTest {
+
+    private static List<String> feed(SentenceChunker chunker, String... deltas) {
+        List<String> sentences = new ArrayList<>();
+        for (String delta : deltas) {
+            chunker.append(delta);
+            String sentence;
+            while ((sentence = chunker.nextSentence()) != null) sentences.add(sentence);
+        }
+        return sentences;
+    }
+
+    @Test
+    public void firstSentence_isReadyBeforeStreamEnds() {
+        SentenceChunker chunker = new SentenceChunker();
+        List<String> sentences = feed(chunker, "주변을 설명해 ", "드릴게요.", " 한 팔 거리 앞에 계단이", " 있습니다. 계단은 총 5개");
+        assertEquals(2, sentences.size());
+        assertEquals("주변을 설명해 드릴게요.", sentences.get(0));
+        assertEquals("한 팔 거리 앞에 계단이 있습니다.", sentences.get(1));
+        assertEquals("계단은 총 5개", chunker.finish());
+        assertNull(chunker.finish());
+    }
+
+    @Test
+    public void decimalPoint_isNotSentenceEnd() {
+        SentenceChunker chunker = new SentenceChunker();
+        List<String> sentences = feed(chunker, "약 1.", "5미터 앞에 기둥. ", "조심하세요!");
+        assertEquals(1, sentences.size());
+        assertEquals("약 1.5미터 앞에 기둥.", sentences.get(0));
+        assertEquals("조심하세요!", chunker.finish());
+    }
+
+    @Test
+    public void newlineAndClosingQuote_endSentence() {
+        SentenceChunker chunker = new SentenceChunker();
+        List<String> sentences = feed(chunker, "\"멈추세요.\" 앞에 차가 있습니다\n", "오른쪽으로 ");
+        assertEquals(2, sentences.size());
+        assertEquals("\"멈추세요.\"", sentences.get(0));
+        assertEquals("앞에 차가 있습니다", sentences.get(1));
+        assertEquals("오른쪽으로", chunker.finish());
+    }
+}
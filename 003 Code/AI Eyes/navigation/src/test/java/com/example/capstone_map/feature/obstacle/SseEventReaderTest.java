@@ -0,0 +1,28 @@
+package com.example.capstone_map.feature.obstacle;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class SseEventReaderTest {
+
+    @Test
+    public void splitsEventsAndJoinsMultilineData() throws IOException {
+        String stream = ": keep-alive\n\n"
+                + "data: {\"delta\": \"주의\"}\n\n"
+                + "data: {\"delta\": \"하세요.\"}\n\n"
+                + "event: done\ndata: {\"result\":\ndata: \"주의하세요.\"}\n";
+        SseEventReader reader = new SseEventReader(new StringReader(stream));
+        SseEventReader.Event event = reader.next();
+        assertEquals("message", event.getName());
+        assertEquals("{\"delta\": \"주의\"}", event.getData());
+        assertEquals("{\"delta\": \"하세요.\"}", reader.next().getData());
+        event = reader.next();
+        assertEquals("done", event.getName());
+        assertEquals("{\"result\":\n\"주의하세요.\"}", event.getData());
+        assertNull(reader.next());
+    }
+}